@@ -0,0 +1,67 @@
+package com.diviso.inventory.aop.logging;
+
+/**
+ * Log argument rendering a value only when the log event is written, abbreviated to a maximum length.
+ * <p>
+ * The values are rendered with their toString(); a value which cannot be rendered, like an uninitialized lazy
+ * association out of its session, is rendered as its class name.
+ */
+final class Abbreviated {
+
+    private static final String ELLIPSIS = "...";
+
+    private final Object value;
+
+    private final boolean arguments;
+
+    private final int maxLength;
+
+    private Abbreviated(Object value, boolean arguments, int maxLength) {
+        this.value = value;
+        this.arguments = arguments;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @param value the value, rendered abbreviated to maxLength characters
+     */
+    static Abbreviated value(Object value, int maxLength) {
+        return new Abbreviated(value, false, maxLength);
+    }
+
+    /**
+     * @param arguments the arguments of a call, each rendered abbreviated to maxLength characters
+     */
+    static Abbreviated arguments(Object[] arguments, int maxLength) {
+        return new Abbreviated(arguments, true, maxLength);
+    }
+
+    @Override
+    public String toString() {
+        if (!arguments) {
+            return render(value);
+        }
+        Object[] values = (Object[]) value;
+        StringBuilder rendered = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                rendered.append(", ");
+            }
+            rendered.append(render(values[i]));
+        }
+        return rendered.append(']').toString();
+    }
+
+    private String render(Object value) {
+        String rendered;
+        try {
+            rendered = String.valueOf(value);
+        } catch (RuntimeException e) {
+            return "<" + value.getClass().getName() + ">";
+        }
+        if (rendered.length() <= maxLength) {
+            return rendered;
+        }
+        return rendered.substring(0, Math.max(0, maxLength - ELLIPSIS.length())) + ELLIPSIS;
+    }
+}
@@ -1,5 +1,7 @@
 package com.diviso.inventory.aop.logging;
 
+import com.diviso.inventory.config.ApplicationProperties;
+
 import io.github.jhipster.config.JHipsterConstants;
 
 import org.aspectj.lang.JoinPoint;
@@ -8,16 +10,19 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 
-import java.util.Arrays;
-
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile, see application.logging-aspect.
+ * <p>
+ * The calls are traced at debug level, following the {@link Tracing} settings, which can be changed at runtime.
+ * A call which is not traced only costs a read of the settings; the arguments and results of a traced call are
+ * only rendered when the log event is written, abbreviated.
  */
 @Aspect
 public class LoggingAspect {
@@ -26,8 +31,21 @@ public class LoggingAspect {
 
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private volatile Tracing tracing;
+
+    public LoggingAspect(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        ApplicationProperties.LoggingAspect loggingAspect = applicationProperties.getLoggingAspect();
+        this.tracing = new Tracing(loggingAspect.isTracing(), loggingAspect.getSampleRate(),
+            loggingAspect.getMaxArgumentLength(), loggingAspect.getIncludes(), loggingAspect.getExcludes());
+    }
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    public void setTracing(Tracing tracing) {
+        this.tracing = tracing;
     }
 
     /**
@@ -77,19 +95,23 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        Tracing tracing = this.tracing;
+        String name = null;
+        if (tracing.isEnabled() && log.isDebugEnabled()) {
+            name = tracing.sample(((MethodSignature) joinPoint.getSignature()).getMethod());
+        }
+        if (name != null) {
+            log.debug("Enter: {}() with argument[s] = {}", name,
+                Abbreviated.arguments(joinPoint.getArgs(), tracing.getMaxArgumentLength()));
         }
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                    joinPoint.getSignature().getName(), result);
+            if (name != null) {
+                log.debug("Exit: {}() with result = {}", name, Abbreviated.value(result, tracing.getMaxArgumentLength()));
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
+            log.error("Illegal argument: {} in {}.{}()", Abbreviated.arguments(joinPoint.getArgs(), tracing.getMaxArgumentLength()),
                 joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
 
             throw e;
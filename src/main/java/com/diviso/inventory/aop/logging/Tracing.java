@@ -0,0 +1,103 @@
+package com.diviso.inventory.aop.logging;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Settings of the tracing of the {@link LoggingAspect}, which methods are traced and how.
+ * <p>
+ * A method is traced if its name, "type.method" with the simple or the fully qualified name of its declaring
+ * type, starts with one of the includes, if any, and with none of the excludes. Whether a method is traced is
+ * decided on its first call, then kept with the settings, which are immutable: they are replaced as a whole when
+ * they change.
+ */
+public final class Tracing {
+
+    private static final String NOT_TRACED = "";
+
+    private final boolean enabled;
+
+    private final double sampleRate;
+
+    private final int maxArgumentLength;
+
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    private final ConcurrentMap<Method, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * @param enabled whether methods are traced at all
+     * @param sampleRate the share of the calls of a traced method which are logged, between 0 and 1
+     * @param maxArgumentLength the length at which the arguments and results are abbreviated in the logs
+     * @param includes the prefixes of the names of the traced methods, all of them being traced if it is empty
+     * @param excludes the prefixes of the names of the methods which are not traced
+     */
+    public Tracing(boolean enabled, double sampleRate, int maxArgumentLength, List<String> includes,
+            List<String> excludes) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.maxArgumentLength = maxArgumentLength;
+        this.includes = Collections.unmodifiableList(new ArrayList<>(includes));
+        this.excludes = Collections.unmodifiableList(new ArrayList<>(excludes));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getMaxArgumentLength() {
+        return maxArgumentLength;
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Decide whether a call is logged.
+     *
+     * @param method the called method
+     * @return the name of the method if the call is logged, or null
+     */
+    String sample(Method method) {
+        String name = names.get(method);
+        if (name == null) {
+            name = isTraced(method) ? method.getDeclaringClass().getName() + "." + method.getName() : NOT_TRACED;
+            names.putIfAbsent(method, name);
+        }
+        if (name.isEmpty() || sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return name;
+    }
+
+    private boolean isTraced(Method method) {
+        String name = method.getDeclaringClass().getName() + "." + method.getName();
+        String simpleName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return (includes.isEmpty() || matches(includes, name, simpleName)) && !matches(excludes, name, simpleName);
+    }
+
+    private static boolean matches(List<String> prefixes, String name, String simpleName) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix) || simpleName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package com.diviso.inventory.aop.metrics;
+
+import com.diviso.inventory.config.metrics.SqlMetrics;
+
+import com.codahale.metrics.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Aspect timing the calls of the Spring Data repositories, in a timer per repository method of the {@link SqlMetrics}.
+ * <p>
+ * The inherited methods, like findOne(), are timed per repository. The repository method being called is also
+ * recorded, to name it in the slow statement log.
+ */
+@Aspect
+public class RepositoryMetricsAspect {
+
+    private final SqlMetrics sqlMetrics;
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, RepositoryMethod>> repositoryMethods =
+        new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    /**
+     * Advice that times a repository method.
+     *
+     * @param joinPoint join point for advice
+     * @return result
+     * @throws Throwable throws exception of the repository method
+     */
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepositoryMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryMethod repositoryMethod = repositoryMethod(joinPoint);
+        String caller = sqlMetrics.enterRepository(repositoryMethod.name);
+        Timer.Context time = repositoryMethod.timer.time();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            time.stop();
+            sqlMetrics.exitRepository(caller);
+        }
+    }
+
+    private RepositoryMethod repositoryMethod(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        ConcurrentMap<Method, RepositoryMethod> methods = repositoryMethods.get(target.getClass());
+        if (methods == null) {
+            methods = new ConcurrentHashMap<>();
+            ConcurrentMap<Method, RepositoryMethod> existing = repositoryMethods.putIfAbsent(target.getClass(), methods);
+            if (existing != null) {
+                methods = existing;
+            }
+        }
+        RepositoryMethod repositoryMethod = methods.get(method);
+        if (repositoryMethod == null) {
+            Class<?> repository = repositoryInterface(target);
+            repositoryMethod = new RepositoryMethod(repository.getSimpleName() + "." + method.getName(),
+                sqlMetrics.repositoryTimer(repository, method.getName()));
+            methods.putIfAbsent(method, repositoryMethod);
+        }
+        return repositoryMethod;
+    }
+
+    private static Class<?> repositoryInterface(Object target) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(target)) {
+            if (Repository.class.isAssignableFrom(type)) {
+                return type;
+            }
+        }
+        return target.getClass();
+    }
+
+    private static class RepositoryMethod {
+
+        private final String name;
+
+        private final Timer timer;
+
+        RepositoryMethod(String name, Timer timer) {
+            this.name = name;
+            this.timer = timer;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.diviso.inventory.aop.retry;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.service.StaleVersionException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aspect running {@link RetryOnConflict} methods again when they lose an optimistic lock or a row lock.
+ *
+ * It is ordered just before the transaction advice so that every attempt runs in its own transaction, and waits
+ * a random, exponentially growing interval between attempts so that colliding writers spread out. Calls made
+ * inside an enclosing transaction are not retried, as that transaction is already marked for rollback.
+ * A version sent by the client that no longer matches is reported straight away.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+
+    private final RetryTemplate retryTemplate = new RetryTemplate();
+
+    public ConflictRetryAspect(ApplicationProperties applicationProperties, RetryListener conflictRetryListener) {
+        ApplicationProperties.ConflictRetry conflictRetry = applicationProperties.getConflictRetry();
+        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
+        retryableExceptions.put(ConcurrencyFailureException.class, true);
+        retryableExceptions.put(StaleVersionException.class, false);
+        retryTemplate.setRetryPolicy(new SimpleRetryPolicy(conflictRetry.getMaxAttempts(), retryableExceptions));
+        ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(conflictRetry.getInitialInterval());
+        backOffPolicy.setMultiplier(conflictRetry.getMultiplier());
+        backOffPolicy.setMaxInterval(conflictRetry.getMaxInterval());
+        retryTemplate.setBackOffPolicy(backOffPolicy);
+        retryTemplate.registerListener(conflictRetryListener);
+        retryTemplate.setThrowLastExceptionOnExhausted(true);
+    }
+
+    /**
+     * Advice that runs the method until it succeeds, fails with a non retryable exception or runs out of attempts.
+     *
+     * @param joinPoint join point for advice
+     * @param retryOnConflict the annotation of the method
+     * @return result of the last attempt
+     * @throws Throwable the exception of the last attempt
+     */
+    @Around("@annotation(retryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return retryTemplate.execute((RetryCallback<Object, Throwable>) context -> {
+            context.setAttribute(RetryContext.NAME, retryOnConflict.value());
+            return joinPoint.proceed();
+        });
+    }
+}
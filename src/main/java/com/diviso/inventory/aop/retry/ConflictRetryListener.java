@@ -0,0 +1,60 @@
+package com.diviso.inventory.aop.retry;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+/**
+ * Retry listener publishing the conflicts seen by {@link RetryOnConflict} methods.
+ *
+ * For each method it marks the "conflicts", "retries" and "failures" meters under
+ * "conflict-retry.&lt;name&gt;", and for each entity losing an optimistic lock the
+ * "conflicts" meter under "optimistic-lock.&lt;entity&gt;". The ids of the conflicting
+ * rows are logged at debug level, and a call still failing after its last attempt is logged at warn level.
+ */
+public class ConflictRetryListener extends RetryListenerSupport {
+
+    private final Logger log = LoggerFactory.getLogger(ConflictRetryListener.class);
+
+    private final MetricRegistry metricRegistry;
+
+    public ConflictRetryListener(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        String name = (String) context.getAttribute(RetryContext.NAME);
+        metricRegistry.meter(MetricRegistry.name("conflict-retry", name, "conflicts")).mark();
+        if (throwable instanceof ObjectOptimisticLockingFailureException) {
+            ObjectOptimisticLockingFailureException exception = (ObjectOptimisticLockingFailureException) throwable;
+            metricRegistry.meter(MetricRegistry.name("optimistic-lock", exception.getPersistentClassName(), "conflicts"))
+                .mark();
+            log.debug("Conflict #{} in {} on {} with id {}", context.getRetryCount(), name,
+                exception.getPersistentClassName(), exception.getIdentifier());
+        } else {
+            log.debug("Conflict #{} in {}: {}", context.getRetryCount(), name, throwable.getMessage());
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (context.getRetryCount() == 0) {
+            return;
+        }
+        String name = (String) context.getAttribute(RetryContext.NAME);
+        int retries = throwable == null ? context.getRetryCount() : context.getRetryCount() - 1;
+        if (retries > 0) {
+            metricRegistry.meter(MetricRegistry.name("conflict-retry", name, "retries")).mark(retries);
+        }
+        if (throwable != null) {
+            metricRegistry.meter(MetricRegistry.name("conflict-retry", name, "failures")).mark();
+            log.warn("{} gave up after {} conflicts: {}", name, context.getRetryCount(), throwable.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.diviso.inventory.aop.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method to be run again, in a new transaction, when it fails with a
+ * {@link org.springframework.dao.ConcurrencyFailureException}.
+ *
+ * @see ConflictRetryAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+    /**
+     * @return the name the conflicts and retries of the method are reported under
+     */
+    String value();
+}
@@ -1,7 +1,14 @@
 package com.diviso.inventory.config;
 
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Properties specific to Inventory.
  * <p>
@@ -11,4 +18,586 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final ConflictRetry conflictRetry = new ConflictRetry();
+
+    private final BlobStore blobStore = new BlobStore();
+
+    private final ProductImport productImport = new ProductImport();
+
+    private final QueryCache queryCache = new QueryCache();
+
+    private final EntityCache entityCache = new EntityCache();
+
+    private final LoggingAspect loggingAspect = new LoggingAspect();
+
+    private final SqlMetrics sqlMetrics = new SqlMetrics();
+
+    private final StockLedger stockLedger = new StockLedger();
+
+    private final Reservation reservation = new Reservation();
+
+    private final Expiry expiry = new Expiry();
+
+    public ConflictRetry getConflictRetry() {
+        return conflictRetry;
+    }
+
+    public BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    public ProductImport getProductImport() {
+        return productImport;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public LoggingAspect getLoggingAspect() {
+        return loggingAspect;
+    }
+
+    public SqlMetrics getSqlMetrics() {
+        return sqlMetrics;
+    }
+
+    public StockLedger getStockLedger() {
+        return stockLedger;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    public static class ConflictRetry {
+
+        private int maxAttempts = 4;
+
+        private long initialInterval = 20;
+
+        private double multiplier = 2;
+
+        private long maxInterval = 200;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialInterval() {
+            return initialInterval;
+        }
+
+        public void setInitialInterval(long initialInterval) {
+            this.initialInterval = initialInterval;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public long getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(long maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+    }
+
+    public static class BlobStore {
+
+        private String directory = "blobs";
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    public static class ProductImport {
+
+        private int chunkSize = 1000;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class QueryCache {
+
+        private int timeToLiveSeconds = 300;
+
+        private int maxSize = 1000;
+
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Get the time to live of a region.
+         *
+         * @param name the name of the region, without the prefix of the query cache regions
+         * @return the time to live of the region, in seconds
+         */
+        public int getTimeToLiveSeconds(String name) {
+            Region region = regions.get(name);
+            return region == null || region.getTimeToLiveSeconds() == null ? timeToLiveSeconds
+                : region.getTimeToLiveSeconds();
+        }
+
+        /**
+         * Get the maximum number of results of a region.
+         *
+         * @param name the name of the region, without the prefix of the query cache regions
+         * @return the maximum number of results of the region, per node
+         */
+        public int getMaxSize(String name) {
+            Region region = regions.get(name);
+            return region == null || region.getMaxSize() == null ? maxSize : region.getMaxSize();
+        }
+
+        public static class Region {
+
+            private Integer timeToLiveSeconds;
+
+            private Integer maxSize;
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Integer getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(Integer maxSize) {
+                this.maxSize = maxSize;
+            }
+        }
+    }
+
+    public static class EntityCache {
+
+        private boolean nearCache = false;
+
+        private InMemoryFormat inMemoryFormat = InMemoryFormat.BINARY;
+
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+        private int maxSize = 10000;
+
+        private Integer backupCount;
+
+        private Integer timeToLiveSeconds;
+
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        public boolean isNearCache() {
+            return nearCache;
+        }
+
+        public void setNearCache(boolean nearCache) {
+            this.nearCache = nearCache;
+        }
+
+        public InMemoryFormat getInMemoryFormat() {
+            return inMemoryFormat;
+        }
+
+        public void setInMemoryFormat(InMemoryFormat inMemoryFormat) {
+            this.inMemoryFormat = inMemoryFormat;
+        }
+
+        public EvictionPolicy getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Integer getBackupCount() {
+            return backupCount;
+        }
+
+        public void setBackupCount(Integer backupCount) {
+            this.backupCount = backupCount;
+        }
+
+        public Integer getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Get the settings of a region, its overrides completed with the defaults.
+         *
+         * @param name the name of the region, relative to the domain package, or null for the defaults
+         * @return the settings of the region; the backup count and the time to live are null when they are not set
+         */
+        public Region resolve(String name) {
+            Region region = name == null ? null : regions.get(name);
+            Region resolved = new Region();
+            resolved.setNearCache(region == null || region.getNearCache() == null ? nearCache : region.getNearCache());
+            resolved.setInMemoryFormat(region == null || region.getInMemoryFormat() == null ? inMemoryFormat
+                : region.getInMemoryFormat());
+            resolved.setEvictionPolicy(region == null || region.getEvictionPolicy() == null ? evictionPolicy
+                : region.getEvictionPolicy());
+            resolved.setMaxSize(region == null || region.getMaxSize() == null ? maxSize : region.getMaxSize());
+            resolved.setBackupCount(region == null || region.getBackupCount() == null ? backupCount
+                : region.getBackupCount());
+            resolved.setTimeToLiveSeconds(region == null || region.getTimeToLiveSeconds() == null ? timeToLiveSeconds
+                : region.getTimeToLiveSeconds());
+            return resolved;
+        }
+
+        public static class Region {
+
+            private Boolean nearCache;
+
+            private InMemoryFormat inMemoryFormat;
+
+            private EvictionPolicy evictionPolicy;
+
+            private Integer maxSize;
+
+            private Integer backupCount;
+
+            private Integer timeToLiveSeconds;
+
+            public Boolean getNearCache() {
+                return nearCache;
+            }
+
+            public void setNearCache(Boolean nearCache) {
+                this.nearCache = nearCache;
+            }
+
+            public InMemoryFormat getInMemoryFormat() {
+                return inMemoryFormat;
+            }
+
+            public void setInMemoryFormat(InMemoryFormat inMemoryFormat) {
+                this.inMemoryFormat = inMemoryFormat;
+            }
+
+            public EvictionPolicy getEvictionPolicy() {
+                return evictionPolicy;
+            }
+
+            public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+                this.evictionPolicy = evictionPolicy;
+            }
+
+            public Integer getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(Integer maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public Integer getBackupCount() {
+                return backupCount;
+            }
+
+            public void setBackupCount(Integer backupCount) {
+                this.backupCount = backupCount;
+            }
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class LoggingAspect {
+
+        private boolean enabled = false;
+
+        private boolean tracing = true;
+
+        private double sampleRate = 1;
+
+        private int maxArgumentLength = 200;
+
+        private List<String> includes = new ArrayList<>();
+
+        private List<String> excludes = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isTracing() {
+            return tracing;
+        }
+
+        public void setTracing(boolean tracing) {
+            this.tracing = tracing;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public int getMaxArgumentLength() {
+            return maxArgumentLength;
+        }
+
+        public void setMaxArgumentLength(int maxArgumentLength) {
+            this.maxArgumentLength = maxArgumentLength;
+        }
+
+        public List<String> getIncludes() {
+            return includes;
+        }
+
+        public void setIncludes(List<String> includes) {
+            this.includes = includes;
+        }
+
+        public List<String> getExcludes() {
+            return excludes;
+        }
+
+        public void setExcludes(List<String> excludes) {
+            this.excludes = excludes;
+        }
+    }
+
+    public static class SqlMetrics {
+
+        private boolean enabled = true;
+
+        private long slowStatementThreshold = 200;
+
+        private int maxParameterLength = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSlowStatementThreshold() {
+            return slowStatementThreshold;
+        }
+
+        public void setSlowStatementThreshold(long slowStatementThreshold) {
+            this.slowStatementThreshold = slowStatementThreshold;
+        }
+
+        public int getMaxParameterLength() {
+            return maxParameterLength;
+        }
+
+        public void setMaxParameterLength(int maxParameterLength) {
+            this.maxParameterLength = maxParameterLength;
+        }
+    }
+
+    public static class StockLedger {
+
+        private long snapshotInterval = 60000;
+
+        private long snapshotGracePeriod = 60000;
+
+        private int foldBatchSize = 1000;
+
+        public long getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(long snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+
+        public long getSnapshotGracePeriod() {
+            return snapshotGracePeriod;
+        }
+
+        public void setSnapshotGracePeriod(long snapshotGracePeriod) {
+            this.snapshotGracePeriod = snapshotGracePeriod;
+        }
+
+        public int getFoldBatchSize() {
+            return foldBatchSize;
+        }
+
+        public void setFoldBatchSize(int foldBatchSize) {
+            this.foldBatchSize = foldBatchSize;
+        }
+    }
+
+    public static class Reservation {
+
+        private long defaultTtl = 900000;
+
+        private long maxTtl = 86400000;
+
+        private long tick = 1000;
+
+        private int buckets = 4096;
+
+        private long flushInterval = 1000;
+
+        private int batchSize = 500;
+
+        public long getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(long defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+
+        public long getMaxTtl() {
+            return maxTtl;
+        }
+
+        public void setMaxTtl(long maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        public long getTick() {
+            return tick;
+        }
+
+        public void setTick(long tick) {
+            this.tick = tick;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(int buckets) {
+            this.buckets = buckets;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Expiry {
+
+        private long sweepInterval = 3600000;
+
+        private int batchSize = 500;
+
+        public long getSweepInterval() {
+            return sweepInterval;
+        }
+
+        public void setSweepInterval(long sweepInterval) {
+            this.sweepInterval = sweepInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
 }
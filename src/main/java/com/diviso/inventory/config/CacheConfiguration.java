@@ -1,5 +1,7 @@
 package com.diviso.inventory.config;
 
+import com.diviso.inventory.repository.QueryCacheRegions;
+
 import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.JHipsterProperties;
 
@@ -30,6 +32,11 @@ import javax.annotation.PreDestroy;
 @AutoConfigureBefore(value = { WebConfigurer.class, DatabaseConfiguration.class })
 public class CacheConfiguration {
 
+    /**
+     * The prefix of the names of the second level cache regions, and of their Hazelcast maps.
+     */
+    public static final String DOMAIN_PACKAGE = "com.diviso.inventory.domain.";
+
     private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
 
     private final Environment env;
@@ -65,7 +72,8 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties,
+            ApplicationProperties applicationProperties) {
         log.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("Inventory");
         if (hazelCastInstance != null) {
@@ -108,7 +116,16 @@ public class CacheConfiguration {
 
         // Full reference is available at: http://docs.hazelcast.org/docs/management-center/3.9/manual/html/Deploying_and_Starting.html
         config.setManagementCenterConfig(initializeDefaultManagementCenterConfig(jHipsterProperties));
-        config.getMapConfigs().put("com.diviso.inventory.domain.*", initializeDomainMapConfig(jHipsterProperties));
+        ApplicationProperties.EntityCache entityCache = applicationProperties.getEntityCache();
+        config.getMapConfigs().put(DOMAIN_PACKAGE + "*",
+            initializeDomainMapConfig(DOMAIN_PACKAGE + "*", entityCache.resolve(null), jHipsterProperties));
+        for (String region : entityCache.getRegions().keySet()) {
+            config.getMapConfigs().put(DOMAIN_PACKAGE + region,
+                initializeDomainMapConfig(DOMAIN_PACKAGE + region, entityCache.resolve(region), jHipsterProperties));
+        }
+        for (String region : QueryCacheRegions.ALL) {
+            config.getMapConfigs().put(region, initializeQueryMapConfig(region, applicationProperties.getQueryCache()));
+        }
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -150,9 +167,54 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
-    private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties) {
-        MapConfig mapConfig = new MapConfig();
-        mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds());
+    /**
+     * Configure the map of a second level cache region.
+     * <p>
+     * The time to live and the backup count default to those of jhipster.cache.hazelcast. With a near cache, the
+     * entries read by a node are kept on it deserialized, so that a hit does not cost a call to the partition
+     * owning the entry, which is another node for most of the entries of a cluster; they are invalidated when the
+     * entry changes on any node.
+     *
+     * @param name the name of the map, which may be a wildcard
+     * @param settings the resolved settings of the region
+     * @param jHipsterProperties the defaults of the Hazelcast maps
+     * @return the map configuration
+     */
+    public static MapConfig initializeDomainMapConfig(String name, ApplicationProperties.EntityCache.Region settings,
+            JHipsterProperties jHipsterProperties) {
+        JHipsterProperties.Cache.Hazelcast hazelcast = jHipsterProperties.getCache().getHazelcast();
+        int timeToLiveSeconds = settings.getTimeToLiveSeconds() == null ? hazelcast.getTimeToLiveSeconds()
+            : settings.getTimeToLiveSeconds();
+        MapConfig mapConfig = new MapConfig(name);
+        mapConfig.setTimeToLiveSeconds(timeToLiveSeconds);
+        mapConfig.setBackupCount(settings.getBackupCount() == null ? hazelcast.getBackupCount() : settings.getBackupCount());
+        mapConfig.setInMemoryFormat(settings.getInMemoryFormat());
+        mapConfig.setEvictionPolicy(settings.getEvictionPolicy());
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(settings.getMaxSize(), MaxSizeConfig.MaxSizePolicy.PER_NODE));
+        if (Boolean.TRUE.equals(settings.getNearCache())) {
+            NearCacheConfig nearCacheConfig = new NearCacheConfig(name);
+            nearCacheConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+            nearCacheConfig.setInvalidateOnChange(true);
+            nearCacheConfig.setCacheLocalEntries(true);
+            nearCacheConfig.setTimeToLiveSeconds(timeToLiveSeconds);
+            nearCacheConfig.setEvictionConfig(new EvictionConfig(settings.getMaxSize(),
+                EvictionConfig.MaxSizePolicy.ENTRY_COUNT, settings.getEvictionPolicy()));
+            mapConfig.setNearCacheConfig(nearCacheConfig);
+        }
+        return mapConfig;
+    }
+
+    /*
+        The query cache regions are local to each node, the Hibernate timestamps
+        region invalidating them across the cluster: only their time to live
+        and their size, in number of cached queries, apply.
+     */
+    private MapConfig initializeQueryMapConfig(String region, ApplicationProperties.QueryCache queryCache) {
+        String name = region.substring(QueryCacheRegions.PREFIX.length());
+        MapConfig mapConfig = new MapConfig(region);
+        mapConfig.setTimeToLiveSeconds(queryCache.getTimeToLiveSeconds(name));
+        mapConfig.setEvictionPolicy(EvictionPolicy.LRU);
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(queryCache.getMaxSize(name), MaxSizeConfig.MaxSizePolicy.PER_NODE));
         return mapConfig;
     }
 }
@@ -0,0 +1,26 @@
+package com.diviso.inventory.config;
+
+import com.diviso.inventory.aop.retry.ConflictRetryAspect;
+import com.diviso.inventory.aop.retry.ConflictRetryListener;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class ConflictRetryConfiguration {
+
+    @Bean
+    public ConflictRetryListener conflictRetryListener(MetricRegistry metricRegistry) {
+        return new ConflictRetryListener(metricRegistry);
+    }
+
+    @Bean
+    public ConflictRetryAspect conflictRetryAspect(ApplicationProperties applicationProperties,
+            ConflictRetryListener conflictRetryListener) {
+        return new ConflictRetryAspect(applicationProperties, conflictRetryListener);
+    }
+}
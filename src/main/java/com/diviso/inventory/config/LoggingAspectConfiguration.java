@@ -2,8 +2,7 @@ package com.diviso.inventory.config;
 
 import com.diviso.inventory.aop.logging.LoggingAspect;
 
-import io.github.jhipster.config.JHipsterConstants;
-
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 
@@ -11,9 +10,13 @@ import org.springframework.core.env.Environment;
 @EnableAspectJAutoProxy
 public class LoggingAspectConfiguration {
 
+    /**
+     * The aspect proxies every repository, service and REST endpoint, so it is only created when it is enabled: the
+     * "dev" profile enables it.
+     */
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @ConditionalOnProperty(prefix = "application.logging-aspect", name = "enabled", havingValue = "true")
+    public LoggingAspect loggingAspect(Environment env, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, applicationProperties);
     }
 }
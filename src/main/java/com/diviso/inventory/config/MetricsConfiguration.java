@@ -27,7 +27,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.*;
 
 import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
 import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -56,8 +58,11 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
     }
 
     @Autowired(required = false)
-    public void setHikariDataSource(HikariDataSource hikariDataSource) {
-        this.hikariDataSource = hikariDataSource;
+    public void setDataSource(DataSource dataSource) throws SQLException {
+        // The DataSource may be wrapped, see SqlMetricsConfiguration
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            this.hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+        }
     }
 
     @Override
@@ -0,0 +1,90 @@
+package com.diviso.inventory.config;
+
+import com.diviso.inventory.aop.metrics.RepositoryMetricsAspect;
+import com.diviso.inventory.config.metrics.DataSourceMetricsInterceptor;
+import com.diviso.inventory.config.metrics.SqlMetrics;
+import com.diviso.inventory.config.metrics.SqlMetricsFilter;
+
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics of the SQL statements and of the repository methods, see {@link SqlMetrics}.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.sql-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsConfiguration {
+
+    @Bean
+    public SqlMetrics sqlMetrics(MetricRegistry metricRegistry, ApplicationProperties applicationProperties) {
+        return new SqlMetrics(metricRegistry, applicationProperties);
+    }
+
+    @Bean
+    public RepositoryMetricsAspect repositoryMetricsAspect(SqlMetrics sqlMetrics) {
+        return new RepositoryMetricsAspect(sqlMetrics);
+    }
+
+    @Bean
+    public FilterRegistrationBean sqlMetricsFilter(SqlMetrics sqlMetrics) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(new SqlMetricsFilter(sqlMetrics));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Instruments the DataSource, see {@link DataSourceMetricsInterceptor#proxy}.
+     * <p>
+     * It is static, as a post-processor, and gets the SqlMetrics lazily, as they depend on the metric registry,
+     * which depends on the DataSource. It is declared with its own type, so that its priority is known before it
+     * is created.
+     */
+    @Bean
+    public static InstrumentedDataSourcePostProcessor instrumentedDataSourcePostProcessor(
+            ObjectFactory<SqlMetrics> sqlMetrics) {
+        return new InstrumentedDataSourcePostProcessor(sqlMetrics);
+    }
+
+    /**
+     * Post-processor with a priority, so that it is registered before the metrics post-processors, which create the
+     * DataSource through the MetricsConfiguration. It runs first, so that the post-processors after it, such as the
+     * DataSource initializer, get the instrumented DataSource.
+     */
+    static class InstrumentedDataSourcePostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final ObjectFactory<SqlMetrics> sqlMetrics;
+
+        InstrumentedDataSourcePostProcessor(ObjectFactory<SqlMetrics> sqlMetrics) {
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource && !DataSourceMetricsInterceptor.isInstrumented(bean)) {
+                return DataSourceMetricsInterceptor.proxy((DataSource) bean, sqlMetrics);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.diviso.inventory.config.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interceptor of the getConnection methods of a DataSource, reporting the statements run on the connections to the
+ * {@link SqlMetrics}, with their latency and bind parameters.
+ * <p>
+ * The connections and statements are wrapped in proxies; the statements are timed around their execute methods,
+ * which covers Hibernate, the JdbcTemplate and Liquibase alike. The SqlMetrics are only looked up on the first
+ * connection, as the metric registry depends on the DataSource.
+ * <p>
+ * A DataSource is instrumented with {@link #proxy}, a proxy of its own class advised by this interceptor, so that
+ * it is still the pool, with its configuration and management interfaces, for the code which needs it.
+ */
+public class DataSourceMetricsInterceptor implements MethodInterceptor {
+
+    private final ObjectFactory<SqlMetrics> sqlMetricsFactory;
+
+    private volatile SqlMetrics sqlMetrics;
+
+    public DataSourceMetricsInterceptor(ObjectFactory<SqlMetrics> sqlMetricsFactory) {
+        this.sqlMetricsFactory = sqlMetricsFactory;
+    }
+
+    /**
+     * Instrument a DataSource with a proxy of its own class.
+     *
+     * @param dataSource the DataSource, whose class must not be final
+     * @param sqlMetricsFactory the factory of the SqlMetrics, called on the first connection
+     * @return the proxy, which is an instance of the class of the DataSource
+     */
+    public static DataSource proxy(DataSource dataSource, ObjectFactory<SqlMetrics> sqlMetricsFactory) {
+        ProxyFactory proxyFactory = new ProxyFactory(dataSource);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new DataSourceMetricsInterceptor(sqlMetricsFactory));
+        return (DataSource) proxyFactory.getProxy(dataSource.getClass().getClassLoader());
+    }
+
+    /**
+     * @param bean a bean
+     * @return whether the bean is a proxy already advised by a DataSourceMetricsInterceptor
+     */
+    public static boolean isInstrumented(Object bean) {
+        if (!(bean instanceof Advised)) {
+            return false;
+        }
+        for (Advisor advisor : ((Advised) bean).getAdvisors()) {
+            if (advisor.getAdvice() instanceof DataSourceMetricsInterceptor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof Connection && invocation.getMethod().getName().equals("getConnection")) {
+            return instrument((Connection) result);
+        }
+        return result;
+    }
+
+    private Connection instrument(Connection connection) {
+        if (sqlMetrics == null) {
+            sqlMetrics = sqlMetricsFactory.getObject();
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            new ConnectionHandler(connection, sqlMetrics));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private final SqlMetrics sqlMetrics;
+
+        ConnectionHandler(Connection connection, SqlMetrics sqlMetrics) {
+            this.connection = connection;
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = DataSourceMetricsInterceptor.invoke(connection, method, args);
+            Class<?> type;
+            String sql = null;
+            switch (method.getName()) {
+                case "createStatement":
+                    type = Statement.class;
+                    break;
+                case "prepareStatement":
+                    type = PreparedStatement.class;
+                    sql = (String) args[0];
+                    break;
+                case "prepareCall":
+                    type = CallableStatement.class;
+                    sql = (String) args[0];
+                    break;
+                default:
+                    return result;
+            }
+            return Proxy.newProxyInstance(DataSourceMetricsInterceptor.class.getClassLoader(), new Class<?>[] {type},
+                new StatementHandler((Statement) result, (Connection) proxy, sql, sqlMetrics));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        private final Connection connection;
+
+        private final SqlMetrics sqlMetrics;
+
+        private String sql;
+
+        private List<Object> parameters;
+
+        StatementHandler(Statement statement, Connection connection, String sql, SqlMetrics sqlMetrics) {
+            this.statement = statement;
+            this.connection = connection;
+            this.sql = sql;
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                long start = System.nanoTime();
+                try {
+                    return DataSourceMetricsInterceptor.invoke(statement, method, args);
+                } finally {
+                    sqlMetrics.statementExecuted(executed, parameters, System.nanoTime() - start);
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("addBatch") && args != null) {
+                sql = (String) args[0];
+            } else if (name.equals("clearParameters")) {
+                parameters = null;
+            } else if (name.equals("getConnection")) {
+                return connection;
+            }
+            return DataSourceMetricsInterceptor.invoke(statement, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (parameters == null) {
+                parameters = new ArrayList<>();
+            }
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.diviso.inventory.config.metrics;
+
+import com.diviso.inventory.config.ApplicationProperties;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the SQL statements run by the application, in the metric registry:
+ * <ul>
+ * <li>sql.statements: the latency of every statement, a batch counting as one</li>
+ * <li>sql.slow-statements: the rate of the statements slower than application.sql-metrics.slow-statement-threshold,
+ * which are also logged at warn level with their bind parameters</li>
+ * <li>sql.statements-per-request: the number of statements run by each REST request</li>
+ * <li>repository.&lt;repository&gt;.&lt;method&gt;: the latency of each repository method, see RepositoryMetricsAspect</li>
+ * </ul>
+ * The statements are reported by a {@link DataSourceMetricsInterceptor}, the requests by a {@link SqlMetricsFilter}.
+ */
+public class SqlMetrics {
+
+    private final Logger log = LoggerFactory.getLogger(SqlMetrics.class);
+
+    private final MetricRegistry metricRegistry;
+
+    private final Timer statements;
+
+    private final Meter slowStatements;
+
+    private final Histogram statementsPerRequest;
+
+    private final long slowStatementThresholdNanos;
+
+    private final int maxParameterLength;
+
+    private final ThreadLocal<Context> context = ThreadLocal.withInitial(Context::new);
+
+    public SqlMetrics(MetricRegistry metricRegistry, ApplicationProperties applicationProperties) {
+        this.metricRegistry = metricRegistry;
+        this.statements = metricRegistry.timer("sql.statements");
+        this.slowStatements = metricRegistry.meter("sql.slow-statements");
+        this.statementsPerRequest = metricRegistry.histogram("sql.statements-per-request");
+        ApplicationProperties.SqlMetrics sqlMetrics = applicationProperties.getSqlMetrics();
+        this.slowStatementThresholdNanos = TimeUnit.MILLISECONDS.toNanos(sqlMetrics.getSlowStatementThreshold());
+        this.maxParameterLength = sqlMetrics.getMaxParameterLength();
+    }
+
+    /**
+     * @param repository the repository interface
+     * @param method the name of the method
+     * @return the timer of the calls of the repository method
+     */
+    public Timer repositoryTimer(Class<?> repository, String method) {
+        return metricRegistry.timer(MetricRegistry.name("repository", repository.getSimpleName(), method));
+    }
+
+    /**
+     * Record the repository method running on this thread, to name it in the slow statement log.
+     *
+     * @param name the name of the repository method
+     * @return the repository method it is called from, to give back to {@link #exitRepository(String)}
+     */
+    public String enterRepository(String name) {
+        Context context = this.context.get();
+        String caller = context.repositoryMethod;
+        context.repositoryMethod = name;
+        return caller;
+    }
+
+    public void exitRepository(String caller) {
+        context.get().repositoryMethod = caller;
+    }
+
+    /**
+     * Start counting the statements run on this thread for a request.
+     */
+    public void startRequest() {
+        context.get().requestStatements = 0;
+    }
+
+    /**
+     * Stop counting the statements run on this thread for a request, and record their number.
+     *
+     * @return the number of statements run by the request
+     */
+    public int endRequest() {
+        Context context = this.context.get();
+        int statements = Math.max(context.requestStatements, 0);
+        if (context.requestStatements >= 0) {
+            statementsPerRequest.update(statements);
+        }
+        context.requestStatements = -1;
+        return statements;
+    }
+
+    /**
+     * Record a statement.
+     *
+     * @param sql the SQL of the statement
+     * @param parameters the bind parameters in the order of their indexes, or null
+     * @param nanos how long it ran
+     */
+    void statementExecuted(String sql, List<Object> parameters, long nanos) {
+        statements.update(nanos, TimeUnit.NANOSECONDS);
+        Context context = this.context.get();
+        if (context.requestStatements >= 0) {
+            context.requestStatements++;
+        }
+        if (nanos >= slowStatementThresholdNanos) {
+            slowStatements.mark();
+            if (log.isWarnEnabled()) {
+                log.warn("Slow statement of {} ms in {}: {} with parameters {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    context.repositoryMethod != null ? context.repositoryMethod : "-", sql, render(parameters));
+            }
+        }
+    }
+
+    private String render(List<Object> parameters) {
+        if (parameters == null) {
+            return "[]";
+        }
+        StringBuilder rendered = new StringBuilder("[");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                rendered.append(", ");
+            }
+            rendered.append(render(parameters.get(i)));
+        }
+        return rendered.append(']').toString();
+    }
+
+    private String render(Object parameter) {
+        if (parameter instanceof byte[]) {
+            return "byte[" + ((byte[]) parameter).length + "]";
+        }
+        if (parameter instanceof InputStream || parameter instanceof Reader || parameter instanceof Blob
+                || parameter instanceof Clob) {
+            return "<" + parameter.getClass().getSimpleName() + ">";
+        }
+        String rendered = parameter instanceof String ? "'" + parameter + "'" : String.valueOf(parameter);
+        if (rendered.length() <= maxParameterLength) {
+            return rendered;
+        }
+        return rendered.substring(0, maxParameterLength) + "...";
+    }
+
+    private static class Context {
+
+        private String repositoryMethod;
+
+        private int requestStatements = -1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.diviso.inventory.config.metrics;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Filter counting the SQL statements run by each request, see {@link SqlMetrics}.
+ */
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlMetrics sqlMetrics;
+
+    public SqlMetricsFilter(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlMetrics.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            sqlMetrics.endRequest();
+        }
+    }
+}
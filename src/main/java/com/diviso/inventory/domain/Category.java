@@ -30,9 +30,9 @@ public class Category implements Serializable {
     @Column(name = "name", nullable = false)
     private String name;
 
-    @Lob
-    @Column(name = "image")
-    private byte[] image;
+    @Size(max = 64)
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
 
     @Column(name = "image_content_type")
     private String imageContentType;
@@ -70,17 +70,17 @@ public class Category implements Serializable {
         this.name = name;
     }
 
-    public byte[] getImage() {
-        return image;
+    public String getImageHash() {
+        return imageHash;
     }
 
-    public Category image(byte[] image) {
-        this.image = image;
+    public Category imageHash(String imageHash) {
+        this.imageHash = imageHash;
         return this;
     }
 
-    public void setImage(byte[] image) {
-        this.image = image;
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
     }
 
     public String getImageContentType() {
@@ -173,7 +173,7 @@ public class Category implements Serializable {
         return "Category{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
-            ", image='" + getImage() + "'" +
+            ", imageHash='" + getImageHash() + "'" +
             ", imageContentType='" + getImageContentType() + "'" +
             ", visible='" + isVisible() + "'" +
             ", description='" + getDescription() + "'" +
@@ -1,8 +1,11 @@
 package com.diviso.inventory.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -23,8 +26,16 @@ public class Product implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Ids are allocated by blocks from the id_generator table, so that inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "productIdGenerator")
+    @GenericGenerator(name = "productIdGenerator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+        @Parameter(name = "table_name", value = "id_generator"),
+        @Parameter(name = "segment_value", value = "product"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled-lo") })
     private Long id;
 
     @NotNull
@@ -39,9 +50,9 @@ public class Product implements Serializable {
     @Column(name = "name", nullable = false)
     private String name;
 
-    @Lob
-    @Column(name = "image")
-    private byte[] image;
+    @Size(max = 64)
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
 
     @Column(name = "image_content_type")
     private String imageContentType;
@@ -85,20 +96,21 @@ public class Product implements Serializable {
     private Set<StockLine> stockLines = new HashSet<>();
 
     @ManyToMany
+    @BatchSize(size = 100)
     @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @JoinTable(name = "product_labels",
                joinColumns = @JoinColumn(name="products_id", referencedColumnName="id"),
                inverseJoinColumns = @JoinColumn(name="labels_id", referencedColumnName="id"))
     private Set<Label> labels = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Status status;
 
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private TaxCategory taxCategory;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
@@ -149,17 +161,17 @@ public class Product implements Serializable {
         this.name = name;
     }
 
-    public byte[] getImage() {
-        return image;
+    public String getImageHash() {
+        return imageHash;
     }
 
-    public Product image(byte[] image) {
-        this.image = image;
+    public Product imageHash(String imageHash) {
+        this.imageHash = imageHash;
         return this;
     }
 
-    public void setImage(byte[] image) {
-        this.image = image;
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
     }
 
     public String getImageContentType() {
@@ -432,7 +444,7 @@ public class Product implements Serializable {
             ", reference='" + getReference() + "'" +
             ", searchkey='" + getSearchkey() + "'" +
             ", name='" + getName() + "'" +
-            ", image='" + getImage() + "'" +
+            ", imageHash='" + getImageHash() + "'" +
             ", imageContentType='" + getImageContentType() + "'" +
             ", description='" + getDescription() + "'" +
             ", sku='" + getSku() + "'" +
@@ -0,0 +1,174 @@
+package com.diviso.inventory.domain;
+
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A Reservation, units of a stockLine held for a cart until they are confirmed, released or expire.
+ * <p>
+ * The reservations are held in memory by the node which created them and written in JDBC batches, see
+ * ReservationRepositoryCustom, so the ids are assigned when they are created.
+ */
+@Entity
+@Table(name = "reservation")
+public class Reservation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @NotNull
+    @Column(name = "stock_line_id", nullable = false)
+    private Long stockLineId;
+
+    @NotNull
+    @Column(name = "units", nullable = false)
+    private Double units;
+
+    @Column(name = "reference")
+    private String reference;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReservationStatus status;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    @NotNull
+    @Column(name = "expiry_date", nullable = false)
+    private Instant expiryDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public Reservation id(String id) {
+        this.id = id;
+        return this;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getStockLineId() {
+        return stockLineId;
+    }
+
+    public Reservation stockLineId(Long stockLineId) {
+        this.stockLineId = stockLineId;
+        return this;
+    }
+
+    public void setStockLineId(Long stockLineId) {
+        this.stockLineId = stockLineId;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public Reservation units(Double units) {
+        this.units = units;
+        return this;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public Reservation reference(String reference) {
+        this.reference = reference;
+        return this;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public Reservation status(ReservationStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public Reservation createdDate(Instant createdDate) {
+        this.createdDate = createdDate;
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getExpiryDate() {
+        return expiryDate;
+    }
+
+    public Reservation expiryDate(Instant expiryDate) {
+        this.expiryDate = expiryDate;
+        return this;
+    }
+
+    public void setExpiryDate(Instant expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Reservation reservation = (Reservation) o;
+        if (reservation.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), reservation.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+            "id=" + getId() +
+            ", stockLineId=" + getStockLineId() +
+            ", units=" + getUnits() +
+            ", reference='" + getReference() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            ", expiryDate='" + getExpiryDate() + "'" +
+            "}";
+    }
+}
@@ -2,6 +2,8 @@ package com.diviso.inventory.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -22,8 +24,16 @@ public class Stock implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Ids are allocated by blocks from the id_generator table, so that inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "stockIdGenerator")
+    @GenericGenerator(name = "stockIdGenerator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+        @Parameter(name = "table_name", value = "id_generator"),
+        @Parameter(name = "segment_value", value = "stock"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled-lo") })
     private Long id;
 
     @NotNull
@@ -39,7 +49,7 @@ public class Stock implements Serializable {
     @Column(name = "storage_cost")
     private Double storageCost;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Status status;
 
     @ManyToMany
@@ -49,6 +59,10 @@ public class Stock implements Serializable {
                inverseJoinColumns = @JoinColumn(name="stock_lines_id", referencedColumnName="id"))
     private Set<StockLine> stockLines = new HashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public Long getId() {
         return id;
@@ -110,6 +124,19 @@ public class Stock implements Serializable {
         this.storageCost = storageCost;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Stock version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -175,6 +202,7 @@ public class Stock implements Serializable {
             ", deliveryNoteRef=" + getDeliveryNoteRef() +
             ", dateOfStockUpdated='" + getDateOfStockUpdated() + "'" +
             ", storageCost=" + getStorageCost() +
+            ", version=" + getVersion() +
             "}";
     }
 }
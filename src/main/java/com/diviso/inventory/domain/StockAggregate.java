@@ -0,0 +1,179 @@
+package com.diviso.inventory.domain;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A StockAggregate, the units in stock of a product at a location of an infrastructure, and their value at the
+ * buy price of their stockLines.
+ * <p>
+ * The aggregates are added to with JDBC batches of deltas, in the transactions which change the units, the product,
+ * the place or the buy price of stockLines, see StockAggregateRepositoryCustom, and are only read through JPA,
+ * summed with their deltas not folded yet, see StockAggregateRepository.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_aggregate")
+public class StockAggregate implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "infrastructure_id")
+    private Long infrastructureId;
+
+    @Column(name = "location_id")
+    private String locationId;
+
+    @Column(name = "aggregate_key")
+    private String aggregateKey;
+
+    @NotNull
+    @Column(name = "units", nullable = false)
+    private Double units;
+
+    @NotNull
+    @Column(name = "stock_value", nullable = false)
+    private Double value;
+
+    public StockAggregate() {
+    }
+
+    /**
+     * Create an aggregate read with the sums of its deltas.
+     */
+    public StockAggregate(Long id, Long productId, Long infrastructureId, String locationId, Double units,
+            Double value) {
+        this.id = id;
+        this.productId = productId;
+        this.infrastructureId = infrastructureId;
+        this.locationId = locationId;
+        this.units = units;
+        this.value = value;
+    }
+
+    /**
+     * @return the key identifying the aggregate of the product, infrastructure and location of this one
+     */
+    public String getKey() {
+        return (productId != null ? productId.toString() : "") + "/"
+            + (infrastructureId != null ? infrastructureId.toString() : "") + "/"
+            + (locationId != null ? locationId : "");
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public StockAggregate productId(Long productId) {
+        this.productId = productId;
+        return this;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getInfrastructureId() {
+        return infrastructureId;
+    }
+
+    public StockAggregate infrastructureId(Long infrastructureId) {
+        this.infrastructureId = infrastructureId;
+        return this;
+    }
+
+    public void setInfrastructureId(Long infrastructureId) {
+        this.infrastructureId = infrastructureId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public StockAggregate locationId(String locationId) {
+        this.locationId = locationId;
+        return this;
+    }
+
+    public void setLocationId(String locationId) {
+        this.locationId = locationId;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public StockAggregate units(Double units) {
+        this.units = units;
+        return this;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+
+    public StockAggregate value(Double value) {
+        this.value = value;
+        return this;
+    }
+
+    public void setValue(Double value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StockAggregate stockAggregate = (StockAggregate) o;
+        if (stockAggregate.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), stockAggregate.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "StockAggregate{" +
+            "id=" + getId() +
+            ", productId=" + getProductId() +
+            ", infrastructureId=" + getInfrastructureId() +
+            ", locationId='" + getLocationId() + "'" +
+            ", units=" + getUnits() +
+            ", value=" + getValue() +
+            "}";
+    }
+}
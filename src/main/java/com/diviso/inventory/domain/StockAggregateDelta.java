@@ -0,0 +1,101 @@
+package com.diviso.inventory.domain;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A StockAggregateDelta, units and value added to a StockAggregate and not folded into it yet.
+ * <p>
+ * The deltas are appended and folded with JDBC, see StockAggregateRepositoryCustom, and only read through JPA to
+ * be summed with their aggregates.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_aggregate_delta")
+public class StockAggregateDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "aggregate_key", nullable = false)
+    private String aggregateKey;
+
+    @NotNull
+    @Column(name = "units", nullable = false)
+    private Double units;
+
+    @NotNull
+    @Column(name = "stock_value", nullable = false)
+    private Double value;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+
+    public void setAggregateKey(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+
+    public void setValue(Double value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StockAggregateDelta stockAggregateDelta = (StockAggregateDelta) o;
+        if (stockAggregateDelta.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), stockAggregateDelta.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "StockAggregateDelta{" +
+            "id=" + getId() +
+            ", aggregateKey='" + getAggregateKey() + "'" +
+            ", units=" + getUnits() +
+            ", value=" + getValue() +
+            "}";
+    }
+}
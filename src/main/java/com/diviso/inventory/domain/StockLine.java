@@ -2,6 +2,9 @@ package com.diviso.inventory.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -19,8 +22,16 @@ public class StockLine implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Ids are allocated by blocks from the id_generator table, so that inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "stockLineIdGenerator")
+    @GenericGenerator(name = "stockLineIdGenerator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+        @Parameter(name = "table_name", value = "id_generator"),
+        @Parameter(name = "segment_value", value = "stock_line"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled-lo") })
     private Long id;
 
     @NotNull
@@ -42,8 +53,14 @@ public class StockLine implements Serializable {
     @Column(name = "margin")
     private Double margin;
 
-    @NotNull
-    @Column(name = "units", nullable = false)
+    /**
+     * The units are not stored with the line: they are its balance snapshot, kept in the balance_units column,
+     * plus the stock movements not folded into it yet, see StockLedgerService. The movements are looked up by
+     * equality on (stock_line_id, folded), so that only the tail of the journal is read. Setting them only
+     * carries the requested level to the services.
+     */
+    @Formula("balance_units + (select coalesce(sum(m.units), 0) from stock_movement m"
+        + " where m.stock_line_id = id and m.folded = false)")
     private Double units;
 
     @Column(name = "infrastructure_id")
@@ -58,9 +75,13 @@ public class StockLine implements Serializable {
     @ManyToOne
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Uom uom;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public Long getId() {
         return id;
@@ -200,6 +221,19 @@ public class StockLine implements Serializable {
         this.supplierRef = supplierRef;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public StockLine version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Product getProduct() {
         return product;
     }
@@ -261,6 +295,7 @@ public class StockLine implements Serializable {
             ", infrastructureId=" + getInfrastructureId() +
             ", locationId='" + getLocationId() + "'" +
             ", supplierRef=" + getSupplierRef() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,155 @@
+package com.diviso.inventory.domain;
+
+import com.diviso.inventory.domain.enumeration.MovementType;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A StockMovement, an entry of the append-only journal of the stock levels.
+ * <p>
+ * The units are signed: positive for the units coming in, negative for those going out. The movements are
+ * appended with JDBC batches, see StockMovementRepositoryCustom, and never updated.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movement")
+public class StockMovement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "stock_line_id", nullable = false)
+    private Long stockLineId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "jhi_type", nullable = false)
+    private MovementType type;
+
+    @NotNull
+    @Column(name = "units", nullable = false)
+    private Double units;
+
+    @Column(name = "reference")
+    private String reference;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStockLineId() {
+        return stockLineId;
+    }
+
+    public StockMovement stockLineId(Long stockLineId) {
+        this.stockLineId = stockLineId;
+        return this;
+    }
+
+    public void setStockLineId(Long stockLineId) {
+        this.stockLineId = stockLineId;
+    }
+
+    public MovementType getType() {
+        return type;
+    }
+
+    public StockMovement type(MovementType type) {
+        this.type = type;
+        return this;
+    }
+
+    public void setType(MovementType type) {
+        this.type = type;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public StockMovement units(Double units) {
+        this.units = units;
+        return this;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public StockMovement reference(String reference) {
+        this.reference = reference;
+        return this;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public StockMovement createdDate(Instant createdDate) {
+        this.createdDate = createdDate;
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StockMovement stockMovement = (StockMovement) o;
+        if (stockMovement.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), stockMovement.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "StockMovement{" +
+            "id=" + getId() +
+            ", stockLineId=" + getStockLineId() +
+            ", type='" + getType() + "'" +
+            ", units=" + getUnits() +
+            ", reference='" + getReference() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
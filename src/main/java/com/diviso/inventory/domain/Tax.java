@@ -40,7 +40,7 @@ public class Tax implements Serializable {
     @Column(name = "jhi_type")
     private TaxType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private TaxCategory taxCategory;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
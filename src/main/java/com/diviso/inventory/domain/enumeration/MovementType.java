@@ -0,0 +1,8 @@
+package com.diviso.inventory.domain.enumeration;
+
+/**
+ * The MovementType enumeration.
+ */
+public enum MovementType {
+    RECEIPT, SALE, ADJUSTMENT, TRANSFER
+}
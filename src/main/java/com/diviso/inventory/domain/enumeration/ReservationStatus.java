@@ -0,0 +1,8 @@
+package com.diviso.inventory.domain.enumeration;
+
+/**
+ * The ReservationStatus enumeration.
+ */
+public enum ReservationStatus {
+    HELD, CONFIRMED, RELEASED, EXPIRED
+}
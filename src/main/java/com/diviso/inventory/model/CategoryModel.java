@@ -6,17 +6,17 @@ import java.util.List;
 public class CategoryModel {
 	private Long id;
 	private String name;
-	private byte[] image;
+	private String imageHash;
 	private String imageContentType;
 	private Boolean visible;
 	private String description;
 	private List<ProductModel> products=new ArrayList<ProductModel>();
 	public CategoryModel() {}
-	public CategoryModel(Long id2, String description2, byte[] image2, String imageContentType2, String name2) {
+	public CategoryModel(Long id2, String description2, String imageHash2, String imageContentType2, String name2) {
 		// TODO Auto-generated constructor stub
 		id=id2;
 		description=description2;
-		image=image2;
+		imageHash=imageHash2;
 		imageContentType=imageContentType2;
 		name=name2;
 	}
@@ -37,12 +37,12 @@ public class CategoryModel {
 		this.name = name;
 	}
 
-	public byte[] getImage() {
-		return image;
+	public String getImageHash() {
+		return imageHash;
 	}
 
-	public void setImage(byte[] image) {
-		this.image = image;
+	public void setImageHash(String imageHash) {
+		this.imageHash = imageHash;
 	}
 
 	public String getImageContentType() {
@@ -0,0 +1,43 @@
+package com.diviso.inventory.model;
+
+/**
+ * The image of a product or category, as stored in the blob store.
+ */
+public class ImageModel {
+
+    private String hash;
+
+    private String contentType;
+
+    public ImageModel() {
+    }
+
+    public ImageModel(String hash, String contentType) {
+        this.hash = hash;
+        this.contentType = contentType;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    @Override
+    public String toString() {
+        return "ImageModel{" +
+            "hash='" + hash + "'" +
+            ", contentType='" + contentType + "'" +
+            "}";
+    }
+}
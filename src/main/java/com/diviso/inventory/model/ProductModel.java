@@ -3,7 +3,6 @@ package com.diviso.inventory.model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class ProductModel {
@@ -11,7 +10,7 @@ public class ProductModel {
 	@Override
 	public String toString() {
 		return "ProductModel [barcode=" + barcode + ", id=" + id + ", maximumStockLevel=" + maximumStockLevel
-				+ ", image=" + Arrays.toString(image) + ", imageContentType=" + imageContentType + ", searchkey="
+				+ ", imageHash=" + imageHash + ", imageContentType=" + imageContentType + ", searchkey="
 				+ searchkey + ", display=" + display + ", dateOfMfd=" + dateOfMfd + ", dateOfExpiry=" + dateOfExpiry
 				+ ", sku=" + sku + ", mpn=" + mpn + ", reOrderLevel=" + reOrderLevel + ", categoryModel="
 				+ categoryModel + ", taxCategoryModel=" + taxCategoryModel + ", reference=" + reference + ", name="
@@ -22,7 +21,7 @@ public class ProductModel {
 	private BarcodeModel barcode;
 	private Long id;
 	private Double maximumStockLevel;
-	private byte[] image;
+	private String imageHash;
 	private String imageContentType;
 	private String searchkey;
 	private Boolean display;
@@ -41,14 +40,14 @@ public class ProductModel {
 	private List<LabelModel> labels = new ArrayList<LabelModel>();
 
 	public ProductModel(Long id2, String name2, boolean display, LocalDate dateOfExpiry2, LocalDate dateOfMfd2,
-			byte[] image2, String imageContentType2, String description2, Double maximumStockLevel2, String searchkey2,
+			String imageHash2, String imageContentType2, String description2, Double maximumStockLevel2, String searchkey2,
 			String sku2, String mpn2, Double reOrderLevel2, String reference2) {
 		// TODO Auto-generated constructor stub
 		id = id2;
 		name = name2;
 		dateOfExpiry = dateOfExpiry2;
 		dateOfMfd = dateOfMfd2;
-		image = image2;
+		imageHash = imageHash2;
 		imageContentType = imageContentType2;
 		description = description2;
 		maximumStockLevel = maximumStockLevel2;
@@ -127,12 +126,12 @@ public class ProductModel {
 		this.maximumStockLevel = maximumStockLevel;
 	}
 
-	public byte[] getImage() {
-		return image;
+	public String getImageHash() {
+		return imageHash;
 	}
 
-	public void setImage(byte[] image) {
-		this.image = image;
+	public void setImageHash(String imageHash) {
+		this.imageHash = imageHash;
 	}
 
 	public String getImageContentType() {
@@ -0,0 +1,87 @@
+package com.diviso.inventory.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The stock level of a product, its units summed over its stockLines, against its re-order and maximum stock levels.
+ */
+public class StockAlertModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Where the units of a product stand against its levels: at or below its re-order level, or above its maximum
+	 * stock level.
+	 */
+	public enum Level {
+		BELOW_REORDER, NORMAL, OVERSTOCK
+	}
+
+	private Long productId;
+
+	private Level level = Level.NORMAL;
+
+	private Double units = 0D;
+
+	private Double reOrderLevel;
+
+	private Double maximumStockLevel;
+
+	private List<Long> stockLineIds = new ArrayList<Long>();
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	public void setLevel(Level level) {
+		this.level = level;
+	}
+
+	public Double getUnits() {
+		return units;
+	}
+
+	public void setUnits(Double units) {
+		this.units = units;
+	}
+
+	public Double getReOrderLevel() {
+		return reOrderLevel;
+	}
+
+	public void setReOrderLevel(Double reOrderLevel) {
+		this.reOrderLevel = reOrderLevel;
+	}
+
+	public Double getMaximumStockLevel() {
+		return maximumStockLevel;
+	}
+
+	public void setMaximumStockLevel(Double maximumStockLevel) {
+		this.maximumStockLevel = maximumStockLevel;
+	}
+
+	public List<Long> getStockLineIds() {
+		return stockLineIds;
+	}
+
+	public void setStockLineIds(List<Long> stockLineIds) {
+		this.stockLineIds = stockLineIds;
+	}
+
+	@Override
+	public String toString() {
+		return "StockAlertModel [productId=" + productId + ", level=" + level + ", units=" + units + ", reOrderLevel="
+				+ reOrderLevel + ", maximumStockLevel=" + maximumStockLevel + ", stockLineIds=" + stockLineIds + "]";
+	}
+}
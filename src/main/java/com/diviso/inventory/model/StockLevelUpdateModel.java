@@ -0,0 +1,42 @@
+package com.diviso.inventory.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StockLevelUpdateModel {
+
+	private List<Long> updated = new ArrayList<Long>();
+
+	private List<Long> missing = new ArrayList<Long>();
+
+	private List<Long> negative = new ArrayList<Long>();
+
+	public List<Long> getUpdated() {
+		return updated;
+	}
+
+	public void setUpdated(List<Long> updated) {
+		this.updated = updated;
+	}
+
+	public List<Long> getMissing() {
+		return missing;
+	}
+
+	public void setMissing(List<Long> missing) {
+		this.missing = missing;
+	}
+
+	public List<Long> getNegative() {
+		return negative;
+	}
+
+	public void setNegative(List<Long> negative) {
+		this.negative = negative;
+	}
+
+	@Override
+	public String toString() {
+		return "StockLevelUpdateModel [updated=" + updated + ", missing=" + missing + ", negative=" + negative + "]";
+	}
+}
@@ -0,0 +1,75 @@
+package com.diviso.inventory.repository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for keyset (seek) pagination.
+ * <p>
+ * A page is read as the first rows whose key is greater than the last key of the previous page, in key order,
+ * so that its cost does not depend on how deep it is, and no count is run: one more row than the page size is
+ * read to tell whether there is a next page.
+ * <p>
+ * The specifications of the finders compare with plain equality on case-insensitive columns, so the filter
+ * is served by the index of the finder, see FinderQueryPlanIntTest. On MySQL, where every secondary index
+ * ends with the primary key, that index also serves the seek and the key order.
+ */
+@Repository
+public class KeysetRepository {
+
+    private final EntityManager entityManager;
+
+    public KeysetRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Get the entities matching a specification whose key comes after the given one.
+     *
+     * @param domainClass the type of the entities
+     * @param key the unique, indexed attribute to seek on
+     * @param specification the entities to page through, or null for all of them
+     * @param after the key of the last entity of the previous page, or null for the first page
+     * @param size the page size
+     * @param <T> the type of the entities
+     * @return the slice of entities, in key order
+     */
+    public <T> Slice<T> findAllAfter(Class<T> domainClass, SingularAttribute<? super T, Long> key,
+            Specification<T> specification, Long after, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        Path<Long> keyPath = root.get(key);
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            predicates.add(builder.greaterThan(keyPath, after));
+        }
+        query.select(root).where(predicates.toArray(new Predicate[predicates.size()])).orderBy(builder.asc(keyPath));
+
+        List<T> content = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, new PageRequest(0, size), hasNext);
+    }
+}
@@ -11,11 +11,26 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Spring Data JPA repository for the Product entity.
+ * <p>
+ * The finders of visible products are cached, each in its own region of {@link QueryCacheRegions}.
+ * <p>
+ * The "IgnoreCase" finders compare with plain equality, so that they can use the indexes of their columns:
+ * the columns themselves compare ignoring case, see the finder changelogs.
  */
 @SuppressWarnings("unused")
 @Repository
@@ -26,36 +41,102 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("select product from Product product left join fetch product.labels where product.id =:id")
     Product findOneWithEagerRelationships(@Param("id") Long id);
 
-	Page<Product> findByNameIgnoreCaseAndVisibleTrue(String name, Pageable pageable);
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_NAME) })
+	@Query("select product from Product product where product.name = :name and product.visible = true")
+	Page<Product> findByNameIgnoreCaseAndVisibleTrue(@Param("name") String name, Pageable pageable);
 
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_VISIBLE) })
 	Page<Product> findByVisibleTrue(Pageable pageable);
 
 	Page<Product> findByVisibleFalse(Pageable pageable);
 
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_NAME_CONTAINING) })
 	Page<Product> findByNameIgnoreCaseContainingAndVisibleTrue(Pageable pageable);
 
-	Product findByReferenceIgnoreCaseAndVisibleTrue(String reference);
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_REFERENCE) })
+	@Query("select product from Product product where product.reference = :reference and product.visible = true")
+	Product findByReferenceIgnoreCaseAndVisibleTrue(@Param("reference") String reference);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_SKU) })
+	@Query("select product from Product product where product.sku = :sku and product.visible = true")
+	Product findBySkuIgnoreCaseAndVisibleTrue(@Param("sku") String sku);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_SEARCHKEY) })
+	@Query("select product from Product product where product.searchkey = :searchkey and product.visible = true")
+	Product findBySearchkeyIgnoreCaseAndVisibleTrue(@Param("searchkey") String searchkey);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_MPN) })
+	@Query("select product from Product product where product.mpn = :mpn and product.visible = true")
+	Product findByMpnIgnoreCaseAndVisibleTrue(@Param("mpn") String mpn);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_BARCODE) })
+	@Query("select product from Product product join product.barcode barcode"
+			+ " where barcode.code = :barcode and product.visible = true")
+	Product findByBarcode_CodeAndVisibleTrue(@Param("barcode") String barcode);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_CATEGORY_NAME) })
+	@Query("select product from Product product join product.category category"
+			+ " where category.name = :name and product.visible = true")
+	Page<Product> findByCategory_NameIgnoreCaseAndVisibleTrue(@Param("name") String name, Pageable pageable);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_DATE_OF_MFD) })
+	Page<Product> findByDateOfMfdAndVisibleTrue(LocalDate dateOfMfd, Pageable pageable);
 
-	Product findBySkuIgnoreCaseAndVisibleTrue(String sku);
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_DATE_OF_EXPIRY) })
+	Page<Product> findByDateOfExpiryAndVisibleTrue(LocalDate dateOfExpiry, Pageable pageable);
 
-	Product findBySearchkeyIgnoreCaseAndVisibleTrue(String searchkey);
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_DATE_OF_EXPIRY_BETWEEN) })
+	Page<Product> findByDateOfExpiryBetweenAndVisibleTrue(LocalDate from, LocalDate to, Pageable pageable);
 
-	Product findByMpnIgnoreCaseAndVisibleTrue(String mpn);
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = QueryCacheRegions.PRODUCT_BY_STATUS_NAME) })
+	@Query("select product from Product product join product.status status"
+			+ " where status.name = :status and product.visible = true")
+	Page<Product> findByStatus_NameIgnoreCaseAndVisibleTrue(@Param("status") String status, Pageable pageable);
 
-	Product findByBarcode_CodeAndVisibleTrue(String barcode);
+	@Query("select distinct n from Product p join  p.notes n where p.id=:id")
+	Page<Note> findNotesByProductId(@Param("id")Long id,Pageable pageable);
 
-	Page<Product> findByCategory_NameIgnoreCaseAndVisibleTrue(String name, Pageable pageable);
+	@Query("select distinct product from Product product left join fetch product.barcode"
+			+ " left join fetch product.labels where product.id in :ids")
+	List<Product> findAllMarsheldByIdIn(@Param("ids") Collection<Long> ids);
 
-	Page<Product> findByDateOfMfdAndVisibleTrue(LocalDate dateOfMfd, Pageable pageable);
+	@Query(value = "select product.id from Product product where product.id in :ids",
+			countQuery = "select count(product) from Product product where product.id in :ids")
+	Page<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
 
-	Page<Product> findByDateOfExpiryAndVisibleTrue(LocalDate dateOfExpiry, Pageable pageable);
+	@Query("select n from Note n where n.product.id in :ids")
+	List<Note> findNotesByProductIdIn(@Param("ids") Collection<Long> ids);
 
-	Page<Product> findByDateOfExpiryBetweenAndVisibleTrue(LocalDate from, LocalDate to, Pageable pageable);
+	@Query("select product.id, product.dateOfExpiry from Product product"
+			+ " where product.visible = true and product.dateOfExpiry is not null")
+	List<Object[]> findExpiriesByVisibleTrue();
 
-	Page<Product> findByStatus_NameIgnoreCaseAndVisibleTrue(String status, Pageable pageable);
+	@Modifying
+	@Query("update Product product set product.visible = false"
+			+ " where product.id in :ids and product.visible = true and product.dateOfExpiry < :date")
+	int hideExpiredBefore(@Param("ids") Collection<Long> ids, @Param("date") LocalDate date);
 
-	@Query("select distinct n from Product p join  p.notes n where p.id=:id")
-	Page<Note> findNotesByProductId(@Param("id")Long id,Pageable pageable);
+	@Query("select product.id from Product product where product.id in :ids and product.visible = true")
+	List<Long> findVisibleIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+			@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE") })
+	@Query("select product from Product product left join fetch product.barcode left join fetch product.category"
+			+ " left join fetch product.status left join fetch product.taxCategory order by product.id")
+	Stream<Product> streamAll();
 
 	/*@Query("select distinct p,b,s,c,tc from Product p join p.barcode b join p.status s join p.category c join p.taxCategory tc where p.id=:id ")
 	ProductModel findById(@Param("id") Long id);
@@ -0,0 +1,92 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Category_;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Product_;
+import com.diviso.inventory.domain.Status_;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Predicate;
+import java.time.LocalDate;
+
+/**
+ * Specifications of the Product finders, for reading them with the {@link KeysetRepository}.
+ * <p>
+ * Names are compared with plain equality, like the finders: the columns are case-insensitive.
+ * The predicates are shared with the {@link StockLineSpecifications}, which apply them to the product of a stockLine.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> visible(boolean visible) {
+        return (root, query, builder) -> visible(root, builder, visible);
+    }
+
+    public static Specification<Product> nameAndVisibleTrue(String name) {
+        return (root, query, builder) -> nameAndVisibleTrue(root, builder, name);
+    }
+
+    public static Specification<Product> nameContainingAndVisibleTrue(String name) {
+        return (root, query, builder) -> nameContainingAndVisibleTrue(root, builder, name);
+    }
+
+    public static Specification<Product> categoryNameAndVisibleTrue(String name) {
+        return (root, query, builder) -> categoryNameAndVisibleTrue(root, builder, name);
+    }
+
+    public static Specification<Product> dateOfMfdAndVisibleTrue(LocalDate dateOfMfd) {
+        return (root, query, builder) -> dateOfMfdAndVisibleTrue(root, builder, dateOfMfd);
+    }
+
+    public static Specification<Product> dateOfExpiryAndVisibleTrue(LocalDate dateOfExpiry) {
+        return (root, query, builder) -> dateOfExpiryAndVisibleTrue(root, builder, dateOfExpiry);
+    }
+
+    public static Specification<Product> dateOfExpiryBetweenAndVisibleTrue(LocalDate from, LocalDate to) {
+        return (root, query, builder) -> dateOfExpiryBetweenAndVisibleTrue(root, builder, from, to);
+    }
+
+    public static Specification<Product> statusNameAndVisibleTrue(String status) {
+        return (root, query, builder) -> statusNameAndVisibleTrue(root, builder, status);
+    }
+
+    static Predicate visible(From<?, Product> product, CriteriaBuilder builder, boolean visible) {
+        return visible ? builder.isTrue(product.get(Product_.visible)) : builder.isFalse(product.get(Product_.visible));
+    }
+
+    static Predicate nameAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder, String name) {
+        return builder.and(builder.equal(product.get(Product_.name), name), visible(product, builder, true));
+    }
+
+    static Predicate nameContainingAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder, String name) {
+        return builder.and(builder.like(product.get(Product_.name), "%" + name + "%"), visible(product, builder, true));
+    }
+
+    static Predicate categoryNameAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder, String name) {
+        return builder.and(builder.equal(product.join(Product_.category).get(Category_.name), name),
+            visible(product, builder, true));
+    }
+
+    static Predicate dateOfMfdAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder, LocalDate dateOfMfd) {
+        return builder.and(builder.equal(product.get(Product_.dateOfMfd), dateOfMfd), visible(product, builder, true));
+    }
+
+    static Predicate dateOfExpiryAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder, LocalDate dateOfExpiry) {
+        return builder.and(builder.equal(product.get(Product_.dateOfExpiry), dateOfExpiry), visible(product, builder, true));
+    }
+
+    static Predicate dateOfExpiryBetweenAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder,
+            LocalDate from, LocalDate to) {
+        return builder.and(builder.between(product.get(Product_.dateOfExpiry), from, to), visible(product, builder, true));
+    }
+
+    static Predicate statusNameAndVisibleTrue(From<?, Product> product, CriteriaBuilder builder, String status) {
+        return builder.and(builder.equal(product.join(Product_.status).get(Status_.name), status),
+            visible(product, builder, true));
+    }
+}
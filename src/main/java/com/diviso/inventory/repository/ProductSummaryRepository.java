@@ -0,0 +1,82 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Product_;
+import com.diviso.inventory.service.dto.ProductSummaryDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Repository for the summaries of the products.
+ * <p>
+ * A summary is read with a constructor projection of the product columns it needs, so that no entity is
+ * loaded, and neither the associations nor the collections of the product are read.
+ */
+@Repository
+public class ProductSummaryRepository {
+
+    private final EntityManager entityManager;
+
+    public ProductSummaryRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Get a page of the summaries of the products matching a specification.
+     *
+     * @param specification the products to page through, or null for all of them
+     * @param pageable the pagination information, sorted on product attributes
+     * @return the page of summaries
+     */
+    public Page<ProductSummaryDTO> findAll(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummaryDTO> query = builder.createQuery(ProductSummaryDTO.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(builder.construct(ProductSummaryDTO.class, root.get(Product_.id), root.get(Product_.name),
+            root.get(Product_.sku), root.get(Product_.reference), root.get(Product_.visible)));
+        Predicate predicate = toPredicate(specification, root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort() != null) {
+            query.orderBy(toOrders(pageable.getSort(), root, builder));
+        }
+
+        TypedQuery<ProductSummaryDTO> typedQuery = entityManager.createQuery(query)
+            .setFirstResult(pageable.getOffset())
+            .setMaxResults(pageable.getPageSize());
+        List<ProductSummaryDTO> content = typedQuery.getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Product> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(builder.count(root));
+        Predicate predicate = toPredicate(specification, root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate toPredicate(Specification<Product> specification, Root<Product> root,
+            CriteriaQuery<?> query, CriteriaBuilder builder) {
+        return specification == null ? null : specification.toPredicate(root, query, builder);
+    }
+}
@@ -0,0 +1,53 @@
+package com.diviso.inventory.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Names of the Hibernate query cache regions of the repository finders.
+ * <p>
+ * Each finder has its own region, so that its time to live and size can be tuned, and its hits and misses told
+ * apart. A region only holds the ids of the results, the entities being read from the second level cache. Hibernate
+ * invalidates the results of a region whenever a table the query reads is updated through it, so the finders of
+ * products are invalidated by the writes of products, barcodes, categories and statuses, but not by those of
+ * stockLines or stocks.
+ */
+public final class QueryCacheRegions {
+
+    public static final String PREFIX = "query.";
+
+    public static final String PRODUCT_BY_NAME = PREFIX + "product.byName";
+
+    public static final String PRODUCT_BY_NAME_CONTAINING = PREFIX + "product.byNameContaining";
+
+    public static final String PRODUCT_VISIBLE = PREFIX + "product.visible";
+
+    public static final String PRODUCT_BY_REFERENCE = PREFIX + "product.byReference";
+
+    public static final String PRODUCT_BY_SKU = PREFIX + "product.bySku";
+
+    public static final String PRODUCT_BY_SEARCHKEY = PREFIX + "product.bySearchkey";
+
+    public static final String PRODUCT_BY_MPN = PREFIX + "product.byMpn";
+
+    public static final String PRODUCT_BY_BARCODE = PREFIX + "product.byBarcode";
+
+    public static final String PRODUCT_BY_CATEGORY_NAME = PREFIX + "product.byCategoryName";
+
+    public static final String PRODUCT_BY_DATE_OF_MFD = PREFIX + "product.byDateOfMfd";
+
+    public static final String PRODUCT_BY_DATE_OF_EXPIRY = PREFIX + "product.byDateOfExpiry";
+
+    public static final String PRODUCT_BY_DATE_OF_EXPIRY_BETWEEN = PREFIX + "product.byDateOfExpiryBetween";
+
+    public static final String PRODUCT_BY_STATUS_NAME = PREFIX + "product.byStatusName";
+
+    public static final List<String> ALL = Collections.unmodifiableList(Arrays.asList(PRODUCT_BY_NAME,
+        PRODUCT_BY_NAME_CONTAINING, PRODUCT_VISIBLE, PRODUCT_BY_REFERENCE, PRODUCT_BY_SKU, PRODUCT_BY_SEARCHKEY,
+        PRODUCT_BY_MPN, PRODUCT_BY_BARCODE, PRODUCT_BY_CATEGORY_NAME, PRODUCT_BY_DATE_OF_MFD,
+        PRODUCT_BY_DATE_OF_EXPIRY, PRODUCT_BY_DATE_OF_EXPIRY_BETWEEN, PRODUCT_BY_STATUS_NAME));
+
+    private QueryCacheRegions() {
+    }
+}
@@ -0,0 +1,22 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Reservation;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+
+import org.springframework.stereotype.Repository;
+
+import org.springframework.data.jpa.repository.*;
+
+import java.util.List;
+
+
+/**
+ * Spring Data JPA repository for the Reservation entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, String>, ReservationRepositoryCustom {
+
+    List<Reservation> findByStatus(ReservationStatus status);
+
+}
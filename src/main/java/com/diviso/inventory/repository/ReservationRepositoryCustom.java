@@ -0,0 +1,27 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Reservation;
+
+import java.util.Collection;
+
+/**
+ * Custom Spring Data repository fragment writing the reservations in JDBC batches.
+ */
+public interface ReservationRepositoryCustom {
+
+    /**
+     * Insert new reservations, with the status they have reached since they were created, as one JDBC batch.
+     *
+     * @param reservations the reservations to insert
+     */
+    void insert(Collection<Reservation> reservations);
+
+    /**
+     * Update the status of reservations as one JDBC batch. Only the reservations still held are updated, so that
+     * a reservation settled by another node, or expired by several nodes, keeps the status it got first.
+     *
+     * @param reservations the reservations with their new status
+     * @return the number of reservations updated
+     */
+    int updateStatus(Collection<Reservation> reservations);
+}
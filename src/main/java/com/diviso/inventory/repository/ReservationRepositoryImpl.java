@@ -0,0 +1,61 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Reservation;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+/**
+ * JDBC implementation of the {@link ReservationRepositoryCustom} fragment.
+ */
+public class ReservationRepositoryImpl implements ReservationRepositoryCustom {
+
+    private static final String INSERT_SQL = "insert into reservation"
+        + " (id, stock_line_id, units, reference, status, created_date, expiry_date) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_STATUS_SQL = "update reservation set status = ? where id = ? and status = '"
+        + ReservationStatus.HELD.name() + "'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insert(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setString(1, reservation.getId());
+            ps.setLong(2, reservation.getStockLineId());
+            ps.setDouble(3, reservation.getUnits());
+            ps.setString(4, reservation.getReference());
+            ps.setString(5, reservation.getStatus().name());
+            ps.setTimestamp(6, Timestamp.from(reservation.getCreatedDate()));
+            ps.setTimestamp(7, Timestamp.from(reservation.getExpiryDate()));
+        });
+    }
+
+    @Override
+    public int updateStatus(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, reservations, reservations.size(),
+                (ps, reservation) -> {
+                    ps.setString(1, reservation.getStatus().name());
+                    ps.setString(2, reservation.getId());
+                })) {
+            for (int count : counts) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,43 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.StockAggregate;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+
+/**
+ * Spring Data JPA repository for the StockAggregate entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface StockAggregateRepository extends JpaRepository<StockAggregate, Long>, StockAggregateRepositoryCustom {
+
+    /**
+     * The aggregates with the units and value of their deltas not folded yet, summed by one join to the deltas
+     * found by idx_stock_aggregate_delta_key.
+     */
+    String SUMMED_QUERY = "select new com.diviso.inventory.domain.StockAggregate(a.id, a.productId,"
+        + " a.infrastructureId, a.locationId, a.units + coalesce(sum(d.units), 0.0),"
+        + " a.value + coalesce(sum(d.value), 0.0))"
+        + " from StockAggregate a left join StockAggregateDelta d on d.aggregateKey = a.aggregateKey";
+
+    String GROUP_BY = " group by a.id, a.productId, a.infrastructureId, a.locationId, a.units, a.value";
+
+    @Query(value = SUMMED_QUERY + " where a.locationId = :locationId" + GROUP_BY,
+        countQuery = "select count(a) from StockAggregate a where a.locationId = :locationId")
+    Page<StockAggregate> findByLocationId(@Param("locationId") String locationId, Pageable pageable);
+
+    @Query(value = SUMMED_QUERY + " where a.infrastructureId = :infrastructureId" + GROUP_BY,
+        countQuery = "select count(a) from StockAggregate a where a.infrastructureId = :infrastructureId")
+    Page<StockAggregate> findByInfrastructureId(@Param("infrastructureId") Long infrastructureId, Pageable pageable);
+
+    @Query(value = SUMMED_QUERY + " where a.productId = :productId" + GROUP_BY,
+        countQuery = "select count(a) from StockAggregate a where a.productId = :productId")
+    Page<StockAggregate> findByProductId(@Param("productId") Long productId, Pageable pageable);
+
+}
@@ -0,0 +1,57 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.StockAggregate;
+
+import java.util.Collection;
+import java.util.SortedMap;
+
+/**
+ * Custom Spring Data repository fragment adding to the stock aggregates in JDBC batches.
+ * <p>
+ * The writers only append deltas, so that they do not lock the rows of the aggregates, which every stock
+ * transaction of a product at a place would wait on; the units and value of an aggregate are its row plus the
+ * deltas appended since it was last folded, see StockAggregateRepository.
+ */
+public interface StockAggregateRepositoryCustom {
+
+    /**
+     * Create the aggregates of the products and places of stockLines, with no units, unless they exist. They are
+     * created in the order of their keys, so that concurrent transactions lock them in the same order.
+     *
+     * @param places the product, infrastructure and location of each aggregate
+     * @throws org.springframework.dao.ConcurrencyFailureException if a concurrent transaction created one first
+     */
+    void create(Collection<StockAggregate> places);
+
+    /**
+     * Add the units of movements, and their value at the buy price of their stockLines, to the aggregates of the
+     * products and places of the stockLines. Movements of stockLines which do not exist are not added.
+     *
+     * @param units the signed units of the movements, by stockLine id
+     */
+    void addMovements(SortedMap<Long, Double> units);
+
+    /**
+     * Append the units and value of deltas to their aggregates, which exist since their stockLines were created.
+     *
+     * @param deltas the product, infrastructure and location of each aggregate, with the units and value to add
+     */
+    void add(Collection<StockAggregate> deltas);
+
+    /**
+     * @return the id of the last delta appended, or 0 if there is none
+     */
+    long lastDeltaId();
+
+    /**
+     * Fold a range of deltas into their aggregates: the deltas with ids from the first one not folded to size ids
+     * after it, up to the last one given. The deltas are claimed with one conditional update before they are
+     * summed, so that folds running at once on several nodes add each delta once, then summed and deleted with
+     * set-based statements.
+     *
+     * @param last the id of the last delta to fold
+     * @param size the number of ids of the range
+     * @return the number of deltas folded, 0 if none is left up to the last one or a concurrent fold claimed them
+     */
+    int fold(long last, int size);
+}
@@ -0,0 +1,145 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.StockAggregate;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of the {@link StockAggregateRepositoryCustom} fragment.
+ */
+public class StockAggregateRepositoryImpl implements StockAggregateRepositoryCustom {
+
+    private static final String FIND_PLACES_SQL = "select id, product_id, infrastructure_id, location_id, buy_price"
+        + " from stock_line where id in (:ids)";
+
+    private static final String CREATE_SQL = "insert into stock_aggregate"
+        + " (aggregate_key, product_id, infrastructure_id, location_id, units, stock_value)"
+        + " select ?, ?, ?, ?, 0, 0 from dual"
+        + " where not exists (select 1 from stock_aggregate a where a.aggregate_key = ?)";
+
+    private static final String ADD_SQL = "insert into stock_aggregate_delta (aggregate_key, units, stock_value)"
+        + " values (?, ?, ?)";
+
+    private static final String LAST_DELTA_SQL = "select coalesce(max(id), 0) from stock_aggregate_delta";
+
+    private static final String FIRST_UNCLAIMED_SQL = "select min(id) from stock_aggregate_delta"
+        + " where fold_id is null and id <= ?";
+
+    private static final String CLAIM_SQL = "update stock_aggregate_delta set fold_id = ?"
+        + " where id >= ? and id < ? and id <= ? and fold_id is null";
+
+    private static final String FOLD_SQL = "update stock_aggregate"
+        + " set units = units + (select coalesce(sum(d.units), 0) from stock_aggregate_delta d"
+        + " where d.fold_id = ? and d.aggregate_key = stock_aggregate.aggregate_key),"
+        + " stock_value = stock_value + (select coalesce(sum(d.stock_value), 0) from stock_aggregate_delta d"
+        + " where d.fold_id = ? and d.aggregate_key = stock_aggregate.aggregate_key)"
+        + " where aggregate_key in (select d.aggregate_key from stock_aggregate_delta d where d.fold_id = ?)";
+
+    private static final String DELETE_CLAIMED_SQL = "delete from stock_aggregate_delta where fold_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public StockAggregateRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public void create(Collection<StockAggregate> places) {
+        SortedMap<String, StockAggregate> aggregates = new TreeMap<>();
+        for (StockAggregate place : places) {
+            aggregates.putIfAbsent(place.getKey(), place);
+        }
+        if (aggregates.isEmpty()) {
+            return;
+        }
+        List<StockAggregate> entries = new ArrayList<>(aggregates.values());
+        try {
+            jdbcTemplate.batchUpdate(CREATE_SQL, entries, entries.size(), (ps, place) -> {
+                ps.setString(1, place.getKey());
+                ps.setObject(2, place.getProductId(), Types.BIGINT);
+                ps.setObject(3, place.getInfrastructureId(), Types.BIGINT);
+                ps.setString(4, place.getLocationId());
+                ps.setString(5, place.getKey());
+            });
+        } catch (DuplicateKeyException e) {
+            throw new ConcurrencyFailureException("A StockAggregate was created by a concurrent transaction", e);
+        }
+    }
+
+    @Override
+    public void addMovements(SortedMap<Long, Double> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        List<StockAggregate> deltas = namedParameterJdbcTemplate.query(FIND_PLACES_SQL,
+            Collections.singletonMap("ids", units.keySet()), (rs, rowNum) -> {
+                double movement = units.get(rs.getLong(1));
+                double buyPrice = rs.getDouble(5);
+                return new StockAggregate()
+                    .productId((Long) rs.getObject(2))
+                    .infrastructureId((Long) rs.getObject(3))
+                    .locationId(rs.getString(4))
+                    .units(movement)
+                    .value(movement * buyPrice);
+            });
+        add(deltas);
+    }
+
+    @Override
+    public void add(Collection<StockAggregate> deltas) {
+        SortedMap<String, double[]> sums = new TreeMap<>();
+        for (StockAggregate delta : deltas) {
+            double[] sum = sums.computeIfAbsent(delta.getKey(), key -> new double[2]);
+            sum[0] += delta.getUnits();
+            sum[1] += delta.getValue();
+        }
+        sums.values().removeIf(sum -> sum[0] == 0 && sum[1] == 0);
+        if (sums.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, double[]>> entries = new ArrayList<>(sums.entrySet());
+        jdbcTemplate.batchUpdate(ADD_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.getKey());
+            ps.setDouble(2, entry.getValue()[0]);
+            ps.setDouble(3, entry.getValue()[1]);
+        });
+    }
+
+    @Override
+    public long lastDeltaId() {
+        return jdbcTemplate.queryForObject(LAST_DELTA_SQL, Long.class);
+    }
+
+    @Override
+    public int fold(long last, int size) {
+        Long first = jdbcTemplate.queryForObject(FIRST_UNCLAIMED_SQL, Long.class, last);
+        if (first == null) {
+            return 0;
+        }
+        String foldId = UUID.randomUUID().toString();
+        // a row claimed by a concurrent fold is not claimed again once that fold commits
+        int claimed = jdbcTemplate.update(CLAIM_SQL, foldId, first, first + size, last);
+        if (claimed == 0) {
+            return 0;
+        }
+        jdbcTemplate.update(FOLD_SQL, foldId, foldId, foldId);
+        jdbcTemplate.update(DELETE_CLAIMED_SQL, foldId);
+        return claimed;
+    }
+}
@@ -7,10 +7,20 @@ import com.diviso.inventory.service.dto.StockLineDTO;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
 
 
 /**
@@ -20,42 +30,112 @@ import org.springframework.data.jpa.repository.*;
 @Repository
 public interface StockLineRepository extends JpaRepository<StockLine, Long> {
 
-	Page<StockLine> findByProduct_NameIgnoreCaseAndProduct_VisibleTrue(String name, Pageable pageable);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.name = :name and product.visible = true")
+	Page<StockLine> findByProduct_NameIgnoreCaseAndProduct_VisibleTrue(@Param("name") String name, Pageable pageable);
 
 	Page<StockLine> findByProduct_NameIgnoreCaseContainingAndProduct_VisibleTrue(Pageable pageable);
 
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.visible = false")
 	Page<StockLine> findByProduct_VisibleFalse(Pageable pageable);
 
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.visible = true")
 	Page<StockLine> findByProduct_VisibleTrue(Pageable pageable);
 
-	StockLine findByProduct_ReferenceIgnoreCaseAndProduct_VisibleTrue(String reference);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.reference = :reference and product.visible = true")
+	StockLine findByProduct_ReferenceIgnoreCaseAndProduct_VisibleTrue(@Param("reference") String reference);
 
-	StockLine findByProduct_SkuIgnoreCaseAndProduct_VisibleTrue(String sku);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.sku = :sku and product.visible = true")
+	StockLine findByProduct_SkuIgnoreCaseAndProduct_VisibleTrue(@Param("sku") String sku);
 
-	StockLine findByProduct_SearchkeyIgnoreCaseAndProduct_VisibleTrue(String searchkey);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.searchkey = :searchkey and product.visible = true")
+	StockLine findByProduct_SearchkeyIgnoreCaseAndProduct_VisibleTrue(@Param("searchkey") String searchkey);
 
-	StockLine findByProduct_MpnIgnoreCaseAndProduct_VisibleTrue(String mpn);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.mpn = :mpn and product.visible = true")
+	StockLine findByProduct_MpnIgnoreCaseAndProduct_VisibleTrue(@Param("mpn") String mpn);
 
-	StockLine findByProduct_Barcode_CodeAndProduct_VisibleTrue(String barcode);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product"
+			+ " join product.barcode barcode where barcode.code = :barcode and product.visible = true")
+	StockLine findByProduct_Barcode_CodeAndProduct_VisibleTrue(@Param("barcode") String barcode);
 
-	Page<StockLine> findByProduct_DateOfMfdAndProduct_VisibleTrue(LocalDate dateOfMfd, Pageable pageable);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.dateOfMfd = :dateOfMfd and product.visible = true")
+	Page<StockLine> findByProduct_DateOfMfdAndProduct_VisibleTrue(@Param("dateOfMfd") LocalDate dateOfMfd, Pageable pageable);
 
-	Page<StockLine> findByProduct_DateOfExpiryAndProduct_VisibleTrue(LocalDate dateOfExpiry, Pageable pageable);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.dateOfExpiry = :dateOfExpiry and product.visible = true")
+	Page<StockLine> findByProduct_DateOfExpiryAndProduct_VisibleTrue(@Param("dateOfExpiry") LocalDate dateOfExpiry, Pageable pageable);
 
-	Page<StockLine> findByProduct_DateOfExpiryBetweenAndProduct_VisibleTrue(LocalDate from, LocalDate to, Pageable pageable);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product"
+			+ " where product.dateOfExpiry between :from and :to and product.visible = true")
+	Page<StockLine> findByProduct_DateOfExpiryBetweenAndProduct_VisibleTrue(@Param("from") LocalDate from, @Param("to") LocalDate to,
+			Pageable pageable);
 
-	Page<StockLine> findByProduct_Status_NameIgnoreCaseAndProduct_VisibleTrue(String status, Pageable pageable);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product"
+			+ " join product.status status where status.name = :status and product.visible = true")
+	Page<StockLine> findByProduct_Status_NameIgnoreCaseAndProduct_VisibleTrue(@Param("status") String status, Pageable pageable);
 
-	Page<StockLine> findByProduct_Category_NameIgnoreCaseAndProduct_VisibleTrue(String name, Pageable pageable);
+	@Query("select stockLine from StockLine stockLine join stockLine.product product"
+			+ " join product.category category where category.name = :name and product.visible = true")
+	Page<StockLine> findByProduct_Category_NameIgnoreCaseAndProduct_VisibleTrue(@Param("name") String name, Pageable pageable);
 
 	StockLine findByReference(String reference);
 
 	Page<StockLine> findByInfrastructureId(Long infrastructureId, Pageable pageable);
 
-	Page<StockLine> findByLocationId(Long locationId, Pageable pageable);
+	Page<StockLine> findByLocationId(String locationId, Pageable pageable);
 
 	Page<StockLine> findBySupplierRef(Long supplierRef, Pageable pageable);
 
-	Page<StockLine> findByProduct_Category_IdAndProduct_VisibleTrue(Long id, Pageable pageable);
+	@Query(value = "select stockLine from StockLine stockLine where stockLine.product.id in :productIds",
+			countQuery = "select count(stockLine) from StockLine stockLine where stockLine.product.id in :productIds")
+	Page<StockLine> findByProductIdIn(@Param("productIds") Collection<Long> productIds, Pageable pageable);
+
+	@Query("select stockLine.version, stockLine.units, product.id, stockLine.infrastructureId, stockLine.locationId,"
+			+ " stockLine.buyPrice from StockLine stockLine left join stockLine.product product where stockLine.id = :id")
+	List<Object[]> findVersionUnitsAndPlaceById(@Param("id") Long id);
+
+	@Modifying
+	@Query("update StockLine stockLine set stockLine.version = stockLine.version + 1"
+			+ " where stockLine.id = :id and stockLine.version = :version")
+	int incrementVersion(@Param("id") Long id, @Param("version") Long version);
+
+	@Query("select stockLine from StockLine stockLine join stockLine.product product where product.category.id = :id and product.visible = true")
+	Page<StockLine> findByProduct_Category_IdAndProduct_VisibleTrue(@Param("id") Long id, Pageable pageable);
+
+	@Query("select distinct stockLine from StockLine stockLine left join fetch stockLine.product product"
+			+ " left join fetch product.barcode left join fetch product.labels where stockLine.id in :ids")
+	List<StockLine> findAllMarsheldByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select stockLine.id, stockLine.units from StockLine stockLine where stockLine.id in :ids")
+	List<Object[]> findUnitsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select stockLine.id, product.id, stockLine.infrastructureId, stockLine.locationId, stockLine.buyPrice"
+			+ " from StockLine stockLine left join stockLine.product product where stockLine.id in :ids")
+	List<Object[]> findPlacesByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select distinct stockLine.product.id from StockLine stockLine where stockLine.id in :ids and stockLine.product is not null")
+	List<Long> findProductIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select product.id, product.reOrderLevel, product.maximumStockLevel, stockLine.id, stockLine.units"
+			+ " from StockLine stockLine join stockLine.product product where product.id in :productIds")
+	List<Object[]> findLevelsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+	@Query("select product.id, product.reOrderLevel, product.maximumStockLevel, sum(coalesce(stockLine.units, 0.0))"
+			+ " from StockLine stockLine join stockLine.product product"
+			+ " where product.reOrderLevel is not null or product.maximumStockLevel is not null"
+			+ " group by product.id, product.reOrderLevel, product.maximumStockLevel"
+			+ " having sum(coalesce(stockLine.units, 0.0)) <= product.reOrderLevel"
+			+ " or sum(coalesce(stockLine.units, 0.0)) > product.maximumStockLevel")
+	List<Object[]> findAlertLevels();
+
+	@Query("select stockLine.product.id, stockLine.id from StockLine stockLine"
+			+ " where stockLine.product.id in :productIds order by stockLine.id")
+	List<Object[]> findIdsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+			@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE") })
+	@Query("select stockLine from StockLine stockLine left join fetch stockLine.uom"
+			+ " left join fetch stockLine.product product left join fetch product.barcode"
+			+ " left join fetch product.category left join fetch product.taxCategory"
+			+ " left join fetch product.status order by stockLine.id")
+	Stream<StockLine> streamAll();
 
 }
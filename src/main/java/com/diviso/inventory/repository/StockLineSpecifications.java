@@ -0,0 +1,81 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Category_;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Product_;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.StockLine_;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+
+/**
+ * Specifications of the StockLine finders, for reading them with the {@link KeysetRepository}.
+ * The product of a stockLine is inner joined, like in the finders.
+ */
+public final class StockLineSpecifications {
+
+    private StockLineSpecifications() {
+    }
+
+    public static Specification<StockLine> productVisible(boolean visible) {
+        return (root, query, builder) -> ProductSpecifications.visible(product(root), builder, visible);
+    }
+
+    public static Specification<StockLine> productNameAndProductVisibleTrue(String name) {
+        return (root, query, builder) -> ProductSpecifications.nameAndVisibleTrue(product(root), builder, name);
+    }
+
+    public static Specification<StockLine> productNameContainingAndProductVisibleTrue(String name) {
+        return (root, query, builder) -> ProductSpecifications.nameContainingAndVisibleTrue(product(root), builder, name);
+    }
+
+    public static Specification<StockLine> productCategoryNameAndProductVisibleTrue(String name) {
+        return (root, query, builder) -> ProductSpecifications.categoryNameAndVisibleTrue(product(root), builder, name);
+    }
+
+    public static Specification<StockLine> productCategoryIdAndProductVisibleTrue(Long id) {
+        return (root, query, builder) -> {
+            Join<StockLine, Product> product = product(root);
+            return builder.and(builder.equal(product.get(Product_.category).get(Category_.id), id),
+                ProductSpecifications.visible(product, builder, true));
+        };
+    }
+
+    public static Specification<StockLine> productDateOfMfdAndProductVisibleTrue(LocalDate dateOfMfd) {
+        return (root, query, builder) -> ProductSpecifications.dateOfMfdAndVisibleTrue(product(root), builder, dateOfMfd);
+    }
+
+    public static Specification<StockLine> productDateOfExpiryAndProductVisibleTrue(LocalDate dateOfExpiry) {
+        return (root, query, builder) ->
+            ProductSpecifications.dateOfExpiryAndVisibleTrue(product(root), builder, dateOfExpiry);
+    }
+
+    public static Specification<StockLine> productDateOfExpiryBetweenAndProductVisibleTrue(LocalDate from, LocalDate to) {
+        return (root, query, builder) ->
+            ProductSpecifications.dateOfExpiryBetweenAndVisibleTrue(product(root), builder, from, to);
+    }
+
+    public static Specification<StockLine> productStatusNameAndProductVisibleTrue(String status) {
+        return (root, query, builder) -> ProductSpecifications.statusNameAndVisibleTrue(product(root), builder, status);
+    }
+
+    public static Specification<StockLine> infrastructureId(Long infrastructureId) {
+        return (root, query, builder) -> builder.equal(root.get(StockLine_.infrastructureId), infrastructureId);
+    }
+
+    public static Specification<StockLine> locationId(String locationId) {
+        return (root, query, builder) -> builder.equal(root.get(StockLine_.locationId), locationId);
+    }
+
+    public static Specification<StockLine> supplierRef(Long supplierRef) {
+        return (root, query, builder) -> builder.equal(root.get(StockLine_.supplierRef), supplierRef);
+    }
+
+    private static Join<StockLine, Product> product(Root<StockLine> root) {
+        return root.join(StockLine_.product);
+    }
+}
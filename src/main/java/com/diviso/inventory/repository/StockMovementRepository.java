@@ -0,0 +1,21 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.StockMovement;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import org.springframework.data.jpa.repository.*;
+
+
+/**
+ * Spring Data JPA repository for the StockMovement entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, StockMovementRepositoryCustom {
+
+    Page<StockMovement> findByStockLineId(Long stockLineId, Pageable pageable);
+
+}
@@ -0,0 +1,40 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.enumeration.MovementType;
+
+import java.time.Instant;
+import java.util.SortedMap;
+
+/**
+ * Custom Spring Data repository fragment for the stock movement journal and its balance snapshots.
+ */
+public interface StockMovementRepositoryCustom {
+
+    /**
+     * Append movements to the journal with inserts sent as one JDBC batch. The inserts only take a row lock on
+     * the new movements, so concurrent writers of the same stockLines do not wait for each other. A movement of
+     * a stockLine which does not exist is not appended.
+     *
+     * The persistence context is flushed before and cleared after the batch, and the stockLines are evicted from
+     * the second level cache, as their units changed.
+     *
+     * @param type the type of the movements
+     * @param reference the reference of the movements, like the reference of a receipt or a transfer, or null
+     * @param units the signed units of the movements, by stockLine id
+     */
+    void append(MovementType type, String reference, SortedMap<Long, Double> units);
+
+    /**
+     * Fold the movements appended before a date into the balance snapshots of their stockLines. Only the
+     * movements after the last one folded into a snapshot are read, and the snapshots are updated with a
+     * set-based statement, so that concurrent snapshots are harmless.
+     *
+     * The movements are marked as folded first, and only the marked ones are summed into the snapshots, so a
+     * movement is never marked without being summed. A movement committed after the marking, by a transaction
+     * which got its id earlier, is neither: it is still read from the journal with the units of its stockLine.
+     *
+     * @param before the date before which the movements are folded
+     * @return the number of snapshots updated
+     */
+    int snapshot(Instant before);
+}
@@ -0,0 +1,97 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * JDBC implementation of the {@link StockMovementRepositoryCustom} fragment.
+ */
+public class StockMovementRepositoryImpl implements StockMovementRepositoryCustom {
+
+    private static final String APPEND_SQL = "insert into stock_movement (stock_line_id, jhi_type, units, reference, created_date)"
+        + " select id, ?, ?, ?, ? from stock_line where id = ?";
+
+    private static final String LAST_FOLDED_SQL = "select coalesce(max(balance_movement_id), 0) from stock_line";
+
+    private static final String LAST_BEFORE_SQL = "select max(id) from stock_movement where created_date ="
+        + " (select max(created_date) from stock_movement where created_date < ?)";
+
+    private static final String MARK_FOLDED_SQL = "update stock_movement set folded = true"
+        + " where id > ? and id <= ? and folded = false";
+
+    private static final String FOLD_SQL = "update stock_line"
+        + " set balance_units = balance_units + (select coalesce(sum(m.units), 0) from stock_movement m"
+        + " where m.stock_line_id = stock_line.id and m.folded = true"
+        + " and m.id > stock_line.balance_movement_id and m.id <= ?),"
+        + " balance_movement_id = ?"
+        + " where balance_movement_id < ? and id in (select m.stock_line_id from stock_movement m"
+        + " where m.id > ? and m.id <= ? and m.folded = true)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    public StockMovementRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void append(MovementType type, String reference, SortedMap<Long, Double> units) {
+        entityManager.flush();
+        final List<Map.Entry<Long, Double>> entries = new ArrayList<>(units.entrySet());
+        final Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(APPEND_SQL, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, type.name());
+                ps.setDouble(2, entries.get(i).getValue());
+                ps.setString(3, reference);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, entries.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+        entityManager.clear();
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        for (Long id : units.keySet()) {
+            cache.evict(StockLine.class, id);
+        }
+    }
+
+    @Override
+    public int snapshot(Instant before) {
+        Long last = jdbcTemplate.queryForObject(LAST_BEFORE_SQL, Long.class, Timestamp.from(before));
+        if (last == null) {
+            return 0;
+        }
+        Long lastFolded = jdbcTemplate.queryForObject(LAST_FOLDED_SQL, Long.class);
+        if (lastFolded >= last) {
+            return 0;
+        }
+        // the movements committed after they are marked are not folded, and still read from the journal
+        if (jdbcTemplate.update(MARK_FOLDED_SQL, lastFolded, last) == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(FOLD_SQL, last, last, last, lastFolded, last);
+    }
+}
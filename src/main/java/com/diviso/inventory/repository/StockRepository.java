@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -19,7 +20,7 @@ import java.util.Set;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface StockRepository extends JpaRepository<Stock, Long> {
+public interface StockRepository extends JpaRepository<Stock, Long>, StockRepositoryCustom {
     @Query("select distinct stock from Stock stock left join fetch stock.stockLines")
     List<Stock> findAllWithEagerRelationships();
 
@@ -28,15 +29,27 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
 	Stock findByReference(String reference);
 
-	Stock findByDeliveryNoteRef(String deliveryNoteRef);
+	Stock findByDeliveryNoteRef(Long deliveryNoteRef);
 
 	Page<Stock> findByDateOfStockUpdated(LocalDate dateOfStockUpdated, Pageable pageable);
 
 	Page<Stock> findByDateOfStockUpdatedBetween(LocalDate from, LocalDate to, Pageable pageable);
 
-	Page<Stock> findByStatus_Name(String status, Pageable pageable);
+	@Query("select stock from Stock stock join stock.status status where status.name = :status")
+	Page<Stock> findByStatus_Name(@Param("status") String status, Pageable pageable);
 
 	@Query("select distinct sl from Stock s join s.stockLines sl where s.id=:id")
 	Set<StockLine> findStockLinesByStockId(@Param("id") Long id);
 
+	@Query("select distinct stock from Stock stock left join fetch stock.stockLines stockLine"
+			+ " left join fetch stockLine.product product left join fetch product.barcode where stock.id = :id")
+	Stock findMarsheldById(@Param("id") Long id);
+
+	@Query("select distinct stock from Stock stock left join fetch stock.stockLines stockLine"
+			+ " left join fetch stockLine.product product left join fetch product.barcode where stock.id in :ids")
+	List<Stock> findAllMarsheldByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select stock.version from Stock stock where stock.id = :id")
+	Long findVersionById(@Param("id") Long id);
+
 }
@@ -0,0 +1,21 @@
+package com.diviso.inventory.repository;
+
+import java.util.List;
+
+/**
+ * Custom Spring Data repository fragment for the stockLines of a Stock.
+ */
+public interface StockRepositoryCustom {
+
+    /**
+     * Link stockLines to a stock with inserts in the join table sent as JDBC batches, without loading the
+     * stockLines nor the collection of the stock.
+     *
+     * The persistence context is flushed before the batches, and the collection of the stock is evicted from
+     * the second level cache.
+     *
+     * @param stockId the id of the stock
+     * @param stockLineIds the ids of the stockLines to link, which are not linked to the stock yet
+     */
+    void addStockLines(Long stockId, List<Long> stockLineIds);
+}
@@ -0,0 +1,39 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Stock;
+
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * JDBC implementation of the {@link StockRepositoryCustom} fragment.
+ */
+public class StockRepositoryImpl implements StockRepositoryCustom {
+
+    private static final String ADD_STOCK_LINE_SQL = "insert into stock_stock_lines (stocks_id, stock_lines_id) values (?, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    public StockRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void addStockLines(Long stockId, List<Long> stockLineIds) {
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(ADD_STOCK_LINE_SQL, stockLineIds, BATCH_SIZE, (ps, stockLineId) -> {
+            ps.setLong(1, stockId);
+            ps.setLong(2, stockLineId);
+        });
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache()
+            .evictCollection(Stock.class.getName() + ".stockLines", stockId);
+    }
+}
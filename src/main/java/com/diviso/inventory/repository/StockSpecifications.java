@@ -0,0 +1,30 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.domain.Status_;
+import com.diviso.inventory.domain.Stock;
+import com.diviso.inventory.domain.Stock_;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Specifications of the Stock finders, for reading them with the {@link KeysetRepository}.
+ */
+public final class StockSpecifications {
+
+    private StockSpecifications() {
+    }
+
+    public static Specification<Stock> dateOfStockUpdated(LocalDate dateOfStockUpdated) {
+        return (root, query, builder) -> builder.equal(root.get(Stock_.dateOfStockUpdated), dateOfStockUpdated);
+    }
+
+    public static Specification<Stock> dateOfStockUpdatedBetween(LocalDate from, LocalDate to) {
+        return (root, query, builder) -> builder.between(root.get(Stock_.dateOfStockUpdated), from, to);
+    }
+
+    public static Specification<Stock> statusName(String status) {
+        return (root, query, builder) -> builder.equal(root.join(Stock_.status).get(Status_.name), status);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
 
 /**
@@ -14,7 +15,7 @@ import org.springframework.data.jpa.repository.*;
 @Repository
 public interface TaxRepository extends JpaRepository<Tax, Long> {
 
-	
-	Page<Tax> findByTaxCategory_Id(Long id,Pageable pageable);
+	@Query("select tax from Tax tax where tax.taxCategory.id = :id")
+	Page<Tax> findByTaxCategory_Id(@Param("id") Long id,Pageable pageable);
 
 }
@@ -0,0 +1,55 @@
+package com.diviso.inventory.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Content-addressed store of binary content, such as the images of the products and categories.
+ * <p>
+ * Content is identified by the SHA-256 of its bytes, in lower case hexadecimal, so that storing
+ * the same content twice stores it once, and a content never changes once stored.
+ */
+public interface BlobStore {
+
+    /**
+     * Store a content.
+     *
+     * @param content the content to store, read to the end but not closed
+     * @return the hash of the content
+     * @throws IOException if the content cannot be read or stored
+     */
+    String put(InputStream content) throws IOException;
+
+    /**
+     * Get a content by hash.
+     *
+     * @param hash the hash of the content
+     * @return the content, or null if there is none with this hash
+     * @throws IOException if the content cannot be read
+     */
+    Blob find(String hash) throws IOException;
+
+    /**
+     * A stored content.
+     */
+    interface Blob {
+
+        /**
+         * @return the size of the content, in bytes
+         */
+        long size();
+
+        /**
+         * Transfer a range of the content to a channel, without copying it through the heap when the
+         * channel allows it.
+         *
+         * @param position the position of the first byte to transfer
+         * @param count the number of bytes to transfer
+         * @param target the channel to transfer to
+         * @return the number of bytes transferred
+         * @throws IOException if the content cannot be read or written
+         */
+        long transferTo(long position, long count, WritableByteChannel target) throws IOException;
+    }
+}
@@ -0,0 +1,71 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.model.ImageModel;
+
+import java.io.IOException;
+
+/**
+ * Service Interface for managing the images of Product and Category, kept in the {@link BlobStore}.
+ */
+public interface ImageService {
+
+    /**
+     * Get the image of a product.
+     *
+     * @param productId the id of the product
+     * @return the image, or null if the product does not exist or has no image
+     */
+    ImageModel findProductImage(Long productId);
+
+    /**
+     * Check that a product exists, before its image is stored.
+     *
+     * @param productId the id of the product
+     * @return true if the product exists
+     */
+    boolean productExists(Long productId);
+
+    /**
+     * Save the image of a product, already stored in the {@link BlobStore}.
+     *
+     * @param productId the id of the product
+     * @param contentType the content type of the image
+     * @param hash the hash of the image in the blob store
+     * @return the saved image, or null if the product does not exist
+     */
+    ImageModel saveProductImage(Long productId, String contentType, String hash);
+
+    /**
+     * Get the image of a category.
+     *
+     * @param categoryId the id of the category
+     * @return the image, or null if the category does not exist or has no image
+     */
+    ImageModel findCategoryImage(Long categoryId);
+
+    /**
+     * Check that a category exists, before its image is stored.
+     *
+     * @param categoryId the id of the category
+     * @return true if the category exists
+     */
+    boolean categoryExists(Long categoryId);
+
+    /**
+     * Save the image of a category, already stored in the {@link BlobStore}.
+     *
+     * @param categoryId the id of the category
+     * @param contentType the content type of the image
+     * @param hash the hash of the image in the blob store
+     * @return the saved image, or null if the category does not exist
+     */
+    ImageModel saveCategoryImage(Long categoryId, String contentType, String hash);
+
+    /**
+     * Move the images still held by the product and category rows to the blob store.
+     *
+     * @return the number of images moved
+     * @throws IOException if an image cannot be stored
+     */
+    int migrateLegacyImages() throws IOException;
+}
@@ -0,0 +1,57 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Service Interface keeping the visible products by day of expiry, and hiding them once expired.
+ */
+public interface ProductExpiryService {
+
+    /**
+     * Have products indexed again by their day of expiry, once the current transaction commits.
+     *
+     * @param products the products saved
+     */
+    void productsSaved(Collection<Product> products);
+
+    /**
+     * Have a product removed from the index, once the current transaction commits.
+     *
+     * @param productId the id of the product deleted
+     */
+    void productDeleted(Long productId);
+
+    /**
+     * Get the visible products expiring from today to the given number of days from now, by day of expiry.
+     *
+     * @param days the number of days from today
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<ProductDTO> findProductsExpiringWithin(int days, Pageable pageable);
+
+    /**
+     * Get the stockLines of the visible products expiring from today to the given number of days from now.
+     *
+     * @param days the number of days from today
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<StockLineDTO> findStockLinesExpiringWithin(int days, Pageable pageable);
+
+    /**
+     * Hide the products expired before a day, in batches.
+     *
+     * @param date the day the products expired before are hidden, today for the scheduled sweeps
+     * @return the number of products hidden
+     */
+    int sweep(LocalDate date);
+}
@@ -0,0 +1,25 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.service.dto.ImportReportDTO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+
+/**
+ * Service Interface for importing Products in bulk.
+ */
+public interface ProductImportService {
+
+    /**
+     * Import new products, given as rows of ProductImportDTO properties.
+     *
+     * The rows are read by chunks, so that the import holds one chunk at a time. The rows of a chunk are validated
+     * and mapped in parallel, and the valid ones are saved in one transaction; a row which is not valid, or cannot
+     * be saved, is reported and does not stop the import.
+     *
+     * @param rows the rows to import, a row being null if it could not be read
+     * @return the report of the import
+     */
+    ImportReportDTO importAll(Iterator<JsonNode> rows);
+}
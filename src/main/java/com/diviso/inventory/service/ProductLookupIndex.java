@@ -0,0 +1,221 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Product;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Node-local index from the codes scanned at the till to product and stockLine ids.
+ * <p>
+ * Barcodes are matched exactly, the other keys ignoring case, like the repository queries they stand in for.
+ * Only visible products are indexed. Lookups are lock-free; writers are serialized so that a product's keys
+ * are always replaced as a whole.
+ * <p>
+ * The index is filled as products are looked up or saved on this node, so it may be stale for changes made
+ * on other nodes: callers must check that the entity loaded for an id still {@link #matches} the key, and
+ * fall back to the repository otherwise.
+ * <p>
+ * A product may have several stockLines, at different locations or infrastructures: all the ones known on
+ * this node are indexed, and a stockLine is only resolved for a product with a single one.
+ */
+@Component
+public class ProductLookupIndex {
+
+    /**
+     * The product attributes a product can be looked up by.
+     */
+    public enum Key {
+        BARCODE, REFERENCE, SEARCHKEY, SKU, MPN
+    }
+
+    private static final Key[] KEYS = Key.values();
+
+    private final Map<Key, ConcurrentMap<String, Long>> productIds = new EnumMap<>(Key.class);
+
+    private final ConcurrentMap<Long, String[]> productKeys = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Set<Long>> stockLineIds = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Long> stockLineProductIds = new ConcurrentHashMap<>();
+
+    public ProductLookupIndex() {
+        for (Key key : KEYS) {
+            productIds.put(key, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Get the id of the product indexed under the given key.
+     *
+     * @param key the attribute to look up by
+     * @param value the value of the attribute
+     * @return the product id, or null if none is indexed
+     */
+    public Long findProductId(Key key, String value) {
+        String normalized = normalize(key, value);
+        return normalized == null ? null : productIds.get(key).get(normalized);
+    }
+
+    /**
+     * Get the id of the stockLine indexed for the given product, when it is the only one.
+     *
+     * @param productId the id of the product
+     * @return the stockLine id, or null if none or several are indexed
+     */
+    public Long findStockLineId(Long productId) {
+        Set<Long> ids = productId == null ? null : stockLineIds.get(productId);
+        return ids == null || ids.size() != 1 ? null : ids.iterator().next();
+    }
+
+    /**
+     * Check that a product is still visible and has the given value for the key.
+     *
+     * @param product the product loaded for an indexed id
+     * @param key the attribute looked up by
+     * @param value the value looked up
+     * @return true if the product is what a repository lookup would return
+     */
+    public boolean matches(Product product, Key key, String value) {
+        if (product == null || !Boolean.TRUE.equals(product.isVisible())) {
+            return false;
+        }
+        String normalized = normalize(key, value);
+        return normalized != null && normalized.equals(normalize(key, valueOf(product, key)));
+    }
+
+    /**
+     * Index the keys of a product, replacing the ones it was indexed under before.
+     * A product that is not visible is removed from the index.
+     *
+     * @param product the product to index
+     */
+    public synchronized void putProduct(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(product.isVisible())) {
+            removeProduct(product.getId());
+            return;
+        }
+        String[] keys = new String[KEYS.length];
+        for (Key key : KEYS) {
+            keys[key.ordinal()] = normalize(key, valueOf(product, key));
+        }
+        removeKeys(product.getId(), productKeys.put(product.getId(), keys));
+        for (Key key : KEYS) {
+            if (keys[key.ordinal()] != null) {
+                productIds.get(key).put(keys[key.ordinal()], product.getId());
+            }
+        }
+    }
+
+    /**
+     * Remove a product, and its stockLines, from the index.
+     *
+     * @param productId the id of the product
+     */
+    public synchronized void removeProduct(Long productId) {
+        removeKeys(productId, productKeys.remove(productId));
+        Set<Long> ids = stockLineIds.remove(productId);
+        if (ids != null) {
+            for (Long stockLineId : ids) {
+                stockLineProductIds.remove(stockLineId, productId);
+            }
+        }
+    }
+
+    /**
+     * Index a stockLine of a product, moving it from the product it was indexed under before.
+     *
+     * @param stockLineId the id of the stockLine
+     * @param productId the id of its product
+     */
+    public synchronized void putStockLine(Long stockLineId, Long productId) {
+        if (stockLineId == null) {
+            return;
+        }
+        removeStockLine(stockLineId);
+        if (productId != null) {
+            Set<Long> ids = new HashSet<>(stockLineIds.getOrDefault(productId, Collections.emptySet()));
+            ids.add(stockLineId);
+            stockLineIds.put(productId, Collections.unmodifiableSet(ids));
+            stockLineProductIds.put(stockLineId, productId);
+        }
+    }
+
+    /**
+     * Remove a stockLine from the index.
+     *
+     * @param stockLineId the id of the stockLine
+     */
+    public synchronized void removeStockLine(Long stockLineId) {
+        Long productId = stockLineProductIds.remove(stockLineId);
+        Set<Long> ids = productId == null ? null : stockLineIds.get(productId);
+        if (ids != null) {
+            // the sets are replaced rather than changed, so that lookups read them without locking
+            Set<Long> remaining = new HashSet<>(ids);
+            remaining.remove(stockLineId);
+            if (remaining.isEmpty()) {
+                stockLineIds.remove(productId);
+            } else {
+                stockLineIds.put(productId, Collections.unmodifiableSet(remaining));
+            }
+        }
+    }
+
+    /**
+     * Remove every entry from the index.
+     */
+    public synchronized void clear() {
+        for (Key key : KEYS) {
+            productIds.get(key).clear();
+        }
+        productKeys.clear();
+        stockLineIds.clear();
+        stockLineProductIds.clear();
+    }
+
+    private void removeKeys(Long productId, String[] keys) {
+        if (keys == null) {
+            return;
+        }
+        for (Key key : KEYS) {
+            if (keys[key.ordinal()] != null) {
+                productIds.get(key).remove(keys[key.ordinal()], productId);
+            }
+        }
+    }
+
+    private static String valueOf(Product product, Key key) {
+        switch (key) {
+            case BARCODE:
+                Barcode barcode = product.getBarcode();
+                return barcode == null ? null : barcode.getCode();
+            case REFERENCE:
+                return product.getReference();
+            case SEARCHKEY:
+                return product.getSearchkey();
+            case SKU:
+                return product.getSku();
+            default:
+                return product.getMpn();
+        }
+    }
+
+    private static String normalize(Key key, String value) {
+        if (value == null) {
+            return null;
+        }
+        return key == Key.BARCODE ? value : value.toLowerCase(Locale.ROOT);
+    }
+}
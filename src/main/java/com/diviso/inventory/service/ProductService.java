@@ -1,15 +1,20 @@
 package com.diviso.inventory.service;
 
+import com.diviso.inventory.domain.Product;
 import com.diviso.inventory.model.NoteModel;
 import com.diviso.inventory.model.ProductModel;
 import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.ProductSummaryDTO;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 
 /**
  * Service Interface for managing Product.
@@ -32,6 +37,33 @@ public interface ProductService {
      */
     Page<ProductDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a slice of the products matching a specification, in id order, without counting them.
+     *
+     * @param specification the products to page through, or null for all of them
+     * @param after the id of the last product of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return the list of entities
+     */
+    Slice<ProductDTO> findAllAfter(Specification<Product> specification, Long after, int size);
+
+    /**
+     * Get the summaries of the products matching a specification.
+     *
+     * @param specification the products to page through, or null for all of them
+     * @param pageable the pagination information
+     * @return the list of summaries
+     */
+    Page<ProductSummaryDTO> findAllSummaries(Specification<Product> specification, Pageable pageable);
+
+    /**
+     * Export all the products, in id order.
+     * They are read forward-only and handed over in batches, so the number of products does not bound the heap.
+     *
+     * @param consumer the consumer of the products
+     */
+    void exportAll(Consumer<ProductDTO> consumer);
+
     /**
      * Get the "id" product.
      *
@@ -151,6 +183,15 @@ public interface ProductService {
      */
 	Page<ProductDTO> findByDateOfExpiryBetweenAndVisibleTrue(LocalDate from, LocalDate to, Pageable pageable);
 
+	/**
+     * Get all the visible products expiring within a number of days, by day of expiry.
+     *
+     * @param days the number of days from today
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+	Page<ProductDTO> findExpiringWithin(int days, Pageable pageable);
+
 	/**
      * Get all the products by status.
      *
@@ -163,6 +204,6 @@ public interface ProductService {
 
 	List<NoteModel> findNoteByProductId(Long id,Pageable pageable);
 
-	List<ProductModel> findAllProductsMarsheld(ArrayList<ProductDTO> dtoList, Pageable pageable);
+	Page<ProductModel> findAllProductsMarsheld(ArrayList<ProductDTO> dtoList, Pageable pageable);
 
 }
@@ -0,0 +1,385 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.domain.Status;
+import com.diviso.inventory.domain.TaxCategory;
+import com.diviso.inventory.domain.Uom;
+import com.diviso.inventory.model.CategoryModel;
+import com.diviso.inventory.model.StatusModel;
+import com.diviso.inventory.model.TaxCategoryModel;
+import com.diviso.inventory.model.UomModel;
+import com.diviso.inventory.repository.CategoryRepository;
+import com.diviso.inventory.repository.LabelRepository;
+import com.diviso.inventory.repository.StatusRepository;
+import com.diviso.inventory.repository.TaxCategoryRepository;
+import com.diviso.inventory.repository.TaxRepository;
+import com.diviso.inventory.repository.UomRepository;
+import com.diviso.inventory.service.dto.CategoryDTO;
+import com.diviso.inventory.service.dto.LabelDTO;
+import com.diviso.inventory.service.dto.StatusDTO;
+import com.diviso.inventory.service.dto.TaxCategoryDTO;
+import com.diviso.inventory.service.dto.TaxDTO;
+import com.diviso.inventory.service.dto.UomDTO;
+import com.diviso.inventory.service.mapper.CategoryMapper;
+import com.diviso.inventory.service.mapper.LabelMapper;
+import com.diviso.inventory.service.mapper.StatusMapper;
+import com.diviso.inventory.service.mapper.TaxCategoryMapper;
+import com.diviso.inventory.service.mapper.TaxMapper;
+import com.diviso.inventory.service.mapper.UomMapper;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Node-local cache of the reference data: the categories, statuses, uoms, taxCategories, taxes and labels.
+ * <p>
+ * Each region holds all the rows of its table as an immutable snapshot of DTOs, loaded from the database on first
+ * read and replaced as a whole, so that reads are lock-free and never go through a persistence context. The DTOs
+ * are shared by all the readers: they must not be modified.
+ * <p>
+ * A change to a region is published on a Hazelcast topic when its transaction completes, and every node drops
+ * its snapshot of the region, to load it again on the next read. A snapshot loaded in a read-write transaction, which
+ * could see changes which are not committed yet, is only kept until the transaction completes. An id which is not in the
+ * snapshot, like a row added by another node whose invalidation is still on its way, is read from the database.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private static final String TOPIC = "referenceData";
+
+    private final Logger log = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final Map<String, Region<?>> regions = new LinkedHashMap<>();
+
+    private final Region<CategoryDTO> categories;
+
+    private final Region<StatusDTO> statuses;
+
+    private final Region<UomDTO> uoms;
+
+    private final Region<TaxCategoryDTO> taxCategories;
+
+    private final Region<TaxDTO> taxes;
+
+    private final Region<LabelDTO> labels;
+
+    private ITopic<String> topic;
+
+    private String listenerId;
+
+    public ReferenceDataCache(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+            StatusRepository statusRepository, StatusMapper statusMapper, UomRepository uomRepository,
+            UomMapper uomMapper, TaxCategoryRepository taxCategoryRepository, TaxCategoryMapper taxCategoryMapper,
+            TaxRepository taxRepository, TaxMapper taxMapper, LabelRepository labelRepository, LabelMapper labelMapper,
+            PlatformTransactionManager transactionManager, HazelcastInstance hazelcastInstance) {
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.hazelcastInstance = hazelcastInstance;
+        this.categories = region("category", categoryRepository, categoryMapper::toDto, CategoryDTO::getId);
+        this.statuses = region("status", statusRepository, statusMapper::toDto, StatusDTO::getId);
+        this.uoms = region("uom", uomRepository, uomMapper::toDto, UomDTO::getId);
+        this.taxCategories = region("taxCategory", taxCategoryRepository, taxCategoryMapper::toDto, TaxCategoryDTO::getId);
+        this.taxes = region("tax", taxRepository, taxMapper::toDto, TaxDTO::getId);
+        this.labels = region("label", labelRepository, labelMapper::toDto, LabelDTO::getId);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        topic = hazelcastInstance.getTopic(TOPIC);
+        listenerId = topic.addMessageListener(this::onMessage);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (hazelcastInstance.getLifecycleService().isRunning()) {
+            topic.removeMessageListener(listenerId);
+        }
+    }
+
+    public Region<CategoryDTO> categories() {
+        return categories;
+    }
+
+    public Region<StatusDTO> statuses() {
+        return statuses;
+    }
+
+    public Region<UomDTO> uoms() {
+        return uoms;
+    }
+
+    public Region<TaxCategoryDTO> taxCategories() {
+        return taxCategories;
+    }
+
+    public Region<TaxDTO> taxes() {
+        return taxes;
+    }
+
+    public Region<LabelDTO> labels() {
+        return labels;
+    }
+
+    /**
+     * Get the model of the category an entity refers to, without loading the category.
+     *
+     * @param category the category, which may be an uninitialized proxy, or null
+     * @return a new model of the category, or null
+     */
+    public CategoryModel categoryModel(Category category) {
+        CategoryDTO dto = category == null ? null : categories.find(category.getId());
+        return dto == null ? null : new CategoryModel(dto.getId(), dto.getDescription(), dto.getImageHash(),
+            dto.getImageContentType(), dto.getName());
+    }
+
+    /**
+     * Get the model of the status an entity refers to, without loading the status.
+     *
+     * @param status the status, which may be an uninitialized proxy, or null
+     * @return a new model of the status, or null
+     */
+    public StatusModel statusModel(Status status) {
+        StatusDTO dto = status == null ? null : statuses.find(status.getId());
+        return dto == null ? null : new StatusModel(dto.getId(), dto.getDescription(), dto.getName(), dto.getReference());
+    }
+
+    /**
+     * Get the model of the taxCategory an entity refers to, without loading the taxCategory.
+     *
+     * @param taxCategory the taxCategory, which may be an uninitialized proxy, or null
+     * @return a new model of the taxCategory, or null
+     */
+    public TaxCategoryModel taxCategoryModel(TaxCategory taxCategory) {
+        TaxCategoryDTO dto = taxCategory == null ? null : taxCategories.find(taxCategory.getId());
+        return dto == null ? null : new TaxCategoryModel(dto.getId(), dto.getDescription(), dto.getName());
+    }
+
+    /**
+     * Get the model of the uom an entity refers to, without loading the uom.
+     *
+     * @param uom the uom, which may be an uninitialized proxy, or null
+     * @return a new model of the uom, or null
+     */
+    public UomModel uomModel(Uom uom) {
+        UomDTO dto = uom == null ? null : uoms.find(uom.getId());
+        if (dto == null) {
+            return null;
+        }
+        UomModel uomModel = new UomModel();
+        uomModel.setId(dto.getId());
+        uomModel.setName(dto.getName());
+        return uomModel;
+    }
+
+    private void onMessage(Message<String> message) {
+        if (message.getPublishingMember() != null && message.getPublishingMember().localMember()) {
+            return;
+        }
+        Region<?> region = regions.get(message.getMessageObject());
+        if (region != null) {
+            log.debug("Invalidating the reference data of {} changed by {}", region.name, message.getPublishingMember());
+            region.drop();
+        }
+    }
+
+    private <E, D> Region<D> region(String name, JpaRepository<E, Long> repository, Function<E, D> mapper,
+            Function<D, Long> id) {
+        Region<D> region = new Region<>(name, repository, mapper, id);
+        regions.put(name, region);
+        return region;
+    }
+
+    /**
+     * The reference data of one table.
+     *
+     * @param <D> the type of the DTOs
+     */
+    public final class Region<D> {
+
+        private final String name;
+
+        private final JpaRepository<?, Long> repository;
+
+        private final Function<Object, D> mapper;
+
+        private final Function<D, Long> id;
+
+        private final AtomicReference<Snapshot<D>> snapshot = new AtomicReference<>();
+
+        private final AtomicLong generation = new AtomicLong();
+
+        @SuppressWarnings("unchecked")
+        private <E> Region(String name, JpaRepository<E, Long> repository, Function<E, D> mapper, Function<D, Long> id) {
+            this.name = name;
+            this.repository = repository;
+            this.mapper = (Function<Object, D>) mapper;
+            this.id = id;
+        }
+
+        /**
+         * Get one entity by id.
+         *
+         * @param id the id of the entity, or null
+         * @return the entity, or null if there is none
+         */
+        public D find(Long id) {
+            if (id == null) {
+                return null;
+            }
+            D dto = snapshot().byId.get(id);
+            if (dto == null) {
+                dto = readOnlyTransactionTemplate.execute(status -> {
+                    Object entity = repository.findOne(id);
+                    return entity == null ? null : mapper.apply(entity);
+                });
+            }
+            return dto;
+        }
+
+        /**
+         * Get all the entities, in id order.
+         *
+         * @return the list of entities
+         */
+        public List<D> findAll() {
+            return snapshot().all;
+        }
+
+        /**
+         * Get a page of the entities, in id order.
+         *
+         * @param pageable the pagination information, without sort
+         * @return the page of entities
+         */
+        public Page<D> findAll(Pageable pageable) {
+            List<D> all = findAll();
+            int from = Math.min(pageable.getOffset(), all.size());
+            int to = Math.min(from + pageable.getPageSize(), all.size());
+            return new PageImpl<>(all.subList(from, to), pageable, all.size());
+        }
+
+        /**
+         * Drop the snapshot on every node, once the current transaction, if any, completes.
+         */
+        public void invalidate() {
+            if (TransactionSynchronizationManager.hasResource(this)) {
+                TransactionSynchronizationManager.unbindResource(this);
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        publish();
+                    }
+                });
+            } else {
+                publish();
+            }
+        }
+
+        private void publish() {
+            drop();
+            try {
+                topic.publish(name);
+            } catch (RuntimeException e) {
+                log.warn("Cannot publish the invalidation of the reference data of {}: {}", name, e.getMessage());
+            }
+        }
+
+        private void drop() {
+            generation.incrementAndGet();
+            snapshot.set(null);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Snapshot<D> snapshot() {
+            Snapshot<D> current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+            boolean readWrite = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+            if (readWrite) {
+                // Kept for the rest of the transaction only, as it may hold changes which are not committed yet
+                Snapshot<D> bound = (Snapshot<D>) TransactionSynchronizationManager.getResource(this);
+                if (bound == null) {
+                    bound = load();
+                    bindUntilCompletion(bound);
+                }
+                return bound;
+            }
+            long loadedGeneration = generation.get();
+            Snapshot<D> loaded = readOnlyTransactionTemplate.execute(status -> load());
+            if (snapshot.compareAndSet(null, loaded) && generation.get() != loadedGeneration) {
+                // Invalidated while loading: the snapshot may be stale
+                snapshot.compareAndSet(loaded, null);
+            }
+            return loaded;
+        }
+
+        private void bindUntilCompletion(Snapshot<D> bound) {
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (TransactionSynchronizationManager.hasResource(Region.this)) {
+                        TransactionSynchronizationManager.unbindResource(Region.this);
+                    }
+                }
+            });
+        }
+
+        private Snapshot<D> load() {
+            log.debug("Loading the reference data of {}", name);
+            List<D> all = new ArrayList<>();
+            for (Object entity : repository.findAll(new Sort("id"))) {
+                all.add(mapper.apply(entity));
+            }
+            return new Snapshot<>(all, id);
+        }
+    }
+
+    private static final class Snapshot<D> {
+
+        private final List<D> all;
+
+        private final Map<Long, D> byId;
+
+        private Snapshot(List<D> all, Function<D, Long> id) {
+            Map<Long, D> byId = new LinkedHashMap<>();
+            for (D dto : all) {
+                byId.put(id.apply(dto), dto);
+            }
+            this.all = Collections.unmodifiableList(all);
+            this.byId = Collections.unmodifiableMap(byId);
+        }
+    }
+}
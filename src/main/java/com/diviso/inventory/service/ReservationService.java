@@ -0,0 +1,64 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.service.dto.ReservationDTO;
+
+/**
+ * Service Interface for the reservations, the units of the stockLines held for the carts before checkout.
+ */
+public interface ReservationService {
+
+    /**
+     * Hold units of a stockLine, if it has them available to sell.
+     *
+     * @param reservationDTO the stockLine, the units and the reference of the reservation
+     * @param ttl the milliseconds the units are held for, or null for the default
+     * @return the reservation held, or null if the stockLine does not exist or does not have the units available
+     */
+    ReservationDTO reserve(ReservationDTO reservationDTO, Long ttl);
+
+    /**
+     * Confirm a held reservation: its units are sold.
+     *
+     * @param id the id of the reservation
+     * @return the reservation confirmed, or null if it is not held
+     */
+    ReservationDTO confirm(String id);
+
+    /**
+     * Release a held reservation: its units are available to sell again.
+     *
+     * @param id the id of the reservation
+     * @return the reservation released, or null if it is not held
+     */
+    ReservationDTO release(String id);
+
+    /**
+     * Get a reservation.
+     *
+     * @param id the id of the reservation
+     * @return the reservation, or null if there is none
+     */
+    ReservationDTO findOne(String id);
+
+    /**
+     * Get the units of a stockLine available to sell: its units less the units held.
+     *
+     * @param stockLineId the id of the stockLine
+     * @return the units available to sell, or null if the stockLine does not exist
+     */
+    Double findAvailable(Long stockLineId);
+
+    /**
+     * Expire the reservations whose time is up.
+     *
+     * @return the number of reservations expired
+     */
+    int expire();
+
+    /**
+     * Write the reservations created or settled since the last flush to the database.
+     *
+     * @return the number of reservations written
+     */
+    int flush();
+}
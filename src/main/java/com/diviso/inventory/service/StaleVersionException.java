@@ -0,0 +1,18 @@
+package com.diviso.inventory.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Thrown when an update carries a version that no longer matches the stored entity.
+ *
+ * Unlike a conflict detected while flushing, running the update again cannot succeed,
+ * so it is not retried and is reported to the client as a conflict.
+ */
+public class StaleVersionException extends ObjectOptimisticLockingFailureException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StaleVersionException(Class<?> persistentClass, Object identifier) {
+        super(persistentClass, identifier);
+    }
+}
@@ -0,0 +1,39 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.service.dto.StockAggregateDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Service Interface reading the units and value in stock per product, location and infrastructure.
+ */
+public interface StockAggregateService {
+
+    /**
+     * Get the aggregates of a location.
+     *
+     * @param locationId the id of the location
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<StockAggregateDTO> findByLocationId(Long locationId, Pageable pageable);
+
+    /**
+     * Get the aggregates of an infrastructure.
+     *
+     * @param infrastructureId the id of the infrastructure
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<StockAggregateDTO> findByInfrastructureId(Long infrastructureId, Pageable pageable);
+
+    /**
+     * Get the aggregates of a product.
+     *
+     * @param productId the id of the product
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<StockAggregateDTO> findByProductId(Long productId, Pageable pageable);
+}
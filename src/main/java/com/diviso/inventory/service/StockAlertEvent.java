@@ -0,0 +1,37 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.model.StockAlertModel;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published on the node which evaluated a product when its units cross its re-order or maximum stock level.
+ */
+public class StockAlertEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StockAlertModel alert;
+
+    private final StockAlertModel.Level previousLevel;
+
+    public StockAlertEvent(Object source, StockAlertModel alert, StockAlertModel.Level previousLevel) {
+        super(source);
+        this.alert = alert;
+        this.previousLevel = previousLevel;
+    }
+
+    /**
+     * @return the stock level of the product, with its new level
+     */
+    public StockAlertModel getAlert() {
+        return alert;
+    }
+
+    /**
+     * @return the level of the product before the change
+     */
+    public StockAlertModel.Level getPreviousLevel() {
+        return previousLevel;
+    }
+}
@@ -0,0 +1,54 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.model.StockAlertModel;
+import com.diviso.inventory.service.dto.StockLineDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+
+/**
+ * Service Interface keeping track of the products whose units are below their re-order level or above their maximum
+ * stock level.
+ */
+public interface StockAlertService {
+
+    /**
+     * Have the products of stockLines evaluated again, once the current transaction commits.
+     *
+     * @param stockLineIds the ids of the stockLines whose units or product changed
+     */
+    void stockLinesChanged(Collection<Long> stockLineIds);
+
+    /**
+     * Have products evaluated again, once the current transaction commits.
+     *
+     * @param productIds the ids of the products whose levels or stockLines changed
+     */
+    void productsChanged(Collection<Long> productIds);
+
+    /**
+     * Evaluate the products changed since the last evaluation.
+     *
+     * @return the number of products which crossed a level
+     */
+    int evaluate();
+
+    /**
+     * Get the level of a product.
+     *
+     * @param productId the id of the product
+     * @return the level of the product, NORMAL if it is not below its re-order level nor above its maximum one
+     */
+    StockAlertModel findOne(Long productId);
+
+    /**
+     * Get the stockLines of the products at a level, in id order.
+     *
+     * @param level BELOW_REORDER or OVERSTOCK
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<StockLineDTO> findStockLines(StockAlertModel.Level level, Pageable pageable);
+}
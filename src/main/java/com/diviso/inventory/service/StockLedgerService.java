@@ -0,0 +1,66 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.domain.StockAggregate;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.model.StockLevelUpdateModel;
+import com.diviso.inventory.service.dto.StockMovementDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.SortedMap;
+
+/**
+ * Service Interface for the stock movement journal, from which the units of the stockLines are derived.
+ */
+public interface StockLedgerService {
+
+    /**
+     * Append movements to the journal. Movements of stockLines which do not exist are not appended.
+     *
+     * @param type the type of the movements
+     * @param reference the reference of the movements, or null
+     * @param units the signed units of the movements, by stockLine id
+     */
+    void append(MovementType type, String reference, SortedMap<Long, Double> units);
+
+    /**
+     * Append movements to the journal, adding deltas the caller already knows to the stock aggregates instead of
+     * the units and value of the movements.
+     *
+     * @param type the type of the movements
+     * @param reference the reference of the movements, or null
+     * @param units the signed units of the movements, by stockLine id
+     * @param aggregates the deltas of the stock aggregates, including the movements
+     */
+    void append(MovementType type, String reference, SortedMap<Long, Double> units,
+        Collection<StockAggregate> aggregates);
+
+    /**
+     * Move units from a stockLine to another, with two movements of the same reference.
+     *
+     * @param fromStockLineId the id of the stockLine the units are taken from
+     * @param toStockLineId the id of the stockLine the units are added to
+     * @param units the units to move
+     * @param reference the reference of the transfer, or null to generate one
+     * @return the updated and negative stockLine ids, or the missing ones if nothing was moved
+     */
+    StockLevelUpdateModel transfer(Long fromStockLineId, Long toStockLineId, Double units, String reference);
+
+    /**
+     * Get the movements of a stockLine.
+     *
+     * @param stockLineId the id of the stockLine
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    Page<StockMovementDTO> findByStockLineId(Long stockLineId, Pageable pageable);
+
+    /**
+     * Fold the movements older than the grace period into the balance snapshots of their stockLines.
+     *
+     * @return the number of snapshots updated
+     */
+    int snapshot();
+}
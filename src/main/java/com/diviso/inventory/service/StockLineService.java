@@ -1,14 +1,19 @@
 package com.diviso.inventory.service;
 
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.model.StockLevelUpdateModel;
 import com.diviso.inventory.model.StockLineModel;
 import com.diviso.inventory.service.dto.StockLineDTO;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 
 /**
  * Service Interface for managing StockLine.
@@ -31,6 +36,24 @@ public interface StockLineService {
      */
     Page<StockLineDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a slice of the stockLines matching a specification, in id order, without counting them.
+     *
+     * @param specification the stockLines to page through, or null for all of them
+     * @param after the id of the last stockLine of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return the list of entities
+     */
+    Slice<StockLineDTO> findAllAfter(Specification<StockLine> specification, Long after, int size);
+
+    /**
+     * Export all the stockLines, in id order.
+     * They are read forward-only and handed over in batches, so the number of stockLines does not bound the heap.
+     *
+     * @param consumer the consumer of the stockLines
+     */
+    void exportAll(Consumer<StockLineDTO> consumer);
+
     /**
      * Get the "id" stockLine.
      *
@@ -192,7 +215,38 @@ public interface StockLineService {
      */
 	Page<StockLineDTO> findBySupplierRef(Long supplierRef, Pageable pageable);
 
-	List<StockLineDTO> updateStockLevel(ArrayList<StockLineDTO> stockLines);
+	/**
+     * Get all the stockLines of the products at or below their re-order level.
+     *
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+	Page<StockLineDTO> findBelowReorder(Pageable pageable);
+
+	/**
+     * Get all the stockLines of the products above their maximum stock level.
+     *
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+	Page<StockLineDTO> findOverStock(Pageable pageable);
+
+	/**
+     * Get all the stockLines of the visible products expiring within a number of days.
+     *
+     * @param days the number of days from today
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+	Page<StockLineDTO> findByProductExpiringWithin(int days, Pageable pageable);
+
+	/**
+     * Subtract the units of the given stockLines from the stock levels.
+     *
+     * @param stockLines the ids and the units to subtract
+     * @return the updated, missing and negative stockLine ids
+     */
+	StockLevelUpdateModel updateStockLevel(ArrayList<StockLineDTO> stockLines);
 
 	StockLineModel findMarsheldStockLine(Long id);
 
@@ -1,6 +1,7 @@
 package com.diviso.inventory.service;
 
 
+import com.diviso.inventory.domain.Stock;
 import com.diviso.inventory.model.StockModel;
 import com.diviso.inventory.service.dto.StockDTO;
 
@@ -10,6 +11,8 @@ import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 
 /**
  * Service Interface for managing Stock.
@@ -24,6 +27,14 @@ public interface StockService {
      */
     StockDTO save(StockDTO stockDTO);
 
+    /**
+     * Receive a new stock with its new stockLines, such as a goods receipt, with batched inserts.
+     *
+     * @param stockDTO the entity to create, with the stockLines to create
+     * @return the persisted entity, with its persisted stockLines
+     */
+    StockDTO receive(StockDTO stockDTO);
+
     /**
      * Get all the stocks.
      *
@@ -32,6 +43,16 @@ public interface StockService {
      */
     Page<StockDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a slice of the stocks matching a specification, in id order, without counting them.
+     *
+     * @param specification the stocks to page through, or null for all of them
+     * @param after the id of the last stock of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return the list of entities
+     */
+    Slice<StockDTO> findAllAfter(Specification<Stock> specification, Long after, int size);
+
     /**
      * Get the "id" stock.
      *
@@ -0,0 +1,106 @@
+package com.diviso.inventory.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel, telling which of the scheduled items are due without scanning the others.
+ * <p>
+ * The time is cut into ticks and each tick into a bucket of the wheel, which wraps around: an item is added to
+ * the bucket of the tick of its deadline, and advancing the wheel to a time only looks at the buckets of the ticks
+ * elapsed since the last advance. An item more than a revolution away stays in its bucket until its round comes.
+ * Scheduling is constant time, and cancelling is left to the caller, who ignores the items it no longer holds.
+ * <p>
+ * The wheel is thread-safe; the times are in milliseconds.
+ *
+ * @param <T> the type of the scheduled items
+ */
+public class TimerWheel<T> {
+
+    private final long tick;
+
+    private final List<List<Entry<T>>> buckets;
+
+    private long cursor;
+
+    private int size;
+
+    /**
+     * Create a wheel.
+     *
+     * @param buckets the number of buckets, a revolution of the wheel being buckets * tick
+     * @param tick the duration of a tick
+     * @param now the current time
+     */
+    public TimerWheel(int buckets, long tick, long now) {
+        if (buckets <= 0 || tick <= 0) {
+            throw new IllegalArgumentException("The buckets and the tick of a timer wheel must be positive");
+        }
+        this.tick = tick;
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+        this.cursor = now / tick;
+    }
+
+    /**
+     * Schedule an item. An item whose deadline has passed is due on the next advance.
+     *
+     * @param item the item
+     * @param deadline the time at which the item is due
+     */
+    public synchronized void schedule(T item, long deadline) {
+        bucket(Math.max(deadline / tick, cursor)).add(new Entry<>(item, deadline));
+        size++;
+    }
+
+    /**
+     * Advance the wheel to the current time, removing the items which are due.
+     *
+     * @param now the current time
+     * @return the items due, in no particular order
+     */
+    public synchronized List<T> advance(long now) {
+        List<T> due = new ArrayList<>();
+        long last = now / tick;
+        // the bucket of the current tick is visited again on the next advance, as its later items are not due yet
+        for (long t = cursor; t <= last && t < cursor + buckets.size(); t++) {
+            Iterator<Entry<T>> entries = bucket(t).iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.deadline <= now) {
+                    due.add(entry.item);
+                    entries.remove();
+                }
+            }
+        }
+        cursor = Math.max(cursor, last);
+        size -= due.size();
+        return due;
+    }
+
+    /**
+     * @return the number of items scheduled and not due yet
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private List<Entry<T>> bucket(long t) {
+        return buckets.get((int) (t % buckets.size()));
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+
+        private final long deadline;
+
+        private Entry(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
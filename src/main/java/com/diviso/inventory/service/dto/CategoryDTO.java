@@ -4,7 +4,6 @@ package com.diviso.inventory.service.dto;
 import javax.validation.constraints.*;
 import java.io.Serializable;
 import java.util.Objects;
-import javax.persistence.Lob;
 
 /**
  * A DTO for the Category entity.
@@ -16,8 +15,8 @@ public class CategoryDTO implements Serializable {
     @NotNull
     private String name;
 
-    @Lob
-    private byte[] image;
+    @Size(max = 64)
+    private String imageHash;
     private String imageContentType;
 
     private Boolean visible;
@@ -40,12 +39,12 @@ public class CategoryDTO implements Serializable {
         this.name = name;
     }
 
-    public byte[] getImage() {
-        return image;
+    public String getImageHash() {
+        return imageHash;
     }
 
-    public void setImage(byte[] image) {
-        this.image = image;
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
     }
 
     public String getImageContentType() {
@@ -98,7 +97,7 @@ public class CategoryDTO implements Serializable {
         return "CategoryDTO{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
-            ", image='" + getImage() + "'" +
+            ", imageHash='" + getImageHash() + "'" +
             ", visible='" + isVisible() + "'" +
             ", description='" + getDescription() + "'" +
             "}";
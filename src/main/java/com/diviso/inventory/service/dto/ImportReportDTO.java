@@ -0,0 +1,110 @@
+package com.diviso.inventory.service.dto;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the report of an import: the number of rows read and imported, and the errors of the rows which
+ * were not imported.
+ */
+public class ImportReportDTO implements Serializable {
+
+    private int rows;
+
+    private int imported;
+
+    private int failed;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * Get the errors of the rows which were not imported, in row order. Only the first errors are listed when
+     * many rows failed: {@link #getFailed()} counts them all.
+     *
+     * @return the row errors
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReportDTO{" +
+            "rows=" + getRows() +
+            ", imported=" + getImported() +
+            ", failed=" + getFailed() +
+            "}";
+    }
+
+    /**
+     * The errors of a row, numbered from 1 in the order the rows were read.
+     */
+    public static class RowError implements Serializable {
+
+        private int row;
+
+        private List<String> messages = new ArrayList<>();
+
+        public RowError() {
+        }
+
+        public RowError(int row, List<String> messages) {
+            this.row = row;
+            this.messages = messages;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public List<String> getMessages() {
+            return messages;
+        }
+
+        public void setMessages(List<String> messages) {
+            this.messages = messages;
+        }
+
+        @Override
+        public String toString() {
+            return "RowError{" +
+                "row=" + getRow() +
+                ", messages=" + getMessages() +
+                "}";
+        }
+    }
+}
@@ -7,7 +7,6 @@ import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Objects;
-import javax.persistence.Lob;
 
 /**
  * A DTO for the Product entity.
@@ -25,8 +24,8 @@ public class ProductDTO implements Serializable {
     @NotNull
     private String name;
 
-    @Lob
-    private byte[] image;
+    @Size(max = 64)
+    private String imageHash;
     private String imageContentType;
 
     private String description;
@@ -87,12 +86,12 @@ public class ProductDTO implements Serializable {
         this.name = name;
     }
 
-    public byte[] getImage() {
-        return image;
+    public String getImageHash() {
+        return imageHash;
     }
 
-    public void setImage(byte[] image) {
-        this.image = image;
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
     }
 
     public String getImageContentType() {
@@ -235,7 +234,7 @@ public class ProductDTO implements Serializable {
             ", reference='" + getReference() + "'" +
             ", searchkey='" + getSearchkey() + "'" +
             ", name='" + getName() + "'" +
-            ", image='" + getImage() + "'" +
+            ", imageHash='" + getImageHash() + "'" +
             ", description='" + getDescription() + "'" +
             ", sku='" + getSku() + "'" +
             ", mpn='" + getMpn() + "'" +
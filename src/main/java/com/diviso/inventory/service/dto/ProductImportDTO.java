@@ -0,0 +1,62 @@
+package com.diviso.inventory.service.dto;
+
+
+/**
+ * A DTO for a row of a Product import.
+ * <p>
+ * Besides the ids of the ProductDTO, the barcode, category, status and taxCategory of a product can be given by
+ * their code or name, which are resolved to the existing entities.
+ */
+public class ProductImportDTO extends ProductDTO {
+
+    private String barcode;
+
+    private String category;
+
+    private String status;
+
+    private String taxCategory;
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getTaxCategory() {
+        return taxCategory;
+    }
+
+    public void setTaxCategory(String taxCategory) {
+        this.taxCategory = taxCategory;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductImportDTO{" +
+            "reference='" + getReference() + "'" +
+            ", barcode='" + getBarcode() + "'" +
+            ", category='" + getCategory() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", taxCategory='" + getTaxCategory() + "'" +
+            "}";
+    }
+}
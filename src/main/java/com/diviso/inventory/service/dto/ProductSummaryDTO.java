@@ -0,0 +1,104 @@
+package com.diviso.inventory.service.dto;
+
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A summary DTO for the Product entity, for grids and typeahead.
+ */
+public class ProductSummaryDTO implements Serializable {
+
+    private Long id;
+
+    private String name;
+
+    private String sku;
+
+    private String reference;
+
+    private Boolean visible;
+
+    public ProductSummaryDTO() {
+    }
+
+    public ProductSummaryDTO(Long id, String name, String sku, String reference, Boolean visible) {
+        this.id = id;
+        this.name = name;
+        this.sku = sku;
+        this.reference = reference;
+        this.visible = visible;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(Boolean visible) {
+        this.visible = visible;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ProductSummaryDTO productSummaryDTO = (ProductSummaryDTO) o;
+        if(productSummaryDTO.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), productSummaryDTO.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSummaryDTO{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            ", sku='" + getSku() + "'" +
+            ", reference='" + getReference() + "'" +
+            ", visible='" + isVisible() + "'" +
+            "}";
+    }
+}
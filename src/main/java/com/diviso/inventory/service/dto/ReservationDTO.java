@@ -0,0 +1,120 @@
+package com.diviso.inventory.service.dto;
+
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.validation.constraints.*;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+
+/**
+ * A DTO for the Reservation entity.
+ */
+public class ReservationDTO implements Serializable {
+
+    private String id;
+
+    @NotNull
+    private Long stockLineId;
+
+    @NotNull
+    private Double units;
+
+    private String reference;
+
+    private ReservationStatus status;
+
+    private Instant createdDate;
+
+    private Instant expiryDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getStockLineId() {
+        return stockLineId;
+    }
+
+    public void setStockLineId(Long stockLineId) {
+        this.stockLineId = stockLineId;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(Instant expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ReservationDTO reservationDTO = (ReservationDTO) o;
+        if(reservationDTO.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), reservationDTO.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationDTO{" +
+            "id=" + getId() +
+            ", stockLineId=" + getStockLineId() +
+            ", units=" + getUnits() +
+            ", reference='" + getReference() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            ", expiryDate='" + getExpiryDate() + "'" +
+            "}";
+    }
+}
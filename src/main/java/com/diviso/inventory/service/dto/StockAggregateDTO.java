@@ -0,0 +1,104 @@
+package com.diviso.inventory.service.dto;
+
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the StockAggregate entity.
+ */
+public class StockAggregateDTO implements Serializable {
+
+    private Long id;
+
+    private Long productId;
+
+    private Long infrastructureId;
+
+    private String locationId;
+
+    private Double units;
+
+    private Double value;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getInfrastructureId() {
+        return infrastructureId;
+    }
+
+    public void setInfrastructureId(Long infrastructureId) {
+        this.infrastructureId = infrastructureId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(String locationId) {
+        this.locationId = locationId;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+
+    public void setValue(Double value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        StockAggregateDTO stockAggregateDTO = (StockAggregateDTO) o;
+        if(stockAggregateDTO.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), stockAggregateDTO.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "StockAggregateDTO{" +
+            "id=" + getId() +
+            ", productId=" + getProductId() +
+            ", infrastructureId=" + getInfrastructureId() +
+            ", locationId='" + getLocationId() + "'" +
+            ", units=" + getUnits() +
+            ", value=" + getValue() +
+            "}";
+    }
+}
@@ -24,6 +24,8 @@ public class StockDTO implements Serializable {
 
     private Double storageCost;
 
+    private Long version;
+
     private Long statusId;
 
     private Set<StockLineDTO> stockLines = new HashSet<>();
@@ -68,6 +70,14 @@ public class StockDTO implements Serializable {
         this.storageCost = storageCost;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getStatusId() {
         return statusId;
     }
@@ -113,6 +123,7 @@ public class StockDTO implements Serializable {
             ", deliveryNoteRef=" + getDeliveryNoteRef() +
             ", dateOfStockUpdated='" + getDateOfStockUpdated() + "'" +
             ", storageCost=" + getStorageCost() +
+            ", version=" + getVersion() +
             "}";
     }
 }
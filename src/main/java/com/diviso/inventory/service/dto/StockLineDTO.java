@@ -34,6 +34,8 @@ public class StockLineDTO implements Serializable {
 
     private Long supplierRef;
 
+    private Long version;
+
     private Long productId;
 
     public Long getId() {
@@ -124,6 +126,14 @@ public class StockLineDTO implements Serializable {
         this.supplierRef = supplierRef;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -167,6 +177,7 @@ public class StockLineDTO implements Serializable {
             ", infrastructureId=" + getInfrastructureId() +
             ", locationId='" + getLocationId() + "'" +
             ", supplierRef=" + getSupplierRef() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,106 @@
+package com.diviso.inventory.service.dto;
+
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import com.diviso.inventory.domain.enumeration.MovementType;
+
+/**
+ * A DTO for the StockMovement entity.
+ */
+public class StockMovementDTO implements Serializable {
+
+    private Long id;
+
+    private Long stockLineId;
+
+    private MovementType type;
+
+    private Double units;
+
+    private String reference;
+
+    private Instant createdDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStockLineId() {
+        return stockLineId;
+    }
+
+    public void setStockLineId(Long stockLineId) {
+        this.stockLineId = stockLineId;
+    }
+
+    public MovementType getType() {
+        return type;
+    }
+
+    public void setType(MovementType type) {
+        this.type = type;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        StockMovementDTO stockMovementDTO = (StockMovementDTO) o;
+        if(stockMovementDTO.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), stockMovementDTO.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "StockMovementDTO{" +
+            "id=" + getId() +
+            ", stockLineId=" + getStockLineId() +
+            ", type='" + getType() + "'" +
+            ", units=" + getUnits() +
+            ", reference='" + getReference() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ReferenceDataCache;
 import com.diviso.inventory.service.CategoryService;
 import com.diviso.inventory.domain.Category;
 import com.diviso.inventory.domain.Product;
@@ -37,11 +38,14 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryModelMapper categoryModelMapper;
     private final ProductModelMapper productModelMapper;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper,CategoryModelMapper categoryModelMapper,ProductModelMapper productModelMapper) {
+    private final ReferenceDataCache referenceDataCache;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper,CategoryModelMapper categoryModelMapper,ProductModelMapper productModelMapper, ReferenceDataCache referenceDataCache) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
         this.categoryModelMapper=categoryModelMapper;
         this.productModelMapper=productModelMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -55,6 +59,7 @@ public class CategoryServiceImpl implements CategoryService {
         log.debug("Request to save Category : {}", categoryDTO);
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
+        referenceDataCache.categories().invalidate();
         return categoryMapper.toDto(category);
     }
 
@@ -68,6 +73,9 @@ public class CategoryServiceImpl implements CategoryService {
     @Transactional(readOnly = true)
     public Page<CategoryDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Categories");
+        if (pageable.getSort() == null) {
+            return referenceDataCache.categories().findAll(pageable);
+        }
         return categoryRepository.findAll(pageable)
             .map(categoryMapper::toDto);
     }
@@ -82,8 +90,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Transactional(readOnly = true)
     public CategoryDTO findOne(Long id) {
         log.debug("Request to get Category : {}", id);
-        Category category = categoryRepository.findOne(id);
-        return categoryMapper.toDto(category);
+        return referenceDataCache.categories().find(id);
     }
 
     /**
@@ -95,6 +102,7 @@ public class CategoryServiceImpl implements CategoryService {
     public void delete(Long id) {
         log.debug("Request to delete Category : {}", id);
         categoryRepository.delete(id);
+        referenceDataCache.categories().invalidate();
     }
 
 /*	@Override
@@ -0,0 +1,152 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.service.BlobStore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * Blob store on the file system.
+ * <p>
+ * A content is stored in a file named after its hash, in a directory named after the first two characters of the
+ * hash, so that no directory holds too many files. It is first written to a temporary file, which is then moved in
+ * place, so that a content is never seen partially written.
+ */
+@Service
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Logger log = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private final Path directory;
+
+    public FileSystemBlobStore(ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getBlobStore().getDirectory()).toAbsolutePath();
+    }
+
+    @Override
+    public String put(InputStream content) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "blob", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temporary), digest)) {
+                byte[] buffer = new byte[8192];
+                for (int n; (n = content.read(buffer)) != -1;) {
+                    out.write(buffer, 0, n);
+                }
+            }
+            String hash = toHex(digest.digest());
+            Path path = path(hash);
+            if (!Files.exists(path)) {
+                Files.createDirectories(path.getParent());
+                move(temporary, path);
+                log.debug("Stored blob {}", hash);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public Blob find(String hash) throws IOException {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return null;
+        }
+        Path path = path(hash);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        return new FileBlob(path, Files.size(path));
+    }
+
+    private Path path(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // stored concurrently, with the same content
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // stored concurrently, with the same content
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static final class FileBlob implements Blob {
+
+        private final Path path;
+
+        private final long size;
+
+        private FileBlob(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long transferred = 0;
+                while (transferred < count) {
+                    long n = channel.transferTo(position + transferred, count - transferred, target);
+                    if (n <= 0) {
+                        break;
+                    }
+                    transferred += n;
+                }
+                return transferred;
+            }
+        }
+    }
+}
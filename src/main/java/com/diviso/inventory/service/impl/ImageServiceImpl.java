@@ -0,0 +1,171 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.model.ImageModel;
+import com.diviso.inventory.repository.CategoryRepository;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.service.BlobStore;
+import com.diviso.inventory.service.ImageService;
+import com.diviso.inventory.service.ReferenceDataCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Service Implementation for managing the images of Product and Category.
+ * <p>
+ * The rows only hold the hash of their image, the image itself is in the {@link BlobStore}.
+ * The images stored in the rows by the previous versions are moved to the blob store at startup.
+ */
+@Service
+public class ImageServiceImpl implements ImageService {
+
+    private final Logger log = LoggerFactory.getLogger(ImageServiceImpl.class);
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final BlobStore blobStore;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    public ImageServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository,
+            BlobStore blobStore, JdbcTemplate jdbcTemplate, EntityManager entityManager,
+            ReferenceDataCache referenceDataCache) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageModel findProductImage(Long productId) {
+        log.debug("Request to get the image of Product : {}", productId);
+        Product product = productRepository.findOne(productId);
+        if (product == null || product.getImageHash() == null) {
+            return null;
+        }
+        return new ImageModel(product.getImageHash(), product.getImageContentType());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean productExists(Long productId) {
+        return productRepository.exists(productId);
+    }
+
+    @Override
+    @Transactional
+    public ImageModel saveProductImage(Long productId, String contentType, String hash) {
+        log.debug("Request to save the image of Product : {}", productId);
+        Product product = productRepository.findOne(productId);
+        if (product == null) {
+            return null;
+        }
+        product.imageHash(hash).imageContentType(contentType);
+        productRepository.save(product);
+        return new ImageModel(hash, contentType);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageModel findCategoryImage(Long categoryId) {
+        log.debug("Request to get the image of Category : {}", categoryId);
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null || category.getImageHash() == null) {
+            return null;
+        }
+        return new ImageModel(category.getImageHash(), category.getImageContentType());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean categoryExists(Long categoryId) {
+        return categoryRepository.exists(categoryId);
+    }
+
+    @Override
+    @Transactional
+    public ImageModel saveCategoryImage(Long categoryId, String contentType, String hash) {
+        log.debug("Request to save the image of Category : {}", categoryId);
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            return null;
+        }
+        category.imageHash(hash).imageContentType(contentType);
+        categoryRepository.save(category);
+        referenceDataCache.categories().invalidate();
+        return new ImageModel(hash, contentType);
+    }
+
+    /**
+     * Move the images still held by the product and category rows to the blob store.
+     * <p>
+     * Each image is moved on its own, so that a migration which is interrupted resumes where it stopped.
+     */
+    @Override
+    public int migrateLegacyImages() throws IOException {
+        int moved = migrateLegacyImages("product") + migrateLegacyImages("category");
+        if (moved > 0) {
+            entityManager.getEntityManagerFactory().getCache().evict(Product.class);
+            entityManager.getEntityManagerFactory().getCache().evict(Category.class);
+            referenceDataCache.categories().invalidate();
+            log.info("Moved {} images to the blob store", moved);
+        }
+        return moved;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyImagesOnStartup() {
+        try {
+            migrateLegacyImages();
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not move the images to the blob store, they will be moved at the next startup", e);
+        }
+    }
+
+    private int migrateLegacyImages(String table) throws IOException {
+        List<Long> ids = jdbcTemplate.queryForList("select id from " + table + " where image is not null", Long.class);
+        for (Long id : ids) {
+            String hash;
+            try {
+                hash = jdbcTemplate.query("select image from " + table + " where id = ?", new Object[] { id },
+                    (ResultSetExtractor<String>) rs -> {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        try (InputStream image = rs.getBinaryStream(1)) {
+                            return image == null ? null : blobStore.put(image);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            jdbcTemplate.update("update " + table + " set image_hash = ?, image = null where id = ?", hash, id);
+        }
+        return ids.size();
+    }
+}
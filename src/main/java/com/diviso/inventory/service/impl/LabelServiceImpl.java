@@ -1,5 +1,6 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ReferenceDataCache;
 import com.diviso.inventory.service.LabelService;
 import com.diviso.inventory.domain.Label;
 import com.diviso.inventory.repository.LabelRepository;
@@ -26,9 +27,12 @@ public class LabelServiceImpl implements LabelService {
 
     private final LabelMapper labelMapper;
 
-    public LabelServiceImpl(LabelRepository labelRepository, LabelMapper labelMapper) {
+    private final ReferenceDataCache referenceDataCache;
+
+    public LabelServiceImpl(LabelRepository labelRepository, LabelMapper labelMapper, ReferenceDataCache referenceDataCache) {
         this.labelRepository = labelRepository;
         this.labelMapper = labelMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -42,6 +46,7 @@ public class LabelServiceImpl implements LabelService {
         log.debug("Request to save Label : {}", labelDTO);
         Label label = labelMapper.toEntity(labelDTO);
         label = labelRepository.save(label);
+        referenceDataCache.labels().invalidate();
         return labelMapper.toDto(label);
     }
 
@@ -55,6 +60,9 @@ public class LabelServiceImpl implements LabelService {
     @Transactional(readOnly = true)
     public Page<LabelDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Labels");
+        if (pageable.getSort() == null) {
+            return referenceDataCache.labels().findAll(pageable);
+        }
         return labelRepository.findAll(pageable)
             .map(labelMapper::toDto);
     }
@@ -69,8 +77,7 @@ public class LabelServiceImpl implements LabelService {
     @Transactional(readOnly = true)
     public LabelDTO findOne(Long id) {
         log.debug("Request to get Label : {}", id);
-        Label label = labelRepository.findOne(id);
-        return labelMapper.toDto(label);
+        return referenceDataCache.labels().find(id);
     }
 
     /**
@@ -82,5 +89,6 @@ public class LabelServiceImpl implements LabelService {
     public void delete(Long id) {
         log.debug("Request to delete Label : {}", id);
         labelRepository.delete(id);
+        referenceDataCache.labels().invalidate();
     }
 }
@@ -0,0 +1,342 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.ProductExpiryService;
+import com.diviso.inventory.service.ProductLookupIndex;
+import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.mapper.ProductMapper;
+import com.diviso.inventory.service.mapper.StockLineMapper;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service Implementation keeping the visible products by day of expiry, and hiding them once expired.
+ * <p>
+ * The ids of the visible products with a date of expiry are kept in memory, in one bucket per day, so that the
+ * products expiring in the next days are read by id rather than searched by date. The buckets are updated when
+ * the transactions saving or deleting products commit, and the changes are published on a Hazelcast topic, from
+ * which the other nodes update their own buckets. Every node builds its buckets from the database when the
+ * application starts.
+ * <p>
+ * The sweeps run on the task executor, not to hold the scheduler, and hide the products of the buckets before
+ * today in batches, each in its own transaction. The update checks the date of expiry and the visibility again,
+ * so concurrent sweeps on several nodes hide each product once.
+ */
+@Service
+public class ProductExpiryServiceImpl implements ProductExpiryService {
+
+    private static final String TOPIC = "productExpiries";
+
+    private final Logger log = LoggerFactory.getLogger(ProductExpiryServiceImpl.class);
+
+    private final ProductRepository productRepository;
+
+    private final ProductMapper productMapper;
+
+    private final StockLineRepository stockLineRepository;
+
+    private final StockLineMapper stockLineMapper;
+
+    private final ProductLookupIndex productLookupIndex;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final Executor taskExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ConcurrentNavigableMap<LocalDate, Set<Long>> buckets = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentMap<Long, LocalDate> expiries = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean sweepScheduled = new AtomicBoolean();
+
+    private ITopic<HashMap<Long, LocalDate>> topic;
+
+    private String listenerId;
+
+    public ProductExpiryServiceImpl(ProductRepository productRepository, ProductMapper productMapper,
+            StockLineRepository stockLineRepository, StockLineMapper stockLineMapper,
+            ProductLookupIndex productLookupIndex, ApplicationProperties applicationProperties,
+            HazelcastInstance hazelcastInstance, @Qualifier("taskExecutor") Executor taskExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.stockLineRepository = stockLineRepository;
+        this.stockLineMapper = stockLineMapper;
+        this.productLookupIndex = productLookupIndex;
+        this.applicationProperties = applicationProperties;
+        this.hazelcastInstance = hazelcastInstance;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        topic = hazelcastInstance.getTopic(TOPIC);
+        listenerId = topic.addMessageListener(this::onMessage);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (hazelcastInstance.getLifecycleService().isRunning()) {
+            topic.removeMessageListener(listenerId);
+        }
+    }
+
+    @Override
+    public void productsSaved(Collection<Product> products) {
+        HashMap<Long, LocalDate> changes = new HashMap<>();
+        for (Product product : products) {
+            changes.put(product.getId(), Boolean.TRUE.equals(product.isVisible()) ? product.getDateOfExpiry() : null);
+        }
+        afterCommit(changes);
+    }
+
+    @Override
+    public void productDeleted(Long productId) {
+        HashMap<Long, LocalDate> changes = new HashMap<>();
+        changes.put(productId, null);
+        afterCommit(changes);
+    }
+
+    /**
+     * Get the visible products expiring from today to the given number of days from now, by day of expiry then id,
+     * whatever the sort of the pageable.
+     *
+     * @param days the number of days from today
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> findProductsExpiringWithin(int days, Pageable pageable) {
+        List<Long> ids = findProductIdsExpiringWithin(days);
+        int from = Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, ids.size());
+        }
+        Map<Long, Product> products = productRepository.findAll(pageIds).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDTO> content = pageIds.stream()
+            .map(products::get)
+            .filter(Objects::nonNull)
+            .map(productMapper::toDto)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<StockLineDTO> findStockLinesExpiringWithin(int days, Pageable pageable) {
+        List<Long> productIds = findProductIdsExpiringWithin(days);
+        if (productIds.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        return stockLineRepository.findByProductIdIn(productIds, pageable).map(stockLineMapper::toDto);
+    }
+
+    /**
+     * Hide the products expired before a day, in batches. A batch which cannot be hidden is swept again next time,
+     * with the batches after it. The products of a batch still visible once it is hidden, the ones saved with a
+     * later day of expiry by a transaction not applied to the buckets yet, keep their bucket until it is.
+     *
+     * @param date the day the products expired before are hidden, today for the scheduled sweeps
+     * @return the number of products hidden
+     */
+    @Override
+    public int sweep(LocalDate date) {
+        List<Long> ids = buckets.headMap(date).values().stream()
+            .flatMap(Set::stream)
+            .collect(Collectors.toList());
+        int batchSize = applicationProperties.getExpiry().getBatchSize();
+        int hidden = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            int[] hiddenInBatch = new int[1];
+            Set<Long> visible;
+            try {
+                visible = transactionTemplate.execute(status -> {
+                    hiddenInBatch[0] = productRepository.hideExpiredBefore(batch, date);
+                    return new HashSet<>(productRepository.findVisibleIdsByIdIn(batch));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not hide {} expired Products, they are swept again next time: {}", batch.size(),
+                    e.getMessage());
+                break;
+            }
+            hidden += hiddenInBatch[0];
+            HashMap<Long, LocalDate> changes = new HashMap<>();
+            for (Long id : batch) {
+                if (!visible.contains(id)) {
+                    changes.put(id, null);
+                    productLookupIndex.removeProduct(id);
+                }
+            }
+            if (changes.isEmpty()) {
+                continue;
+            }
+            apply(changes);
+            publish(changes);
+        }
+        if (hidden > 0) {
+            log.info("Hid {} Products expired before {}", hidden, date);
+        }
+        return hidden;
+    }
+
+    /**
+     * Sweep the products expired before today on the task executor, unless the last sweep is still running.
+     */
+    @Scheduled(fixedDelayString = "${application.expiry.sweep-interval:3600000}",
+        initialDelayString = "${application.expiry.sweep-interval:3600000}")
+    public void scheduleSweep() {
+        if (!sweepScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    sweep(LocalDate.now());
+                } catch (RuntimeException e) {
+                    log.error("Could not sweep the expired Products", e);
+                } finally {
+                    sweepScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the products are swept next time
+            sweepScheduled.set(false);
+            log.warn("Could not schedule the sweep of the expired Products: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Build the buckets from the database, when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            List<Object[]> rows = readOnlyTransactionTemplate.execute(status ->
+                productRepository.findExpiriesByVisibleTrue());
+            HashMap<Long, LocalDate> changes = new HashMap<>();
+            for (Object[] row : rows) {
+                changes.put((Long) row[0], (LocalDate) row[1]);
+            }
+            apply(changes);
+            log.info("Loaded the days of expiry of {} Products", changes.size());
+        } catch (RuntimeException e) {
+            log.error("Could not load the days of expiry, the products are indexed as they are saved", e);
+        }
+    }
+
+    private List<Long> findProductIdsExpiringWithin(int days) {
+        LocalDate today = LocalDate.now();
+        return buckets.subMap(today, true, today.plusDays(days), true).values().stream()
+            .flatMap(Set::stream)
+            .collect(Collectors.toList());
+    }
+
+    private void onMessage(Message<HashMap<Long, LocalDate>> message) {
+        if (!message.getPublishingMember().localMember()) {
+            apply(message.getMessageObject());
+        }
+    }
+
+    private void afterCommit(HashMap<Long, LocalDate> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes);
+            publish(changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                apply(changes);
+                publish(changes);
+            }
+        });
+    }
+
+    private void publish(HashMap<Long, LocalDate> changes) {
+        try {
+            topic.publish(changes);
+        } catch (RuntimeException e) {
+            log.warn("Cannot publish the days of expiry of {} Products: {}", changes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Move products to the buckets of their days of expiry. Writers are serialized, so that a product is in one
+     * bucket at most and empty buckets are dropped.
+     *
+     * @param changes the days of expiry by product id, null for the products not to index
+     */
+    private synchronized void apply(Map<Long, LocalDate> changes) {
+        for (Map.Entry<Long, LocalDate> change : changes.entrySet()) {
+            Long id = change.getKey();
+            LocalDate date = change.getValue();
+            LocalDate previous = date == null ? expiries.remove(id) : expiries.put(id, date);
+            if (previous != null && !previous.equals(date)) {
+                Set<Long> bucket = buckets.get(previous);
+                if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                    buckets.remove(previous);
+                }
+            }
+            if (date != null) {
+                buckets.computeIfAbsent(date, day -> new ConcurrentSkipListSet<>()).add(id);
+            }
+        }
+    }
+}
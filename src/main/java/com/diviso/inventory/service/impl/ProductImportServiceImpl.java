@@ -0,0 +1,328 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.service.ProductExpiryService;
+import com.diviso.inventory.service.ProductImportService;
+import com.diviso.inventory.service.ProductLookupIndex;
+import com.diviso.inventory.service.dto.ImportReportDTO;
+import com.diviso.inventory.service.dto.ProductImportDTO;
+import com.diviso.inventory.service.mapper.ProductMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Service Implementation for importing Products in bulk.
+ * <p>
+ * The barcodes, categories, statuses and taxCategories are read once per import into maps from their code or
+ * name to their id, so that resolving the references of a row does not query the database. The rows of a chunk
+ * are parsed, validated and mapped on a dedicated fork-join pool, away from the request threads. The products of
+ * a chunk are then persisted in one transaction, flushed by JDBC batches; if the transaction fails, its products
+ * are saved again one by one, to tell the rows which cannot be saved from the others.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private final Logger log = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    /**
+     * The number of products flushed at once, the JDBC batch size.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * The id under which a name shared by several entities is resolved, so that it is reported as ambiguous.
+     */
+    private static final Long AMBIGUOUS = -1L;
+
+    private final ProductMapper productMapper;
+
+    private final ProductLookupIndex productLookupIndex;
+
+    private final ProductExpiryService productExpiryService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int chunkSize;
+
+    private final ForkJoinPool pool;
+
+    public ProductImportServiceImpl(ProductMapper productMapper, ProductLookupIndex productLookupIndex,
+            ObjectMapper objectMapper, Validator validator, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties,
+            ProductExpiryService productExpiryService) {
+        this.productMapper = productMapper;
+        this.productLookupIndex = productLookupIndex;
+        this.productExpiryService = productExpiryService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.chunkSize = applicationProperties.getProductImport().getChunkSize();
+        this.pool = new ForkJoinPool(applicationProperties.getProductImport().getParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public ImportReportDTO importAll(Iterator<JsonNode> rows) {
+        log.debug("Request to import Products");
+        References references = readOnlyTransactionTemplate.execute(status -> new References(
+            lookup("select barcode.code, barcode.id from Barcode barcode", false),
+            lookup("select category.name, category.id from Category category", true),
+            lookup("select status.name, status.id from Status status", true),
+            lookup("select taxCategory.name, taxCategory.id from TaxCategory taxCategory", true)));
+
+        ImportReportDTO report = new ImportReportDTO();
+        List<JsonNode> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report, references);
+            }
+        }
+        importChunk(chunk, report, references);
+        log.info("Imported {} Products out of {} rows", report.getImported(), report.getRows());
+        return report;
+    }
+
+    private void importChunk(List<JsonNode> chunk, ImportReportDTO report, References references) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int firstRow = report.getRows() + 1;
+        List<ImportedRow> importedRows = prepare(chunk, firstRow, references);
+        List<ImportedRow> validRows = importedRows.stream()
+            .filter(importedRow -> importedRow.errors.isEmpty())
+            .collect(Collectors.toList());
+        if (!save(validRows, null)) {
+            for (ImportedRow validRow : validRows) {
+                save(Collections.singletonList(validRow), validRow.errors::add);
+            }
+        }
+
+        for (ImportedRow importedRow : importedRows) {
+            if (importedRow.errors.isEmpty()) {
+                report.setImported(report.getImported() + 1);
+            } else {
+                report.setFailed(report.getFailed() + 1);
+                if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                    report.getErrors().add(new ImportReportDTO.RowError(importedRow.row, importedRow.errors));
+                }
+            }
+        }
+        report.setRows(report.getRows() + chunk.size());
+        chunk.clear();
+    }
+
+    /**
+     * Parse, validate and map the rows of a chunk on the fork-join pool.
+     *
+     * @return the rows, in the order of the chunk
+     */
+    private List<ImportedRow> prepare(List<JsonNode> chunk, int firstRow, References references) {
+        try {
+            return pool.submit(() -> IntStream.range(0, chunk.size()).parallel()
+                .mapToObj(i -> prepare(firstRow + i, chunk.get(i), references))
+                .collect(Collectors.toList()))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing Products", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot import Products", e.getCause());
+        }
+    }
+
+    private ImportedRow prepare(int row, JsonNode node, References references) {
+        ImportedRow importedRow = new ImportedRow(row);
+        if (node == null || !node.isObject()) {
+            importedRow.errors.add("The row cannot be read");
+            return importedRow;
+        }
+        ProductImportDTO productImportDTO;
+        try {
+            productImportDTO = objectMapper.treeToValue(node, ProductImportDTO.class);
+        } catch (JsonProcessingException e) {
+            importedRow.errors.add(e.getOriginalMessage());
+            return importedRow;
+        }
+
+        if (productImportDTO.getId() != null) {
+            importedRow.errors.add("A new product cannot already have an ID");
+        }
+        List<String> violations = new ArrayList<>();
+        for (ConstraintViolation<ProductImportDTO> violation : validator.validate(productImportDTO)) {
+            violations.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Collections.sort(violations);
+        importedRow.errors.addAll(violations);
+        resolve("barcode", productImportDTO.getBarcode(), references.barcodeIds, false,
+            productImportDTO::setBarcodeId, importedRow.errors);
+        resolve("category", productImportDTO.getCategory(), references.categoryIds, true,
+            productImportDTO::setCategoryId, importedRow.errors);
+        resolve("status", productImportDTO.getStatus(), references.statusIds, true,
+            productImportDTO::setStatusId, importedRow.errors);
+        resolve("taxCategory", productImportDTO.getTaxCategory(), references.taxCategoryIds, true,
+            productImportDTO::setTaxCategoryId, importedRow.errors);
+
+        if (importedRow.errors.isEmpty()) {
+            importedRow.product = productMapper.toEntity(productImportDTO);
+            if (productImportDTO.getBarcode() != null) {
+                importedRow.product.getBarcode().setCode(productImportDTO.getBarcode());
+            }
+        }
+        return importedRow;
+    }
+
+    private void resolve(String property, String value, Map<String, Long> ids, boolean ignoreCase,
+            Consumer<Long> setter, List<String> errors) {
+        if (value == null) {
+            return;
+        }
+        Long id = ids.get(ignoreCase ? value.toLowerCase(Locale.ROOT) : value);
+        if (id == null) {
+            errors.add(property + ": no " + property + " " + value);
+        } else if (AMBIGUOUS.equals(id)) {
+            errors.add(property + ": several " + property + " are named " + value);
+        } else {
+            setter.accept(id);
+        }
+    }
+
+    /**
+     * Persist the products of rows in one transaction, then index them, by code and by day of expiry.
+     *
+     * @param importedRows the rows to save
+     * @param onError the consumer of the error message if the transaction fails, or null
+     * @return true if the products were saved
+     */
+    private boolean save(List<ImportedRow> importedRows, Consumer<String> onError) {
+        if (importedRows.isEmpty()) {
+            return true;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                int persisted = 0;
+                for (ImportedRow importedRow : importedRows) {
+                    entityManager.persist(importedRow.product);
+                    if (++persisted % BATCH_SIZE == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            log.debug("Cannot save {} imported Products: {}", importedRows.size(), e.getMessage());
+            for (ImportedRow importedRow : importedRows) {
+                importedRow.product.setId(null);
+            }
+            if (onError != null) {
+                onError.accept("The product cannot be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+            return false;
+        }
+        List<Product> products = new ArrayList<>(importedRows.size());
+        for (ImportedRow importedRow : importedRows) {
+            productLookupIndex.putProduct(importedRow.product);
+            products.add(importedRow.product);
+        }
+        productExpiryService.productsSaved(products);
+        return true;
+    }
+
+    private Map<String, Long> lookup(String query, boolean ignoreCase) {
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] codeAndId : entityManager.createQuery(query, Object[].class).getResultList()) {
+            if (codeAndId[0] != null) {
+                String code = ignoreCase ? ((String) codeAndId[0]).toLowerCase(Locale.ROOT) : (String) codeAndId[0];
+                ids.merge(code, (Long) codeAndId[1], (id, other) -> AMBIGUOUS);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The ids of the entities the rows can refer to, by code or name.
+     */
+    private static final class References {
+
+        private final Map<String, Long> barcodeIds;
+
+        private final Map<String, Long> categoryIds;
+
+        private final Map<String, Long> statusIds;
+
+        private final Map<String, Long> taxCategoryIds;
+
+        private References(Map<String, Long> barcodeIds, Map<String, Long> categoryIds,
+                Map<String, Long> statusIds, Map<String, Long> taxCategoryIds) {
+            this.barcodeIds = barcodeIds;
+            this.categoryIds = categoryIds;
+            this.statusIds = statusIds;
+            this.taxCategoryIds = taxCategoryIds;
+        }
+    }
+
+    /**
+     * A row of an import, with the product mapped from it, or the errors which keep it from being imported.
+     */
+    private static final class ImportedRow {
+
+        private final int row;
+
+        private final List<String> errors = new ArrayList<>();
+
+        private Product product;
+
+        private ImportedRow(int row) {
+            this.row = row;
+        }
+    }
+}
@@ -1,32 +1,50 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ProductExpiryService;
+import com.diviso.inventory.service.ProductLookupIndex;
+import com.diviso.inventory.service.ProductLookupIndex.Key;
 import com.diviso.inventory.service.ProductService;
+import com.diviso.inventory.service.ReferenceDataCache;
+import com.diviso.inventory.service.StockAlertService;
 import com.diviso.inventory.domain.Barcode;
-import com.diviso.inventory.domain.Category;
 import com.diviso.inventory.domain.Label;
 import com.diviso.inventory.domain.Note;
 import com.diviso.inventory.domain.Product;
-import com.diviso.inventory.domain.Status;
-import com.diviso.inventory.domain.TaxCategory;
 import com.diviso.inventory.model.BarcodeModel;
-import com.diviso.inventory.model.CategoryModel;
 import com.diviso.inventory.model.LabelModel;
 import com.diviso.inventory.model.NoteModel;
 import com.diviso.inventory.model.ProductModel;
-import com.diviso.inventory.model.StatusModel;
-import com.diviso.inventory.model.TaxCategoryModel;
+import com.diviso.inventory.domain.Product_;
+import com.diviso.inventory.repository.KeysetRepository;
 import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.ProductSummaryRepository;
 import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.ProductSummaryDTO;
 import com.diviso.inventory.service.mapper.ProductMapper;
 import com.diviso.inventory.service.mapper.ProductModelMapper;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -40,16 +58,43 @@ public class ProductServiceImpl implements ProductService {
 
     private final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
 
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
     private final ProductRepository productRepository;
 
     private final ProductMapper productMapper;
     
     private final ProductModelMapper  productModelMapper;
 
-    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper,ProductModelMapper productModelMapper) {
+    private final ProductLookupIndex productLookupIndex;
+
+    private final KeysetRepository keysetRepository;
+
+    private final ProductSummaryRepository productSummaryRepository;
+
+    private final EntityManager entityManager;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final StockAlertService stockAlertService;
+
+    private final ProductExpiryService productExpiryService;
+
+    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper,ProductModelMapper productModelMapper,
+            ProductLookupIndex productLookupIndex, KeysetRepository keysetRepository,
+            ProductSummaryRepository productSummaryRepository, EntityManager entityManager,
+            ReferenceDataCache referenceDataCache, StockAlertService stockAlertService,
+            ProductExpiryService productExpiryService) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.productModelMapper=productModelMapper;
+        this.productLookupIndex = productLookupIndex;
+        this.keysetRepository = keysetRepository;
+        this.productSummaryRepository = productSummaryRepository;
+        this.entityManager = entityManager;
+        this.referenceDataCache = referenceDataCache;
+        this.stockAlertService = stockAlertService;
+        this.productExpiryService = productExpiryService;
     }
 
     /**
@@ -63,6 +108,9 @@ public class ProductServiceImpl implements ProductService {
         log.debug("Request to save Product : {}", productDTO);
         Product product = productMapper.toEntity(productDTO);
         product = productRepository.save(product);
+        productLookupIndex.putProduct(product);
+        stockAlertService.productsChanged(Collections.singleton(product.getId()));
+        productExpiryService.productsSaved(Collections.singleton(product));
         return productMapper.toDto(product);
     }
 
@@ -80,6 +128,60 @@ public class ProductServiceImpl implements ProductService {
             .map(productMapper::toDto);
     }
 
+    /**
+     * Get a slice of the products matching a specification, in id order.
+     *
+     * @param specification the products to page through, or null for all of them
+     * @param after the id of the last product of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return the list of entities
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> findAllAfter(Specification<Product> specification, Long after, int size) {
+        log.debug("Request to get Products after : {}", after);
+        return keysetRepository.findAllAfter(Product.class, Product_.id, specification, after, size)
+            .map(productMapper::toDto);
+    }
+
+    /**
+     * Get the summaries of the products matching a specification.
+     * They are read with a projection, without loading the products.
+     *
+     * @param specification the products to page through, or null for all of them
+     * @param pageable the pagination information
+     * @return the list of summaries
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryDTO> findAllSummaries(Specification<Product> specification, Pageable pageable) {
+        log.debug("Request to get a page of Product summaries");
+        return productSummaryRepository.findAll(specification, pageable);
+    }
+
+    /**
+     * Export all the products, in id order.
+     * The persistence context is cleared after each batch, whose labels are fetched together.
+     *
+     * @param consumer the consumer of the products
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ProductDTO> consumer) {
+        log.debug("Request to export all Products");
+        try (Stream<Product> products = productRepository.streamAll()) {
+            List<Product> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE) {
+                    exportBatch(batch, consumer);
+                }
+            }
+            exportBatch(batch, consumer);
+        }
+    }
+
     /**
      * Get one product by id.
      *
@@ -103,6 +205,9 @@ public class ProductServiceImpl implements ProductService {
     public void delete(Long id) {
         log.debug("Request to delete Product : {}", id);
         productRepository.delete(id);
+        productLookupIndex.removeProduct(id);
+        stockAlertService.productsChanged(Collections.singleton(id));
+        productExpiryService.productDeleted(id);
     }
 
     /**
@@ -171,7 +276,7 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
 	public ProductDTO findByReferenceAndVisibleTrue(String reference) {
     	log.debug("Request to get Product by reference : {}", reference);
-        Product product = productRepository.findByReferenceIgnoreCaseAndVisibleTrue(reference);
+        Product product = findIndexed(Key.REFERENCE, reference, productRepository::findByReferenceIgnoreCaseAndVisibleTrue);
         return productMapper.toDto(product);
 	}
 
@@ -185,7 +290,7 @@ public class ProductServiceImpl implements ProductService {
 	@Transactional(readOnly=true)
 	public ProductDTO findBySkuAndVisibleTrue(String sku) {
 		log.debug("Request to get Product by sku : {}",  sku);
-        Product product = productRepository.findBySkuIgnoreCaseAndVisibleTrue( sku);
+        Product product = findIndexed(Key.SKU, sku, productRepository::findBySkuIgnoreCaseAndVisibleTrue);
         return productMapper.toDto(product);
 	}
 
@@ -199,7 +304,7 @@ public class ProductServiceImpl implements ProductService {
 	@Transactional(readOnly=true)
 	public ProductDTO findBySearchkeyAndVisibleTrue(String searchkey) {
 		log.debug("Request to get Product by searchkey : {}",  searchkey);
-        Product product = productRepository.findBySearchkeyIgnoreCaseAndVisibleTrue( searchkey);
+        Product product = findIndexed(Key.SEARCHKEY, searchkey, productRepository::findBySearchkeyIgnoreCaseAndVisibleTrue);
         return productMapper.toDto(product);
 	}
 
@@ -213,7 +318,7 @@ public class ProductServiceImpl implements ProductService {
 	@Transactional(readOnly=true)
 	public ProductDTO findByMpnAndVisibleTrue(String mpn) {
 		log.debug("Request to get Product by mpn : {}",  mpn);
-        Product product = productRepository.findByMpnIgnoreCaseAndVisibleTrue( mpn);
+        Product product = findIndexed(Key.MPN, mpn, productRepository::findByMpnIgnoreCaseAndVisibleTrue);
         return productMapper.toDto(product);
 	}
 
@@ -227,7 +332,7 @@ public class ProductServiceImpl implements ProductService {
 	@Transactional(readOnly=true)
 	public ProductDTO findByBarcode_CodeAndVisibleTrue(String barcode) {
 		log.debug("Request to get Product by barcode : {}",  barcode);
-        Product product = productRepository.findByBarcode_CodeAndVisibleTrue( barcode);
+        Product product = findIndexed(Key.BARCODE, barcode, productRepository::findByBarcode_CodeAndVisibleTrue);
         return productMapper.toDto(product);
 	}
 
@@ -289,6 +394,21 @@ public class ProductServiceImpl implements ProductService {
             .map(productMapper::toDto);
 	}
 
+	/**
+     * Get all the visible products expiring within a number of days, by day of expiry,
+     * from the buckets kept by day of expiry rather than from a search by date.
+     *
+     * @param days the number of days from today
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+	@Override
+	@Transactional(readOnly=true)
+	public Page<ProductDTO> findExpiringWithin(int days, Pageable pageable) {
+		log.debug("Request to get all Products expiring within {} days", days);
+		return productExpiryService.findProductsExpiringWithin(days, pageable);
+	}
+
 	/**
      * Get all the products by status.
      *
@@ -303,27 +423,21 @@ public class ProductServiceImpl implements ProductService {
             .map(productMapper::toDto);
 	}
 
+	/**
+     * Get the "id" product with its barcode, category, taxCategory, status and labels.
+     *
+     * @param id the id of the entity
+     * @return the marshalled entity, or null if it does not exist
+     */
 	@Override
 	@Transactional(readOnly=true)
 	public ProductModel findMarsheldProduct(Long id) {
-		
-		Product product= productRepository.findOne(id);
-		ProductModel productModel=productModelMapper.toModel(product);
-		Barcode barcode=product.getBarcode();
-		Category category=product.getCategory();
-		TaxCategory taxCategory=product.getTaxCategory();
-		Status status=product.getStatus();
-		productModel.setBarcode(new BarcodeModel(barcode.getId(),barcode.getCode(),barcode.getDescription()));
-		productModel.setCategoryModel(new CategoryModel(category.getId(),category.getDescription(),category.getImage(),category.getImageContentType(),category.getName()));
-		productModel.setTaxCategoryModel(new TaxCategoryModel(taxCategory.getId(),taxCategory.getDescription(),taxCategory.getName()));
-		List<LabelModel> list=new ArrayList<LabelModel>();
-		for(Label label:product.getLabels()) {
-			LabelModel labelModel=new LabelModel(label.getId(),label.getDescription(),label.getName());
-			list.add(labelModel);
+		log.debug("Request to get marsheld Product : {}", id);
+		List<Product> products = productRepository.findAllMarsheldByIdIn(Collections.singleton(id));
+		if (products.isEmpty()) {
+			return null;
 		}
-		productModel.setLabels(list);
-		productModel.setStatus(new StatusModel(status.getId(),status.getDescription(),status.getName(),status.getReference()));
-		return productModel;
+		return toMarsheldProduct(products.get(0));
 	}
 
 	@Override
@@ -337,15 +451,101 @@ public class ProductServiceImpl implements ProductService {
 		return noteModels;
 	}
 
+	/**
+     * Get a page of the marshalled products for the given dtos.
+     *
+     * Without a sort the page is taken from the requested ids in request order,
+     * otherwise the ids are sorted and paged by the database. Either way the page
+     * is marshalled with one query for the products and their reference data and
+     * one for their notes.
+     *
+     * @param dtoList the products to marshal, only the ids are used
+     * @param pageable the pagination information
+     * @return the page of marshalled entities
+     */
 	@Override
 	@Transactional(readOnly=true)
-	public List<ProductModel> findAllProductsMarsheld(ArrayList<ProductDTO> dtoList, Pageable pageable) {
-			List<ProductModel> modelList=new ArrayList<ProductModel>();
-			for(ProductDTO dto:dtoList) {
-				ProductModel productModel=findMarsheldProduct(dto.getId());
-				modelList.add(productModel);
+	public Page<ProductModel> findAllProductsMarsheld(ArrayList<ProductDTO> dtoList, Pageable pageable) {
+		log.debug("Request to get a page of {} marsheld Products", dtoList.size());
+		Set<Long> requestedIds = new LinkedHashSet<Long>();
+		for (ProductDTO dto : dtoList) {
+			if (dto.getId() != null) {
+				requestedIds.add(dto.getId());
+			}
+		}
+		if (requestedIds.isEmpty()) {
+			return new PageImpl<ProductModel>(new ArrayList<ProductModel>(), pageable, 0);
+		}
+		Page<Long> ids;
+		if (pageable == null) {
+			ids = new PageImpl<Long>(new ArrayList<Long>(requestedIds));
+		} else if (pageable.getSort() == null) {
+			List<Long> all = new ArrayList<Long>(requestedIds);
+			int from = Math.min(pageable.getOffset(), all.size());
+			int to = Math.min(from + pageable.getPageSize(), all.size());
+			ids = new PageImpl<Long>(all.subList(from, to), pageable, all.size());
+		} else {
+			ids = productRepository.findIdsByIdIn(requestedIds, pageable);
+		}
+		List<ProductModel> modelList = new ArrayList<ProductModel>();
+		if (ids.hasContent()) {
+			Map<Long, ProductModel> models = new HashMap<Long, ProductModel>();
+			for (Product product : productRepository.findAllMarsheldByIdIn(ids.getContent())) {
+				ProductModel productModel = toMarsheldProduct(product);
+				productModel.setNotes(new ArrayList<NoteModel>());
+				models.put(product.getId(), productModel);
+			}
+			for (Note note : productRepository.findNotesByProductIdIn(ids.getContent())) {
+				models.get(note.getProduct().getId()).getNotes()
+						.add(new NoteModel(note.getId(), note.getDateOfCreation(), note.getMatter()));
+			}
+			for (Long id : ids.getContent()) {
+				ProductModel productModel = models.get(id);
+				if (productModel != null) {
+					modelList.add(productModel);
+				}
+			}
+		}
+		return new PageImpl<ProductModel>(modelList, pageable, ids.getTotalElements());
+	}
+
+	private ProductModel toMarsheldProduct(Product product) {
+		ProductModel productModel = productModelMapper.toModel(product);
+		Barcode barcode = product.getBarcode();
+		if (barcode != null) {
+			productModel.setBarcode(new BarcodeModel(barcode.getId(), barcode.getCode(), barcode.getDescription()));
+		}
+		productModel.setCategoryModel(referenceDataCache.categoryModel(product.getCategory()));
+		productModel.setTaxCategoryModel(referenceDataCache.taxCategoryModel(product.getTaxCategory()));
+		productModel.setStatus(referenceDataCache.statusModel(product.getStatus()));
+		List<LabelModel> list = new ArrayList<LabelModel>();
+		for (Label label : product.getLabels()) {
+			list.add(new LabelModel(label.getId(), label.getDescription(), label.getName()));
+		}
+		productModel.setLabels(list);
+		return productModel;
+	}
+
+	/**
+	 * Resolve a product through the lookup index, falling back to the repository query
+	 * when the key is not indexed or the indexed product no longer matches it.
+	 */
+	private Product findIndexed(Key key, String value, Function<String, Product> query) {
+		Long id = productLookupIndex.findProductId(key, value);
+		if (id != null) {
+			Product product = productRepository.findOne(id);
+			if (productLookupIndex.matches(product, key, value)) {
+				return product;
 			}
-				return modelList;
+		}
+		Product product = query.apply(value);
+		productLookupIndex.putProduct(product);
+		return product;
 	}
 
+    private void exportBatch(List<Product> batch, Consumer<ProductDTO> consumer) {
+        batch.stream().map(productMapper::toDto).forEach(consumer);
+        batch.clear();
+        entityManager.clear();
+    }
 }
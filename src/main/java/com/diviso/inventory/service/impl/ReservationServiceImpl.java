@@ -0,0 +1,537 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.domain.Reservation;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+import com.diviso.inventory.repository.ReservationRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.ReservationService;
+import com.diviso.inventory.service.StockLedgerService;
+import com.diviso.inventory.service.TimerWheel;
+import com.diviso.inventory.service.dto.ReservationDTO;
+import com.diviso.inventory.service.mapper.ReservationMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Service Implementation for the reservations.
+ * <p>
+ * The reservations are held in memory by the node which created them, so that holding units does not write to the
+ * stockLines: the units held are counted per stockLine in striped counters, each stripe guarding the stockLines
+ * hashed to it, and the units available to sell are the units of the stockLine less the units held. The reservations
+ * are written to the database in batches, every application.reservation.flush-interval, and a timer wheel tells which
+ * ones expire, without querying them. The reservations still held are loaded again when the application starts.
+ * <p>
+ * The allocation is soft: a node only counts the units held on it, and a sale outside of a reservation does not
+ * check the units held.
+ * <p>
+ * Once it is written, a reservation can be confirmed or released on any node: its row is settled with a conditional
+ * update of its status, and whichever node updates it first settles it. The node holding a reservation settled by
+ * another one drops it when it is confirmed or released there, and until then counts its units as held. A
+ * reservation not written yet can only be settled by the node holding it.
+ */
+@Service
+public class ReservationServiceImpl implements ReservationService {
+
+    private static final int STRIPES = 64;
+
+    private final Logger log = LoggerFactory.getLogger(ReservationServiceImpl.class);
+
+    private final ReservationRepository reservationRepository;
+
+    private final ReservationMapper reservationMapper;
+
+    private final StockLineRepository stockLineRepository;
+
+    private final StockLedgerService stockLedgerService;
+
+    private final ApplicationProperties.Reservation properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final ConcurrentMap<String, Reservation> held = new ConcurrentHashMap<>();
+
+    private final TimerWheel<Reservation> timerWheel;
+
+    private final Deque<Reservation> pending = new ConcurrentLinkedDeque<>();
+
+    private final ConcurrentMap<String, Reservation> unwritten = new ConcurrentHashMap<>();
+
+    public ReservationServiceImpl(ReservationRepository reservationRepository, ReservationMapper reservationMapper,
+            StockLineRepository stockLineRepository, StockLedgerService stockLedgerService,
+            ApplicationProperties applicationProperties, PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.reservationMapper = reservationMapper;
+        this.stockLineRepository = stockLineRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.properties = applicationProperties.getReservation();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.timerWheel = new TimerWheel<>(properties.getBuckets(), properties.getTick(), System.currentTimeMillis());
+    }
+
+    /**
+     * Hold units of a stockLine, if it has them available to sell.
+     *
+     * @param reservationDTO the stockLine, the units and the reference of the reservation
+     * @param ttl the milliseconds the units are held for, at most application.reservation.max-ttl, or null for
+     *        application.reservation.default-ttl
+     * @return the reservation held, or null if the stockLine does not exist or does not have the units available
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReservationDTO reserve(ReservationDTO reservationDTO, Long ttl) {
+        log.debug("Request to reserve : {}", reservationDTO);
+        Double units = findUnits(reservationDTO.getStockLineId());
+        if (units == null) {
+            return null;
+        }
+        Instant now = Instant.now();
+        Reservation reservation = new Reservation()
+            .id(UUID.randomUUID().toString())
+            .stockLineId(reservationDTO.getStockLineId())
+            .units(reservationDTO.getUnits())
+            .reference(reservationDTO.getReference())
+            .status(ReservationStatus.HELD)
+            .createdDate(now)
+            .expiryDate(now.plusMillis(Math.min(ttl != null ? ttl : properties.getDefaultTtl(), properties.getMaxTtl())));
+        if (!stripe(reservation.getStockLineId()).hold(reservation.getStockLineId(), reservation.getUnits(), units)) {
+            return null;
+        }
+        write(reservation);
+        hold(reservation);
+        return reservationMapper.toDto(reservation);
+    }
+
+    /**
+     * Confirm a held reservation: a sale of its units is appended to the stock movements, with the reference of the
+     * reservation or its id. The units stop being held when the transaction commits, and are held again if it
+     * rolls back.
+     *
+     * @param id the id of the reservation
+     * @return the reservation confirmed, or null if it is not held
+     */
+    @Override
+    @Transactional
+    public ReservationDTO confirm(String id) {
+        log.debug("Request to confirm Reservation : {}", id);
+        Reservation reservation = held.remove(id);
+        if (reservation == null) {
+            Reservation confirmed = settlePersisted(id, ReservationStatus.CONFIRMED);
+            if (confirmed == null) {
+                return null;
+            }
+            sell(confirmed);
+            return reservationMapper.toDto(confirmed);
+        }
+        Reservation confirmed = settled(reservation, ReservationStatus.CONFIRMED);
+        try {
+            if (settledElsewhere(confirmed)) {
+                stripe(reservation.getStockLineId()).release(reservation.getStockLineId(), reservation.getUnits());
+                return null;
+            }
+            sell(confirmed);
+        } catch (RuntimeException e) {
+            hold(reservation);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    settle(confirmed);
+                } else {
+                    hold(reservation);
+                }
+            }
+        });
+        return reservationMapper.toDto(confirmed);
+    }
+
+    /**
+     * Release a held reservation: its units are available to sell again.
+     *
+     * @param id the id of the reservation
+     * @return the reservation released, or null if it is not held
+     */
+    @Override
+    @Transactional
+    public ReservationDTO release(String id) {
+        log.debug("Request to release Reservation : {}", id);
+        Reservation reservation = held.remove(id);
+        if (reservation == null) {
+            return reservationMapper.toDto(settlePersisted(id, ReservationStatus.RELEASED));
+        }
+        Reservation released = settled(reservation, ReservationStatus.RELEASED);
+        try {
+            if (settledElsewhere(released)) {
+                stripe(reservation.getStockLineId()).release(reservation.getStockLineId(), reservation.getUnits());
+                return null;
+            }
+        } catch (RuntimeException e) {
+            hold(reservation);
+            throw e;
+        }
+        settle(released);
+        return reservationMapper.toDto(released);
+    }
+
+    /**
+     * Get a reservation, from memory if it is held on this node or not written yet.
+     *
+     * @param id the id of the reservation
+     * @return the reservation, or null if there is none
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReservationDTO findOne(String id) {
+        log.debug("Request to get Reservation : {}", id);
+        Reservation reservation = held.get(id);
+        if (reservation == null) {
+            reservation = unwritten.get(id);
+        }
+        if (reservation == null) {
+            reservation = reservationRepository.findOne(id);
+        }
+        return reservationMapper.toDto(reservation);
+    }
+
+    /**
+     * Get the units of a stockLine available to sell: its units less the units held on this node.
+     *
+     * @param stockLineId the id of the stockLine
+     * @return the units available to sell, or null if the stockLine does not exist
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Double findAvailable(Long stockLineId) {
+        log.debug("Request to get the units available to sell of StockLine : {}", stockLineId);
+        Double units = findUnits(stockLineId);
+        return units == null ? null : units - stripe(stockLineId).held(stockLineId);
+    }
+
+    /**
+     * Expire the reservations whose time is up, every application.reservation.tick.
+     *
+     * @return the number of reservations expired
+     */
+    @Override
+    @Scheduled(fixedRateString = "${application.reservation.tick:1000}")
+    public int expire() {
+        int expired = 0;
+        for (Reservation reservation : timerWheel.advance(System.currentTimeMillis())) {
+            // the reservations confirmed or released since they were scheduled are no longer held
+            if (held.remove(reservation.getId(), reservation)) {
+                settle(settled(reservation, ReservationStatus.EXPIRED));
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.debug("Expired {} Reservations", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Write the reservations created or settled since the last flush, every application.reservation.flush-interval.
+     * <p>
+     * Each batch of application.reservation.batch-size reservations is written in its own transaction, a
+     * reservation settled since it was created being inserted with its last status. A batch which cannot be written
+     * is written again one reservation at a time: a reservation whose row is rejected, such as one of a stockLine
+     * deleted since, is logged and dropped, and the others are put back in front of the queue, for the next flush,
+     * from the first one which cannot be written for another reason, such as the database being unavailable.
+     *
+     * @return the number of reservations written
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${application.reservation.flush-interval:1000}",
+        initialDelayString = "${application.reservation.flush-interval:1000}")
+    public synchronized int flush() {
+        int written = 0;
+        List<Reservation> batch;
+        while (!(batch = poll()).isEmpty()) {
+            Map<String, Reservation> last = new LinkedHashMap<>();
+            Map<String, Reservation> inserts = new LinkedHashMap<>();
+            Map<String, Reservation> updates = new LinkedHashMap<>();
+            for (Reservation reservation : batch) {
+                if (reservation.getStatus() == ReservationStatus.HELD || inserts.containsKey(reservation.getId())) {
+                    inserts.put(reservation.getId(), reservation);
+                } else {
+                    updates.put(reservation.getId(), reservation);
+                }
+                last.put(reservation.getId(), reservation);
+            }
+            try {
+                write(inserts.values(), updates.values());
+            } catch (RuntimeException e) {
+                log.warn("Could not write {} Reservations at once, writing them one at a time: {}", batch.size(),
+                    e.getMessage());
+                Set<String> retries = new HashSet<>();
+                Set<String> rows = writeOneAtATime(last.values(), inserts.keySet(), retries);
+                for (Reservation reservation : batch) {
+                    if (rows.contains(reservation.getId())) {
+                        written++;
+                    }
+                }
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    if (retries.contains(batch.get(i).getId())) {
+                        pending.addFirst(batch.get(i));
+                    }
+                }
+                forget(batch, retries);
+                if (!retries.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            forget(batch, Collections.emptySet());
+            written += batch.size();
+        }
+        return written;
+    }
+
+    /**
+     * Hold the reservations still held in the database, when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            List<Reservation> reservations = transactionTemplate.execute(status ->
+                reservationRepository.findByStatus(ReservationStatus.HELD));
+            for (Reservation reservation : reservations) {
+                stripe(reservation.getStockLineId()).hold(reservation.getStockLineId(), reservation.getUnits(), null);
+                hold(reservation);
+            }
+            log.info("Loaded {} held Reservations", reservations.size());
+        } catch (RuntimeException e) {
+            log.error("Could not load the held Reservations, their units are available to sell until they expire", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not write the Reservations, {} are lost", pending.size(), e);
+        }
+    }
+
+    /**
+     * Settle a reservation held on another node, or on none since a restart, from its row.
+     *
+     * @return the reservation settled, or null if its row is not held or was settled first by another node
+     */
+    private Reservation settlePersisted(String id, ReservationStatus status) {
+        Reservation reservation = reservationRepository.findOne(id);
+        if (reservation == null || reservation.getStatus() != ReservationStatus.HELD) {
+            return null;
+        }
+        Reservation settled = settled(reservation, status);
+        if (reservationRepository.updateStatus(Collections.singleton(settled)) == 0) {
+            return null;
+        }
+        return settled;
+    }
+
+    /**
+     * Settle the row of a reservation held on this node, if it is written already.
+     *
+     * @return true if the row was settled first by another node
+     */
+    private boolean settledElsewhere(Reservation reservation) {
+        if (unwritten.containsKey(reservation.getId())) {
+            return false;
+        }
+        return reservationRepository.updateStatus(Collections.singleton(reservation)) == 0
+            && reservationRepository.exists(reservation.getId());
+    }
+
+    private void sell(Reservation reservation) {
+        SortedMap<Long, Double> sale = new TreeMap<>();
+        sale.put(reservation.getStockLineId(), -reservation.getUnits());
+        stockLedgerService.append(MovementType.SALE,
+            reservation.getReference() != null ? reservation.getReference() : reservation.getId(), sale);
+    }
+
+    private Double findUnits(Long stockLineId) {
+        for (Object[] row : stockLineRepository.findUnitsByIdIn(Collections.singleton(stockLineId))) {
+            return (Double) row[1];
+        }
+        return null;
+    }
+
+    private void hold(Reservation reservation) {
+        held.put(reservation.getId(), reservation);
+        timerWheel.schedule(reservation, reservation.getExpiryDate().toEpochMilli());
+    }
+
+    private void settle(Reservation reservation) {
+        stripe(reservation.getStockLineId()).release(reservation.getStockLineId(), reservation.getUnits());
+        write(reservation);
+    }
+
+    private void write(Reservation reservation) {
+        unwritten.put(reservation.getId(), reservation);
+        pending.addLast(reservation);
+    }
+
+    private void write(Collection<Reservation> inserts, Collection<Reservation> updates) {
+        transactionTemplate.execute(status -> {
+            reservationRepository.insert(inserts);
+            return reservationRepository.updateStatus(updates);
+        });
+    }
+
+    /**
+     * Write reservations one at a time, each in its own transaction.
+     *
+     * @param reservations the last state of the reservations
+     * @param inserted the ids of the reservations to insert
+     * @param retries the ids of the reservations to write again with the next flush, filled
+     * @return the ids of the reservations written
+     */
+    private Set<String> writeOneAtATime(Collection<Reservation> reservations, Set<String> inserted,
+            Set<String> retries) {
+        Set<String> written = new HashSet<>();
+        for (Reservation reservation : reservations) {
+            if (!retries.isEmpty()) {
+                retries.add(reservation.getId());
+                continue;
+            }
+            Collection<Reservation> one = Collections.singleton(reservation);
+            try {
+                if (inserted.contains(reservation.getId())) {
+                    write(one, Collections.emptyList());
+                } else {
+                    write(Collections.emptyList(), one);
+                }
+                written.add(reservation.getId());
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropped the Reservation {}, its row is rejected: {}", reservation, e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Could not write the Reservation {}, it will be written with the next flush: {}",
+                    reservation.getId(), e.getMessage());
+                retries.add(reservation.getId());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Forget the reservations of a batch which are written or dropped, so that they are read from the database.
+     */
+    private void forget(List<Reservation> batch, Set<String> retries) {
+        for (Reservation reservation : batch) {
+            if (!retries.contains(reservation.getId())) {
+                unwritten.remove(reservation.getId(), reservation);
+            }
+        }
+    }
+
+    private List<Reservation> poll() {
+        List<Reservation> batch = new ArrayList<>();
+        Reservation reservation;
+        while (batch.size() < properties.getBatchSize() && (reservation = pending.pollFirst()) != null) {
+            batch.add(reservation);
+        }
+        return batch;
+    }
+
+    private Stripe stripe(Long stockLineId) {
+        return stripes[(Long.hashCode(stockLineId) & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    /**
+     * A copy of a reservation with a new status, as the reservations in memory are shared and never modified.
+     */
+    private static Reservation settled(Reservation reservation, ReservationStatus status) {
+        return new Reservation()
+            .id(reservation.getId())
+            .stockLineId(reservation.getStockLineId())
+            .units(reservation.getUnits())
+            .reference(reservation.getReference())
+            .status(status)
+            .createdDate(reservation.getCreatedDate())
+            .expiryDate(reservation.getExpiryDate());
+    }
+
+    /**
+     * The units held and the number of reservations holding them, for the stockLines hashed to a stripe.
+     */
+    private static final class Stripe {
+
+        private final Map<Long, double[]> held = new HashMap<>();
+
+        /**
+         * Hold units if they are available.
+         *
+         * @param units the units of the stockLine, or null to hold them whatever is available
+         */
+        synchronized boolean hold(Long stockLineId, double reserved, Double units) {
+            double[] counter = held.computeIfAbsent(stockLineId, id -> new double[2]);
+            if (units != null && units - counter[0] < reserved) {
+                if (counter[1] == 0) {
+                    held.remove(stockLineId);
+                }
+                return false;
+            }
+            counter[0] += reserved;
+            counter[1]++;
+            return true;
+        }
+
+        synchronized void release(Long stockLineId, double reserved) {
+            double[] counter = held.get(stockLineId);
+            if (counter == null) {
+                return;
+            }
+            counter[0] -= reserved;
+            // the sum of the units is reset with the last reservation, rather than left with rounding errors
+            if (--counter[1] <= 0) {
+                held.remove(stockLineId);
+            }
+        }
+
+        synchronized double held(Long stockLineId) {
+            double[] counter = held.get(stockLineId);
+            return counter == null ? 0 : counter[0];
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ReferenceDataCache;
 import com.diviso.inventory.service.StatusService;
 import com.diviso.inventory.domain.Status;
 import com.diviso.inventory.repository.StatusRepository;
@@ -26,9 +27,12 @@ public class StatusServiceImpl implements StatusService {
 
     private final StatusMapper statusMapper;
 
-    public StatusServiceImpl(StatusRepository statusRepository, StatusMapper statusMapper) {
+    private final ReferenceDataCache referenceDataCache;
+
+    public StatusServiceImpl(StatusRepository statusRepository, StatusMapper statusMapper, ReferenceDataCache referenceDataCache) {
         this.statusRepository = statusRepository;
         this.statusMapper = statusMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -42,6 +46,7 @@ public class StatusServiceImpl implements StatusService {
         log.debug("Request to save Status : {}", statusDTO);
         Status status = statusMapper.toEntity(statusDTO);
         status = statusRepository.save(status);
+        referenceDataCache.statuses().invalidate();
         return statusMapper.toDto(status);
     }
 
@@ -55,6 +60,9 @@ public class StatusServiceImpl implements StatusService {
     @Transactional(readOnly = true)
     public Page<StatusDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Statuses");
+        if (pageable.getSort() == null) {
+            return referenceDataCache.statuses().findAll(pageable);
+        }
         return statusRepository.findAll(pageable)
             .map(statusMapper::toDto);
     }
@@ -69,8 +77,7 @@ public class StatusServiceImpl implements StatusService {
     @Transactional(readOnly = true)
     public StatusDTO findOne(Long id) {
         log.debug("Request to get Status : {}", id);
-        Status status = statusRepository.findOne(id);
-        return statusMapper.toDto(status);
+        return referenceDataCache.statuses().find(id);
     }
 
     /**
@@ -82,5 +89,6 @@ public class StatusServiceImpl implements StatusService {
     public void delete(Long id) {
         log.debug("Request to delete Status : {}", id);
         statusRepository.delete(id);
+        referenceDataCache.statuses().invalidate();
     }
 }
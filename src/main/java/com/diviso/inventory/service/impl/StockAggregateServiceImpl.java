@@ -0,0 +1,57 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.repository.StockAggregateRepository;
+import com.diviso.inventory.service.StockAggregateService;
+import com.diviso.inventory.service.dto.StockAggregateDTO;
+import com.diviso.inventory.service.mapper.StockAggregateMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation reading the units and value in stock per product, location and infrastructure.
+ * <p>
+ * The aggregates are added to in the transactions writing the stock, see StockAggregateRepositoryCustom, so
+ * reading them costs one query per page, joining the aggregates to their deltas not folded yet, whatever the
+ * number of stockLines and movements they sum.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StockAggregateServiceImpl implements StockAggregateService {
+
+    private final Logger log = LoggerFactory.getLogger(StockAggregateServiceImpl.class);
+
+    private final StockAggregateRepository stockAggregateRepository;
+
+    private final StockAggregateMapper stockAggregateMapper;
+
+    public StockAggregateServiceImpl(StockAggregateRepository stockAggregateRepository,
+            StockAggregateMapper stockAggregateMapper) {
+        this.stockAggregateRepository = stockAggregateRepository;
+        this.stockAggregateMapper = stockAggregateMapper;
+    }
+
+    @Override
+    public Page<StockAggregateDTO> findByLocationId(Long locationId, Pageable pageable) {
+        log.debug("Request to get the StockAggregates of location : {}", locationId);
+        return stockAggregateRepository.findByLocationId(String.valueOf(locationId), pageable)
+            .map(stockAggregateMapper::toDto);
+    }
+
+    @Override
+    public Page<StockAggregateDTO> findByInfrastructureId(Long infrastructureId, Pageable pageable) {
+        log.debug("Request to get the StockAggregates of infrastructure : {}", infrastructureId);
+        return stockAggregateRepository.findByInfrastructureId(infrastructureId, pageable)
+            .map(stockAggregateMapper::toDto);
+    }
+
+    @Override
+    public Page<StockAggregateDTO> findByProductId(Long productId, Pageable pageable) {
+        log.debug("Request to get the StockAggregates of product : {}", productId);
+        return stockAggregateRepository.findByProductId(productId, pageable).map(stockAggregateMapper::toDto);
+    }
+}
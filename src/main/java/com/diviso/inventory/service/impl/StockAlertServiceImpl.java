@@ -0,0 +1,362 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.model.StockAlertModel;
+import com.diviso.inventory.model.StockAlertModel.Level;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.StockAlertEvent;
+import com.diviso.inventory.service.StockAlertService;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.mapper.StockLineMapper;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Service Implementation keeping track of the products below their re-order level or above their maximum stock level.
+ * <p>
+ * Nothing is scanned to answer: the products at either level are kept in memory with their stockLines, and a product
+ * is only evaluated again, summing the units of its stockLines, when one of its stockLines or its levels change.
+ * The changes are collected when their transaction commits and evaluated together on the task executor, so that a
+ * burst of sales of a product evaluates it once, after the writers are done.
+ * <p>
+ * Each evaluation is published on a Hazelcast topic, from which the other nodes update their own copy, and a
+ * {@link StockAlertEvent} is published on the node which saw a product cross a level. Every node builds its copy
+ * from the database when the application starts.
+ */
+@Service
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private static final String TOPIC = "stockAlerts";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(StockAlertServiceImpl.class);
+
+    private final StockLineRepository stockLineRepository;
+
+    private final StockLineMapper stockLineMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final Executor taskExecutor;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ConcurrentMap<Long, StockAlertModel> alerts = new ConcurrentHashMap<>();
+
+    private final Set<Long> changedStockLineIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> changedProductIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean evaluationScheduled = new AtomicBoolean();
+
+    private ITopic<StockAlertModel> topic;
+
+    private String listenerId;
+
+    public StockAlertServiceImpl(StockLineRepository stockLineRepository, StockLineMapper stockLineMapper,
+            ApplicationEventPublisher applicationEventPublisher, HazelcastInstance hazelcastInstance,
+            @Qualifier("taskExecutor") Executor taskExecutor, PlatformTransactionManager transactionManager) {
+        this.stockLineRepository = stockLineRepository;
+        this.stockLineMapper = stockLineMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.hazelcastInstance = hazelcastInstance;
+        this.taskExecutor = taskExecutor;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        topic = hazelcastInstance.getTopic(TOPIC);
+        listenerId = topic.addMessageListener(this::onMessage);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (hazelcastInstance.getLifecycleService().isRunning()) {
+            topic.removeMessageListener(listenerId);
+        }
+    }
+
+    @Override
+    public void stockLinesChanged(Collection<Long> stockLineIds) {
+        afterCommit(changedStockLineIds, stockLineIds);
+    }
+
+    @Override
+    public void productsChanged(Collection<Long> productIds) {
+        afterCommit(changedProductIds, productIds);
+    }
+
+    /**
+     * Evaluate the products changed since the last evaluation, and publish the ones at a level or leaving one.
+     *
+     * @return the number of products which crossed a level
+     */
+    @Override
+    public synchronized int evaluate() {
+        Set<Long> stockLineIds = drain(changedStockLineIds);
+        Set<Long> productIds = drain(changedProductIds);
+        if (stockLineIds.isEmpty() && productIds.isEmpty()) {
+            return 0;
+        }
+        List<StockAlertModel> evaluated;
+        try {
+            evaluated = readOnlyTransactionTemplate.execute(status -> {
+                Set<Long> evaluatedProductIds = new TreeSet<>(productIds);
+                for (List<Long> batch : batches(stockLineIds)) {
+                    evaluatedProductIds.addAll(stockLineRepository.findProductIdsByIdIn(batch));
+                }
+                List<StockAlertModel> models = new ArrayList<>();
+                for (List<Long> batch : batches(evaluatedProductIds)) {
+                    Map<Long, StockAlertModel> levels = levels(stockLineRepository.findLevelsByProductIdIn(batch));
+                    for (Long productId : batch) {
+                        models.add(levels.computeIfAbsent(productId, this::normal));
+                    }
+                }
+                return models;
+            });
+        } catch (RuntimeException e) {
+            // evaluated with the next changes
+            changedStockLineIds.addAll(stockLineIds);
+            changedProductIds.addAll(productIds);
+            throw e;
+        }
+        int crossed = 0;
+        for (StockAlertModel alert : evaluated) {
+            StockAlertModel previous = put(alert);
+            if (alert.getLevel() != Level.NORMAL || previous != null) {
+                topic.publish(alert);
+            }
+            Level previousLevel = previous == null ? Level.NORMAL : previous.getLevel();
+            if (alert.getLevel() != previousLevel) {
+                log.info("Product {} went from {} to {} with {} units", alert.getProductId(), previousLevel,
+                    alert.getLevel(), alert.getUnits());
+                applicationEventPublisher.publishEvent(new StockAlertEvent(this, alert, previousLevel));
+                crossed++;
+            }
+        }
+        return crossed;
+    }
+
+    @Override
+    public StockAlertModel findOne(Long productId) {
+        StockAlertModel alert = alerts.get(productId);
+        return alert != null ? alert : normal(productId);
+    }
+
+    /**
+     * Get the stockLines of the products at a level, in id order, whatever the sort of the pageable.
+     *
+     * @param level BELOW_REORDER or OVERSTOCK
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<StockLineDTO> findStockLines(Level level, Pageable pageable) {
+        List<Long> ids = alerts.values().stream()
+            .filter(alert -> alert.getLevel() == level)
+            .flatMap(alert -> alert.getStockLineIds().stream())
+            .sorted()
+            .collect(Collectors.toList());
+        int from = Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        List<StockLineDTO> content = pageIds.isEmpty() ? Collections.emptyList() :
+            stockLineRepository.findAll(pageIds).stream()
+                .sorted(Comparator.comparing(StockLine::getId))
+                .map(stockLineMapper::toDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    /**
+     * Build the products at a level from the database, when the application starts. The units are summed and
+     * compared with the levels by the database, so only the products at a level and their stockLine ids are read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            Map<Long, StockAlertModel> levels = readOnlyTransactionTemplate.execute(status -> alertLevels());
+            for (StockAlertModel alert : levels.values()) {
+                put(alert);
+            }
+            log.info("Loaded {} products below their re-order level or above their maximum stock level",
+                alerts.size());
+        } catch (RuntimeException e) {
+            log.error("Could not load the stock levels, the products are tracked as they change", e);
+        }
+    }
+
+    private void onMessage(Message<StockAlertModel> message) {
+        if (!message.getPublishingMember().localMember()) {
+            put(message.getMessageObject());
+        }
+    }
+
+    private StockAlertModel put(StockAlertModel alert) {
+        if (alert.getLevel() == Level.NORMAL) {
+            return alerts.remove(alert.getProductId());
+        }
+        return alerts.put(alert.getProductId(), alert);
+    }
+
+    private void afterCommit(Set<Long> changed, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changed.addAll(ids);
+            scheduleEvaluation();
+            return;
+        }
+        List<Long> committed = new ArrayList<>(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                changed.addAll(committed);
+                scheduleEvaluation();
+            }
+        });
+    }
+
+    private void scheduleEvaluation() {
+        if (!evaluationScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                // the changes coming during the evaluation schedule another one
+                evaluationScheduled.set(false);
+                try {
+                    evaluate();
+                } catch (RuntimeException e) {
+                    log.error("Could not evaluate the stock levels", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the changes are evaluated with the next ones
+            evaluationScheduled.set(false);
+            log.warn("Could not schedule the evaluation of the stock levels: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sum the units of the stockLines of each product and compare them with its levels.
+     *
+     * @param rows the product id, re-order level, maximum stock level, stockLine id and units of each stockLine
+     * @return the levels of the products, by id
+     */
+    private Map<Long, StockAlertModel> levels(List<Object[]> rows) {
+        Map<Long, StockAlertModel> levels = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            StockAlertModel alert = levels.computeIfAbsent((Long) row[0], this::normal);
+            alert.setReOrderLevel((Double) row[1]);
+            alert.setMaximumStockLevel((Double) row[2]);
+            alert.getStockLineIds().add((Long) row[3]);
+            alert.setUnits(alert.getUnits() + (row[4] != null ? (Double) row[4] : 0D));
+        }
+        for (StockAlertModel alert : levels.values()) {
+            Collections.sort(alert.getStockLineIds());
+            alert.setLevel(level(alert));
+        }
+        return levels;
+    }
+
+    /**
+     * Read the products at a level, with the units of their stockLines summed by the database, then their stockLines.
+     *
+     * @return the levels of the products at a level, by id
+     */
+    private Map<Long, StockAlertModel> alertLevels() {
+        Map<Long, StockAlertModel> levels = new LinkedHashMap<>();
+        for (Object[] row : stockLineRepository.findAlertLevels()) {
+            StockAlertModel alert = normal((Long) row[0]);
+            alert.setReOrderLevel((Double) row[1]);
+            alert.setMaximumStockLevel((Double) row[2]);
+            alert.setUnits((Double) row[3]);
+            alert.setLevel(level(alert));
+            levels.put(alert.getProductId(), alert);
+        }
+        for (List<Long> batch : batches(levels.keySet())) {
+            for (Object[] row : stockLineRepository.findIdsByProductIdIn(batch)) {
+                levels.get((Long) row[0]).getStockLineIds().add((Long) row[1]);
+            }
+        }
+        return levels;
+    }
+
+    private static Level level(StockAlertModel alert) {
+        if (alert.getReOrderLevel() != null && alert.getUnits() <= alert.getReOrderLevel()) {
+            return Level.BELOW_REORDER;
+        }
+        if (alert.getMaximumStockLevel() != null && alert.getUnits() > alert.getMaximumStockLevel()) {
+            return Level.OVERSTOCK;
+        }
+        return Level.NORMAL;
+    }
+
+    private StockAlertModel normal(Long productId) {
+        StockAlertModel alert = new StockAlertModel();
+        alert.setProductId(productId);
+        return alert;
+    }
+
+    private static Set<Long> drain(Set<Long> changed) {
+        Set<Long> ids = new TreeSet<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext();) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        return ids;
+    }
+
+    private static List<List<Long>> batches(Set<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += BATCH_SIZE) {
+            batches.add(list.subList(from, Math.min(from + BATCH_SIZE, list.size())));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,204 @@
+package com.diviso.inventory.service.impl;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.domain.StockAggregate;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.model.StockLevelUpdateModel;
+import com.diviso.inventory.repository.StockAggregateRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.repository.StockMovementRepository;
+import com.diviso.inventory.service.StockAlertService;
+import com.diviso.inventory.service.StockLedgerService;
+import com.diviso.inventory.service.dto.StockMovementDTO;
+import com.diviso.inventory.service.mapper.StockMovementMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Service Implementation of the stock movement journal.
+ * <p>
+ * Writers only append movements, so that they do not lock the rows of the stockLines; the units of a stockLine
+ * are its balance snapshot plus the movements appended since, see StockLine.units. The snapshots are brought
+ * forward periodically on every node, so that reading the units only sums a short tail of movements whatever
+ * the size of the journal.
+ */
+@Service
+public class StockLedgerServiceImpl implements StockLedgerService {
+
+    private final Logger log = LoggerFactory.getLogger(StockLedgerServiceImpl.class);
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final StockMovementMapper stockMovementMapper;
+
+    private final StockLineRepository stockLineRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final StockAlertService stockAlertService;
+
+    private final StockAggregateRepository stockAggregateRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StockLedgerServiceImpl(StockMovementRepository stockMovementRepository,
+            StockMovementMapper stockMovementMapper, StockLineRepository stockLineRepository,
+            ApplicationProperties applicationProperties, StockAlertService stockAlertService,
+            StockAggregateRepository stockAggregateRepository, PlatformTransactionManager transactionManager) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.stockMovementMapper = stockMovementMapper;
+        this.stockLineRepository = stockLineRepository;
+        this.applicationProperties = applicationProperties;
+        this.stockAlertService = stockAlertService;
+        this.stockAggregateRepository = stockAggregateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Append movements to the journal, in one batch, add them to the stock aggregates, and have the stock levels
+     * of their products evaluated again.
+     *
+     * @param type the type of the movements
+     * @param reference the reference of the movements, or null
+     * @param units the signed units of the movements, by stockLine id
+     */
+    @Override
+    @Transactional
+    public void append(MovementType type, String reference, SortedMap<Long, Double> units) {
+        log.debug("Request to append {} {} StockMovements : {}", units.size(), type, reference);
+        if (!units.isEmpty()) {
+            stockMovementRepository.append(type, reference, units);
+            stockAggregateRepository.addMovements(units);
+            stockAlertService.stockLinesChanged(units.keySet());
+        }
+    }
+
+    /**
+     * Append movements to the journal, in one batch, add the given deltas to the stock aggregates, and have the
+     * stock levels of their products evaluated again. The places and buy prices of the stockLines are not read
+     * again.
+     *
+     * @param type the type of the movements
+     * @param reference the reference of the movements, or null
+     * @param units the signed units of the movements, by stockLine id
+     * @param aggregates the deltas of the stock aggregates, including the movements
+     */
+    @Override
+    @Transactional
+    public void append(MovementType type, String reference, SortedMap<Long, Double> units,
+            Collection<StockAggregate> aggregates) {
+        log.debug("Request to append {} {} StockMovements : {}", units.size(), type, reference);
+        if (!units.isEmpty()) {
+            stockMovementRepository.append(type, reference, units);
+            stockAlertService.stockLinesChanged(units.keySet());
+        }
+        stockAggregateRepository.add(aggregates);
+    }
+
+    /**
+     * Move units from a stockLine to another. Nothing is moved unless both stockLines exist.
+     *
+     * @param fromStockLineId the id of the stockLine the units are taken from
+     * @param toStockLineId the id of the stockLine the units are added to
+     * @param units the units to move
+     * @param reference the reference of the transfer, or null to generate one
+     * @return the updated and negative stockLine ids, or the missing ones if nothing was moved
+     */
+    @Override
+    @Transactional
+    public StockLevelUpdateModel transfer(Long fromStockLineId, Long toStockLineId, Double units, String reference) {
+        log.debug("Request to transfer {} units from StockLine {} to StockLine {}", units, fromStockLineId,
+            toStockLineId);
+        SortedMap<Long, Double> movements = new TreeMap<>();
+        movements.put(fromStockLineId, -units);
+        movements.put(toStockLineId, units);
+        StockLevelUpdateModel result = new StockLevelUpdateModel();
+        result.getMissing().addAll(movements.keySet());
+        List<StockAggregate> aggregates = new ArrayList<>();
+        for (Object[] row : stockLineRepository.findPlacesByIdIn(movements.keySet())) {
+            result.getMissing().remove(row[0]);
+            double movement = movements.get(row[0]);
+            aggregates.add(new StockAggregate()
+                .productId((Long) row[1])
+                .infrastructureId((Long) row[2])
+                .locationId((String) row[3])
+                .units(movement)
+                .value(row[4] != null ? movement * (Double) row[4] : 0));
+        }
+        if (!result.getMissing().isEmpty()) {
+            return result;
+        }
+        append(MovementType.TRANSFER, reference != null ? reference : UUID.randomUUID().toString(), movements,
+            aggregates);
+        for (Object[] row : stockLineRepository.findUnitsByIdIn(movements.keySet())) {
+            result.getUpdated().add((Long) row[0]);
+            if ((Double) row[1] < 0) {
+                result.getNegative().add((Long) row[0]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the movements of a stockLine.
+     *
+     * @param stockLineId the id of the stockLine
+     * @param pageable the pagination information
+     * @return the list of entities
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<StockMovementDTO> findByStockLineId(Long stockLineId, Pageable pageable) {
+        log.debug("Request to get the StockMovements of StockLine : {}", stockLineId);
+        return stockMovementRepository.findByStockLineId(stockLineId, pageable).map(stockMovementMapper::toDto);
+    }
+
+    /**
+     * Fold the movements older than application.stock-ledger.snapshot-grace-period into the balance snapshots.
+     * <p>
+     * The movements get their ids when they are inserted, not when they commit, so the younger ones are left
+     * for a later snapshot: one of their transactions could still commit a lower id. Snapshots running at once
+     * on several nodes both fold the same movements, the second one finding nothing left to fold. The snapshots
+     * are columns of the stockLines, so a fold briefly locks the rows of the stockLines it updates, once per
+     * interval rather than once per movement.
+     * <p>
+     * The deltas of the stock aggregates appended before the snapshot starts are then folded into them, by ranges of
+     * application.stock-ledger.fold-batch-size ids, each in its own transaction, so that a backlog of deltas is
+     * not folded in one transaction.
+     *
+     * @return the number of snapshots updated
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${application.stock-ledger.snapshot-interval:60000}",
+        initialDelayString = "${application.stock-ledger.snapshot-interval:60000}")
+    public int snapshot() {
+        Instant before = Instant.now().minusMillis(applicationProperties.getStockLedger().getSnapshotGracePeriod());
+        int snapshots = transactionTemplate.execute(status -> stockMovementRepository.snapshot(before));
+        log.debug("Folded the StockMovements before {} into {} snapshots", before, snapshots);
+        long last = transactionTemplate.execute(status -> stockAggregateRepository.lastDeltaId());
+        int size = applicationProperties.getStockLedger().getFoldBatchSize();
+        int deltas = 0;
+        int folded;
+        while ((folded = transactionTemplate.execute(status -> stockAggregateRepository.fold(last, size))) > 0) {
+            deltas += folded;
+        }
+        log.debug("Folded {} StockAggregate deltas", deltas);
+        return snapshots;
+    }
+}
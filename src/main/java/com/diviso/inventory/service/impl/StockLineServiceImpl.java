@@ -1,35 +1,59 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.aop.retry.RetryOnConflict;
+import com.diviso.inventory.service.ProductExpiryService;
+import com.diviso.inventory.service.ProductLookupIndex;
+import com.diviso.inventory.service.ProductLookupIndex.Key;
+import com.diviso.inventory.service.ReferenceDataCache;
+import com.diviso.inventory.service.StaleVersionException;
+import com.diviso.inventory.service.StockAlertService;
+import com.diviso.inventory.service.StockLedgerService;
 import com.diviso.inventory.service.StockLineService;
 import com.diviso.inventory.domain.Barcode;
-import com.diviso.inventory.domain.Category;
 import com.diviso.inventory.domain.Label;
 import com.diviso.inventory.domain.Product;
-import com.diviso.inventory.domain.Status;
+import com.diviso.inventory.domain.StockAggregate;
 import com.diviso.inventory.domain.StockLine;
-import com.diviso.inventory.domain.TaxCategory;
-import com.diviso.inventory.domain.Uom;
+import com.diviso.inventory.domain.enumeration.MovementType;
 import com.diviso.inventory.model.BarcodeModel;
-import com.diviso.inventory.model.CategoryModel;
 import com.diviso.inventory.model.LabelModel;
 import com.diviso.inventory.model.ProductModel;
-import com.diviso.inventory.model.StatusModel;
+import com.diviso.inventory.model.StockAlertModel;
+import com.diviso.inventory.model.StockLevelUpdateModel;
 import com.diviso.inventory.model.StockLineModel;
-import com.diviso.inventory.model.TaxCategoryModel;
 import com.diviso.inventory.model.UomModel;
+import com.diviso.inventory.domain.StockLine_;
+import com.diviso.inventory.repository.KeysetRepository;
+import com.diviso.inventory.repository.StockAggregateRepository;
 import com.diviso.inventory.repository.StockLineRepository;
 import com.diviso.inventory.service.dto.StockLineDTO;
 import com.diviso.inventory.service.mapper.StockLineMapper;
-import com.diviso.inventory.service.mapper.StockLineModelMapper;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,32 +66,124 @@ public class StockLineServiceImpl implements StockLineService {
 
 	private final Logger log = LoggerFactory.getLogger(StockLineServiceImpl.class);
 
+	private static final int EXPORT_BATCH_SIZE = 1000;
+
 	private final StockLineRepository stockLineRepository;
 
 	private final StockLineMapper stockLineMapper;
-	
-	private final StockLineModelMapper stockLineModelMapper;
-	
 
-	public StockLineServiceImpl(StockLineRepository stockLineRepository, StockLineMapper stockLineMapper,StockLineModelMapper stockLineModelMapper) {
+	private final ProductLookupIndex productLookupIndex;
+
+	private final KeysetRepository keysetRepository;
+
+	private final EntityManager entityManager;
+
+	private final ReferenceDataCache referenceDataCache;
+
+	private final StockLedgerService stockLedgerService;
+
+	private final StockAlertService stockAlertService;
+
+	private final ProductExpiryService productExpiryService;
+
+	private final StockAggregateRepository stockAggregateRepository;
+
+	public StockLineServiceImpl(StockLineRepository stockLineRepository, StockLineMapper stockLineMapper,
+			ProductLookupIndex productLookupIndex, KeysetRepository keysetRepository,
+			EntityManager entityManager, ReferenceDataCache referenceDataCache,
+			StockLedgerService stockLedgerService, StockAlertService stockAlertService,
+			ProductExpiryService productExpiryService, StockAggregateRepository stockAggregateRepository) {
 		this.stockLineRepository = stockLineRepository;
 		this.stockLineMapper = stockLineMapper;
-		this.stockLineModelMapper=stockLineModelMapper;
+		this.productLookupIndex = productLookupIndex;
+		this.keysetRepository = keysetRepository;
+		this.entityManager = entityManager;
+		this.referenceDataCache = referenceDataCache;
+		this.stockLedgerService = stockLedgerService;
+		this.stockAlertService = stockAlertService;
+		this.productExpiryService = productExpiryService;
+		this.stockAggregateRepository = stockAggregateRepository;
 	}
 
 	/**
 	 * Save a stockLine.
 	 *
+	 * An update carrying a version only applies to that version of the stockLine.
+	 * An update without one applies to the current version, and is retried if
+	 * the stockLine changes before it commits.
+	 *
+	 * The units are not saved with the stockLine: a new stockLine gets a receipt
+	 * movement of its units, and an updated one an adjustment movement of the
+	 * difference with its current units. The current units and value of an
+	 * updated stockLine are taken from the stock aggregate of its previous
+	 * product and place, and its new units are added to the aggregate of its
+	 * new ones at its new buy price, in one batch. The aggregate of a new
+	 * product and place is created first, and the save is retried if a
+	 * concurrent one creates it.
+	 *
 	 * @param stockLineDTO
 	 *            the entity to save
 	 * @return the persisted entity
+	 * @throws StaleVersionException
+	 *             if the version is not the current one
 	 */
 	@Override
+	@RetryOnConflict("StockLine.save")
 	public StockLineDTO save(StockLineDTO stockLineDTO) {
 		log.debug("Request to save StockLine : {}", stockLineDTO);
 		StockLine stockLine = stockLineMapper.toEntity(stockLineDTO);
-		stockLine = stockLineRepository.save(stockLine);
-		return stockLineMapper.toDto(stockLine);
+		MovementType type = MovementType.RECEIPT;
+		double total = stockLine.getUnits() != null ? stockLine.getUnits() : 0;
+		double units = total;
+		Long version = null;
+		Long previousProductId = null;
+		List<StockAggregate> aggregates = new ArrayList<StockAggregate>();
+		if (stockLine.getId() != null) {
+			for (Object[] row : stockLineRepository.findVersionUnitsAndPlaceById(stockLine.getId())) {
+				version = (Long) row[0];
+				units -= (Double) row[1];
+				previousProductId = (Long) row[2];
+				aggregates.add(aggregate((Long) row[2], (Long) row[3], (String) row[4], -(Double) row[1],
+						(Double) row[5]));
+			}
+			if (version == null || stockLine.getVersion() != null && !stockLine.getVersion().equals(version)) {
+				throw new StaleVersionException(StockLine.class, stockLine.getId());
+			}
+			stockLine.setVersion(version);
+			type = MovementType.ADJUSTMENT;
+		}
+		stockLine = stockLineRepository.saveAndFlush(stockLine);
+		boolean versionIncremented = false;
+		if (units != 0 && stockLine.getVersion().equals(version)) {
+			// the row is not updated by an adjustment alone, but its version still guards the units
+			if (stockLineRepository.incrementVersion(stockLine.getId(), version) == 0) {
+				throw new ObjectOptimisticLockingFailureException(StockLine.class, stockLine.getId());
+			}
+			versionIncremented = true;
+		}
+		StockAggregate aggregate = aggregate(stockLineDTO.getProductId(), stockLine.getInfrastructureId(),
+				stockLine.getLocationId(), total, stockLine.getBuyPrice());
+		if (aggregates.isEmpty() || !aggregates.get(0).getKey().equals(aggregate.getKey())) {
+			stockAggregateRepository.create(Collections.singleton(aggregate));
+		}
+		aggregates.add(aggregate);
+		StockLineDTO result = stockLineMapper.toDto(stockLine);
+		if (versionIncremented) {
+			result.setVersion(version + 1);
+		}
+		if (units != 0) {
+			SortedMap<Long, Double> movements = new TreeMap<Long, Double>();
+			movements.put(stockLine.getId(), units);
+			stockLedgerService.append(type, stockLine.getReference(), movements, aggregates);
+		} else {
+			stockAggregateRepository.add(aggregates);
+		}
+		stockAlertService.stockLinesChanged(Collections.singleton(stockLine.getId()));
+		if (previousProductId != null && !previousProductId.equals(stockLineDTO.getProductId())) {
+			stockAlertService.productsChanged(Collections.singleton(previousProductId));
+		}
+		productLookupIndex.putStockLine(result.getId(), stockLineDTO.getProductId());
+		return result;
 	}
 
 	/**
@@ -84,6 +200,50 @@ public class StockLineServiceImpl implements StockLineService {
 		return stockLineRepository.findAll(pageable).map(stockLineMapper::toDto);
 	}
 
+	/**
+	 * Get a slice of the stockLines matching a specification, in id order.
+	 *
+	 * @param specification
+	 *            the stockLines to page through, or null for all of them
+	 * @param after
+	 *            the id of the last stockLine of the previous slice, or null for
+	 *            the first slice
+	 * @param size
+	 *            the slice size
+	 * @return the list of entities
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<StockLineDTO> findAllAfter(Specification<StockLine> specification, Long after, int size) {
+		log.debug("Request to get StockLines after : {}", after);
+		return keysetRepository.findAllAfter(StockLine.class, StockLine_.id, specification, after, size)
+				.map(stockLineMapper::toDto);
+	}
+
+	/**
+	 * Export all the stockLines, in id order. The persistence context is cleared
+	 * after each batch.
+	 *
+	 * @param consumer
+	 *            the consumer of the stockLines
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void exportAll(Consumer<StockLineDTO> consumer) {
+		log.debug("Request to export all StockLines");
+		try (Stream<StockLine> stockLines = stockLineRepository.streamAll()) {
+			List<StockLine> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+			Iterator<StockLine> iterator = stockLines.iterator();
+			while (iterator.hasNext()) {
+				batch.add(iterator.next());
+				if (batch.size() == EXPORT_BATCH_SIZE) {
+					exportBatch(batch, consumer);
+				}
+			}
+			exportBatch(batch, consumer);
+		}
+	}
+
 	/**
 	 * Get one stockLine by id.
 	 *
@@ -108,7 +268,21 @@ public class StockLineServiceImpl implements StockLineService {
 	@Override
 	public void delete(Long id) {
 		log.debug("Request to delete StockLine : {}", id);
+		StockLine stockLine = stockLineRepository.findOne(id);
+		if (stockLine == null) {
+			return;
+		}
+		if (stockLine.getUnits() != null && stockLine.getUnits() != 0) {
+			stockAggregateRepository.add(Collections.singleton(aggregate(
+					stockLine.getProduct() != null ? stockLine.getProduct().getId() : null,
+					stockLine.getInfrastructureId(), stockLine.getLocationId(), -stockLine.getUnits(),
+					stockLine.getBuyPrice())));
+		}
 		stockLineRepository.delete(id);
+		if (stockLine.getProduct() != null) {
+			stockAlertService.productsChanged(Collections.singleton(stockLine.getProduct().getId()));
+		}
+		productLookupIndex.removeStockLine(id);
 	}
 
 	/**
@@ -180,7 +354,8 @@ public class StockLineServiceImpl implements StockLineService {
 	@Transactional(readOnly = true)
 	public StockLineDTO findByProduct_ReferenceAndProduct_VisibleTrue(String reference) {
 		log.debug("Request to get stock-line by product reference : {}", reference);
-		StockLine stockLine = stockLineRepository.findByProduct_ReferenceIgnoreCaseAndProduct_VisibleTrue(reference);
+		StockLine stockLine = findIndexed(Key.REFERENCE, reference,
+				stockLineRepository::findByProduct_ReferenceIgnoreCaseAndProduct_VisibleTrue);
 		return stockLineMapper.toDto(stockLine);
 	}
 
@@ -195,7 +370,8 @@ public class StockLineServiceImpl implements StockLineService {
 	@Transactional(readOnly = true)
 	public StockLineDTO findByProduct_SkuAndProduct_VisibleTrue(String sku) {
 		log.debug("Request to get stock-line by product sku : {}", sku);
-		StockLine stockLine = stockLineRepository.findByProduct_SkuIgnoreCaseAndProduct_VisibleTrue(sku);
+		StockLine stockLine = findIndexed(Key.SKU, sku,
+				stockLineRepository::findByProduct_SkuIgnoreCaseAndProduct_VisibleTrue);
 		return stockLineMapper.toDto(stockLine);
 	}
 
@@ -210,7 +386,8 @@ public class StockLineServiceImpl implements StockLineService {
 	@Transactional(readOnly = true)
 	public StockLineDTO findByProduct_SearchkeyAndProduct_VisibleTrue(String searchkey) {
 		log.debug("Request to get stock-line by product searchkey : {}", searchkey);
-		StockLine stockLine = stockLineRepository.findByProduct_SearchkeyIgnoreCaseAndProduct_VisibleTrue(searchkey);
+		StockLine stockLine = findIndexed(Key.SEARCHKEY, searchkey,
+				stockLineRepository::findByProduct_SearchkeyIgnoreCaseAndProduct_VisibleTrue);
 		return stockLineMapper.toDto(stockLine);
 	}
 
@@ -225,7 +402,8 @@ public class StockLineServiceImpl implements StockLineService {
 	@Transactional(readOnly = true)
 	public StockLineDTO findByProduct_MpnAndProduct_VisibleTrue(String mpn) {
 		log.debug("Request to get stock-line by product mpn : {}", mpn);
-		StockLine stockLine = stockLineRepository.findByProduct_MpnIgnoreCaseAndProduct_VisibleTrue(mpn);
+		StockLine stockLine = findIndexed(Key.MPN, mpn,
+				stockLineRepository::findByProduct_MpnIgnoreCaseAndProduct_VisibleTrue);
 		return stockLineMapper.toDto(stockLine);
 	}
 
@@ -240,7 +418,8 @@ public class StockLineServiceImpl implements StockLineService {
 	@Transactional(readOnly = true)
 	public StockLineDTO findByProduct_Barcode_CodeAndProduct_VisibleTrue(String barcode) {
 		log.debug("Request to get stock-line by product barcode : {}", barcode);
-		StockLine stockLine = stockLineRepository.findByProduct_Barcode_CodeAndProduct_VisibleTrue(barcode);
+		StockLine stockLine = findIndexed(Key.BARCODE, barcode,
+				stockLineRepository::findByProduct_Barcode_CodeAndProduct_VisibleTrue);
 		return stockLineMapper.toDto(stockLine);
 	}
 
@@ -353,7 +532,8 @@ public class StockLineServiceImpl implements StockLineService {
 	}
 
 	/**
-	 * Get all the stockLines by locationId.
+	 * Get all the stockLines by locationId. The location ids are stored as text,
+	 * the numeric id of the API is looked up as such.
 	 *
 	 * @param pageable
 	 *            the pagination information and the locationId of the stockLine
@@ -363,7 +543,7 @@ public class StockLineServiceImpl implements StockLineService {
 	@Transactional(readOnly = true)
 	public Page<StockLineDTO> findByLocationId(Long locationId, Pageable pageable) {
 		log.debug("Request to get all StockLines by locationId ", locationId);
-		return stockLineRepository.findByLocationId(locationId, pageable).map(stockLineMapper::toDto);
+		return stockLineRepository.findByLocationId(String.valueOf(locationId), pageable).map(stockLineMapper::toDto);
 	}
 
 	/**
@@ -380,59 +560,200 @@ public class StockLineServiceImpl implements StockLineService {
 		return stockLineRepository.findBySupplierRef(supplierRef, pageable).map(stockLineMapper::toDto);
 	}
 
+	/**
+	 * Get all the stockLines of the products at or below their re-order level,
+	 * from the set kept by the stock alerts rather than from a scan of the
+	 * stockLines.
+	 *
+	 * @param pageable
+	 *            the pagination information
+	 * @return the list of entities
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Page<StockLineDTO> findBelowReorder(Pageable pageable) {
+		log.debug("Request to get all StockLines below their re-order level");
+		return stockAlertService.findStockLines(StockAlertModel.Level.BELOW_REORDER, pageable);
+	}
+
+	/**
+	 * Get all the stockLines of the products above their maximum stock level,
+	 * from the set kept by the stock alerts.
+	 *
+	 * @param pageable
+	 *            the pagination information
+	 * @return the list of entities
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Page<StockLineDTO> findOverStock(Pageable pageable) {
+		log.debug("Request to get all StockLines above their maximum stock level");
+		return stockAlertService.findStockLines(StockAlertModel.Level.OVERSTOCK, pageable);
+	}
+
+	/**
+	 * Get all the stockLines of the visible products expiring within a number
+	 * of days, the products being read from their buckets by day of expiry.
+	 *
+	 * @param days
+	 *            the number of days from today
+	 * @param pageable
+	 *            the pagination information
+	 * @return the list of entities
+	 */
 	@Override
-	public List<StockLineDTO> updateStockLevel(ArrayList<StockLineDTO> stockLines) {
-		for (int i = 0; i < stockLines.size(); i++) {
-			StockLine line = stockLineRepository.findOne(stockLines.get(i).getId());
-			Double remaining = line.getUnits() - stockLines.get(i).getUnits();
-			line.setUnits(remaining);
-			stockLineRepository.save(line);
+	@Transactional(readOnly = true)
+	public Page<StockLineDTO> findByProductExpiringWithin(int days, Pageable pageable) {
+		log.debug("Request to get all StockLines of the Products expiring within {} days", days);
+		return productExpiryService.findStockLinesExpiringWithin(days, pageable);
+	}
+
+	/**
+	 * Subtract the units of the given stockLines from the stock levels.
+	 *
+	 * The units are summed per stockLine and appended to the stock movement
+	 * journal as one batch of sale movements, which concurrent baskets do not
+	 * wait for. Lines that do not exist are reported as missing, and lines left
+	 * below zero are reported as negative.
+	 *
+	 * @param stockLines
+	 *            the ids and the units to subtract
+	 * @return the updated, missing and negative stockLine ids
+	 */
+	@Override
+	public StockLevelUpdateModel updateStockLevel(ArrayList<StockLineDTO> stockLines) {
+		log.debug("Request to update the stock level of {} StockLines", stockLines.size());
+		SortedMap<Long, Double> movements = new TreeMap<Long, Double>();
+		for (StockLineDTO stockLineDTO : stockLines) {
+			movements.merge(stockLineDTO.getId(), -stockLineDTO.getUnits(), Double::sum);
 		}
-		return stockLines;
+		StockLevelUpdateModel result = new StockLevelUpdateModel();
+		if (movements.isEmpty()) {
+			return result;
+		}
+		stockLedgerService.append(MovementType.SALE, null, movements);
+		Set<Long> missing = new TreeSet<Long>(movements.keySet());
+		for (Object[] row : stockLineRepository.findUnitsByIdIn(movements.keySet())) {
+			Long id = (Long) row[0];
+			missing.remove(id);
+			result.getUpdated().add(id);
+			if ((Double) row[1] < 0) {
+				result.getNegative().add(id);
+			}
+		}
+		result.getMissing().addAll(missing);
+		if (!result.getMissing().isEmpty() || !result.getNegative().isEmpty()) {
+			log.warn("Stock level update left missing StockLines {} and negative StockLines {}", result.getMissing(),
+					result.getNegative());
+		}
+		return result;
 	}
 
+	/**
+	 * Get the "id" stockLine with its product, uom and product reference data.
+	 *
+	 * @param id
+	 *            the id of the entity
+	 * @return the marshalled entity, or null if it does not exist
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public StockLineModel findMarsheldStockLine(Long id) {
-		StockLine stockLine=stockLineRepository.findOne(id);
-		Product product=stockLine.getProduct();
-		Uom uom=stockLine.getUom();
-		UomModel uomModel=new UomModel();
-		uomModel.setId(uom.getId());
-		uomModel.setName(uom.getName());
-		ProductModel productModel=new ProductModel();
-		Barcode barcode=product.getBarcode();
-		Category category=product.getCategory();
-		TaxCategory taxCategory=product.getTaxCategory();
-		Status status=product.getStatus();
-		productModel.setBarcode(new BarcodeModel(barcode.getId(),barcode.getCode(),barcode.getDescription()));
-		productModel.setCategoryModel(new CategoryModel(category.getId(),category.getDescription(),category.getImage(),category.getImageContentType(),category.getName()));
-		productModel.setTaxCategoryModel(new TaxCategoryModel(taxCategory.getId(),taxCategory.getDescription(),taxCategory.getName()));
-		List<LabelModel> list=new ArrayList<LabelModel>();
-		for(Label label:product.getLabels()) {
-			LabelModel labelModel=new LabelModel(label.getId(),label.getDescription(),label.getName());
-			list.add(labelModel);
+		log.debug("Request to get marsheld StockLine : {}", id);
+		List<StockLine> stockLines = stockLineRepository.findAllMarsheldByIdIn(Collections.singleton(id));
+		if (stockLines.isEmpty()) {
+			return null;
 		}
-		productModel.setLabels(list);
-		productModel.setStatus(new StatusModel(status.getId(),status.getDescription(),status.getName(),status.getReference()));
-		productModel.setId(product.getId());
-		productModel.setName(product.getName());
-		productModel.setTaxCategoryModel(new TaxCategoryModel(product.getTaxCategory().getId(), product.getTaxCategory().getDescription(), product.getTaxCategory().getName()));
-		StockLineModel stockLineModel=stockLineModelMapper.toModel(stockLine);
-		stockLineModel.setUom(uomModel);
-		stockLineModel.setProduct(productModel);
-		return stockLineModel;
+		return toMarsheldStockLine(stockLines.get(0));
 	}
- 
+
+	/**
+	 * Get the marshalled stockLines for the given dtos.
+	 *
+	 * The whole graph is fetched in a single query whatever the size of the
+	 * list, and the models are returned in the order of the requested ids.
+	 *
+	 * @param dtoList
+	 *            the stockLines to marshal, only the ids are used
+	 * @return the list of marshalled entities
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<StockLineModel> findAllStockLinesMarsheld(ArrayList<StockLineDTO> dtoList) {
-		List<StockLineModel> list=new ArrayList<StockLineModel>();
-		for(StockLineDTO stockLineDTO:dtoList) {
-			StockLineModel stockLineModel=findMarsheldStockLine(stockLineDTO.getId());
-			list.add(stockLineModel);
+		log.debug("Request to get {} marsheld StockLines", dtoList.size());
+		List<Long> ids = new ArrayList<Long>();
+		for (StockLineDTO stockLineDTO : dtoList) {
+			if (stockLineDTO.getId() != null) {
+				ids.add(stockLineDTO.getId());
+			}
+		}
+		List<StockLineModel> list = new ArrayList<StockLineModel>();
+		if (ids.isEmpty()) {
+			return list;
+		}
+		Map<Long, StockLine> stockLines = new HashMap<Long, StockLine>();
+		for (StockLine stockLine : stockLineRepository.findAllMarsheldByIdIn(new HashSet<Long>(ids))) {
+			stockLines.put(stockLine.getId(), stockLine);
+		}
+		for (Long id : ids) {
+			StockLine stockLine = stockLines.get(id);
+			if (stockLine != null) {
+				list.add(toMarsheldStockLine(stockLine));
+			}
 		}
 		return list;
 	}
 
+	/**
+	 * Resolve a stockLine through the lookup index, falling back to the repository
+	 * query when the key is not indexed, the product has several stockLines indexed,
+	 * or the indexed stockLine no longer matches it.
+	 */
+	private StockLine findIndexed(Key key, String value, Function<String, StockLine> query) {
+		Long id = productLookupIndex.findStockLineId(productLookupIndex.findProductId(key, value));
+		if (id != null) {
+			StockLine stockLine = stockLineRepository.findOne(id);
+			if (stockLine != null && productLookupIndex.matches(stockLine.getProduct(), key, value)) {
+				return stockLine;
+			}
+		}
+		StockLine stockLine = query.apply(value);
+		if (stockLine != null && stockLine.getProduct() != null) {
+			productLookupIndex.putProduct(stockLine.getProduct());
+			productLookupIndex.putStockLine(stockLine.getId(), stockLine.getProduct().getId());
+		}
+		return stockLine;
+	}
+
+	private StockLineModel toMarsheldStockLine(StockLine stockLine) {
+		UomModel uomModel = referenceDataCache.uomModel(stockLine.getUom());
+		ProductModel productModel = null;
+		Product product = stockLine.getProduct();
+		if (product != null) {
+			productModel = new ProductModel();
+			productModel.setId(product.getId());
+			productModel.setName(product.getName());
+			Barcode barcode = product.getBarcode();
+			if (barcode != null) {
+				productModel.setBarcode(new BarcodeModel(barcode.getId(), barcode.getCode(), barcode.getDescription()));
+			}
+			productModel.setCategoryModel(referenceDataCache.categoryModel(product.getCategory()));
+			productModel.setTaxCategoryModel(referenceDataCache.taxCategoryModel(product.getTaxCategory()));
+			productModel.setStatus(referenceDataCache.statusModel(product.getStatus()));
+			List<LabelModel> labels = new ArrayList<LabelModel>();
+			for (Label label : product.getLabels()) {
+				labels.add(new LabelModel(label.getId(), label.getDescription(), label.getName()));
+			}
+			productModel.setLabels(labels);
+		}
+		StockLineModel stockLineModel = new StockLineModel(stockLine.getId(), stockLine.getReference(),
+				stockLine.getBuyPrice(), stockLine.getGrossProfit(), stockLine.getSellPriceExclusive(),
+				stockLine.getSellPriceInclusive(), stockLine.getMargin(), stockLine.getInfrastructureId(),
+				stockLine.getLocationId(), productModel, stockLine.getUnits(), uomModel);
+		stockLineModel.setSupplierRef(stockLine.getSupplierRef());
+		return stockLineModel;
+	}
+
 	@Override
 	public Page<StockLineDTO> findByProduct_Category_IdAndProduct_VisibleTrue(Long id, Pageable pageable) {
 		log.debug("Request to get all stock-lines by product  category id ", id);
@@ -440,5 +761,15 @@ public class StockLineServiceImpl implements StockLineService {
 				.map(stockLineMapper::toDto);
 	}
 
-	
+	private void exportBatch(List<StockLine> batch, Consumer<StockLineDTO> consumer) {
+		batch.stream().map(stockLineMapper::toDto).forEach(consumer);
+		batch.clear();
+		entityManager.clear();
+	}
+
+	private StockAggregate aggregate(Long productId, Long infrastructureId, String locationId, double units,
+			Double buyPrice) {
+		return new StockAggregate().productId(productId).infrastructureId(infrastructureId).locationId(locationId)
+				.units(units).value(units * (buyPrice != null ? buyPrice : 0));
+	}
 }
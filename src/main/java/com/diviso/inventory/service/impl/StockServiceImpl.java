@@ -1,30 +1,47 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.aop.retry.RetryOnConflict;
+import com.diviso.inventory.service.ProductLookupIndex;
+import com.diviso.inventory.service.ReferenceDataCache;
+import com.diviso.inventory.service.StaleVersionException;
+import com.diviso.inventory.service.StockLedgerService;
 import com.diviso.inventory.service.StockService;
 import com.diviso.inventory.domain.Product;
-import com.diviso.inventory.domain.Status;
 import com.diviso.inventory.domain.Stock;
+import com.diviso.inventory.domain.StockAggregate;
 import com.diviso.inventory.domain.StockLine;
-import com.diviso.inventory.domain.Uom;
+import com.diviso.inventory.domain.enumeration.MovementType;
 import com.diviso.inventory.model.ProductModel;
-import com.diviso.inventory.model.StatusModel;
 import com.diviso.inventory.model.StockLineModel;
 import com.diviso.inventory.model.StockModel;
-import com.diviso.inventory.model.TaxCategoryModel;
 import com.diviso.inventory.model.UomModel;
+import com.diviso.inventory.domain.Stock_;
+import com.diviso.inventory.repository.KeysetRepository;
+import com.diviso.inventory.repository.StockAggregateRepository;
 import com.diviso.inventory.repository.StockRepository;
 import com.diviso.inventory.service.dto.StockDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.mapper.StockLineMapper;
 import com.diviso.inventory.service.mapper.StockMapper;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,29 +55,134 @@ public class StockServiceImpl implements StockService {
 
     private final Logger log = LoggerFactory.getLogger(StockServiceImpl.class);
 
+    /**
+     * The number of stockLines flushed at once by a receipt, the JDBC batch size.
+     */
+    private static final int RECEIPT_BATCH_SIZE = 50;
+
     private final StockRepository stockRepository;
 
     private final StockMapper stockMapper;
 
-    public StockServiceImpl(StockRepository stockRepository, StockMapper stockMapper) {
+    private final StockLineMapper stockLineMapper;
+
+    private final KeysetRepository keysetRepository;
+
+    private final ProductLookupIndex productLookupIndex;
+
+    private final EntityManager entityManager;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final StockLedgerService stockLedgerService;
+
+    private final StockAggregateRepository stockAggregateRepository;
+
+    public StockServiceImpl(StockRepository stockRepository, StockMapper stockMapper, StockLineMapper stockLineMapper,
+            KeysetRepository keysetRepository, ProductLookupIndex productLookupIndex, EntityManager entityManager,
+            ReferenceDataCache referenceDataCache, StockLedgerService stockLedgerService,
+            StockAggregateRepository stockAggregateRepository) {
         this.stockRepository = stockRepository;
         this.stockMapper = stockMapper;
+        this.stockLineMapper = stockLineMapper;
+        this.keysetRepository = keysetRepository;
+        this.productLookupIndex = productLookupIndex;
+        this.entityManager = entityManager;
+        this.referenceDataCache = referenceDataCache;
+        this.stockLedgerService = stockLedgerService;
+        this.stockAggregateRepository = stockAggregateRepository;
     }
 
     /**
      * Save a stock.
      *
+     * An update carrying a version only applies to that version of the stock.
+     * An update without one applies to the current version, and is retried if
+     * the stock changes before it commits.
+     *
      * @param stockDTO the entity to save
      * @return the persisted entity
+     * @throws StaleVersionException if the version is not the current one
      */
     @Override
+    @RetryOnConflict("Stock.save")
     public StockDTO save(StockDTO stockDTO) {
         log.debug("Request to save Stock : {}", stockDTO);
         Stock stock = stockMapper.toEntity(stockDTO);
-        stock = stockRepository.save(stock);
+        if (stock.getId() != null) {
+            Long version = stockRepository.findVersionById(stock.getId());
+            if (version == null || stock.getVersion() != null && !stock.getVersion().equals(version)) {
+                throw new StaleVersionException(Stock.class, stock.getId());
+            }
+            stock.setVersion(version);
+        }
+        stock = stockRepository.saveAndFlush(stock);
         return stockMapper.toDto(stock);
     }
 
+    /**
+     * Receive a new stock with its new stockLines.
+     *
+     * The stockLines are persisted and flushed by JDBC batches, the persistence context being cleared after
+     * each batch, then the stock is persisted and linked to them by JDBC batches too, without loading them back.
+     * Ids are allocated by blocks, so no insert has to run on its own to get its id. The units of the stockLines
+     * are appended to the stock movement journal as receipts of the reference of the stock, in one batch. The stock
+     * aggregates of their products and places are created first, and the receipt is retried if a concurrent one
+     * creates them.
+     *
+     * @param stockDTO the entity to create, with the stockLines to create
+     * @return the persisted entity, with its persisted stockLines
+     */
+    @Override
+    @RetryOnConflict("Stock.receive")
+    public StockDTO receive(StockDTO stockDTO) {
+        log.debug("Request to receive Stock : {} with {} StockLines", stockDTO.getReference(), stockDTO.getStockLines().size());
+        // New stockLines have no id yet, so they all hash alike: keep them out of the sets of the mapped stock
+        Set<StockLineDTO> receivedStockLines = stockDTO.getStockLines();
+        List<StockAggregate> places = new ArrayList<>();
+        for (StockLineDTO stockLineDTO : receivedStockLines) {
+            places.add(new StockAggregate().productId(stockLineDTO.getProductId())
+                .infrastructureId(stockLineDTO.getInfrastructureId()).locationId(stockLineDTO.getLocationId()));
+        }
+        stockAggregateRepository.create(places);
+        Set<StockLineDTO> stockLineDTOs = new HashSet<>();
+        List<Long> stockLineIds = new ArrayList<>(receivedStockLines.size());
+        SortedMap<Long, Double> receipts = new TreeMap<>();
+        for (StockLineDTO stockLineDTO : receivedStockLines) {
+            StockLine stockLine = stockLineMapper.toEntity(stockLineDTO);
+            entityManager.persist(stockLine);
+            stockLineIds.add(stockLine.getId());
+            if (stockLine.getUnits() != null && stockLine.getUnits() != 0) {
+                receipts.put(stockLine.getId(), stockLine.getUnits());
+            }
+            productLookupIndex.putStockLine(stockLine.getId(), stockLineDTO.getProductId());
+            stockLineDTOs.add(stockLineMapper.toDto(stockLine));
+            if (stockLineIds.size() % RECEIPT_BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // The stockDTO is left as it was received, as a conflict runs the receipt again with it
+        Stock stock;
+        stockDTO.setStockLines(new HashSet<>());
+        try {
+            stock = stockMapper.toEntity(stockDTO);
+        } finally {
+            stockDTO.setStockLines(receivedStockLines);
+        }
+        entityManager.persist(stock);
+        stockRepository.addStockLines(stock.getId(), stockLineIds);
+        stockLedgerService.append(MovementType.RECEIPT, stock.getReference(), receipts);
+        entityManager.clear();
+
+        StockDTO result = stockMapper.toDto(stock);
+        result.setStockLines(stockLineDTOs);
+        return result;
+    }
+
     /**
      * Get all the stocks.
      *
@@ -75,6 +197,22 @@ public class StockServiceImpl implements StockService {
             .map(stockMapper::toDto);
     }
 
+    /**
+     * Get a slice of the stocks matching a specification, in id order.
+     *
+     * @param specification the stocks to page through, or null for all of them
+     * @param after the id of the last stock of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return the list of entities
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<StockDTO> findAllAfter(Specification<Stock> specification, Long after, int size) {
+        log.debug("Request to get Stocks after : {}", after);
+        return keysetRepository.findAllAfter(Stock.class, Stock_.id, specification, after, size)
+            .map(stockMapper::toDto);
+    }
+
     /**
      * Get one stock by id.
      *
@@ -115,16 +253,23 @@ public class StockServiceImpl implements StockService {
 	}
 
     /**
-     * Get one stock by deliveryNoteRef.
+     * Get one stock by deliveryNoteRef. The delivery note refs are stored as numbers, so a ref which is
+     * not one matches no stock.
      *
      * @param deliveryNoteRef the deliveryNoteRef of the entity
-     * @return the entity
+     * @return the entity, or null if none matches
      */
     @Override
     @Transactional(readOnly = true)
 	public StockDTO findByDeliveryNoteRef(String deliveryNoteRef) {
     	log.debug("Request to get Stock by deliveryNoteRef : {}", deliveryNoteRef);
-        Stock stock = stockRepository.findByDeliveryNoteRef(deliveryNoteRef);
+        Long ref;
+        try {
+            ref = Long.valueOf(deliveryNoteRef);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        Stock stock = stockRepository.findByDeliveryNoteRef(ref);
         return stockMapper.toDto(stock);
 	}
 
@@ -170,44 +315,80 @@ public class StockServiceImpl implements StockService {
             .map(stockMapper::toDto);
 	}
 
+	/**
+	 * Get one stock by id, marshalled with its stockLines.
+	 * The stock, its status and its stockLines with their product and uom are read with one query.
+	 *
+	 * @param id the id of the entity
+	 * @return the marshalled entity, or null if there is none
+	 */
 	@Override
 	@Transactional(readOnly=true)
 	public StockModel findMarsheldStockById(Long id) {
-		Stock stock=stockRepository.findOne(id);
-		Set<StockLine> stockLines=stockRepository.findStockLinesByStockId(stock.getId());
-		List<StockLineModel> stockLineModelList=new ArrayList<StockLineModel>();
-		
-		for(StockLine stockLine:stockLines) {
-			
-			Product product=stockLine.getProduct();
-			Uom uom=stockLine.getUom();
-			UomModel uomModel=new UomModel();
-			uomModel.setId(uom.getId());
-			uomModel.setName(uom.getName());
-			ProductModel productModel=new ProductModel();
-			productModel.setId(product.getId());
-			productModel.setName(product.getName());
-			productModel.setTaxCategoryModel(new TaxCategoryModel(product.getTaxCategory().getId(), product.getTaxCategory().getDescription(), product.getTaxCategory().getName()));
-			StockLineModel stockLineModel=new StockLineModel(stockLine.getId(),stockLine.getReference(),stockLine.getBuyPrice(),stockLine.getGrossProfit(),stockLine.getSellPriceExclusive(),stockLine.getSellPriceInclusive(),stockLine.getMargin(),stockLine.getInfrastructureId(),stockLine.getLocationId(),productModel,stockLine.getUnits(),uomModel);
-			stockLineModelList.add(stockLineModel);
+		log.debug("Request to get marsheld Stock : {}", id);
+		Stock stock = stockRepository.findMarsheldById(id);
+		if (stock == null) {
+			return null;
 		}
-		Status status=stock.getStatus();
-		StatusModel statusModel=new StatusModel(status.getId(),status.getDescription(),status.getName(),status.getReference()) ;
-
-		StockModel stockModel=new StockModel(stock.getId(),stock.getDateOfStockUpdated(),stock.getDeliveryNoteRef(),stock.getReference(),stockLineModelList,stock.getStorageCost(),statusModel
-				);
-		stockModel.setStatus(statusModel);
-		System.out.println(stockModel);
-		return stockModel;
+		return toMarsheldStock(stock);
 	}
 
+	/**
+	 * Get the marshalled stocks for the given dtos.
+	 *
+	 * The whole graph is fetched in a single query whatever the size of the
+	 * list, and the models are returned in the order of the requested ids.
+	 *
+	 * @param dtoList
+	 *            the stocks to marshal, only the ids are used
+	 * @return the list of marshalled entities
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<StockModel> findAllStocksMarsheld(ArrayList<StockDTO> dtoList) {
-		List<StockModel> list=new ArrayList<StockModel>();
-		for(StockDTO stockDTO:dtoList) {
-			StockModel stockModel=findMarsheldStockById(stockDTO.getId());
-			list.add(stockModel);
+		log.debug("Request to get {} marsheld Stocks", dtoList.size());
+		List<Long> ids = new ArrayList<Long>();
+		for (StockDTO stockDTO : dtoList) {
+			if (stockDTO.getId() != null) {
+				ids.add(stockDTO.getId());
+			}
+		}
+		List<StockModel> list = new ArrayList<StockModel>();
+		if (ids.isEmpty()) {
+			return list;
+		}
+		Map<Long, Stock> stocks = new HashMap<Long, Stock>();
+		for (Stock stock : stockRepository.findAllMarsheldByIdIn(new HashSet<Long>(ids))) {
+			stocks.put(stock.getId(), stock);
+		}
+		for (Long id : ids) {
+			Stock stock = stocks.get(id);
+			if (stock != null) {
+				list.add(toMarsheldStock(stock));
+			}
 		}
 		return list;
 	}
+
+	private StockModel toMarsheldStock(Stock stock) {
+		List<StockLineModel> stockLineModelList = new ArrayList<StockLineModel>();
+		for (StockLine stockLine : stock.getStockLines()) {
+			UomModel uomModel = referenceDataCache.uomModel(stockLine.getUom());
+			ProductModel productModel = null;
+			Product product = stockLine.getProduct();
+			if (product != null) {
+				productModel = new ProductModel();
+				productModel.setId(product.getId());
+				productModel.setName(product.getName());
+				productModel.setTaxCategoryModel(referenceDataCache.taxCategoryModel(product.getTaxCategory()));
+			}
+			stockLineModelList.add(new StockLineModel(stockLine.getId(), stockLine.getReference(),
+					stockLine.getBuyPrice(), stockLine.getGrossProfit(), stockLine.getSellPriceExclusive(),
+					stockLine.getSellPriceInclusive(), stockLine.getMargin(), stockLine.getInfrastructureId(),
+					stockLine.getLocationId(), productModel, stockLine.getUnits(), uomModel));
+		}
+		return new StockModel(stock.getId(), stock.getDateOfStockUpdated(), stock.getDeliveryNoteRef(),
+				stock.getReference(), stockLineModelList, stock.getStorageCost(),
+				referenceDataCache.statusModel(stock.getStatus()));
+	}
 }
@@ -1,5 +1,6 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ReferenceDataCache;
 import com.diviso.inventory.service.TaxCategoryService;
 import com.diviso.inventory.domain.TaxCategory;
 import com.diviso.inventory.repository.TaxCategoryRepository;
@@ -26,9 +27,12 @@ public class TaxCategoryServiceImpl implements TaxCategoryService {
 
     private final TaxCategoryMapper taxCategoryMapper;
 
-    public TaxCategoryServiceImpl(TaxCategoryRepository taxCategoryRepository, TaxCategoryMapper taxCategoryMapper) {
+    private final ReferenceDataCache referenceDataCache;
+
+    public TaxCategoryServiceImpl(TaxCategoryRepository taxCategoryRepository, TaxCategoryMapper taxCategoryMapper, ReferenceDataCache referenceDataCache) {
         this.taxCategoryRepository = taxCategoryRepository;
         this.taxCategoryMapper = taxCategoryMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -42,6 +46,7 @@ public class TaxCategoryServiceImpl implements TaxCategoryService {
         log.debug("Request to save TaxCategory : {}", taxCategoryDTO);
         TaxCategory taxCategory = taxCategoryMapper.toEntity(taxCategoryDTO);
         taxCategory = taxCategoryRepository.save(taxCategory);
+        referenceDataCache.taxCategories().invalidate();
         return taxCategoryMapper.toDto(taxCategory);
     }
 
@@ -55,6 +60,9 @@ public class TaxCategoryServiceImpl implements TaxCategoryService {
     @Transactional(readOnly = true)
     public Page<TaxCategoryDTO> findAll(Pageable pageable) {
         log.debug("Request to get all TaxCategories");
+        if (pageable.getSort() == null) {
+            return referenceDataCache.taxCategories().findAll(pageable);
+        }
         return taxCategoryRepository.findAll(pageable)
             .map(taxCategoryMapper::toDto);
     }
@@ -69,8 +77,7 @@ public class TaxCategoryServiceImpl implements TaxCategoryService {
     @Transactional(readOnly = true)
     public TaxCategoryDTO findOne(Long id) {
         log.debug("Request to get TaxCategory : {}", id);
-        TaxCategory taxCategory = taxCategoryRepository.findOne(id);
-        return taxCategoryMapper.toDto(taxCategory);
+        return referenceDataCache.taxCategories().find(id);
     }
 
     /**
@@ -82,5 +89,6 @@ public class TaxCategoryServiceImpl implements TaxCategoryService {
     public void delete(Long id) {
         log.debug("Request to delete TaxCategory : {}", id);
         taxCategoryRepository.delete(id);
+        referenceDataCache.taxCategories().invalidate();
     }
 }
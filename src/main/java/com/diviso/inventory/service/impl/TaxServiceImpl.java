@@ -1,5 +1,6 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ReferenceDataCache;
 import com.diviso.inventory.service.TaxService;
 import com.diviso.inventory.domain.Tax;
 import com.diviso.inventory.model.TaxModel;
@@ -13,7 +14,6 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,9 +32,12 @@ public class TaxServiceImpl implements TaxService {
 
     private final TaxMapper taxMapper;
 
-    public TaxServiceImpl(TaxRepository taxRepository, TaxMapper taxMapper) {
+    private final ReferenceDataCache referenceDataCache;
+
+    public TaxServiceImpl(TaxRepository taxRepository, TaxMapper taxMapper, ReferenceDataCache referenceDataCache) {
         this.taxRepository = taxRepository;
         this.taxMapper = taxMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -48,6 +51,7 @@ public class TaxServiceImpl implements TaxService {
         log.debug("Request to save Tax : {}", taxDTO);
         Tax tax = taxMapper.toEntity(taxDTO);
         tax = taxRepository.save(tax);
+        referenceDataCache.taxes().invalidate();
         return taxMapper.toDto(tax);
     }
 
@@ -61,6 +65,9 @@ public class TaxServiceImpl implements TaxService {
     @Transactional(readOnly = true)
     public Page<TaxDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Taxes");
+        if (pageable.getSort() == null) {
+            return referenceDataCache.taxes().findAll(pageable);
+        }
         return taxRepository.findAll(pageable)
             .map(taxMapper::toDto);
     }
@@ -75,8 +82,7 @@ public class TaxServiceImpl implements TaxService {
     @Transactional(readOnly = true)
     public TaxDTO findOne(Long id) {
         log.debug("Request to get Tax : {}", id);
-        Tax tax = taxRepository.findOne(id);
-        return taxMapper.toDto(tax);
+        return referenceDataCache.taxes().find(id);
     }
 
     /**
@@ -88,15 +94,23 @@ public class TaxServiceImpl implements TaxService {
     public void delete(Long id) {
         log.debug("Request to delete Tax : {}", id);
         taxRepository.delete(id);
+        referenceDataCache.taxes().invalidate();
     }
 
+	/**
+	 * Get the first taxes of a taxCategory, in id order.
+	 *
+	 * @param id the id of the taxCategory
+	 * @return the list of taxes
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<TaxModel> findByTaxCategoryId(Long id) {
-		Page<Tax> taxes=taxRepository.findByTaxCategory_Id(id,new PageRequest(0, 10));
 		List<TaxModel> taxModels=new ArrayList<TaxModel>();
-		for(Tax tax:taxes) {
-			TaxModel taxModel=new TaxModel(tax.getId(),tax.getName(),tax.getRate(),tax.getType());
-			taxModels.add(taxModel);
+		for(TaxDTO tax:referenceDataCache.taxes().findAll()) {
+			if (id.equals(tax.getTaxCategoryId()) && taxModels.size() < 10) {
+				taxModels.add(new TaxModel(tax.getId(),tax.getName(),tax.getRate(),tax.getType()));
+			}
 		}
 		return taxModels;
 	}
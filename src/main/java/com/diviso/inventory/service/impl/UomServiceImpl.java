@@ -1,5 +1,6 @@
 package com.diviso.inventory.service.impl;
 
+import com.diviso.inventory.service.ReferenceDataCache;
 import com.diviso.inventory.service.UomService;
 import com.diviso.inventory.domain.Uom;
 import com.diviso.inventory.repository.UomRepository;
@@ -26,9 +27,12 @@ public class UomServiceImpl implements UomService {
 
     private final UomMapper uomMapper;
 
-    public UomServiceImpl(UomRepository uomRepository, UomMapper uomMapper) {
+    private final ReferenceDataCache referenceDataCache;
+
+    public UomServiceImpl(UomRepository uomRepository, UomMapper uomMapper, ReferenceDataCache referenceDataCache) {
         this.uomRepository = uomRepository;
         this.uomMapper = uomMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -42,6 +46,7 @@ public class UomServiceImpl implements UomService {
         log.debug("Request to save Uom : {}", uomDTO);
         Uom uom = uomMapper.toEntity(uomDTO);
         uom = uomRepository.save(uom);
+        referenceDataCache.uoms().invalidate();
         return uomMapper.toDto(uom);
     }
 
@@ -55,6 +60,9 @@ public class UomServiceImpl implements UomService {
     @Transactional(readOnly = true)
     public Page<UomDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Uoms");
+        if (pageable.getSort() == null) {
+            return referenceDataCache.uoms().findAll(pageable);
+        }
         return uomRepository.findAll(pageable)
             .map(uomMapper::toDto);
     }
@@ -69,8 +77,7 @@ public class UomServiceImpl implements UomService {
     @Transactional(readOnly = true)
     public UomDTO findOne(Long id) {
         log.debug("Request to get Uom : {}", id);
-        Uom uom = uomRepository.findOne(id);
-        return uomMapper.toDto(uom);
+        return referenceDataCache.uoms().find(id);
     }
 
     /**
@@ -82,5 +89,6 @@ public class UomServiceImpl implements UomService {
     public void delete(Long id) {
         log.debug("Request to delete Uom : {}", id);
         uomRepository.delete(id);
+        referenceDataCache.uoms().invalidate();
     }
 }
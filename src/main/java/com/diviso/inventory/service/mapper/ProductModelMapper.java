@@ -1,6 +1,7 @@
 package com.diviso.inventory.service.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import com.diviso.inventory.domain.Product;
 import com.diviso.inventory.model.ProductModel;
@@ -8,4 +9,7 @@ import com.diviso.inventory.model.ProductModel;
 @Mapper(componentModel = "spring")
 public interface ProductModelMapper extends ModelMapper<Product,ProductModel> {
 
+	@Mapping(target = "notes", ignore = true)
+	@Mapping(target = "status", ignore = true)
+	ProductModel toModel(Product product);
 }
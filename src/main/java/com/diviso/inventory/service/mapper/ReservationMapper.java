@@ -0,0 +1,22 @@
+package com.diviso.inventory.service.mapper;
+
+import com.diviso.inventory.domain.*;
+import com.diviso.inventory.service.dto.ReservationDTO;
+
+import org.mapstruct.*;
+
+/**
+ * Mapper for the entity Reservation and its DTO ReservationDTO.
+ */
+@Mapper(componentModel = "spring", uses = {})
+public interface ReservationMapper extends EntityMapper<ReservationDTO, Reservation> {
+
+    default Reservation fromId(String id) {
+        if (id == null) {
+            return null;
+        }
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        return reservation;
+    }
+}
@@ -0,0 +1,22 @@
+package com.diviso.inventory.service.mapper;
+
+import com.diviso.inventory.domain.*;
+import com.diviso.inventory.service.dto.StockAggregateDTO;
+
+import org.mapstruct.*;
+
+/**
+ * Mapper for the entity StockAggregate and its DTO StockAggregateDTO.
+ */
+@Mapper(componentModel = "spring", uses = {})
+public interface StockAggregateMapper extends EntityMapper<StockAggregateDTO, StockAggregate> {
+
+    default StockAggregate fromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        StockAggregate stockAggregate = new StockAggregate();
+        stockAggregate.setId(id);
+        return stockAggregate;
+    }
+}
@@ -0,0 +1,22 @@
+package com.diviso.inventory.service.mapper;
+
+import com.diviso.inventory.domain.*;
+import com.diviso.inventory.service.dto.StockMovementDTO;
+
+import org.mapstruct.*;
+
+/**
+ * Mapper for the entity StockMovement and its DTO StockMovementDTO.
+ */
+@Mapper(componentModel = "spring", uses = {})
+public interface StockMovementMapper extends EntityMapper<StockMovementDTO, StockMovement> {
+
+    default StockMovement fromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        StockMovement stockMovement = new StockMovement();
+        stockMovement.setId(id);
+        return stockMovement;
+    }
+}
@@ -0,0 +1,200 @@
+package com.diviso.inventory.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import com.diviso.inventory.model.ImageModel;
+import com.diviso.inventory.service.BlobStore;
+import com.diviso.inventory.service.ImageService;
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+import io.github.jhipster.web.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST controller for the images of Product and Category.
+ * <p>
+ * Images are served from the {@link BlobStore}. As an image is identified by its hash, the hash is its ETag;
+ * single byte ranges are supported, and the bytes are transferred from the store to the response without being
+ * copied through the heap where the container allows it. An uploaded image is stored before the transaction which
+ * records it on its row is started, so that no connection is held while it is uploaded.
+ */
+@RestController
+@RequestMapping("/api")
+public class ImageResource {
+
+    private final Logger log = LoggerFactory.getLogger(ImageResource.class);
+
+    private static final String ENTITY_NAME = "image";
+
+    private final ImageService imageService;
+
+    private final BlobStore blobStore;
+
+    public ImageResource(ImageService imageService, BlobStore blobStore) {
+        this.imageService = imageService;
+        this.blobStore = blobStore;
+    }
+
+    /**
+     * PUT  /products/:id/image : Updates the image of a product.
+     *
+     * @param id the id of the product
+     * @param request the request, whose body is the image
+     * @return the ResponseEntity with status 200 (OK) and with body the image, with its hash,
+     * or with status 400 (Bad Request) if the body is not an image,
+     * or with status 404 (Not Found) if there is no such product
+     * @throws IOException if the image cannot be stored
+     */
+    @PutMapping("/products/{id}/image")
+    @Timed
+    public ResponseEntity<ImageModel> updateProductImage(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        log.debug("REST request to update the image of Product : {}", id);
+        String contentType = imageContentType(request);
+        if (!imageService.productExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        String hash;
+        try (InputStream content = request.getInputStream()) {
+            hash = blobStore.put(content);
+        }
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(imageService.saveProductImage(id, contentType, hash)));
+    }
+
+    /**
+     * GET  /products/:id/image : get the image of a product.
+     *
+     * @param id the id of the product
+     * @param headers the request headers, for the conditional and range requests
+     * @return the ResponseEntity with status 200 (OK) or 206 (Partial Content) and the image in body,
+     * or with status 304 (Not Modified) if the image matches the If-None-Match header,
+     * or with status 416 (Requested Range Not Satisfiable) if the range is not in the image,
+     * or with status 404 (Not Found) if there is no such product or image
+     * @throws IOException if the image cannot be read
+     */
+    @GetMapping("/products/{id}/image")
+    @Timed
+    public ResponseEntity<StreamingResponseBody> getProductImage(@PathVariable Long id, @RequestHeader HttpHeaders headers)
+            throws IOException {
+        log.debug("REST request to get the image of Product : {}", id);
+        return serve(imageService.findProductImage(id), headers);
+    }
+
+    /**
+     * PUT  /categories/:id/image : Updates the image of a category.
+     *
+     * @param id the id of the category
+     * @param request the request, whose body is the image
+     * @return the ResponseEntity with status 200 (OK) and with body the image, with its hash,
+     * or with status 400 (Bad Request) if the body is not an image,
+     * or with status 404 (Not Found) if there is no such category
+     * @throws IOException if the image cannot be stored
+     */
+    @PutMapping("/categories/{id}/image")
+    @Timed
+    public ResponseEntity<ImageModel> updateCategoryImage(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        log.debug("REST request to update the image of Category : {}", id);
+        String contentType = imageContentType(request);
+        if (!imageService.categoryExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        String hash;
+        try (InputStream content = request.getInputStream()) {
+            hash = blobStore.put(content);
+        }
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(imageService.saveCategoryImage(id, contentType, hash)));
+    }
+
+    /**
+     * GET  /categories/:id/image : get the image of a category.
+     *
+     * @param id the id of the category
+     * @param headers the request headers, for the conditional and range requests
+     * @return the ResponseEntity with status 200 (OK) or 206 (Partial Content) and the image in body,
+     * or with status 304 (Not Modified) if the image matches the If-None-Match header,
+     * or with status 416 (Requested Range Not Satisfiable) if the range is not in the image,
+     * or with status 404 (Not Found) if there is no such category or image
+     * @throws IOException if the image cannot be read
+     */
+    @GetMapping("/categories/{id}/image")
+    @Timed
+    public ResponseEntity<StreamingResponseBody> getCategoryImage(@PathVariable Long id, @RequestHeader HttpHeaders headers)
+            throws IOException {
+        log.debug("REST request to get the image of Category : {}", id);
+        return serve(imageService.findCategoryImage(id), headers);
+    }
+
+    private static String imageContentType(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null || !MediaType.parseMediaType(contentType).getType().equals("image")) {
+            throw new BadRequestAlertException("An image must have an image content type", ENTITY_NAME, "notanimage");
+        }
+        return contentType;
+    }
+
+    private ResponseEntity<StreamingResponseBody> serve(ImageModel image, HttpHeaders requestHeaders) throws IOException {
+        BlobStore.Blob blob = image == null ? null : blobStore.find(image.getHash());
+        if (blob == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + image.getHash() + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache().getHeaderValue());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        long size = blob.size();
+        long start = 0;
+        long end = size - 1;
+        HttpStatus status = HttpStatus.OK;
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.equals(etag)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = requestHeaders.getRange();
+            } catch (IllegalArgumentException e) {
+                ranges = null;
+            }
+            // A Range header which cannot be parsed is ignored, and the whole image is served (RFC 7233, 3.1)
+            if (ranges != null && ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = Math.min(ranges.get(0).getRangeEnd(size), size - 1);
+                if (start >= size || start > end) {
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                }
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                status = HttpStatus.PARTIAL_CONTENT;
+            }
+        }
+        if (image.getContentType() != null) {
+            headers.setContentType(MediaType.parseMediaType(image.getContentType()));
+        }
+        long position = start;
+        long count = end - start + 1;
+        headers.setContentLength(count);
+        return new ResponseEntity<>(outputStream -> {
+            WritableByteChannel channel = Channels.newChannel(outputStream);
+            blob.transferTo(position, count, channel);
+            outputStream.flush();
+        }, headers, status);
+    }
+}
@@ -0,0 +1,57 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.aop.logging.LoggingAspect;
+import com.diviso.inventory.aop.logging.Tracing;
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+import com.diviso.inventory.web.rest.vm.LoggingAspectVM;
+
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for viewing and changing the tracing of the LoggingAspect at runtime.
+ * <p>
+ * The settings are those of this node, and are back to the application.logging-aspect properties when it restarts.
+ * The traces are written at debug level, so the LoggingAspect logger must be at debug level too, see LogsResource.
+ */
+@RestController
+@RequestMapping("/management")
+@ConditionalOnProperty(prefix = "application.logging-aspect", name = "enabled", havingValue = "true")
+public class LoggingAspectResource {
+
+    private static final String ENTITY_NAME = "loggingAspect";
+
+    private final Logger log = LoggerFactory.getLogger(LoggingAspectResource.class);
+
+    private final LoggingAspect loggingAspect;
+
+    public LoggingAspectResource(LoggingAspect loggingAspect) {
+        this.loggingAspect = loggingAspect;
+    }
+
+    @GetMapping("/logging-aspect")
+    @Timed
+    public LoggingAspectVM getTracing() {
+        return new LoggingAspectVM(loggingAspect.getTracing());
+    }
+
+    @PutMapping("/logging-aspect")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Timed
+    public void changeTracing(@RequestBody LoggingAspectVM loggingAspectVM) {
+        log.debug("REST request to change the tracing of the LoggingAspect : {}", loggingAspectVM);
+        if (loggingAspectVM.getSampleRate() < 0 || loggingAspectVM.getSampleRate() > 1) {
+            throw new BadRequestAlertException("The sample rate must be between 0 and 1", ENTITY_NAME, "invalidsamplerate");
+        }
+        if (loggingAspectVM.getMaxArgumentLength() <= 0) {
+            throw new BadRequestAlertException("The maximum argument length must be positive", ENTITY_NAME,
+                "invalidmaxargumentlength");
+        }
+        loggingAspect.setTracing(new Tracing(loggingAspectVM.isTracing(), loggingAspectVM.getSampleRate(),
+            loggingAspectVM.getMaxArgumentLength(), loggingAspectVM.getIncludes(), loggingAspectVM.getExcludes()));
+    }
+}
@@ -3,23 +3,35 @@ package com.diviso.inventory.web.rest;
 import com.codahale.metrics.annotation.Timed;
 import com.diviso.inventory.model.NoteModel;
 import com.diviso.inventory.model.ProductModel;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.repository.ProductSpecifications;
+import com.diviso.inventory.service.ProductImportService;
 import com.diviso.inventory.service.ProductService;
 import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
 import com.diviso.inventory.web.rest.util.HeaderUtil;
+import com.diviso.inventory.web.rest.util.ExportWriter;
+import com.diviso.inventory.web.rest.util.ImportReader;
 import com.diviso.inventory.web.rest.util.PaginationUtil;
+import com.diviso.inventory.service.dto.ImportReportDTO;
 import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.ProductSummaryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
@@ -40,8 +52,15 @@ public class ProductResource {
 
     private final ProductService productService;
 
-    public ProductResource(ProductService productService) {
+    private final ProductImportService productImportService;
+
+    private final ObjectMapper objectMapper;
+
+    public ProductResource(ProductService productService, ProductImportService productImportService,
+            ObjectMapper objectMapper) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -90,33 +109,99 @@ public class ProductResource {
      * GET  /products : get all the products.
      *
      * @param pageable the pagination information
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProducts(Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProducts(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products");
+        if (after != null) {
+            return getSliceAfter(null, after, pageable, "/api/products");
+        }
         Page<ProductDTO> page = productService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products?view=summary : get the summaries of all the products, for grids and typeahead.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummaries(Pageable pageable) {
+        log.debug("REST request to get a page of summaries of all Products");
+        return getSummaries(null, pageable, "/api/products");
+    }
     
     /**
-     * GET  /products : get all the products.
+     * POST  /products/findAllMarsheld : get a page of the given products, marshalled.
      *
+     * @param dtoList the products to marshal, only the ids are used
      * @param pageable the pagination information
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @PostMapping("/products/findAllMarsheld")
     @Timed
     public ResponseEntity<List<ProductModel>> getAllProductsMarsheld(@RequestBody ArrayList<ProductDTO> dtoList,Pageable pageable) {
-        log.debug("REST request to get a page of Products");
-        List<ProductModel> list = productService.findAllProductsMarsheld(dtoList,pageable);
-        return new ResponseEntity<>(list, HttpStatus.OK);
+        log.debug("REST request to get a page of marsheld Products");
+        Page<ProductModel> page = productService.findAllProductsMarsheld(dtoList,pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findAllMarsheld");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
     
     
 
+    /**
+     * GET  /products/export : export all the products, in one response.
+     *
+     * @param format the format of the export, "ndjson" (the default) or "csv"
+     * @return the ResponseEntity with status 200 (OK) and the products streamed in body,
+     * or with status 400 (Bad Request) if the format is not supported
+     */
+    @GetMapping("/products/export")
+    @Timed
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all Products as {}", format);
+        ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+        StreamingResponseBody body = outputStream -> {
+            ExportWriter writer = new ExportWriter(exportFormat, objectMapper, outputStream);
+            productService.exportAll(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + exportFormat.getExtension())
+            .body(body);
+    }
+
+    /**
+     * POST  /products/import : import new products, in one request.
+     *
+     * The rows are read as the body is received, and reported by number, from 1, when they cannot be imported.
+     * Besides the ids of a productDTO, a row can give the barcode by its code, and the category, status and
+     * taxCategory by their name.
+     *
+     * @param format the format of the import, "ndjson" (the default) or "csv", with a header line
+     * @param body the products to import
+     * @return the ResponseEntity with status 200 (OK) and with body the report of the import,
+     * or with status 400 (Bad Request) if the format is not supported
+     */
+    @PostMapping("/products/import")
+    @Timed
+    public ResponseEntity<ImportReportDTO> importProducts(@RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) {
+        log.debug("REST request to import Products as {}", format);
+        ExportWriter.Format importFormat = ExportWriter.Format.of(format);
+        ImportReportDTO report = productImportService.importAll(new ImportReader(importFormat, objectMapper, body));
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createAlert("inventoryApp.product.imported", String.valueOf(report.getImported())))
+            .body(report);
+    }
+
     /**
      * GET  /products/:id : get the "id" product.
      *
@@ -142,8 +227,10 @@ public class ProductResource {
     public ResponseEntity<ProductModel> getMarsheldProductById(@PathVariable Long id) {
         log.debug("REST request to get Product : {}", id);
         ProductModel productModel = productService.findMarsheldProduct(id);
-        List<NoteModel> noteModels=productService.findNoteByProductId(id,new PageRequest(0, 10));
-        productModel.setNotes(noteModels);
+        if (productModel != null) {
+            List<NoteModel> noteModels=productService.findNoteByProductId(id,new PageRequest(0, 10));
+            productModel.setNotes(noteModels);
+        }
         return ResponseUtil.wrapOrNotFound(Optional.ofNullable(productModel));
     }
     
@@ -179,61 +266,135 @@ public class ProductResource {
      * GET  /products/findByName/:name  get all the products by name.
      *
      * @param pageable the pagination information and the name of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByName/{name}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByName(@PathVariable String name,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByName(@PathVariable String name,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by name ",name);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.nameAndVisibleTrue(name), after, pageable,
+                "/api/products/findByName/" + name);
+        }
         Page<ProductDTO> page = productService.findByNameAndVisibleTrue(name,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByName");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByName/:name?view=summary : get the summaries of the products by name.
+     *
+     * @param name the name of the product
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByName/{name}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByName(@PathVariable String name, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by name");
+        return getSummaries(ProductSpecifications.nameAndVisibleTrue(name), pageable, "/api/products/findByName/" + name);
+    }
     
     /**
      * GET  /products/findByNameContaining/:name get all the products by name Containing.
      *
      * @param pageable the pagination information and the name of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByNameContaining/{name}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByNameContaining(@PathVariable String name,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByNameContaining(@PathVariable String name,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by name Containing ",name);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.nameContainingAndVisibleTrue(name), after, pageable,
+                "/api/products/findByNameContaining/" + name);
+        }
         Page<ProductDTO> page = productService.findByNameContainingAndVisibleTrue(name,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByNameContaining");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByNameContaining/:name?view=summary : get the summaries of the products by name containing.
+     *
+     * @param name the part of the name of the product
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByNameContaining/{name}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByNameContaining(@PathVariable String name, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by name containing");
+        return getSummaries(ProductSpecifications.nameContainingAndVisibleTrue(name), pageable, "/api/products/findByNameContaining/" + name);
+    }
     
     /**
      * GET  /products/findByVisibleFalse : get all the products by visibility is false.
      *
      * @param pageable the pagination information 
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByVisibleFalse")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByVisibleFalse(Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByVisibleFalse(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by visibility false ");
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.visible(false), after, pageable,
+                "/api/products/findByVisibleFalse");
+        }
         Page<ProductDTO> page = productService.findByVisibleFalse(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByVisibleFalse");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByVisibleFalse?view=summary : get the summaries of the products by visibility false.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByVisibleFalse", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByVisibleFalse(Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by visibility false");
+        return getSummaries(ProductSpecifications.visible(false), pageable, "/api/products/findByVisibleFalse");
+    }
     
     /**
      * GET  /products/findByVisibleTrue : get all the products by visibility is True.
      *
      * @param pageable the pagination information 
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByVisibleTrue")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByVisibleTrue(Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByVisibleTrue(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by visibility True ");
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.visible(true), after, pageable,
+                "/api/products/findByVisibleTrue");
+        }
         Page<ProductDTO> page = productService.findByVisibleTrue(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByVisibleTrue");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByVisibleTrue?view=summary : get the summaries of the products by visibility true.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByVisibleTrue", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByVisibleTrue(Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by visibility true");
+        return getSummaries(ProductSpecifications.visible(true), pageable, "/api/products/findByVisibleTrue");
+    }
     
     /**
      * GET  /products/findByReference/:reference : get the "reference" product.
@@ -309,77 +470,204 @@ public class ProductResource {
      * GET  /products/findByCategory/:name  get all the products by category name.
      *
      * @param pageable the pagination information and the name of the category
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByCategory/{name}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByCategory(@PathVariable String name,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByCategory(@PathVariable String name,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by category name ",name);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.categoryNameAndVisibleTrue(name), after, pageable,
+                "/api/products/findByCategory/" + name);
+        }
         Page<ProductDTO> page = productService.findByCategories_NameAndVisibleTrue(name,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByCategory");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByCategory/:name?view=summary : get the summaries of the products by category name.
+     *
+     * @param name the name of the category
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByCategory/{name}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByCategory(@PathVariable String name, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by category name");
+        return getSummaries(ProductSpecifications.categoryNameAndVisibleTrue(name), pageable, "/api/products/findByCategory/" + name);
+    }
     
     /**
      * GET  /products/findByDateOfMfd/:dateOfMfd  get all the products by dateOfMfd.
      *
      * @param pageable the pagination information and the dateOfMfd of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByDateOfMfd/{dateOfMfd}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByDateOfMfd(@PathVariable LocalDate dateOfMfd,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByDateOfMfd(@PathVariable LocalDate dateOfMfd,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by dateOfMfd ",dateOfMfd);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.dateOfMfdAndVisibleTrue(dateOfMfd), after, pageable,
+                "/api/products/findByDateOfMfd/" + dateOfMfd);
+        }
         Page<ProductDTO> page = productService.findByDateOfMfdAndVisibleTrue(dateOfMfd,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByDateOfMfd");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByDateOfMfd/:dateOfMfd?view=summary : get the summaries of the products by dateOfMfd.
+     *
+     * @param dateOfMfd the dateOfMfd of the product
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByDateOfMfd/{dateOfMfd}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByDateOfMfd(@PathVariable LocalDate dateOfMfd, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by dateOfMfd");
+        return getSummaries(ProductSpecifications.dateOfMfdAndVisibleTrue(dateOfMfd), pageable, "/api/products/findByDateOfMfd/" + dateOfMfd);
+    }
     
     /**
      * GET  /products/findByDateOfExpiry/:dateOfExpiry  get all the products by dateOfExpiry.
      *
      * @param pageable the pagination information and the dateOfExpiry of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByDateOfExpiry/{dateOfExpiry}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByDateOfExpiry(@PathVariable LocalDate dateOfExpiry,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByDateOfExpiry(@PathVariable LocalDate dateOfExpiry,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by dateOfExpiry ",dateOfExpiry);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.dateOfExpiryAndVisibleTrue(dateOfExpiry), after, pageable,
+                "/api/products/findByDateOfExpiry/" + dateOfExpiry);
+        }
         Page<ProductDTO> page = productService.findByDateOfExpiryAndVisibleTrue(dateOfExpiry,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByDateOfExpiry");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByDateOfExpiry/:dateOfExpiry?view=summary : get the summaries of the products by dateOfExpiry.
+     *
+     * @param dateOfExpiry the dateOfExpiry of the product
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByDateOfExpiry/{dateOfExpiry}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByDateOfExpiry(@PathVariable LocalDate dateOfExpiry, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by dateOfExpiry");
+        return getSummaries(ProductSpecifications.dateOfExpiryAndVisibleTrue(dateOfExpiry), pageable, "/api/products/findByDateOfExpiry/" + dateOfExpiry);
+    }
     
     /**
      * GET  /products/findByDateOfExpiryBetween/:from/:/to  get all the products by dateOfExpiryBetween.
      *
      * @param pageable the pagination information and the dateOfExpiry(from&to) of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByDateOfExpiryBetween/{from}/{to}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByDateOfExpiryBetween(@PathVariable LocalDate from,@PathVariable LocalDate to,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByDateOfExpiryBetween(@PathVariable LocalDate from,@PathVariable LocalDate to,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by dateOfExpiryBetween from "+from+" to ",to);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.dateOfExpiryBetweenAndVisibleTrue(from, to), after, pageable,
+                "/api/products/findByDateOfExpiryBetween/" + from + "/" + to);
+        }
         Page<ProductDTO> page = productService.findByDateOfExpiryBetweenAndVisibleTrue(from,to,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByDateOfExpiryBetween");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /products/findByDateOfExpiryBetween/:from/:to?view=summary : get the summaries of the products by dateOfExpiryBetween.
+     *
+     * @param from the first dateOfExpiry of the products
+     * @param to the last dateOfExpiry of the products
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByDateOfExpiryBetween/{from}/{to}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByDateOfExpiryBetween(@PathVariable LocalDate from, @PathVariable LocalDate to, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by dateOfExpiryBetween");
+        return getSummaries(ProductSpecifications.dateOfExpiryBetweenAndVisibleTrue(from, to), pageable, "/api/products/findByDateOfExpiryBetween/" + from + "/" + to);
+    }
+
+    /**
+     * GET  /products/expiring?days=:days : get all the visible products expiring within a number of days, by day of expiry.
+     *
+     * @param days the number of days from today, 0 for the products expiring today
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of products in body,
+     * or with status 400 (Bad Request) if the number of days is negative
+     */
+    @GetMapping("/products/expiring")
+    @Timed
+    public ResponseEntity<List<ProductDTO>> getAllProductsExpiring(@RequestParam int days, Pageable pageable) {
+        log.debug("REST request to get a page of Products expiring within {} days", days);
+        if (days < 0) {
+            throw new BadRequestAlertException("Invalid days", ENTITY_NAME, "daysinvalid");
+        }
+        Page<ProductDTO> page = productService.findExpiringWithin(days, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/expiring");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
     
     /**
      * GET  /products/findByStatus/:status  get all the products by status.
      *
      * @param pageable the pagination information and the status of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of products in body
      */
     @GetMapping("/products/findByStatus/{status}")
     @Timed
-    public ResponseEntity<List<ProductDTO>> getAllProductsByStatus(@PathVariable String status,Pageable pageable) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsByStatus(@PathVariable String status,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Products by status ",status);
+        if (after != null) {
+            return getSliceAfter(ProductSpecifications.statusNameAndVisibleTrue(status), after, pageable,
+                "/api/products/findByStatus/" + status);
+        }
         Page<ProductDTO> page = productService.findByStatus_NameAndVisibleTrue(status,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/products/findByStatus");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
-    
-    
-    
+
+    /**
+     * GET  /products/findByStatus/:status?view=summary : get the summaries of the products by status.
+     *
+     * @param status the name of the status of the product
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of product summaries in body
+     */
+    @GetMapping(value = "/products/findByStatus/{status}", params = "view=summary")
+    @Timed
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummariesByStatus(@PathVariable String status, Pageable pageable) {
+        log.debug("REST request to get a page of summaries of Products by status");
+        return getSummaries(ProductSpecifications.statusNameAndVisibleTrue(status), pageable, "/api/products/findByStatus/" + status);
+    }
+
+    private ResponseEntity<List<ProductSummaryDTO>> getSummaries(Specification<Product> specification, Pageable pageable,
+            String baseUrl) {
+        Page<ProductSummaryDTO> page = productService.findAllSummaries(specification, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, baseUrl + "?view=summary");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    private ResponseEntity<List<ProductDTO>> getSliceAfter(Specification<Product> specification, String after, Pageable pageable,
+            String baseUrl) {
+        Slice<ProductDTO> slice = productService.findAllAfter(specification, PaginationUtil.decodeCursor(after), pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(slice, ProductDTO::getId, baseUrl);
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
 }
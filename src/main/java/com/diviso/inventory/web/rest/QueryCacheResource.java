@@ -0,0 +1,60 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.repository.QueryCacheRegions;
+import com.diviso.inventory.web.rest.vm.QueryCacheRegionVM;
+
+import com.codahale.metrics.annotation.Timed;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Controller for viewing the hits and misses of the Hibernate query cache regions at runtime.
+ * <p>
+ * The counts are those of this node, since it started or since they were last reset, and are only kept when
+ * hibernate.generate_statistics is on.
+ */
+@RestController
+@RequestMapping("/management")
+public class QueryCacheResource {
+
+    private final Statistics statistics;
+
+    private final ApplicationProperties.QueryCache queryCache;
+
+    public QueryCacheResource(EntityManagerFactory entityManagerFactory, ApplicationProperties applicationProperties) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.queryCache = applicationProperties.getQueryCache();
+    }
+
+    @GetMapping("/query-cache")
+    @Timed
+    public List<QueryCacheRegionVM> getList() {
+        return QueryCacheRegions.ALL
+            .stream()
+            .map(region -> {
+                String name = region.substring(QueryCacheRegions.PREFIX.length());
+                return new QueryCacheRegionVM(region, statistics.getSecondLevelCacheStatistics(region),
+                    queryCache.getTimeToLiveSeconds(name), queryCache.getMaxSize(name));
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Reset the statistics, to measure the query cache from now on.
+     * <p>
+     * All the Hibernate statistics are reset, not only those of the query cache regions.
+     */
+    @DeleteMapping("/query-cache")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Timed
+    public void resetStatistics() {
+        statistics.clear();
+    }
+}
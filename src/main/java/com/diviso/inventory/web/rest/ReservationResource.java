@@ -0,0 +1,141 @@
+package com.diviso.inventory.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.service.ReservationService;
+import com.diviso.inventory.service.dto.ReservationDTO;
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+import com.diviso.inventory.web.rest.util.HeaderUtil;
+import io.github.jhipster.web.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Optional;
+
+/**
+ * REST controller for the reservations, the units of the stockLines held for the carts before checkout.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReservationResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReservationResource.class);
+
+    private static final String ENTITY_NAME = "reservation";
+
+    private final ReservationService reservationService;
+
+    private final ApplicationProperties.Reservation properties;
+
+    public ReservationResource(ReservationService reservationService, ApplicationProperties applicationProperties) {
+        this.reservationService = reservationService;
+        this.properties = applicationProperties.getReservation();
+    }
+
+    /**
+     * POST  /reservations : Hold units of a stockLine.
+     *
+     * @param reservationDTO the stockLine, the units and the reference of the reservation
+     * @param ttl the seconds the units are held for, at most application.reservation.max-ttl, or null for the
+     * default
+     * @return the ResponseEntity with status 201 (Created) and with body the new reservationDTO, or with status
+     * 400 (Bad Request) if the reservation or the ttl is not valid or the stockLine does not have the units
+     * available
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     */
+    @PostMapping("/reservations")
+    @Timed
+    public ResponseEntity<ReservationDTO> createReservation(@Valid @RequestBody ReservationDTO reservationDTO,
+            @RequestParam(required = false) Long ttl) throws URISyntaxException {
+        log.debug("REST request to save Reservation : {}", reservationDTO);
+        if (reservationDTO.getId() != null) {
+            throw new BadRequestAlertException("A new reservation cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        if (reservationDTO.getUnits() <= 0) {
+            throw new BadRequestAlertException("Invalid units", ENTITY_NAME, "unitsinvalid");
+        }
+        if (ttl != null && ttl <= 0) {
+            throw new BadRequestAlertException("Invalid ttl", ENTITY_NAME, "ttlinvalid");
+        }
+        Long ttlMillis = null;
+        if (ttl != null) {
+            try {
+                ttlMillis = Math.min(Math.multiplyExact(ttl, 1000L), properties.getMaxTtl());
+            } catch (ArithmeticException e) {
+                throw new BadRequestAlertException("Invalid ttl", ENTITY_NAME, "ttlinvalid");
+            }
+        }
+        ReservationDTO result = reservationService.reserve(reservationDTO, ttlMillis);
+        if (result == null) {
+            throw new BadRequestAlertException("The units are not available", ENTITY_NAME, "unitsunavailable");
+        }
+        return ResponseEntity.created(new URI("/api/reservations/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId()))
+            .body(result);
+    }
+
+    /**
+     * POST  /reservations/:id/confirm : Confirm a held reservation, selling its units.
+     *
+     * @param id the id of the reservation to confirm
+     * @return the ResponseEntity with status 200 (OK) and with body the confirmed reservationDTO, or with status
+     * 404 (Not Found) if the reservation is not held
+     */
+    @PostMapping("/reservations/{id}/confirm")
+    @Timed
+    public ResponseEntity<ReservationDTO> confirmReservation(@PathVariable String id) {
+        log.debug("REST request to confirm Reservation : {}", id);
+        ReservationDTO reservationDTO = reservationService.confirm(id);
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(reservationDTO),
+            HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, id));
+    }
+
+    /**
+     * POST  /reservations/:id/release : Release a held reservation, its units being available to sell again.
+     *
+     * @param id the id of the reservation to release
+     * @return the ResponseEntity with status 200 (OK) and with body the released reservationDTO, or with status
+     * 404 (Not Found) if the reservation is not held
+     */
+    @PostMapping("/reservations/{id}/release")
+    @Timed
+    public ResponseEntity<ReservationDTO> releaseReservation(@PathVariable String id) {
+        log.debug("REST request to release Reservation : {}", id);
+        ReservationDTO reservationDTO = reservationService.release(id);
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(reservationDTO),
+            HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, id));
+    }
+
+    /**
+     * GET  /reservations/:id : get the "id" reservation.
+     *
+     * @param id the id of the reservationDTO to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the reservationDTO, or with status 404 (Not Found)
+     */
+    @GetMapping("/reservations/{id}")
+    @Timed
+    public ResponseEntity<ReservationDTO> getReservation(@PathVariable String id) {
+        log.debug("REST request to get Reservation : {}", id);
+        ReservationDTO reservationDTO = reservationService.findOne(id);
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(reservationDTO));
+    }
+
+    /**
+     * GET  /reservations/available/:stockLineId : get the units of a stockLine available to sell.
+     *
+     * @param stockLineId the id of the stockLine
+     * @return the ResponseEntity with status 200 (OK) and with body the units of the stockLine less the units held,
+     * or with status 404 (Not Found)
+     */
+    @GetMapping("/reservations/available/{stockLineId}")
+    @Timed
+    public ResponseEntity<Double> getAvailable(@PathVariable Long stockLineId) {
+        log.debug("REST request to get the units available to sell of StockLine : {}", stockLineId);
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(reservationService.findAvailable(stockLineId)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.diviso.inventory.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import com.diviso.inventory.service.StockAggregateService;
+import com.diviso.inventory.service.dto.StockAggregateDTO;
+import com.diviso.inventory.web.rest.util.PaginationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for the units and value in stock per product, location and infrastructure.
+ */
+@RestController
+@RequestMapping("/api")
+public class StockAggregateResource {
+
+    private final Logger log = LoggerFactory.getLogger(StockAggregateResource.class);
+
+    private final StockAggregateService stockAggregateService;
+
+    public StockAggregateResource(StockAggregateService stockAggregateService) {
+        this.stockAggregateService = stockAggregateService;
+    }
+
+    /**
+     * GET  /stock-aggregates/findByLocationId/:locationId : get the stock of each product and infrastructure at a
+     * location.
+     *
+     * @param locationId the id of the location
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockAggregates in body
+     */
+    @GetMapping("/stock-aggregates/findByLocationId/{locationId}")
+    @Timed
+    public ResponseEntity<List<StockAggregateDTO>> getStockAggregatesByLocationId(@PathVariable Long locationId,
+            Pageable pageable) {
+        log.debug("REST request to get a page of StockAggregates by locationId : {}", locationId);
+        Page<StockAggregateDTO> page = stockAggregateService.findByLocationId(locationId, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page,
+            "/api/stock-aggregates/findByLocationId/" + locationId);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /stock-aggregates/findByInfrastructureId/:infrastructureId : get the stock of each product and location
+     * of an infrastructure.
+     *
+     * @param infrastructureId the id of the infrastructure
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockAggregates in body
+     */
+    @GetMapping("/stock-aggregates/findByInfrastructureId/{infrastructureId}")
+    @Timed
+    public ResponseEntity<List<StockAggregateDTO>> getStockAggregatesByInfrastructureId(
+            @PathVariable Long infrastructureId, Pageable pageable) {
+        log.debug("REST request to get a page of StockAggregates by infrastructureId : {}", infrastructureId);
+        Page<StockAggregateDTO> page = stockAggregateService.findByInfrastructureId(infrastructureId, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page,
+            "/api/stock-aggregates/findByInfrastructureId/" + infrastructureId);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /stock-aggregates/findByProductId/:productId : get the stock of a product at each location and
+     * infrastructure.
+     *
+     * @param productId the id of the product
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockAggregates in body
+     */
+    @GetMapping("/stock-aggregates/findByProductId/{productId}")
+    @Timed
+    public ResponseEntity<List<StockAggregateDTO>> getStockAggregatesByProductId(@PathVariable Long productId,
+            Pageable pageable) {
+        log.debug("REST request to get a page of StockAggregates by productId : {}", productId);
+        Page<StockAggregateDTO> page = stockAggregateService.findByProductId(productId, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page,
+            "/api/stock-aggregates/findByProductId/" + productId);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+}
@@ -1,22 +1,30 @@
 package com.diviso.inventory.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.diviso.inventory.model.StockLevelUpdateModel;
 import com.diviso.inventory.model.StockLineModel;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.repository.StockLineSpecifications;
 import com.diviso.inventory.service.StockLineService;
 import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
 import com.diviso.inventory.web.rest.util.HeaderUtil;
+import com.diviso.inventory.web.rest.util.ExportWriter;
 import com.diviso.inventory.web.rest.util.PaginationUtil;
 
 import com.diviso.inventory.service.dto.StockLineDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.net.URI;
@@ -39,8 +47,11 @@ public class StockLineResource {
 
     private final StockLineService stockLineService;
 
-    public StockLineResource(StockLineService stockLineService) {
+    private final ObjectMapper objectMapper;
+
+    public StockLineResource(StockLineService stockLineService, ObjectMapper objectMapper) {
         this.stockLineService = stockLineService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -89,17 +100,44 @@ public class StockLineResource {
      * GET  /stock-lines : get all the stockLines.
      *
      * @param pageable the pagination information
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body
      */
     @GetMapping("/stock-lines")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStockLines(Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStockLines(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of StockLines");
+        if (after != null) {
+            return getSliceAfter(null, after, pageable, "/api/stock-lines");
+        }
         Page<StockLineDTO> page = stockLineService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /stock-lines/export : export all the stockLines, in one response.
+     *
+     * @param format the format of the export, "ndjson" (the default) or "csv"
+     * @return the ResponseEntity with status 200 (OK) and the stockLines streamed in body,
+     * or with status 400 (Bad Request) if the format is not supported
+     */
+    @GetMapping("/stock-lines/export")
+    @Timed
+    public ResponseEntity<StreamingResponseBody> exportStockLines(@RequestParam(defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all StockLines as {}", format);
+        ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+        StreamingResponseBody body = outputStream -> {
+            ExportWriter writer = new ExportWriter(exportFormat, objectMapper, outputStream);
+            stockLineService.exportAll(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=stock-lines." + exportFormat.getExtension())
+            .body(body);
+    }
+
     /**
      * GET  /stock-lines/:id : get the "id" stockLine.
      *
@@ -146,12 +184,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductName/:name  get all the stockLines by product name.
      *
      * @param pageable the pagination information Product_ the name of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductName/{name}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProdcutName(@PathVariable String name,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProdcutName(@PathVariable String name,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by produt name ",name);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productNameAndProductVisibleTrue(name), after, pageable,
+                "/api/stock-lines/findByProductName/" + name);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_NameAndProduct_VisibleTrue(name,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductName");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -161,12 +204,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductNameContaining/:name get all the stockLines by Product name Containing.
      *
      * @param pageable the pagination information Product_ the name of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductNameContaining/{name}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductNameContaining(@PathVariable String name,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductNameContaining(@PathVariable String name,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by Product name Containing ",name);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productNameContainingAndProductVisibleTrue(name), after, pageable,
+                "/api/stock-lines/findByProductNameContaining/" + name);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_NameContainingAndProduct_VisibleTrue(name,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductNameContaining");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -176,12 +224,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductVisibleFalse : get all the stockLines by product visibility is false.
      *
      * @param pageable the pagination information 
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductVisibleFalse")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByVisibleFalse(Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByVisibleFalse(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by product visibility false ");
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productVisible(false), after, pageable,
+                "/api/stock-lines/findByProductVisibleFalse");
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_VisibleFalse(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductVisibleFalse");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -191,12 +244,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductVisibleTrue : get all the stockLines by product visibility is True.
      *
      * @param pageable the pagination information 
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductVisibleTrue")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByVisibleTrue(Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByVisibleTrue(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by product visibility True ");
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productVisible(true), after, pageable,
+                "/api/stock-lines/findByProductVisibleTrue");
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_VisibleTrue(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductVisibleTrue");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -276,12 +334,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductCategoryName/:name  get all the stockLines by category name.
      *
      * @param pageable the pagination information Product_ the name of the category
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductCategoryName/{name}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductCategoryName(@PathVariable String name,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductCategoryName(@PathVariable String name,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by category name ",name);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productCategoryNameAndProductVisibleTrue(name), after, pageable,
+                "/api/stock-lines/findByProductCategoryName/" + name);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_Categories_NameAndProduct_VisibleTrue(name,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductCategory");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -291,12 +354,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductCategoryId/:id  get all the stockLines by category name.
      *
      * @param pageable the pagination information Product_ the name of the category
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductCategoryId/{id}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductCategoryId(@PathVariable Long id,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductCategoryId(@PathVariable Long id,@RequestParam(required = false) String after, Pageable pageable) {
          log.debug("REST request to get a page of stockLines by category id ",id);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productCategoryIdAndProductVisibleTrue(id), after, pageable,
+                "/api/stock-lines/findByProductCategoryId/" + id);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_Category_IdAndProduct_VisibleTrue(id,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductCategoryId");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -308,12 +376,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductDateOfMfd/:dateOfMfd  get all the stockLines by dateOfMfd.
      *
      * @param pageable the pagination information Product_ the dateOfMfd of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductDateOfMfd/{dateOfMfd}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductDateOfMfd(@PathVariable LocalDate dateOfMfd,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductDateOfMfd(@PathVariable LocalDate dateOfMfd,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by dateOfMfd ",dateOfMfd);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productDateOfMfdAndProductVisibleTrue(dateOfMfd), after, pageable,
+                "/api/stock-lines/findByProductDateOfMfd/" + dateOfMfd);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_DateOfMfdAndProduct_VisibleTrue(dateOfMfd,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductDateOfMfd");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -323,12 +396,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductDateOfExpiry/:dateOfExpiry  get all the stockLines by dateOfExpiry.
      *
      * @param pageable the pagination information Product_ the dateOfExpiry of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductDateOfExpiry/{dateOfExpiry}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductDateOfExpiry(@PathVariable LocalDate dateOfExpiry,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductDateOfExpiry(@PathVariable LocalDate dateOfExpiry,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by dateOfExpiry ",dateOfExpiry);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productDateOfExpiryAndProductVisibleTrue(dateOfExpiry), after, pageable,
+                "/api/stock-lines/findByProductDateOfExpiry/" + dateOfExpiry);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_DateOfExpiryAndProduct_VisibleTrue(dateOfExpiry,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductDateOfExpiry");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -338,12 +416,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductDateOfExpiryBetween/:from/:/to  get all the stockLines by dateOfExpiryBetween.
      *
      * @param pageable the pagination information Product_ the dateOfExpiry(from&to) of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductDateOfExpiryBetween/{from}/{to}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductDateOfExpiryBetween(@PathVariable LocalDate from,@PathVariable LocalDate to,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductDateOfExpiryBetween(@PathVariable LocalDate from,@PathVariable LocalDate to,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by dateOfExpiryBetween from "+from+" to ",to);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productDateOfExpiryBetweenAndProductVisibleTrue(from, to), after, pageable,
+                "/api/stock-lines/findByProductDateOfExpiryBetween/" + from + "/" + to);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_DateOfExpiryBetweenAndProduct_VisibleTrue(from,to,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductDateOfExpiryBetween");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -353,12 +436,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByProductStatus/:status  get all the stockLines by status.
      *
      * @param pageable the pagination information Product_ the status of the product
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) Product_ the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByProductStatus/{status}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductStatus(@PathVariable String status,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStocksByProductStatus(@PathVariable String status,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of stockLines by status ",status);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.productStatusNameAndProductVisibleTrue(status), after, pageable,
+                "/api/stock-lines/findByProductStatus/" + status);
+        }
         Page<StockLineDTO> page = stockLineService.findByProduct_Status_NameAndProduct_VisibleTrue(status,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByProductStatus");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -368,12 +456,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByInfrastructureId/:infrastructureId get all the stockLines by infrastructureId.
      *
      * @param pageable the pagination information and the infrastructureId of the stock-line
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByInfrastructureId/{infrastructureId}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStockLinesInfrastructureId(@PathVariable Long infrastructureId,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStockLinesInfrastructureId(@PathVariable Long infrastructureId,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of StockLines by infrastructureId",infrastructureId);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.infrastructureId(infrastructureId), after, pageable,
+                "/api/stock-lines/findByInfrastructureId/" + infrastructureId);
+        }
         Page<StockLineDTO> page = stockLineService.findByInfrastructureId(infrastructureId,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByInfrastructureId");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -383,12 +476,17 @@ public class StockLineResource {
      * GET  /stock-lines/findByLocationId/:locationId get all the stockLines by locationId.
      *
      * @param pageable the pagination information and the locationId of the stock-line
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body
      */
     @GetMapping("/stock-lines/findByLocationId/{locationId}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStockLinesLocationId(@PathVariable Long locationId,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStockLinesLocationId(@PathVariable Long locationId,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of StockLines by locationId",locationId);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.locationId(String.valueOf(locationId)), after, pageable,
+                "/api/stock-lines/findByLocationId/" + locationId);
+        }
         Page<StockLineDTO> page = stockLineService.findByLocationId(locationId,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findByLocationId");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -398,22 +496,93 @@ public class StockLineResource {
      * GET  /stock-lines/findBySupplierRef/:supplierRef get all the stockLines by supplierRef.
      *
      * @param pageable the pagination information and the supplierRef of the stock-line
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body
      */
     @GetMapping("/stock-lines/findBySupplierRef/{supplierRef}")
     @Timed
-    public ResponseEntity<List<StockLineDTO>> getAllStockLinesSupplierRef(@PathVariable Long supplierRef,Pageable pageable) {
+    public ResponseEntity<List<StockLineDTO>> getAllStockLinesSupplierRef(@PathVariable Long supplierRef,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of StockLines by supplierRef",supplierRef);
+        if (after != null) {
+            return getSliceAfter(StockLineSpecifications.supplierRef(supplierRef), after, pageable,
+                "/api/stock-lines/findBySupplierRef/" + supplierRef);
+        }
         Page<StockLineDTO> page = stockLineService.findBySupplierRef(supplierRef,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/findBySupplierRef");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
+
+    /**
+     * GET  /stock-lines/below-reorder : get all the stockLines of the products at or below their re-order level.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body
+     */
+    @GetMapping("/stock-lines/below-reorder")
+    @Timed
+    public ResponseEntity<List<StockLineDTO>> getAllStockLinesBelowReorder(Pageable pageable) {
+        log.debug("REST request to get a page of StockLines below their re-order level");
+        Page<StockLineDTO> page = stockLineService.findBelowReorder(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/below-reorder");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /stock-lines/over-stock : get all the stockLines of the products above their maximum stock level.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body
+     */
+    @GetMapping("/stock-lines/over-stock")
+    @Timed
+    public ResponseEntity<List<StockLineDTO>> getAllStockLinesOverStock(Pageable pageable) {
+        log.debug("REST request to get a page of StockLines above their maximum stock level");
+        Page<StockLineDTO> page = stockLineService.findOverStock(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/over-stock");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /stock-lines/expiring?days=:days : get all the stockLines of the visible products expiring within a number of days.
+     *
+     * @param days the number of days from today, 0 for the products expiring today
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockLines in body,
+     * or with status 400 (Bad Request) if the number of days is negative
+     */
+    @GetMapping("/stock-lines/expiring")
+    @Timed
+    public ResponseEntity<List<StockLineDTO>> getAllStockLinesExpiring(@RequestParam int days, Pageable pageable) {
+        log.debug("REST request to get a page of StockLines of the Products expiring within {} days", days);
+        if (days < 0) {
+            throw new BadRequestAlertException("Invalid days", ENTITY_NAME, "daysinvalid");
+        }
+        Page<StockLineDTO> page = stockLineService.findByProductExpiringWithin(days, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stock-lines/expiring");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
     
+    /**
+     * PUT  /stock-lines/updateStockLevel : subtract units from the stock levels of stockLines.
+     *
+     * @param stockLines the ids of the stockLines and the units to subtract
+     * @return the ResponseEntity with status 200 (OK) and with body the updated, missing and negative stockLine ids,
+     * or with status 400 (Bad Request) if a stockLine has no id or no units
+     */
     @PutMapping("/stock-lines/updateStockLevel")
-    public ResponseEntity<List<StockLineDTO>>  updateStockLevel(@RequestBody ArrayList<StockLineDTO> stockLines ){
-    	List<StockLineDTO> list=stockLineService.updateStockLevel(stockLines);
-    	return new ResponseEntity<>(list,  HttpStatus.OK);
-                
+    @Timed
+    public ResponseEntity<StockLevelUpdateModel> updateStockLevel(@RequestBody ArrayList<StockLineDTO> stockLines) {
+        log.debug("REST request to update the stock level of {} StockLines", stockLines.size());
+        for (StockLineDTO stockLineDTO : stockLines) {
+            if (stockLineDTO.getId() == null) {
+                throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
+            }
+            if (stockLineDTO.getUnits() == null) {
+                throw new BadRequestAlertException("Invalid units", ENTITY_NAME, "unitsnull");
+            }
+        }
+        StockLevelUpdateModel result = stockLineService.updateStockLevel(stockLines);
+        return new ResponseEntity<>(result, HttpStatus.OK);
     }
     
     /**
@@ -443,14 +612,11 @@ public class StockLineResource {
         List<StockLineModel> list = stockLineService.findAllStockLinesMarsheld(dtoList);
         return new ResponseEntity<>(list, HttpStatus.OK);
     }
-    
-    
-    
-    
-    
-    
-    
-    
-    
 
+    private ResponseEntity<List<StockLineDTO>> getSliceAfter(Specification<StockLine> specification, String after, Pageable pageable,
+            String baseUrl) {
+        Slice<StockLineDTO> slice = stockLineService.findAllAfter(specification, PaginationUtil.decodeCursor(after), pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(slice, StockLineDTO::getId, baseUrl);
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,80 @@
+package com.diviso.inventory.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import com.diviso.inventory.model.StockLevelUpdateModel;
+import com.diviso.inventory.service.StockLedgerService;
+import com.diviso.inventory.service.dto.StockMovementDTO;
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+import com.diviso.inventory.web.rest.util.PaginationUtil;
+import com.diviso.inventory.web.rest.vm.StockTransferVM;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for the stock movement journal.
+ */
+@RestController
+@RequestMapping("/api")
+public class StockMovementResource {
+
+    private final Logger log = LoggerFactory.getLogger(StockMovementResource.class);
+
+    private static final String ENTITY_NAME = "stockMovement";
+
+    private final StockLedgerService stockLedgerService;
+
+    public StockMovementResource(StockLedgerService stockLedgerService) {
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    /**
+     * GET  /stock-movements/findByStockLineId/:stockLineId : get the movements of a stockLine.
+     *
+     * @param stockLineId the id of the stockLine
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of stockMovements in body
+     */
+    @GetMapping("/stock-movements/findByStockLineId/{stockLineId}")
+    @Timed
+    public ResponseEntity<List<StockMovementDTO>> getStockMovementsByStockLineId(@PathVariable Long stockLineId,
+            Pageable pageable) {
+        log.debug("REST request to get a page of StockMovements by stockLineId : {}", stockLineId);
+        Page<StockMovementDTO> page = stockLedgerService.findByStockLineId(stockLineId, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page,
+            "/api/stock-movements/findByStockLineId/" + stockLineId);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * POST  /stock-movements/transfer : move units from a stockLine to another.
+     *
+     * @param stockTransferVM the stockLines, the units to move and the reference of the transfer
+     * @return the ResponseEntity with status 200 (OK) and with body the updated and negative stockLine ids, or the
+     * missing ones if nothing was moved, or with status 400 (Bad Request) if the transfer is not valid
+     */
+    @PostMapping("/stock-movements/transfer")
+    @Timed
+    public ResponseEntity<StockLevelUpdateModel> transfer(@RequestBody StockTransferVM stockTransferVM) {
+        log.debug("REST request to transfer : {}", stockTransferVM);
+        if (stockTransferVM.getFromStockLineId() == null || stockTransferVM.getToStockLineId() == null) {
+            throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
+        }
+        if (stockTransferVM.getFromStockLineId().equals(stockTransferVM.getToStockLineId())) {
+            throw new BadRequestAlertException("A transfer needs two stockLines", ENTITY_NAME, "sameid");
+        }
+        if (stockTransferVM.getUnits() == null || stockTransferVM.getUnits() <= 0) {
+            throw new BadRequestAlertException("Invalid units", ENTITY_NAME, "unitsinvalid");
+        }
+        StockLevelUpdateModel result = stockLedgerService.transfer(stockTransferVM.getFromStockLineId(),
+            stockTransferVM.getToStockLineId(), stockTransferVM.getUnits(), stockTransferVM.getReference());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
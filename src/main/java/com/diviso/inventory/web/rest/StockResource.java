@@ -2,17 +2,22 @@ package com.diviso.inventory.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
 import com.diviso.inventory.model.StockModel;
+import com.diviso.inventory.domain.Stock;
+import com.diviso.inventory.repository.StockSpecifications;
 import com.diviso.inventory.service.StockService;
 import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
 import com.diviso.inventory.web.rest.util.HeaderUtil;
 import com.diviso.inventory.web.rest.util.PaginationUtil;
 
 import com.diviso.inventory.service.dto.StockDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -63,6 +68,32 @@ public class StockResource {
             .body(result);
     }
 
+    /**
+     * POST  /stocks/receipts : Receive a new stock with its new stockLines, such as a goods receipt.
+     *
+     * @param stockDTO the stockDTO to create, with the stockLines to create
+     * @return the ResponseEntity with status 201 (Created) and with body the new stockDTO, with its new stockLines,
+     * or with status 400 (Bad Request) if the stock or one of its stockLines has already an ID
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     */
+    @PostMapping("/stocks/receipts")
+    @Timed
+    public ResponseEntity<StockDTO> receiveStock(@Valid @RequestBody StockDTO stockDTO) throws URISyntaxException {
+        log.debug("REST request to receive Stock : {} with {} StockLines", stockDTO.getReference(), stockDTO.getStockLines().size());
+        if (stockDTO.getId() != null) {
+            throw new BadRequestAlertException("A new stock cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        for (StockLineDTO stockLineDTO : stockDTO.getStockLines()) {
+            if (stockLineDTO.getId() != null) {
+                throw new BadRequestAlertException("A new stockLine cannot already have an ID", "stockLine", "idexists");
+            }
+        }
+        StockDTO result = stockService.receive(stockDTO);
+        return ResponseEntity.created(new URI("/api/stocks/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))
+            .body(result);
+    }
+
     /**
      * PUT  /stocks : Updates an existing stock.
      *
@@ -89,12 +120,16 @@ public class StockResource {
      * GET  /stocks : get all the stocks.
      *
      * @param pageable the pagination information
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) StockLine_Product_ the list of stocks in body
      */
     @GetMapping("/stocks")
     @Timed
-    public ResponseEntity<List<StockDTO>> getAllStocks(Pageable pageable) {
+    public ResponseEntity<List<StockDTO>> getAllStocks(@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Stocks");
+        if (after != null) {
+            return getSliceAfter(null, after, pageable, "/api/stocks");
+        }
         Page<StockDTO> page = stockService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stocks");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -160,12 +195,17 @@ public class StockResource {
      * GET  /stocks/findByDateOfStockUpdated/:dateOfStockUpdated get all the stocks by dateOfStockUpdated.
      *
      * @param pageable the pagination information and the dateOfStockUpdated of the stock
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) StockLine_Product_ the list of stocks in body
      */
     @GetMapping("/stocks/findByDateOfStockUpdated/{dateOfStockUpdated}")
     @Timed
-    public ResponseEntity<List<StockDTO>> getAllStocksByDateOfStockUpdated(@PathVariable LocalDate dateOfStockUpdated,Pageable pageable) {
+    public ResponseEntity<List<StockDTO>> getAllStocksByDateOfStockUpdated(@PathVariable LocalDate dateOfStockUpdated,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Stocks by dateOfStockUpdated",dateOfStockUpdated);
+        if (after != null) {
+            return getSliceAfter(StockSpecifications.dateOfStockUpdated(dateOfStockUpdated), after, pageable,
+                "/api/stocks/findByDateOfStockUpdated/" + dateOfStockUpdated);
+        }
         Page<StockDTO> page = stockService.findByDateOfStockUpdated(dateOfStockUpdated,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stocks/findByDateOfStockUpdated");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -175,12 +215,17 @@ public class StockResource {
      * GET  /stocks/findByDateOfStockUpdatedBetween/:from/:to get all the stocks by dateOfStockUpdated.
      *
      * @param pageable the pagination information and the dateOfStockUpdated(from&to) of the stock
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) StockLine_Product_ the list of stocks in body
      */
     @GetMapping("/stocks/findByDateOfStockUpdatedBetween/{from}/{to}")
     @Timed
-    public ResponseEntity<List<StockDTO>> getAllStocksByDateOfStockUpdatedBetween(@PathVariable LocalDate from,@PathVariable LocalDate to,Pageable pageable) {
+    public ResponseEntity<List<StockDTO>> getAllStocksByDateOfStockUpdatedBetween(@PathVariable LocalDate from,@PathVariable LocalDate to,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Stocks by dateOfStockUpdated between from "+from+" to "+to);
+        if (after != null) {
+            return getSliceAfter(StockSpecifications.dateOfStockUpdatedBetween(from, to), after, pageable,
+                "/api/stocks/findByDateOfStockUpdatedBetween/" + from + "/" + to);
+        }
         Page<StockDTO> page = stockService.findByDateOfStockUpdatedBetween(from,to,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stocks/findByDateOfStockUpdatedBetween");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -190,12 +235,17 @@ public class StockResource {
      * GET  /stocks/findByStatus/:status get all the stocks by status.
      *
      * @param pageable the pagination information and the status of the stock
+     * @param after the cursor to read the slice after, empty for the first slice, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) StockLine_Product_ the list of stocks in body
      */
     @GetMapping("/stocks/findByStatus/{status}")
     @Timed
-    public ResponseEntity<List<StockDTO>> getAllStocksByStatus(@PathVariable String status,Pageable pageable) {
+    public ResponseEntity<List<StockDTO>> getAllStocksByStatus(@PathVariable String status,@RequestParam(required = false) String after, Pageable pageable) {
         log.debug("REST request to get a page of Stocks by Status ",status);
+        if (after != null) {
+            return getSliceAfter(StockSpecifications.statusName(status), after, pageable,
+                "/api/stocks/findByStatus/" + status);
+        }
         Page<StockDTO> page = stockService.findByStatus_Name(status,pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/stocks/findByStatus");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -216,17 +266,23 @@ public class StockResource {
     }
     
     /**
-     * GET  /stocks : get all the stocks.
+     * POST  /stocks/findAllMarsheld : get the given stocks, marshalled.
      *
-     * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) StockLine_Product_ the list of stocks in body
+     * @param dtoList the stocks to marshal, only the ids are used
+     * @return the ResponseEntity with status 200 (OK) and the list of stocks in body
      */
-    @GetMapping("/stocks/findAllMarsheld")
+    @PostMapping("/stocks/findAllMarsheld")
     @Timed
-    public ResponseEntity<List<StockModel>> getAllStocksMarsheld(ArrayList<StockDTO> dtoList) {
-        log.debug("REST request to get a page of Stocks");
+    public ResponseEntity<List<StockModel>> getAllStocksMarsheld(@RequestBody ArrayList<StockDTO> dtoList) {
+        log.debug("REST request to get {} marsheld Stocks", dtoList.size());
         List<StockModel> list = stockService.findAllStocksMarsheld(dtoList);
         return new ResponseEntity<>(list,  HttpStatus.OK);
     }
-   
+
+    private ResponseEntity<List<StockDTO>> getSliceAfter(Specification<Stock> specification, String after, Pageable pageable,
+            String baseUrl) {
+        Slice<StockDTO> slice = stockService.findAllAfter(specification, PaginationUtil.decodeCursor(after), pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(slice, StockDTO::getId, baseUrl);
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
 }
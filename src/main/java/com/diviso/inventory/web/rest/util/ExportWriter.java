@@ -0,0 +1,149 @@
+package com.diviso.inventory.web.rest.util;
+
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writer of the rows of an export, to a response body.
+ * <p>
+ * Rows are serialized with the application ObjectMapper, either as NDJSON, one JSON document per line, or as CSV,
+ * with a header line made of the properties of the first row. In CSV, properties which are not scalar values are
+ * written as JSON.
+ */
+public final class ExportWriter {
+
+    /**
+     * The formats of an export.
+     */
+    public enum Format {
+
+        NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Get the format of the given name.
+         *
+         * @param name the name of the format, ignoring case
+         * @return the format
+         * @throws BadRequestAlertException if there is no such format
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new BadRequestAlertException("Unsupported export format " + name, "export", "unsupportedformat");
+        }
+    }
+
+    private final Format format;
+
+    private final ObjectMapper objectMapper;
+
+    private final Writer writer;
+
+    private List<String> columns;
+
+    public ExportWriter(Format format, ObjectMapper objectMapper, OutputStream outputStream) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a row.
+     *
+     * @param row the row to write
+     * @throws UncheckedIOException if the row cannot be written, for instance when the client went away
+     */
+    public void write(Object row) {
+        try {
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(row));
+            } else {
+                writeCsv(objectMapper.valueToTree(row));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flush the rows written so far to the response body.
+     *
+     * @throws IOException if the rows cannot be written
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsv(JsonNode row) throws IOException {
+        if (columns == null) {
+            columns = new ArrayList<>();
+            for (Iterator<String> names = row.fieldNames(); names.hasNext();) {
+                columns.add(names.next());
+            }
+            writeCsvLine(columns);
+            writer.write('\n');
+        }
+        List<String> values = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            JsonNode value = row.get(column);
+            if (value == null || value.isNull()) {
+                values.add("");
+            } else if (value.isValueNode()) {
+                values.add(value.asText());
+            } else {
+                values.add(objectMapper.writeValueAsString(value));
+            }
+        }
+        writeCsvLine(values);
+    }
+
+    private void writeCsvLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.diviso.inventory.web.rest.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reader of the rows of an import, from a request body, in the formats of the {@link ExportWriter}.
+ * <p>
+ * NDJSON rows are read one JSON document per line, blank lines being skipped. CSV rows are read with a header line
+ * naming their properties; empty values are left out, and values written as JSON objects or arrays are read back
+ * as JSON. Rows are read as they are iterated, so that the whole body is never held in memory.
+ * <p>
+ * A row which cannot be read, like a line which is not a JSON object or a CSV line with more values than the
+ * header, is returned as null, so that it is reported as a row error rather than failing the import.
+ */
+public final class ImportReader implements Iterator<JsonNode> {
+
+    private final ExportWriter.Format format;
+
+    private final ObjectMapper objectMapper;
+
+    private final BufferedReader reader;
+
+    private List<String> columns;
+
+    private boolean hasNext;
+
+    private JsonNode next;
+
+    private boolean fetched;
+
+    public ImportReader(ExportWriter.Format format, ObjectMapper objectMapper, InputStream inputStream) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws UncheckedIOException if the request body cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (!fetched) {
+            try {
+                hasNext = format == ExportWriter.Format.NDJSON ? fetchNdjson() : fetchCsv();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            fetched = true;
+        }
+        return hasNext;
+    }
+
+    /**
+     * @return the next row, or null if it cannot be read
+     * @throws UncheckedIOException if the request body cannot be read
+     */
+    @Override
+    public JsonNode next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetched = false;
+        return next;
+    }
+
+    private boolean fetchNdjson() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+        } while (line.trim().isEmpty());
+        next = readJson(line);
+        return true;
+    }
+
+    private boolean fetchCsv() throws IOException {
+        if (columns == null) {
+            columns = readCsvLine();
+            if (columns == null) {
+                return false;
+            }
+        }
+        List<String> values;
+        do {
+            values = readCsvLine();
+            if (values == null) {
+                return false;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+        next = values.size() > columns.size() ? null : toRow(values);
+        return true;
+    }
+
+    private JsonNode toRow(List<String> values) {
+        ObjectNode row = objectMapper.createObjectNode();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (value.startsWith("{") || value.startsWith("[")) {
+                JsonNode json = readJson(value);
+                if (json == null) {
+                    return null;
+                }
+                row.set(columns.get(i), json);
+            } else {
+                row.put(columns.get(i), value);
+            }
+        }
+        return row;
+    }
+
+    private JsonNode readJson(String value) {
+        try {
+            JsonNode json = objectMapper.readTree(value);
+            return json != null && json.isContainerNode() ? json : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the values of a CSV line, which spans several lines of text when a quoted value has line breaks.
+     *
+     * @return the values, or null at the end of the body
+     */
+    private List<String> readCsvLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                value.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -1,15 +1,26 @@
 package com.diviso.inventory.web.rest.util;
 
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * Utility class for handling pagination.
  *
  * <p>
  * Pagination uses the same principles as the <a href="https://developer.github.com/v3/#pagination">GitHub API</a>,
  * and follow <a href="http://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ * <p>
+ * Keyset pagination pages with an opaque cursor instead of a page number: the "next" link carries the cursor of
+ * the last element of the slice in its "after" parameter, and there is no total count.
  */
 public final class PaginationUtil {
 
@@ -39,6 +50,48 @@ public final class PaginationUtil {
         return headers;
     }
 
+    public static <T> HttpHeaders generateKeysetHttpHeaders(Slice<T> slice, Function<T, Long> key, String baseUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            String cursor = encodeCursor(key.apply(content.get(content.size() - 1)));
+            headers.add(HttpHeaders.LINK, "<" + generateKeysetUri(baseUrl, cursor, slice.getSize()) + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * Encode a key as an opaque cursor.
+     *
+     * @param key the key of the last element of a slice
+     * @return the cursor
+     */
+    public static String encodeCursor(Long key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into the key to seek after.
+     *
+     * @param cursor the cursor, empty for the first slice
+     * @return the key, or null for the first slice
+     * @throws BadRequestAlertException if the cursor was not made by {@link #encodeCursor}
+     */
+    public static Long decodeCursor(String cursor) {
+        if (cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid pagination cursor", "pagination", "invalidcursor");
+        }
+    }
+
+    private static String generateKeysetUri(String baseUrl, String cursor, int size) {
+        return UriComponentsBuilder.fromUriString(baseUrl).queryParam("after", cursor).queryParam("size", size).toUriString();
+    }
+
     private static String generateUri(String baseUrl, int page, int size) {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
@@ -0,0 +1,85 @@
+package com.diviso.inventory.web.rest.vm;
+
+import com.diviso.inventory.aop.logging.Tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View Model object for storing the tracing settings of the LoggingAspect.
+ */
+public class LoggingAspectVM {
+
+    private boolean tracing;
+
+    private double sampleRate;
+
+    private int maxArgumentLength;
+
+    private List<String> includes = new ArrayList<>();
+
+    private List<String> excludes = new ArrayList<>();
+
+    public LoggingAspectVM(Tracing tracing) {
+        this.tracing = tracing.isEnabled();
+        this.sampleRate = tracing.getSampleRate();
+        this.maxArgumentLength = tracing.getMaxArgumentLength();
+        this.includes = new ArrayList<>(tracing.getIncludes());
+        this.excludes = new ArrayList<>(tracing.getExcludes());
+    }
+
+    public LoggingAspectVM() {
+        // Empty public constructor used by Jackson.
+    }
+
+    public boolean isTracing() {
+        return tracing;
+    }
+
+    public void setTracing(boolean tracing) {
+        this.tracing = tracing;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getMaxArgumentLength() {
+        return maxArgumentLength;
+    }
+
+    public void setMaxArgumentLength(int maxArgumentLength) {
+        this.maxArgumentLength = maxArgumentLength;
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public void setIncludes(List<String> includes) {
+        this.includes = includes == null ? new ArrayList<>() : includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes == null ? new ArrayList<>() : excludes;
+    }
+
+    @Override
+    public String toString() {
+        return "LoggingAspectVM{" +
+            "tracing=" + tracing +
+            ", sampleRate=" + sampleRate +
+            ", maxArgumentLength=" + maxArgumentLength +
+            ", includes=" + includes +
+            ", excludes=" + excludes +
+            '}';
+    }
+}
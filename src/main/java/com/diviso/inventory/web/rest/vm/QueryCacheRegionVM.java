@@ -0,0 +1,117 @@
+package com.diviso.inventory.web.rest.vm;
+
+import org.hibernate.stat.SecondLevelCacheStatistics;
+
+/**
+ * View Model object for storing the statistics of a Hibernate query cache region.
+ */
+public class QueryCacheRegionVM {
+
+    private String name;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    private long elementCount;
+
+    private int timeToLiveSeconds;
+
+    private int maxSize;
+
+    /**
+     * @param statistics the statistics of the region, or null if it was not used yet
+     */
+    public QueryCacheRegionVM(String name, SecondLevelCacheStatistics statistics, int timeToLiveSeconds, int maxSize) {
+        this.name = name;
+        if (statistics != null) {
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+            this.elementCount = statistics.getElementCountInMemory();
+        }
+        this.timeToLiveSeconds = timeToLiveSeconds;
+        this.maxSize = maxSize;
+    }
+
+    public QueryCacheRegionVM() {
+        // Empty public constructor used by Jackson.
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    public void setElementCount(long elementCount) {
+        this.elementCount = elementCount;
+    }
+
+    public int getTimeToLiveSeconds() {
+        return timeToLiveSeconds;
+    }
+
+    public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+        this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the share of the lookups of the region which were hits, between 0 and 1
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCacheRegionVM{" +
+            "name='" + name + '\'' +
+            ", hitCount=" + hitCount +
+            ", missCount=" + missCount +
+            ", putCount=" + putCount +
+            ", elementCount=" + elementCount +
+            '}';
+    }
+}
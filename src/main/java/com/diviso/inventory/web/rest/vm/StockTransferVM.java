@@ -0,0 +1,57 @@
+package com.diviso.inventory.web.rest.vm;
+
+/**
+ * View Model object for storing a transfer of units between two stockLines.
+ */
+public class StockTransferVM {
+
+    private Long fromStockLineId;
+
+    private Long toStockLineId;
+
+    private Double units;
+
+    private String reference;
+
+    public Long getFromStockLineId() {
+        return fromStockLineId;
+    }
+
+    public void setFromStockLineId(Long fromStockLineId) {
+        this.fromStockLineId = fromStockLineId;
+    }
+
+    public Long getToStockLineId() {
+        return toStockLineId;
+    }
+
+    public void setToStockLineId(Long toStockLineId) {
+        this.toStockLineId = toStockLineId;
+    }
+
+    public Double getUnits() {
+        return units;
+    }
+
+    public void setUnits(Double units) {
+        this.units = units;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    @Override
+    public String toString() {
+        return "StockTransferVM{" +
+            "fromStockLineId=" + fromStockLineId +
+            ", toStockLineId=" + toStockLineId +
+            ", units=" + units +
+            ", reference='" + reference + "'" +
+            "}";
+    }
+}
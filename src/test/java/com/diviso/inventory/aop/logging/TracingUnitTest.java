@@ -0,0 +1,61 @@
+package com.diviso.inventory.aop.logging;
+
+import com.diviso.inventory.service.impl.NoteServiceImpl;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the tracing settings of the LoggingAspect.
+ *
+ * @see Tracing
+ * @see Abbreviated
+ */
+public class TracingUnitTest {
+
+    @Test
+    public void testIncludesAndExcludes() throws Exception {
+        Tracing tracing = new Tracing(true, 1, 200, Collections.singletonList("com.diviso.inventory.service"),
+            Collections.singletonList("NoteServiceImpl.delete"));
+
+        assertThat(tracing.sample(method("findOne"))).isEqualTo("com.diviso.inventory.service.impl.NoteServiceImpl.findOne");
+        assertThat(tracing.sample(method("delete"))).isNull();
+        assertThat(tracing.sample(Object.class.getMethod("toString"))).isNull();
+    }
+
+    @Test
+    public void testSampleRate() throws Exception {
+        Tracing never = new Tracing(true, 0, 200, Collections.emptyList(), Collections.emptyList());
+        Tracing always = new Tracing(true, 1, 200, Collections.emptyList(), Collections.emptyList());
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(never.sample(method("findOne"))).isNull();
+            assertThat(always.sample(method("findOne"))).isNotNull();
+        }
+    }
+
+    @Test
+    public void testAbbreviatedArguments() {
+        char[] longValue = new char[100];
+        Arrays.fill(longValue, 'a');
+        Object unrenderable = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("could not initialize proxy - no Session");
+            }
+        };
+
+        String rendered = Abbreviated.arguments(new Object[] {1L, new String(longValue), null, unrenderable}, 10).toString();
+
+        assertThat(rendered).isEqualTo("[1, aaaaaaa..., null, <" + unrenderable.getClass().getName() + ">]");
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return NoteServiceImpl.class.getMethod(name, Long.class);
+    }
+}
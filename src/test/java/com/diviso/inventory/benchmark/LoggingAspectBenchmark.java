@@ -0,0 +1,191 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.aop.logging.LoggingAspect;
+import com.diviso.inventory.aop.logging.Tracing;
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.domain.Note;
+import com.diviso.inventory.repository.NoteRepository;
+import com.diviso.inventory.service.NoteService;
+import com.diviso.inventory.service.dto.NoteDTO;
+import com.diviso.inventory.service.impl.NoteServiceImpl;
+import com.diviso.inventory.service.mapper.NoteMapperImpl;
+import com.diviso.inventory.service.mapper.ProductMapperImpl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the cost of the LoggingAspect on a service call, with the aspect logger at debug level as in the "dev"
+ * profile:
+ * <ul>
+ * <li>none: the service is not proxied</li>
+ * <li>legacy: the aspect as it was, rendering the arguments and results of every call</li>
+ * <li>off: the aspect with its tracing switched off</li>
+ * <li>sampled: the aspect logging 1% of the calls</li>
+ * <li>full: the aspect logging every call, its arguments and results abbreviated</li>
+ * </ul>
+ * The service is a NoteServiceImpl saving to a repository stub, so the scores are in nanoseconds per call of
+ * the aspect and logging overhead. The log events are formatted, then dropped, by an appender counting them.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main LoggingAspectBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoggingAspectBenchmark {
+
+    @Param({"none", "legacy", "off", "sampled", "full"})
+    private String aspect;
+
+    private final CountingAppender appender = new CountingAppender();
+
+    private NoteService noteService;
+
+    private NoteDTO noteDTO;
+
+    @Setup
+    public void setUp() {
+        for (Class<?> type : Arrays.asList(LoggingAspect.class, LegacyLoggingAspect.class)) {
+            Logger logger = (Logger) LoggerFactory.getLogger(type);
+            logger.setLevel(Level.DEBUG);
+            logger.setAdditive(false);
+            logger.addAppender(appender);
+        }
+        appender.start();
+
+        noteDTO = new NoteDTO();
+        noteDTO.setId(1L);
+        noteDTO.setMatter("Delivered in cartons of twelve, store below 25 degrees and away from direct sunlight");
+        noteDTO.setDateOfCreation(LocalDate.of(2018, 1, 1));
+        noteDTO.setProductId(1L);
+
+        NoteRepository noteRepository = (NoteRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {NoteRepository.class}, (proxy, method, args) -> args[0]);
+        NoteMapperImpl noteMapper = new NoteMapperImpl();
+        ReflectionTestUtils.setField(noteMapper, "productMapper", new ProductMapperImpl());
+        NoteServiceImpl target = new NoteServiceImpl(noteRepository, noteMapper);
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        LoggingAspect loggingAspect = new LoggingAspect(new StandardEnvironment(), applicationProperties);
+        switch (aspect) {
+            case "none":
+                noteService = target;
+                break;
+            case "legacy":
+                noteService = proxy(target, new LegacyLoggingAspect());
+                break;
+            case "off":
+                loggingAspect.setTracing(new Tracing(false, 1, 200, Collections.emptyList(), Collections.emptyList()));
+                noteService = proxy(target, loggingAspect);
+                break;
+            case "sampled":
+                loggingAspect.setTracing(new Tracing(true, 0.01, 200, Collections.emptyList(), Collections.emptyList()));
+                noteService = proxy(target, loggingAspect);
+                break;
+            default:
+                noteService = proxy(target, loggingAspect);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("Log events: " + appender.count.get());
+        for (Class<?> type : Arrays.asList(LoggingAspect.class, LegacyLoggingAspect.class)) {
+            ((Logger) LoggerFactory.getLogger(type)).detachAppender(appender);
+        }
+    }
+
+    @Benchmark
+    public NoteDTO save() {
+        return noteService.save(noteDTO);
+    }
+
+    private static NoteService proxy(NoteService target, Object aspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    private static class CountingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (event.getFormattedMessage() != null) {
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The around advice of the LoggingAspect before the tracing settings, for comparison.
+     */
+    @Aspect
+    public static class LegacyLoggingAspect {
+
+        private final org.slf4j.Logger log = LoggerFactory.getLogger(this.getClass());
+
+        @Around("within(@org.springframework.stereotype.Service *) && within(com.diviso.inventory.service..*)")
+        public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (log.isDebugEnabled()) {
+                log.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+            }
+            try {
+                Object result = joinPoint.proceed();
+                if (log.isDebugEnabled()) {
+                    log.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                        joinPoint.getSignature().getName(), result);
+                }
+                return result;
+            } catch (IllegalArgumentException e) {
+                log.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
+                    joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
+
+                throw e;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoggingAspectBenchmark.class.getSimpleName()).build()).run();
+    }
+}
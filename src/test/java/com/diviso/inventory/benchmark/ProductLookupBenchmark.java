@@ -0,0 +1,127 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.repository.BarcodeRepository;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.service.ProductService;
+import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.mapper.ProductMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scanning a barcode through the repository query with scanning it through the product lookup index.
+ * <p>
+ * The application runs on the test configuration (in-memory H2) with the Hazelcast second level cache of the
+ * "prod" profile, so that indexed products are loaded without SQL as they are in production.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ProductLookupBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductLookupBenchmark {
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductRepository productRepository;
+
+    private ProductMapper productMapper;
+
+    private ProductService productService;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private String[] codes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryApp.class)
+            .properties(
+                "server.port=0",
+                "eureka.client.enabled=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+                "spring.jpa.properties.hibernate.cache.region.factory_class=com.hazelcast.hibernate.HazelcastCacheRegionFactory",
+                "spring.jpa.properties.hibernate.cache.hazelcast.instance_name=Inventory")
+            .run();
+        productRepository = context.getBean(ProductRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+        productService = context.getBean(ProductService.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        BarcodeRepository barcodeRepository = context.getBean(BarcodeRepository.class);
+        codes = new String[products];
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            for (int i = 0; i < products; i++) {
+                codes[i] = String.format("%013d", i);
+                Barcode barcode = barcodeRepository.save(new Barcode().code(codes[i]));
+                productRepository.save(new Product().reference("REF" + i).searchkey("KEY" + i).name("Product " + i)
+                    .sku("SKU" + i).visible(true).barcode(barcode));
+            }
+            return null;
+        });
+        for (String code : codes) {
+            productService.findByBarcode_CodeAndVisibleTrue(code);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDTO repositoryLookup() {
+        String code = nextCode();
+        return readOnlyTransaction.execute(status ->
+            productMapper.toDto(productRepository.findByBarcode_CodeAndVisibleTrue(code)));
+    }
+
+    @Benchmark
+    public ProductDTO indexedLookup() {
+        return productService.findByBarcode_CodeAndVisibleTrue(nextCode());
+    }
+
+    private String nextCode() {
+        return codes[ThreadLocalRandom.current().nextInt(codes.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Label;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.repository.LabelRepository;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.service.ProductService;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a page of products as full DTOs with reading it as summaries, as the list endpoints do with
+ * and without "view=summary": the page is read and serialized to JSON.
+ * <p>
+ * The size of the serialized rows, in bytes per row, is printed at the start of each trial.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ProductSummaryBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductSummaryBenchmark {
+
+    private static final int PRODUCTS = 5000;
+
+    private static final int LABELS_PER_PRODUCT = 3;
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        context = new SpringApplicationBuilder(InventoryApp.class)
+            .properties(
+                "server.port=0",
+                "eureka.client.enabled=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false")
+            .run();
+        productService = context.getBean(ProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        LabelRepository labelRepository = context.getBean(LabelRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            Label[] labels = new Label[LABELS_PER_PRODUCT * 10];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = labelRepository.save(new Label().name("Label " + i).description("Description of label " + i));
+            }
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = new Product().reference("REF" + i).searchkey("KEY" + i).name("Product " + i)
+                    .sku("SKU" + i).mpn("MPN" + i).visible(true).description("Description of product " + i)
+                    .imageContentType("image/png").imageHash(String.format("%064x", i));
+                for (int j = 0; j < LABELS_PER_PRODUCT; j++) {
+                    product.addLabels(labels[(i + j) % labels.length]);
+                }
+                productRepository.save(product);
+            }
+            return null;
+        });
+
+        Pageable pageable = new PageRequest(0, pageSize);
+        System.out.printf("%nBytes per row: full %d, summary %d%n",
+            fullPage(pageable).length / pageSize, summaryPage(pageable).length / pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] full() throws JsonProcessingException {
+        return fullPage(nextPage());
+    }
+
+    @Benchmark
+    public byte[] summary() throws JsonProcessingException {
+        return summaryPage(nextPage());
+    }
+
+    private byte[] fullPage(Pageable pageable) throws JsonProcessingException {
+        List<?> content = readOnlyTransaction.execute(status -> productService.findAll(pageable).getContent());
+        return objectMapper.writeValueAsBytes(content);
+    }
+
+    private byte[] summaryPage(Pageable pageable) throws JsonProcessingException {
+        List<?> content = readOnlyTransaction.execute(status -> productService.findAllSummaries(null, pageable).getContent());
+        return objectMapper.writeValueAsBytes(content);
+    }
+
+    private Pageable nextPage() {
+        return new PageRequest(ThreadLocalRandom.current().nextInt(PRODUCTS / pageSize), pageSize);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductSummaryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.config.CacheConfiguration;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import io.github.jhipster.config.JHipsterProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a hit of the second level cache region of the products, with and without a near cache.
+ * <p>
+ * Two Hazelcast members are started in this JVM and join over the loopback interface, with the map configuration
+ * of {@link CacheConfiguration}, so that about half of the entries are owned by the other member, as they are on
+ * a cluster of two nodes. The entries are arrays of the disassembled properties of a product, like the entries
+ * Hibernate puts in the region. Each invocation reads a random entry from the first member; the scores are in
+ * microseconds per hit.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main SecondLevelCacheBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SecondLevelCacheBenchmark {
+
+    private static final String REGION = CacheConfiguration.DOMAIN_PACKAGE + "Product";
+
+    private static final int ENTRIES = 10000;
+
+    @Param({"false", "true"})
+    private boolean nearCache;
+
+    private HazelcastInstance member;
+
+    private HazelcastInstance otherMember;
+
+    private IMap<Long, Serializable[]> region;
+
+    @Setup
+    public void setUp() {
+        ApplicationProperties.EntityCache entityCache = new ApplicationProperties().getEntityCache();
+        entityCache.setNearCache(nearCache);
+        entityCache.setMaxSize(ENTRIES);
+        member = Hazelcast.newHazelcastInstance(config("benchmark-1", entityCache));
+        otherMember = Hazelcast.newHazelcastInstance(config("benchmark-2", entityCache));
+        region = member.getMap(REGION);
+        IMap<Long, Serializable[]> loader = otherMember.getMap(REGION);
+        for (long id = 0; id < ENTRIES; id++) {
+            loader.set(id, disassembledProduct(id));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        otherMember.shutdown();
+        member.shutdown();
+    }
+
+    @Benchmark
+    public Serializable[] hit() {
+        return region.get(ThreadLocalRandom.current().nextLong(ENTRIES));
+    }
+
+    private static Config config(String name, ApplicationProperties.EntityCache entityCache) {
+        Config config = new Config();
+        config.setInstanceName(name);
+        config.setProperty("hazelcast.logging.type", "none");
+        config.getNetworkConfig().setPort(5801);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true)
+            .addMember("127.0.0.1:5801").addMember("127.0.0.1:5802");
+        config.getMapConfigs().put(REGION,
+            CacheConfiguration.initializeDomainMapConfig(REGION, entityCache.resolve("Product"), new JHipsterProperties()));
+        return config;
+    }
+
+    private static Serializable[] disassembledProduct(long id) {
+        return new Serializable[] {
+            "REF" + id, "SKU" + id, "Product " + id, "A product to benchmark the second level cache", "MPN" + id,
+            "KEY" + id, Boolean.TRUE, LocalDate.of(2018, 1, 1), LocalDate.of(2019, 1, 1), new BigDecimal("12.50"),
+            id, id % 10, id % 5, id % 3, 0L
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SecondLevelCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,141 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.repository.StockMovementRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the units of stockLines from a journal of movements, summing all of them, with reading them
+ * from balance snapshots followed by a tail of a few movements per stockLine.
+ * <p>
+ * Each invocation reads the units of a basket of random stockLines, as "PUT /api/stock-lines/updateStockLevel"
+ * does after appending its sales; the scores are in microseconds per basket.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main StockLedgerBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockLedgerBenchmark {
+
+    private static final int STOCK_LINES = 1000;
+
+    private static final int BASKET_SIZE = 20;
+
+    private static final int TAIL = 10;
+
+    private static final int BATCH_SIZE = 10000;
+
+    private static final String INSERT_SQL = "insert into stock_movement (stock_line_id, jhi_type, units, reference, created_date)"
+        + " values (?, 'SALE', -1, null, ?)";
+
+    @Param({"100000", "1000000"})
+    private int movements;
+
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    private ConfigurableApplicationContext context;
+
+    private StockLineRepository stockLineRepository;
+
+    private TransactionTemplate transaction;
+
+    private List<Long> stockLineIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryApp.class)
+            .properties(
+                "server.port=0",
+                "eureka.client.enabled=false",
+                "application.stock-ledger.snapshot-interval=3600000",
+                "spring.jpa.properties.hibernate.generate_statistics=false")
+            .run();
+        stockLineRepository = context.getBean(StockLineRepository.class);
+        StockMovementRepository stockMovementRepository = context.getBean(StockMovementRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        transaction.execute(status -> {
+            for (int i = 0; i < STOCK_LINES; i++) {
+                stockLineIds.add(stockLineRepository.save(new StockLine().reference("LEDGER" + i)).getId());
+            }
+            return null;
+        });
+        Timestamp old = Timestamp.from(Instant.now().minus(1, ChronoUnit.DAYS));
+        for (int from = 0; from < movements; from += BATCH_SIZE) {
+            insert(jdbcTemplate, Collections.nCopies(Math.min(BATCH_SIZE, movements - from), old));
+        }
+        if (snapshot) {
+            transaction.execute(status -> stockMovementRepository.snapshot(Instant.now()));
+        }
+        insert(jdbcTemplate, Collections.nCopies(STOCK_LINES * TAIL, Timestamp.from(Instant.now())));
+    }
+
+    /**
+     * Insert one movement of a random stockLine per creation date.
+     */
+    private void insert(JdbcTemplate jdbcTemplate, List<Timestamp> createdDates) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, createdDates, BATCH_SIZE, (ps, createdDate) -> {
+            ps.setLong(1, stockLineIds.get(ThreadLocalRandom.current().nextInt(STOCK_LINES)));
+            ps.setTimestamp(2, createdDate);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Object[]> readUnits() {
+        List<Long> basket = new ArrayList<>(BASKET_SIZE);
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            basket.add(stockLineIds.get(ThreadLocalRandom.current().nextInt(STOCK_LINES)));
+        }
+        return transaction.execute(status -> stockLineRepository.findUnitsByIdIn(basket));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StockLedgerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
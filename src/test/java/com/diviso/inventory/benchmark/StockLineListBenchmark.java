@@ -0,0 +1,143 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.repository.StockMovementRepository;
+import com.diviso.inventory.service.StockLineService;
+import com.diviso.inventory.service.dto.StockLineDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the stockLine list endpoints, whose units are their balance snapshot plus a tail of a few movements.
+ * <p>
+ * Each invocation reads a random page of stockLines, by offset as "GET /api/stock-lines" does, or after a random id
+ * as "GET /api/stock-lines?after=" does; the scores are in microseconds per page. The second level cache is off,
+ * so that every page reads the units from the database.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main StockLineListBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockLineListBenchmark {
+
+    private static final int STOCK_LINES = 2000;
+
+    private static final int TAIL = 10;
+
+    private static final int BATCH_SIZE = 10000;
+
+    private static final String INSERT_SQL = "insert into stock_movement (stock_line_id, jhi_type, units, reference, created_date)"
+        + " values (?, 'SALE', -1, null, ?)";
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private StockLineService stockLineService;
+
+    private TransactionTemplate transaction;
+
+    private List<Long> stockLineIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryApp.class)
+            .properties(
+                "server.port=0",
+                "eureka.client.enabled=false",
+                "application.stock-ledger.snapshot-interval=3600000",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false")
+            .run();
+        stockLineService = context.getBean(StockLineService.class);
+        StockLineRepository stockLineRepository = context.getBean(StockLineRepository.class);
+        StockMovementRepository stockMovementRepository = context.getBean(StockMovementRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        transaction.execute(status -> {
+            for (int i = 0; i < STOCK_LINES; i++) {
+                stockLineIds.add(stockLineRepository.save(new StockLine().reference("LIST" + i)).getId());
+            }
+            return null;
+        });
+        insert(jdbcTemplate, Collections.nCopies(STOCK_LINES * TAIL, Timestamp.from(Instant.now().minus(1, ChronoUnit.DAYS))));
+        transaction.execute(status -> stockMovementRepository.snapshot(Instant.now()));
+        insert(jdbcTemplate, Collections.nCopies(STOCK_LINES * TAIL, Timestamp.from(Instant.now())));
+    }
+
+    /**
+     * Insert one movement of a random stockLine per creation date.
+     */
+    private void insert(JdbcTemplate jdbcTemplate, List<Timestamp> createdDates) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, createdDates, BATCH_SIZE, (ps, createdDate) -> {
+            ps.setLong(1, stockLineIds.get(ThreadLocalRandom.current().nextInt(STOCK_LINES)));
+            ps.setTimestamp(2, createdDate);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<StockLineDTO> findAll() {
+        int page = ThreadLocalRandom.current().nextInt(STOCK_LINES / pageSize);
+        return transaction.execute(status ->
+            stockLineService.findAll(new PageRequest(page, pageSize, Sort.Direction.ASC, "id")));
+    }
+
+    @Benchmark
+    public Slice<StockLineDTO> findAllAfter() {
+        Long after = stockLineIds.get(ThreadLocalRandom.current().nextInt(STOCK_LINES - pageSize));
+        return transaction.execute(status -> stockLineService.findAllAfter(null, after, pageSize));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StockLineListBenchmark.class.getSimpleName()).build()).run();
+    }
+}
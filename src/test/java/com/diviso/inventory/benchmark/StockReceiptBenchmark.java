@@ -0,0 +1,122 @@
+package com.diviso.inventory.benchmark;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.service.StockLineService;
+import com.diviso.inventory.service.StockService;
+import com.diviso.inventory.service.dto.StockDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares receiving a stock line by line, saving each stockLine then the stock linked to them, with receiving
+ * it at once, as "POST /api/stocks/receipts" does with batched inserts.
+ * <p>
+ * Each invocation receives a new stock, built before the invocation, in its own transaction; the scores are in
+ * milliseconds per stock.
+ * Run it with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main StockReceiptBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockReceiptBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int lines;
+
+    private ConfigurableApplicationContext context;
+
+    private StockService stockService;
+
+    private StockLineService stockLineService;
+
+    private TransactionTemplate transaction;
+
+    private int receipts;
+
+    private StockDTO stockDTO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryApp.class)
+            .properties(
+                "server.port=0",
+                "eureka.client.enabled=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false")
+            .run();
+        stockService = context.getBean(StockService.class);
+        stockLineService = context.getBean(StockLineService.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextStock() {
+        int receipt = receipts++;
+        stockDTO = new StockDTO();
+        stockDTO.setReference("RECEIPT" + receipt);
+        stockDTO.setDeliveryNoteRef(Long.valueOf(receipt));
+        for (int i = 0; i < lines; i++) {
+            StockLineDTO stockLineDTO = new StockLineDTO();
+            stockLineDTO.setReference("RECEIPT" + receipt + "-" + i);
+            stockLineDTO.setBuyPrice(1.5);
+            stockLineDTO.setUnits(10.0);
+            stockDTO.getStockLines().add(stockLineDTO);
+        }
+    }
+
+    @Benchmark
+    public StockDTO lineByLine() {
+        return transaction.execute(status -> {
+            Set<StockLineDTO> stockLines = new HashSet<>();
+            for (StockLineDTO stockLineDTO : stockDTO.getStockLines()) {
+                stockLines.add(stockLineService.save(stockLineDTO));
+            }
+            stockDTO.setStockLines(stockLines);
+            return stockService.save(stockDTO);
+        });
+    }
+
+    @Benchmark
+    public StockDTO receipt() {
+        return transaction.execute(status -> stockService.receive(stockDTO));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StockReceiptBenchmark.class.getSimpleName()).build()).run();
+    }
+}
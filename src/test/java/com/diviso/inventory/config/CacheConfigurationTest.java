@@ -0,0 +1,68 @@
+package com.diviso.inventory.config;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the second level cache regions of the {@link CacheConfiguration}.
+ */
+public class CacheConfigurationTest {
+
+    private ApplicationProperties.EntityCache entityCache;
+
+    private JHipsterProperties jHipsterProperties;
+
+    @Before
+    public void setup() {
+        entityCache = new ApplicationProperties().getEntityCache();
+        entityCache.setMaxSize(500);
+        ApplicationProperties.EntityCache.Region product = new ApplicationProperties.EntityCache.Region();
+        product.setNearCache(true);
+        product.setMaxSize(2000);
+        product.setEvictionPolicy(EvictionPolicy.LFU);
+        entityCache.getRegions().put("Product", product);
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getHazelcast().setTimeToLiveSeconds(600);
+        jHipsterProperties.getCache().getHazelcast().setBackupCount(2);
+    }
+
+    @Test
+    public void testDefaultRegion() {
+        MapConfig mapConfig = CacheConfiguration.initializeDomainMapConfig("com.diviso.inventory.domain.*",
+            entityCache.resolve("Stock"), jHipsterProperties);
+
+        assertThat(mapConfig.getTimeToLiveSeconds()).isEqualTo(600);
+        assertThat(mapConfig.getBackupCount()).isEqualTo(2);
+        assertThat(mapConfig.getInMemoryFormat()).isEqualTo(InMemoryFormat.BINARY);
+        assertThat(mapConfig.getEvictionPolicy()).isEqualTo(EvictionPolicy.LRU);
+        assertThat(mapConfig.getMaxSizeConfig().getSize()).isEqualTo(500);
+        assertThat(mapConfig.getMaxSizeConfig().getMaxSizePolicy()).isEqualTo(MaxSizeConfig.MaxSizePolicy.PER_NODE);
+        assertThat(mapConfig.getNearCacheConfig()).isNull();
+    }
+
+    @Test
+    public void testRegionWithNearCache() {
+        entityCache.getRegions().get("Product").setBackupCount(0);
+
+        MapConfig mapConfig = CacheConfiguration.initializeDomainMapConfig("com.diviso.inventory.domain.Product",
+            entityCache.resolve("Product"), jHipsterProperties);
+
+        assertThat(mapConfig.getName()).isEqualTo("com.diviso.inventory.domain.Product");
+        assertThat(mapConfig.getTimeToLiveSeconds()).isEqualTo(600);
+        assertThat(mapConfig.getBackupCount()).isEqualTo(0);
+        assertThat(mapConfig.getEvictionPolicy()).isEqualTo(EvictionPolicy.LFU);
+        assertThat(mapConfig.getMaxSizeConfig().getSize()).isEqualTo(2000);
+        assertThat(mapConfig.getNearCacheConfig()).isNotNull();
+        assertThat(mapConfig.getNearCacheConfig().getInMemoryFormat()).isEqualTo(InMemoryFormat.OBJECT);
+        assertThat(mapConfig.getNearCacheConfig().isInvalidateOnChange()).isTrue();
+        assertThat(mapConfig.getNearCacheConfig().getTimeToLiveSeconds()).isEqualTo(600);
+        assertThat(mapConfig.getNearCacheConfig().getEvictionConfig().getSize()).isEqualTo(2000);
+    }
+}
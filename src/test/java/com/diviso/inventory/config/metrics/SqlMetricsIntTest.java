@@ -0,0 +1,125 @@
+package com.diviso.inventory.config.metrics;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.service.NoteService;
+import com.diviso.inventory.web.rest.NoteResource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the SQL metrics.
+ *
+ * @see SqlMetrics
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class SqlMetricsIntTest {
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @Before
+    public void setup() {
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(SqlMetrics.class)).addAppender(appender);
+    }
+
+    @After
+    public void tearDown() {
+        ((Logger) LoggerFactory.getLogger(SqlMetrics.class)).detachAppender(appender);
+    }
+
+    @Test
+    public void repositoryMethodsAreTimed() {
+        long count = metricRegistry.timer("repository.ProductRepository.findAll").getCount();
+        long statements = metricRegistry.timer("sql.statements").getCount();
+
+        productRepository.findAll();
+
+        assertThat(metricRegistry.timer("repository.ProductRepository.findAll").getCount()).isEqualTo(count + 1);
+        assertThat(metricRegistry.timer("sql.statements").getCount()).isGreaterThan(statements);
+    }
+
+    @Test
+    public void instrumentedDataSourceIsStillThePool() {
+        long statements = metricRegistry.timer("sql.statements").getCount();
+
+        assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+        // instrumented once, the statement is reported once
+        assertThat(DataSourceMetricsInterceptor.isInstrumented(dataSource)).isTrue();
+        assertThat(((HikariDataSource) dataSource).getHikariPoolMXBean()).isNotNull();
+        new JdbcTemplate(dataSource).queryForObject("select count(*) from product", Long.class);
+
+        assertThat(metricRegistry.timer("sql.statements").getCount()).isEqualTo(statements + 1);
+    }
+
+    @Test
+    public void statementsPerRequestAreCounted() throws Exception {
+        MockMvc restNoteMockMvc = MockMvcBuilders.standaloneSetup(new NoteResource(noteService))
+            .addFilters(new SqlMetricsFilter(sqlMetrics))
+            .build();
+        long requests = metricRegistry.histogram("sql.statements-per-request").getCount();
+
+        restNoteMockMvc.perform(get("/api/notes/{id}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+
+        assertThat(metricRegistry.histogram("sql.statements-per-request").getCount()).isEqualTo(requests + 1);
+        assertThat(metricRegistry.histogram("sql.statements-per-request").getSnapshot().getMax()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void slowStatementsAreLoggedWithTheirParameters() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSqlMetrics().setSlowStatementThreshold(0);
+        MetricRegistry registry = new MetricRegistry();
+        SqlMetrics allSlow = new SqlMetrics(registry, applicationProperties);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(DataSourceMetricsInterceptor.proxy(
+            new DelegatingDataSource(dataSource), () -> allSlow));
+
+        jdbcTemplate.queryForList("select id from product where reference = ?", "SLOW-REFERENCE");
+
+        assertThat(registry.meter("sql.slow-statements").getCount()).isEqualTo(1);
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getFormattedMessage())
+            .contains("select id from product where reference = ?")
+            .contains("['SLOW-REFERENCE']");
+    }
+}
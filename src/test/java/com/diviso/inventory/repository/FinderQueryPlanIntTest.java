@@ -0,0 +1,291 @@
+package com.diviso.inventory.repository;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Product_;
+import com.diviso.inventory.domain.Stock;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.StockLine_;
+import com.diviso.inventory.domain.Stock_;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class checking that the repository finders are answered through their indexes.
+ * <p>
+ * Each finder runs with sample values in a session recording its SQL and the values bound to it, and every
+ * statement is then explained by the embedded database with the same values: the plan must read the index
+ * expected for the finder, and scan no table. The "Containing" finders are left out, as a search for a
+ * substring can not use an index, and so are the finders on the visibility of the products alone, which
+ * match too many rows for an index to help.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class FinderQueryPlanIntTest {
+
+    private static final Pageable PAGE = new PageRequest(0, 20);
+
+    private static final LocalDate DATE = LocalDate.now();
+
+    private static final String NAME = "finder-plan";
+
+    private static final Long ID = 1L;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<RecordedStatement> statements = new ArrayList<>();
+
+    private Connection connection;
+
+    private Session session;
+
+    private JpaRepositoryFactory repositoryFactory;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = dataSource.getConnection();
+        session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+            .connection(recording(connection))
+            .openSession();
+        repositoryFactory = new JpaRepositoryFactory(session);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        session.close();
+        connection.close();
+    }
+
+    @Test
+    public void productFindersUseIndexes() {
+        ProductRepository productRepository = repositoryFactory.getRepository(ProductRepository.class);
+        assertUses("idx_product_name", () -> productRepository.findByNameIgnoreCaseAndVisibleTrue(NAME, PAGE));
+        assertUses("idx_product_reference", () -> productRepository.findByReferenceIgnoreCaseAndVisibleTrue(NAME));
+        assertUses("idx_product_sku", () -> productRepository.findBySkuIgnoreCaseAndVisibleTrue(NAME));
+        assertUses("idx_product_searchkey", () -> productRepository.findBySearchkeyIgnoreCaseAndVisibleTrue(NAME));
+        assertUses("idx_product_mpn", () -> productRepository.findByMpnIgnoreCaseAndVisibleTrue(NAME));
+        assertUses("idx_barcode_code", () -> productRepository.findByBarcode_CodeAndVisibleTrue(NAME));
+        assertUses("idx_category_name", () -> productRepository.findByCategory_NameIgnoreCaseAndVisibleTrue(NAME,
+            PAGE));
+        assertUses("idx_product_date_of_mfd", () -> productRepository.findByDateOfMfdAndVisibleTrue(DATE, PAGE));
+        assertUses("idx_product_date_of_expiry", () -> productRepository.findByDateOfExpiryAndVisibleTrue(DATE,
+            PAGE));
+        assertUses("idx_product_date_of_expiry", () -> productRepository.findByDateOfExpiryBetweenAndVisibleTrue(DATE,
+            DATE.plusDays(1), PAGE));
+        assertUses("idx_status_name", () -> productRepository.findByStatus_NameIgnoreCaseAndVisibleTrue(NAME, PAGE));
+        assertUses("fk_note_product_id", () -> productRepository.findNotesByProductId(ID, PAGE));
+        assertUses("primary_key", () -> productRepository.findVisibleIdsByIdIn(Collections.singletonList(ID)));
+    }
+
+    @Test
+    public void stockLineFindersUseIndexes() {
+        StockLineRepository stockLineRepository = repositoryFactory.getRepository(StockLineRepository.class);
+        assertUses("idx_product_name", () -> stockLineRepository.findByProduct_NameIgnoreCaseAndProduct_VisibleTrue(
+            NAME, PAGE));
+        assertUses("idx_product_reference", () ->
+            stockLineRepository.findByProduct_ReferenceIgnoreCaseAndProduct_VisibleTrue(NAME));
+        assertUses("idx_product_sku", () -> stockLineRepository.findByProduct_SkuIgnoreCaseAndProduct_VisibleTrue(NAME));
+        assertUses("idx_product_searchkey", () ->
+            stockLineRepository.findByProduct_SearchkeyIgnoreCaseAndProduct_VisibleTrue(NAME));
+        assertUses("idx_product_mpn", () -> stockLineRepository.findByProduct_MpnIgnoreCaseAndProduct_VisibleTrue(NAME));
+        assertUses("idx_barcode_code", () -> stockLineRepository.findByProduct_Barcode_CodeAndProduct_VisibleTrue(NAME));
+        assertUses("idx_product_date_of_mfd", () ->
+            stockLineRepository.findByProduct_DateOfMfdAndProduct_VisibleTrue(DATE, PAGE));
+        assertUses("idx_product_date_of_expiry", () ->
+            stockLineRepository.findByProduct_DateOfExpiryAndProduct_VisibleTrue(DATE, PAGE));
+        assertUses("idx_product_date_of_expiry", () ->
+            stockLineRepository.findByProduct_DateOfExpiryBetweenAndProduct_VisibleTrue(DATE, DATE.plusDays(1), PAGE));
+        assertUses("idx_status_name", () ->
+            stockLineRepository.findByProduct_Status_NameIgnoreCaseAndProduct_VisibleTrue(NAME, PAGE));
+        assertUses("idx_category_name", () ->
+            stockLineRepository.findByProduct_Category_NameIgnoreCaseAndProduct_VisibleTrue(NAME, PAGE));
+        assertUses("fk_product_category_id", () ->
+            stockLineRepository.findByProduct_Category_IdAndProduct_VisibleTrue(ID, PAGE));
+        assertUses("idx_stock_line_reference", () -> stockLineRepository.findByReference(NAME));
+        assertUses("idx_stock_line_infrastructure_id", () -> stockLineRepository.findByInfrastructureId(ID, PAGE));
+        assertUses("idx_stock_line_location_id", () -> stockLineRepository.findByLocationId(NAME, PAGE));
+        assertUses("idx_stock_line_supplier_ref", () -> stockLineRepository.findBySupplierRef(ID, PAGE));
+        assertUses("fk_stock_line_product_id", () ->
+            stockLineRepository.findByProductIdIn(Collections.singletonList(ID), PAGE));
+        assertUses("primary_key", () -> stockLineRepository.findProductIdsByIdIn(Collections.singletonList(ID)));
+        assertUses("fk_stock_line_product_id", () ->
+            stockLineRepository.findLevelsByProductIdIn(Collections.singletonList(ID)));
+        assertUses("fk_stock_line_product_id", () ->
+            stockLineRepository.findIdsByProductIdIn(Collections.singletonList(ID)));
+        assertUses("primary_key", () -> stockLineRepository.findPlacesByIdIn(Collections.singletonList(ID)));
+        // The units of the stockLines only read the movements not folded into their snapshot
+        assertUses("idx_stock_movement_stock_line_id_folded", () ->
+            stockLineRepository.findUnitsByIdIn(Collections.singletonList(ID)));
+
+        StockMovementRepository stockMovementRepository = repositoryFactory.getRepository(
+            StockMovementRepository.class, new StockMovementRepositoryImpl(null, session));
+        assertUses("idx_stock_movement_stock_line_id", () -> stockMovementRepository.findByStockLineId(ID, PAGE));
+
+        ReservationRepository reservationRepository = repositoryFactory.getRepository(ReservationRepository.class,
+            new ReservationRepositoryImpl(null));
+        assertUses("idx_reservation_status", () -> reservationRepository.findByStatus(ReservationStatus.HELD));
+
+        StockAggregateRepository stockAggregateRepository = repositoryFactory.getRepository(
+            StockAggregateRepository.class, new StockAggregateRepositoryImpl(new JdbcTemplate()));
+        assertUses("idx_stock_aggregate_location_id", () -> stockAggregateRepository.findByLocationId(NAME, PAGE));
+        assertUses("idx_stock_aggregate_infrastructure_id", () ->
+            stockAggregateRepository.findByInfrastructureId(ID, PAGE));
+        assertUses("idx_stock_aggregate_product_id", () -> stockAggregateRepository.findByProductId(ID, PAGE));
+        // The units of the aggregates only read their deltas not folded yet
+        assertUses("idx_stock_aggregate_delta_key", () -> stockAggregateRepository.findByProductId(ID, PAGE));
+    }
+
+    @Test
+    public void stockFindersUseIndexes() {
+        StockRepository stockRepository = repositoryFactory.getRepository(StockRepository.class,
+            new StockRepositoryImpl(null, session));
+        assertUses("idx_stock_reference", () -> stockRepository.findByReference(NAME));
+        assertUses("idx_stock_delivery_note_ref", () -> stockRepository.findByDeliveryNoteRef(ID));
+        assertUses("idx_stock_date_of_stock_updated", () -> stockRepository.findByDateOfStockUpdated(DATE, PAGE));
+        assertUses("idx_stock_date_of_stock_updated", () -> stockRepository.findByDateOfStockUpdatedBetween(DATE,
+            DATE.plusDays(1), PAGE));
+        assertUses("idx_status_name", () -> stockRepository.findByStatus_Name(NAME, PAGE));
+        assertUses("primary_key", () -> stockRepository.findStockLinesByStockId(ID));
+
+        TaxRepository taxRepository = repositoryFactory.getRepository(TaxRepository.class);
+        assertUses("fk_tax_tax_category_id", () -> taxRepository.findByTaxCategory_Id(ID, PAGE));
+    }
+
+    @Test
+    public void keysetSpecificationsUseTheFinderIndexes() {
+        KeysetRepository keysetRepository = new KeysetRepository(session);
+        assertUses("idx_product_name", () -> keysetRepository.findAllAfter(Product.class, Product_.id,
+            ProductSpecifications.nameAndVisibleTrue(NAME), ID, PAGE.getPageSize()));
+        assertUses("idx_category_name", () -> keysetRepository.findAllAfter(Product.class, Product_.id,
+            ProductSpecifications.categoryNameAndVisibleTrue(NAME), ID, PAGE.getPageSize()));
+        assertUses("idx_status_name", () -> keysetRepository.findAllAfter(Product.class, Product_.id,
+            ProductSpecifications.statusNameAndVisibleTrue(NAME), ID, PAGE.getPageSize()));
+        assertUses("idx_product_date_of_expiry", () -> keysetRepository.findAllAfter(Product.class, Product_.id,
+            ProductSpecifications.dateOfExpiryAndVisibleTrue(DATE), ID, PAGE.getPageSize()));
+        assertUses("idx_product_name", () -> keysetRepository.findAllAfter(StockLine.class, StockLine_.id,
+            StockLineSpecifications.productNameAndProductVisibleTrue(NAME), ID, PAGE.getPageSize()));
+        assertUses("idx_stock_line_location_id", () -> keysetRepository.findAllAfter(StockLine.class, StockLine_.id,
+            StockLineSpecifications.locationId(NAME), ID, PAGE.getPageSize()));
+        assertUses("idx_stock_line_supplier_ref", () -> keysetRepository.findAllAfter(StockLine.class,
+            StockLine_.id, StockLineSpecifications.supplierRef(ID), ID, PAGE.getPageSize()));
+        assertUses("idx_stock_date_of_stock_updated", () -> keysetRepository.findAllAfter(Stock.class, Stock_.id,
+            StockSpecifications.dateOfStockUpdated(DATE), ID, PAGE.getPageSize()));
+    }
+
+    /**
+     * Run a finder, then explain its statements with the values they were run with.
+     *
+     * @param index the name of the index every statement of the finder must read
+     * @param finder the finder to run
+     */
+    private void assertUses(String index, Runnable finder) {
+        statements.clear();
+        finder.run();
+        assertThat(statements).as("statements of the finder using %s", index).isNotEmpty();
+        for (RecordedStatement statement : statements) {
+            String plan = explain(statement).toLowerCase();
+            assertThat(plan).as(statement.sql).contains("." + index).doesNotContain(".tablescan");
+        }
+    }
+
+    private String explain(RecordedStatement recorded) {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + recorded.sql)) {
+            for (Map.Entry<Integer, Object> parameter : recorded.parameters.entrySet()) {
+                if (parameter.getValue() == null) {
+                    statement.setNull(parameter.getKey(), Types.NULL);
+                } else {
+                    statement.setObject(parameter.getKey(), parameter.getValue());
+                }
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot explain " + recorded.sql, e);
+        }
+    }
+
+    /**
+     * Wrap a connection so that the statements it prepares, and the values bound to them, are recorded.
+     */
+    private Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement")) {
+                    RecordedStatement recorded = new RecordedStatement((String) args[0]);
+                    statements.add(recorded);
+                    return recording((PreparedStatement) result, recorded);
+                }
+                return result;
+            });
+    }
+
+    private PreparedStatement recording(PreparedStatement statement, RecordedStatement recorded) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    recorded.parameters.put((Integer) args[0],
+                        method.getName().equals("setNull") ? null : args[1]);
+                }
+                return invoke(statement, method, args);
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class RecordedStatement {
+
+        private final String sql;
+
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+    }
+}
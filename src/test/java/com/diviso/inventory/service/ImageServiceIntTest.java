@@ -0,0 +1,65 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.repository.CategoryRepository;
+import com.diviso.inventory.web.rest.CategoryResourceIntTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ImageService.
+ *
+ * @see ImageService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ImageServiceIntTest {
+
+    private static final byte[] LEGACY_IMAGE = "legacy image content".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @Transactional
+    public void migrateLegacyImages() throws Exception {
+        Category category = categoryRepository.saveAndFlush(CategoryResourceIntTest.createEntity(null).imageHash(null));
+        jdbcTemplate.update("update category set image = ? where id = ?", LEGACY_IMAGE, category.getId());
+
+        assertThat(imageService.migrateLegacyImages()).isEqualTo(1);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("select image, image_hash from category where id = ?", category.getId());
+        assertThat(row.get("image")).isNull();
+        String hash = (String) row.get("image_hash");
+        BlobStore.Blob blob = blobStore.find(hash);
+        assertThat(blob.size()).isEqualTo(LEGACY_IMAGE.length);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        blob.transferTo(0, blob.size(), Channels.newChannel(content));
+        assertThat(content.toByteArray()).isEqualTo(LEGACY_IMAGE);
+
+        assertThat(imageService.migrateLegacyImages()).isZero();
+    }
+}
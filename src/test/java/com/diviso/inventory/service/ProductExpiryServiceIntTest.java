@@ -0,0 +1,162 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.web.rest.ProductResourceIntTest;
+import com.diviso.inventory.web.rest.StockLineResourceIntTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ProductExpiryService, its buckets of products by day of expiry and its sweeps.
+ *
+ * @see ProductExpiryService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ProductExpiryServiceIntTest {
+
+    private static final PageRequest ALL = new PageRequest(0, Integer.MAX_VALUE);
+
+    @Autowired
+    private ProductExpiryService productExpiryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    private final List<Product> products = new ArrayList<>();
+
+    private LocalDate today;
+
+    private Product tomorrow;
+
+    private Product nextWeek;
+
+    private Product hidden;
+
+    private StockLine stockLine;
+
+    @Before
+    public void initTest() {
+        today = LocalDate.now();
+        tomorrow = product(today.plusDays(1), true);
+        nextWeek = product(today.plusDays(7), true);
+        hidden = product(today.plusDays(1), false);
+        stockLine = stockLineRepository.saveAndFlush(StockLineResourceIntTest.createEntity(null).product(tomorrow));
+    }
+
+    @After
+    public void cleanUp() {
+        stockLineRepository.delete(stockLine.getId());
+        for (Product product : products) {
+            productRepository.delete(product.getId());
+            productExpiryService.productDeleted(product.getId());
+        }
+    }
+
+    @Test
+    public void productsExpiringWithinDaysAreReadByDay() {
+        assertThat(productsExpiringWithin(1)).contains(tomorrow.getId())
+            .doesNotContain(nextWeek.getId(), hidden.getId());
+
+        List<Long> ids = productsExpiringWithin(7);
+        assertThat(ids).contains(tomorrow.getId(), nextWeek.getId()).doesNotContain(hidden.getId());
+        assertThat(ids.indexOf(tomorrow.getId())).isLessThan(ids.indexOf(nextWeek.getId()));
+    }
+
+    @Test
+    public void stockLinesOfProductsExpiringWithinDaysAreRead() {
+        assertThat(productExpiryService.findStockLinesExpiringWithin(1, ALL).getContent())
+            .extracting(StockLineDTO::getId).contains(stockLine.getId());
+        assertThat(productExpiryService.findStockLinesExpiringWithin(0, ALL).getContent())
+            .extracting(StockLineDTO::getId).doesNotContain(stockLine.getId());
+    }
+
+    @Test
+    public void savedProductsMoveToTheirNewDay() {
+        ProductDTO productDTO = productService.findOne(nextWeek.getId());
+        productDTO.setDateOfExpiry(today.plusDays(30));
+        productService.save(productDTO);
+        assertThat(productsExpiringWithin(7)).doesNotContain(nextWeek.getId());
+        assertThat(productsExpiringWithin(30)).contains(nextWeek.getId());
+
+        productDTO.setVisible(false);
+        productService.save(productDTO);
+        assertThat(productsExpiringWithin(30)).doesNotContain(nextWeek.getId());
+    }
+
+    @Test
+    public void sweepHidesTheExpiredProductsInBatches() {
+        List<Product> expired = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            expired.add(product(today.minusDays(i), true));
+        }
+        Product expiringToday = product(today, true);
+
+        assertThat(productExpiryService.sweep(today)).isGreaterThanOrEqualTo(expired.size());
+
+        for (Product product : expired) {
+            assertThat(productRepository.findOne(product.getId()).isVisible()).isFalse();
+        }
+        assertThat(productRepository.findOne(expiringToday.getId()).isVisible()).isTrue();
+        assertThat(productRepository.findOne(tomorrow.getId()).isVisible()).isTrue();
+        assertThat(productsExpiringWithin(0)).contains(expiringToday.getId());
+        assertThat(productExpiryService.sweep(today)).isZero();
+    }
+
+    @Test
+    public void sweepKeepsTheProductsItDidNotHide() {
+        Product expired = product(today.minusDays(1), true);
+        // saved with a later day by a transaction not applied to the buckets yet
+        productRepository.saveAndFlush(productRepository.findOne(expired.getId()).dateOfExpiry(today.plusDays(7)));
+
+        productExpiryService.sweep(today);
+        assertThat(productRepository.findOne(expired.getId()).isVisible()).isTrue();
+
+        productRepository.saveAndFlush(productRepository.findOne(expired.getId()).dateOfExpiry(today.minusDays(1)));
+
+        assertThat(productExpiryService.sweep(today)).isGreaterThanOrEqualTo(1);
+        assertThat(productRepository.findOne(expired.getId()).isVisible()).isFalse();
+    }
+
+    private Product product(LocalDate dateOfExpiry, boolean visible) {
+        Product product = productRepository.saveAndFlush(ProductResourceIntTest.createEntity(null)
+            .dateOfExpiry(dateOfExpiry)
+            .visible(visible));
+        productExpiryService.productsSaved(Collections.singleton(product));
+        products.add(product);
+        return product;
+    }
+
+    private List<Long> productsExpiringWithin(int days) {
+        return productExpiryService.findProductsExpiringWithin(days, ALL).getContent().stream()
+            .map(ProductDTO::getId)
+            .collect(Collectors.toList());
+    }
+}
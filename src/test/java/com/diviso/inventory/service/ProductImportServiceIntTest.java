@@ -0,0 +1,182 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.domain.Label;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Status;
+import com.diviso.inventory.repository.BarcodeRepository;
+import com.diviso.inventory.repository.CategoryRepository;
+import com.diviso.inventory.repository.LabelRepository;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.StatusRepository;
+import com.diviso.inventory.service.dto.ImportReportDTO;
+import com.diviso.inventory.web.rest.BarcodeResourceIntTest;
+import com.diviso.inventory.web.rest.CategoryResourceIntTest;
+import com.diviso.inventory.web.rest.LabelResourceIntTest;
+import com.diviso.inventory.web.rest.StatusResourceIntTest;
+import com.diviso.inventory.web.rest.util.ExportWriter;
+import com.diviso.inventory.web.rest.util.ImportReader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ProductImportService.
+ * <p>
+ * The import commits a transaction per chunk, so the tests are not transactional: they delete what they saved.
+ *
+ * @see ProductImportService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ProductImportServiceIntTest {
+
+    private static final String CATEGORY_NAME = "Imported category";
+
+    private static final String STATUS_NAME = "Imported status";
+
+    private static final String BARCODE_CODE = "IMPORT-0001";
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private StatusRepository statusRepository;
+
+    @Autowired
+    private BarcodeRepository barcodeRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    private Status status;
+
+    private Barcode barcode;
+
+    private Label label;
+
+    @Before
+    public void setUp() {
+        category = categoryRepository.save(CategoryResourceIntTest.createEntity(null).name(CATEGORY_NAME));
+        status = statusRepository.save(StatusResourceIntTest.createEntity(null).name(STATUS_NAME));
+        barcode = barcodeRepository.save(BarcodeResourceIntTest.createEntity(null).code(BARCODE_CODE));
+        label = labelRepository.save(LabelResourceIntTest.createEntity(null));
+    }
+
+    @After
+    public void tearDown() {
+        productRepository.delete(importedProducts());
+        barcodeRepository.delete(barcode);
+        statusRepository.delete(status);
+        categoryRepository.delete(category);
+        labelRepository.delete(label);
+    }
+
+    @Test
+    public void importAllByChunks() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 25; i++) {
+            if (i == 3) {
+                ndjson.append("{\"reference\":\"IMPORT3\",\"searchkey\":\"KEY3\"}\n");
+            } else if (i == 7) {
+                ndjson.append("{\"reference\":\"IMPORT7\",\"searchkey\":\"KEY7\",\"name\":\"Product 7\",\"category\":\"Unknown\"}\n");
+            } else if (i == 12) {
+                ndjson.append("{\"reference\":\n");
+            } else {
+                ndjson.append("{\"reference\":\"IMPORT").append(i).append("\",\"searchkey\":\"KEY").append(i)
+                    .append("\",\"name\":\"Product ").append(i).append("\",\"visible\":true")
+                    .append(",\"category\":\"").append(CATEGORY_NAME.toUpperCase()).append("\"}\n");
+            }
+            if (i == 20) {
+                ndjson.append('\n');
+            }
+        }
+
+        ImportReportDTO report = productImportService.importAll(reader(ExportWriter.Format.NDJSON, ndjson.toString()));
+
+        assertThat(report.getRows()).isEqualTo(25);
+        assertThat(report.getImported()).isEqualTo(22);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ImportReportDTO.RowError::getRow).containsExactly(3, 7, 12);
+        assertThat(report.getErrors().get(0).getMessages()).containsExactly("name: may not be null");
+        assertThat(report.getErrors().get(1).getMessages()).containsExactly("category: no category Unknown");
+        assertThat(report.getErrors().get(2).getMessages()).containsExactly("The row cannot be read");
+
+        List<Product> products = importedProducts();
+        assertThat(products).hasSize(22);
+        assertThat(products).allMatch(product -> category.getId().equals(product.getCategory().getId()));
+    }
+
+    @Test
+    public void importAllReportsTheRowsWhichCannotBeSaved() {
+        String csv = "reference,searchkey,name,description,barcode,status,labels\n"
+            + "IMPORT1,KEY1,Product 1,\"A description, with a comma\",,,\n"
+            + "IMPORT2,KEY2,\"Product \"\"2\"\"\",\"A description\non two lines\"," + BARCODE_CODE + "," + STATUS_NAME
+            + ",\"[{\"\"id\"\":" + label.getId() + "}]\"\n"
+            + "IMPORT3,KEY3,Product 3,,,,\n"
+            + "IMPORT4,KEY4,Product 4,," + BARCODE_CODE + ",,\n";
+
+        ImportReportDTO report = productImportService.importAll(reader(ExportWriter.Format.CSV, csv));
+
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ImportReportDTO.RowError::getRow).containsExactly(4);
+        assertThat(report.getErrors().get(0).getMessages()).hasSize(1);
+        assertThat(report.getErrors().get(0).getMessages().get(0)).startsWith("The product cannot be saved");
+
+        List<Product> products = importedProducts();
+        assertThat(products).extracting(Product::getReference).containsExactly("IMPORT1", "IMPORT2", "IMPORT3");
+        assertThat(products.get(0).getDescription()).isEqualTo("A description, with a comma");
+        Product product = products.get(1);
+        assertThat(product.getName()).isEqualTo("Product \"2\"");
+        assertThat(product.getDescription()).isEqualTo("A description\non two lines");
+        assertThat(product.getBarcode().getId()).isEqualTo(barcode.getId());
+        assertThat(product.getStatus().getId()).isEqualTo(status.getId());
+        assertThat(product.getLabels()).extracting(Label::getId).containsExactly(label.getId());
+    }
+
+    private ImportReader reader(ExportWriter.Format format, String content) {
+        return new ImportReader(format, objectMapper, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Product> importedProducts() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> productRepository.findAll().stream()
+            .filter(product -> product.getReference().startsWith("IMPORT"))
+            .peek(product -> product.getLabels().size())
+            .sorted(Comparator.comparing(Product::getReference))
+            .collect(Collectors.toList()));
+    }
+}
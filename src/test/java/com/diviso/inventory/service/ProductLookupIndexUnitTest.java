@@ -0,0 +1,120 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.service.ProductLookupIndex.Key;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ProductLookupIndex.
+ *
+ * @see ProductLookupIndex
+ */
+public class ProductLookupIndexUnitTest {
+
+    private ProductLookupIndex index;
+
+    private Product product;
+
+    @Before
+    public void init() {
+        index = new ProductLookupIndex();
+        product = new Product().reference("Ref-1").searchkey("Key-1").sku("Sku-1").mpn("Mpn-1").visible(true)
+            .barcode(new Barcode().code("Code-1"));
+        product.setId(1L);
+    }
+
+    @Test
+    public void testFindProductId() {
+        index.putProduct(product);
+
+        assertThat(index.findProductId(Key.BARCODE, "Code-1")).isEqualTo(1L);
+        assertThat(index.findProductId(Key.BARCODE, "code-1")).isNull();
+        assertThat(index.findProductId(Key.REFERENCE, "REF-1")).isEqualTo(1L);
+        assertThat(index.findProductId(Key.SEARCHKEY, "key-1")).isEqualTo(1L);
+        assertThat(index.findProductId(Key.SKU, "sku-1")).isEqualTo(1L);
+        assertThat(index.findProductId(Key.MPN, "MPN-1")).isEqualTo(1L);
+        assertThat(index.findProductId(Key.SKU, null)).isNull();
+    }
+
+    @Test
+    public void testPutProductReplacesItsKeys() {
+        index.putProduct(product);
+        product.setSku("Sku-2");
+        product.setBarcode(null);
+        index.putProduct(product);
+
+        assertThat(index.findProductId(Key.SKU, "Sku-1")).isNull();
+        assertThat(index.findProductId(Key.SKU, "Sku-2")).isEqualTo(1L);
+        assertThat(index.findProductId(Key.BARCODE, "Code-1")).isNull();
+        assertThat(index.findProductId(Key.MPN, "Mpn-1")).isEqualTo(1L);
+    }
+
+    @Test
+    public void testPutProductKeepsKeysTakenOverByAnotherProduct() {
+        index.putProduct(product);
+        Product other = new Product().reference("Ref-2").searchkey("Key-2").sku("Sku-1").visible(true);
+        other.setId(2L);
+        index.putProduct(other);
+        product.setSku("Sku-3");
+        index.putProduct(product);
+
+        assertThat(index.findProductId(Key.SKU, "Sku-1")).isEqualTo(2L);
+        assertThat(index.findProductId(Key.SKU, "Sku-3")).isEqualTo(1L);
+    }
+
+    @Test
+    public void testHiddenProductIsRemoved() {
+        index.putProduct(product);
+        index.putStockLine(10L, 1L);
+        product.setVisible(false);
+        index.putProduct(product);
+
+        assertThat(index.findProductId(Key.REFERENCE, "Ref-1")).isNull();
+        assertThat(index.findStockLineId(1L)).isNull();
+    }
+
+    @Test
+    public void testFindStockLineId() {
+        index.putProduct(product);
+        index.putStockLine(10L, 1L);
+
+        assertThat(index.findStockLineId(index.findProductId(Key.BARCODE, "Code-1"))).isEqualTo(10L);
+        assertThat(index.findStockLineId(null)).isNull();
+
+        index.removeStockLine(10L);
+        assertThat(index.findStockLineId(1L)).isNull();
+    }
+
+    @Test
+    public void testProductWithSeveralStockLinesIsNotResolved() {
+        index.putProduct(product);
+        index.putStockLine(10L, 1L);
+        index.putStockLine(11L, 1L);
+
+        assertThat(index.findStockLineId(1L)).isNull();
+        index.removeStockLine(10L);
+        assertThat(index.findStockLineId(1L)).isEqualTo(11L);
+
+        index.putStockLine(11L, 2L);
+        assertThat(index.findStockLineId(1L)).isNull();
+        assertThat(index.findStockLineId(2L)).isEqualTo(11L);
+        index.removeProduct(2L);
+        assertThat(index.findStockLineId(2L)).isNull();
+    }
+
+    @Test
+    public void testMatches() {
+        assertThat(index.matches(product, Key.SKU, "SKU-1")).isTrue();
+        assertThat(index.matches(product, Key.BARCODE, "Code-1")).isTrue();
+        assertThat(index.matches(product, Key.BARCODE, "CODE-1")).isFalse();
+        assertThat(index.matches(product, Key.MPN, "Mpn-2")).isFalse();
+        assertThat(index.matches(null, Key.MPN, "Mpn-1")).isFalse();
+        product.setVisible(false);
+        assertThat(index.matches(product, Key.MPN, "Mpn-1")).isFalse();
+    }
+}
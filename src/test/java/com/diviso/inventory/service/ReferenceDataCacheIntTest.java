@@ -0,0 +1,110 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.repository.CategoryRepository;
+import com.diviso.inventory.service.dto.CategoryDTO;
+import com.diviso.inventory.service.mapper.CategoryMapper;
+import com.diviso.inventory.web.rest.CategoryResourceIntTest;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ReferenceDataCache.
+ * <p>
+ * Snapshots are only kept outside of read-write transactions, so the tests are not transactional: they delete
+ * what they saved.
+ *
+ * @see ReferenceDataCache
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ReferenceDataCacheIntTest {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> savedIds = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        referenceDataCache.categories().invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        for (Long id : savedIds) {
+            categoryService.delete(id);
+        }
+    }
+
+    @Test
+    public void findAllReusesTheSnapshot() {
+        List<CategoryDTO> categories = referenceDataCache.categories().findAll();
+        statistics.clear();
+
+        assertThat(referenceDataCache.categories().findAll()).isSameAs(categories);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void saveInvalidatesTheSnapshot() {
+        List<CategoryDTO> categories = referenceDataCache.categories().findAll();
+
+        CategoryDTO categoryDTO = save(CategoryResourceIntTest.createEntity(null));
+
+        List<CategoryDTO> reloaded = referenceDataCache.categories().findAll();
+        assertThat(reloaded).isNotSameAs(categories);
+        assertThat(reloaded).extracting(CategoryDTO::getId).contains(categoryDTO.getId());
+        assertThat(categoryService.findOne(categoryDTO.getId())).isEqualTo(categoryDTO);
+    }
+
+    @Test
+    public void findReadsAMissFromTheRepository() {
+        referenceDataCache.categories().findAll();
+        Category category = categoryRepository.save(CategoryResourceIntTest.createEntity(null));
+        savedIds.add(category.getId());
+
+        CategoryDTO categoryDTO = referenceDataCache.categories().find(category.getId());
+
+        assertThat(categoryDTO).isEqualTo(categoryMapper.toDto(category));
+        assertThat(referenceDataCache.categories().findAll()).extracting(CategoryDTO::getId)
+            .doesNotContain(category.getId());
+        assertThat(referenceDataCache.categories().find(Long.MAX_VALUE)).isNull();
+    }
+
+    private CategoryDTO save(Category category) {
+        CategoryDTO categoryDTO = categoryService.save(categoryMapper.toDto(category));
+        savedIds.add(categoryDTO.getId());
+        return categoryDTO;
+    }
+}
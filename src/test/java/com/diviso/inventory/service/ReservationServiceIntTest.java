@@ -0,0 +1,290 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Reservation;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+import com.diviso.inventory.repository.ReservationRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.dto.ReservationDTO;
+import com.diviso.inventory.service.impl.ReservationServiceImpl;
+import com.diviso.inventory.web.rest.StockLineResourceIntTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ReservationService, its counters of the units held, their expiry and their batched writes.
+ *
+ * @see ReservationService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ReservationServiceIntTest {
+
+    private static final int THREADS = 8;
+
+    private static final int RESERVATIONS_PER_THREAD = 25;
+
+    private static final double INITIAL_UNITS = 100D;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StockLine stockLine;
+
+    @Before
+    public void initTest() {
+        stockLine = stockLineRepository.saveAndFlush(StockLineResourceIntTest.createEntity(null));
+        SortedMap<Long, Double> receipts = new TreeMap<>();
+        receipts.put(stockLine.getId(), INITIAL_UNITS);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            stockLedgerService.append(MovementType.RECEIPT, null, receipts);
+            return null;
+        });
+    }
+
+    @After
+    public void cleanUp() {
+        reservationService.flush();
+        reservationRepository.deleteAll();
+        stockLineRepository.delete(stockLine.getId());
+    }
+
+    @Test
+    public void reserveHoldsTheUnitsAvailable() {
+        assertThat(reserve(40D, null)).isNotNull();
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS - 40D);
+
+        assertThat(reserve(INITIAL_UNITS - 39D, null)).isNull();
+        ReservationDTO reservation = reserve(INITIAL_UNITS - 40D, null);
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.HELD);
+        assertThat(reservation.getExpiryDate()).isAfter(reservation.getCreatedDate());
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(0D);
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(INITIAL_UNITS);
+    }
+
+    @Test
+    public void reserveMissingStockLine() {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setStockLineId(Long.MAX_VALUE);
+        reservationDTO.setUnits(1D);
+
+        assertThat(reservationService.reserve(reservationDTO, null)).isNull();
+        assertThat(reservationService.findAvailable(Long.MAX_VALUE)).isNull();
+    }
+
+    @Test
+    public void confirmSellsTheUnits() {
+        ReservationDTO reservation = reserve(40D, null);
+
+        ReservationDTO confirmed = reservationService.confirm(reservation.getId());
+
+        assertThat(confirmed.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(INITIAL_UNITS - 40D);
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS - 40D);
+        assertThat(reservationService.findOne(reservation.getId()).getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reservationService.confirm(reservation.getId())).isNull();
+        assertThat(reservationService.release(reservation.getId())).isNull();
+    }
+
+    @Test
+    public void releaseMakesTheUnitsAvailable() {
+        ReservationDTO reservation = reserve(40D, null);
+
+        assertThat(reservationService.release(reservation.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS);
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(INITIAL_UNITS);
+        assertThat(reservationService.confirm(reservation.getId())).isNull();
+    }
+
+    @Test
+    public void expireReleasesTheReservationsWhoseTimeIsUp() throws Exception {
+        ReservationDTO expiring = reserve(10D, 1L);
+        ReservationDTO held = reserve(20D, null);
+        Thread.sleep(10);
+
+        assertThat(reservationService.expire()).isEqualTo(1);
+
+        assertThat(reservationService.findOne(expiring.getId()).getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(reservationService.findOne(held.getId()).getStatus()).isEqualTo(ReservationStatus.HELD);
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS - 20D);
+        assertThat(reservationService.confirm(expiring.getId())).isNull();
+        assertThat(reservationService.expire()).isEqualTo(0);
+    }
+
+    @Test
+    public void flushWritesTheLastStatus() {
+        ReservationDTO held = reserve(10D, null);
+        ReservationDTO released = reserve(20D, null);
+        reservationService.release(released.getId());
+        reservationService.flush();
+        ReservationDTO confirmed = reserve(30D, null);
+        reservationService.confirm(confirmed.getId());
+        reservationService.release(held.getId());
+
+        assertThat(reservationRepository.findOne(confirmed.getId())).isNull();
+        assertThat(reservationService.flush()).isGreaterThanOrEqualTo(3);
+
+        assertThat(reservationRepository.findOne(held.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(reservationRepository.findOne(released.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        Reservation reservation = reservationRepository.findOne(confirmed.getId());
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reservation.getStockLineId()).isEqualTo(stockLine.getId());
+        assertThat(reservation.getUnits()).isEqualTo(30D);
+        assertThat(reservationService.flush()).isEqualTo(0);
+    }
+
+    @Test
+    public void flushDropsTheReservationsWhoseRowIsRejected() {
+        StockLine deleted = stockLineRepository.saveAndFlush(StockLineResourceIntTest.createEntity(null));
+        SortedMap<Long, Double> receipts = new TreeMap<>();
+        receipts.put(deleted.getId(), INITIAL_UNITS);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            stockLedgerService.append(MovementType.RECEIPT, null, receipts);
+            return null;
+        });
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setStockLineId(deleted.getId());
+        reservationDTO.setUnits(10D);
+        ReservationDTO rejected = reservationService.reserve(reservationDTO, null);
+        ReservationDTO held = reserve(20D, null);
+        stockLineRepository.delete(deleted.getId());
+
+        assertThat(reservationService.flush()).isEqualTo(1);
+
+        assertThat(reservationRepository.findOne(rejected.getId())).isNull();
+        assertThat(reservationRepository.findOne(held.getId()).getStatus()).isEqualTo(ReservationStatus.HELD);
+        assertThat(reservationService.flush()).isEqualTo(0);
+    }
+
+    @Test
+    public void reservationsHeldOnAnotherNodeAreSettledFromTheirRow() {
+        Reservation confirmed = hold(25D);
+        Reservation released = hold(15D);
+
+        assertThat(reservationService.confirm(confirmed.getId()).getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reservationService.release(released.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(INITIAL_UNITS - 25D);
+        assertThat(reservationRepository.findOne(confirmed.getId()).getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reservationRepository.findOne(released.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(reservationService.confirm(confirmed.getId())).isNull();
+        assertThat(reservationService.release(released.getId())).isNull();
+    }
+
+    @Test
+    public void reservationsSettledOnAnotherNodeAreNotSettledAgain() {
+        ReservationDTO reservation = reserve(40D, null);
+        reservationService.flush();
+        Reservation row = reservationRepository.findOne(reservation.getId());
+        new TransactionTemplate(transactionManager).execute(status ->
+            reservationRepository.updateStatus(Collections.singletonList(row.status(ReservationStatus.RELEASED))));
+
+        assertThat(reservationService.confirm(reservation.getId())).isNull();
+
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS);
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(INITIAL_UNITS);
+        assertThat(reservationRepository.findOne(reservation.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+    }
+
+    @Test
+    public void heldReservationsAreLoadedOnStartup() {
+        Reservation reservation = hold(25D);
+
+        ((ReservationServiceImpl) reservationService).loadOnStartup();
+
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS - 25D);
+        assertThat(reservationService.release(reservation.getId())).isNotNull();
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(INITIAL_UNITS);
+    }
+
+    @Test
+    public void concurrentReservationsDoNotHoldMoreThanTheUnits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() {
+                        int reserved = 0;
+                        for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                            if (reserve(1D, null) != null) {
+                                reserved++;
+                            }
+                        }
+                        return reserved;
+                    }
+                }));
+            }
+            int reserved = 0;
+            for (Future<Integer> future : futures) {
+                reserved += future.get();
+            }
+            assertThat(reserved).isEqualTo((int) INITIAL_UNITS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(reservationService.findAvailable(stockLine.getId())).isEqualTo(0D);
+    }
+
+    /**
+     * Insert a held reservation, as another node would write it.
+     */
+    private Reservation hold(Double units) {
+        Instant now = Instant.now();
+        Reservation reservation = new Reservation().id(UUID.randomUUID().toString()).stockLineId(stockLine.getId())
+            .units(units).status(ReservationStatus.HELD).createdDate(now).expiryDate(now.plus(1, ChronoUnit.HOURS));
+        new TransactionTemplate(transactionManager).execute(status -> {
+            reservationRepository.insert(Collections.singletonList(reservation));
+            return null;
+        });
+        return reservation;
+    }
+
+    private ReservationDTO reserve(Double units, Long ttl) {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setStockLineId(stockLine.getId());
+        reservationDTO.setUnits(units);
+        return reservationService.reserve(reservationDTO, ttl);
+    }
+}
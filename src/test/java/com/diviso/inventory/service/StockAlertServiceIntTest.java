@@ -0,0 +1,223 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.model.StockAlertModel;
+import com.diviso.inventory.model.StockAlertModel.Level;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.dto.ProductDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.impl.StockAlertServiceImpl;
+import com.diviso.inventory.web.rest.ProductResourceIntTest;
+import com.diviso.inventory.web.rest.StockLineResourceIntTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the StockAlertService, the products it evaluates as their stockLines change and the levels it keeps.
+ *
+ * @see StockAlertService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class StockAlertServiceIntTest {
+
+    private static final double RE_ORDER_LEVEL = 10D;
+
+    private static final double MAXIMUM_STOCK_LEVEL = 100D;
+
+    private static final double INITIAL_UNITS = 50D;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockLineService stockLineService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    private StockLine stockLine;
+
+    @Before
+    public void initTest() {
+        product = productRepository.saveAndFlush(ProductResourceIntTest.createEntity(null)
+            .reOrderLevel(RE_ORDER_LEVEL)
+            .maximumStockLevel(MAXIMUM_STOCK_LEVEL));
+        stockLine = stockLineRepository.saveAndFlush(StockLineResourceIntTest.createEntity(null).product(product));
+        append(MovementType.RECEIPT, INITIAL_UNITS);
+        stockAlertService.evaluate();
+    }
+
+    @After
+    public void cleanUp() {
+        if (stockLineRepository.exists(stockLine.getId())) {
+            stockLineRepository.delete(stockLine.getId());
+        }
+        productRepository.delete(product.getId());
+        stockAlertService.productsChanged(Collections.singleton(product.getId()));
+        stockAlertService.evaluate();
+    }
+
+    @Test
+    public void productBetweenItsLevelsIsNormal() {
+        StockAlertModel alert = stockAlertService.findOne(product.getId());
+        assertThat(alert.getLevel()).isEqualTo(Level.NORMAL);
+
+        assertThat(stockAlertService.evaluate()).isZero();
+        assertThat(belowReorder()).doesNotContain(stockLine.getId());
+        assertThat(overStock()).doesNotContain(stockLine.getId());
+    }
+
+    @Test
+    public void saleDownToTheReorderLevelIsTracked() {
+        append(MovementType.SALE, RE_ORDER_LEVEL - INITIAL_UNITS);
+        stockAlertService.evaluate();
+
+        StockAlertModel alert = stockAlertService.findOne(product.getId());
+        assertThat(alert.getLevel()).isEqualTo(Level.BELOW_REORDER);
+        assertThat(alert.getUnits()).isEqualTo(RE_ORDER_LEVEL);
+        assertThat(alert.getStockLineIds()).containsExactly(stockLine.getId());
+        assertThat(belowReorder()).contains(stockLine.getId());
+
+        append(MovementType.RECEIPT, 1D);
+        stockAlertService.evaluate();
+
+        assertThat(stockAlertService.findOne(product.getId()).getLevel()).isEqualTo(Level.NORMAL);
+        assertThat(belowReorder()).doesNotContain(stockLine.getId());
+    }
+
+    @Test
+    public void receiptAboveTheMaximumStockLevelIsTracked() {
+        append(MovementType.RECEIPT, MAXIMUM_STOCK_LEVEL - INITIAL_UNITS + 1D);
+        stockAlertService.evaluate();
+
+        StockAlertModel alert = stockAlertService.findOne(product.getId());
+        assertThat(alert.getLevel()).isEqualTo(Level.OVERSTOCK);
+        assertThat(alert.getUnits()).isEqualTo(MAXIMUM_STOCK_LEVEL + 1D);
+        assertThat(overStock()).contains(stockLine.getId());
+        assertThat(belowReorder()).doesNotContain(stockLine.getId());
+    }
+
+    @Test
+    public void changeOfTheLevelsIsEvaluated() {
+        ProductDTO productDTO = productService.findOne(product.getId());
+        productDTO.setReOrderLevel(INITIAL_UNITS);
+        productService.save(productDTO);
+        stockAlertService.evaluate();
+
+        assertThat(stockAlertService.findOne(product.getId()).getLevel()).isEqualTo(Level.BELOW_REORDER);
+        assertThat(belowReorder()).contains(stockLine.getId());
+    }
+
+    @Test
+    public void changesRolledBackAreNotEvaluated() {
+        SortedMap<Long, Double> sales = new TreeMap<>();
+        sales.put(stockLine.getId(), -INITIAL_UNITS);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            stockLedgerService.append(MovementType.SALE, null, sales);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(stockAlertService.evaluate()).isZero();
+        assertThat(stockAlertService.findOne(product.getId()).getLevel()).isEqualTo(Level.NORMAL);
+    }
+
+    @Test
+    public void deletedStockLineIsNoLongerTracked() {
+        append(MovementType.SALE, -INITIAL_UNITS);
+        stockAlertService.evaluate();
+        assertThat(belowReorder()).contains(stockLine.getId());
+
+        stockLineService.delete(stockLine.getId());
+        stockAlertService.evaluate();
+
+        // a product without stockLines is not stocked, rather than below its re-order level
+        assertThat(stockAlertService.findOne(product.getId()).getLevel()).isEqualTo(Level.NORMAL);
+        assertThat(belowReorder()).doesNotContain(stockLine.getId());
+    }
+
+    @Test
+    public void productsAtALevelAreLoadedOnStartup() {
+        append(MovementType.SALE, RE_ORDER_LEVEL - INITIAL_UNITS);
+        StockAlertServiceImpl startingStockAlertService = new StockAlertServiceImpl(stockLineRepository, null, null,
+            null, null, transactionManager);
+        assertThat(startingStockAlertService.findOne(product.getId()).getLevel()).isEqualTo(Level.NORMAL);
+
+        startingStockAlertService.loadOnStartup();
+
+        StockAlertModel alert = startingStockAlertService.findOne(product.getId());
+        assertThat(alert.getLevel()).isEqualTo(Level.BELOW_REORDER);
+        assertThat(alert.getUnits()).isEqualTo(RE_ORDER_LEVEL);
+        assertThat(alert.getReOrderLevel()).isEqualTo(RE_ORDER_LEVEL);
+        assertThat(alert.getStockLineIds()).containsExactly(stockLine.getId());
+    }
+
+    @Test
+    public void productsBetweenTheirLevelsAreNotLoadedOnStartup() {
+        StockAlertServiceImpl startingStockAlertService = new StockAlertServiceImpl(stockLineRepository, null, null,
+            null, null, transactionManager);
+
+        startingStockAlertService.loadOnStartup();
+
+        assertThat(startingStockAlertService.findOne(product.getId()).getLevel()).isEqualTo(Level.NORMAL);
+    }
+
+    private void append(MovementType type, Double units) {
+        SortedMap<Long, Double> movements = new TreeMap<>();
+        movements.put(stockLine.getId(), units);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            stockLedgerService.append(type, null, movements);
+            return null;
+        });
+    }
+
+    private List<Long> belowReorder() {
+        return ids(stockAlertService.findStockLines(Level.BELOW_REORDER, new PageRequest(0, Integer.MAX_VALUE))
+            .getContent());
+    }
+
+    private List<Long> overStock() {
+        return ids(stockAlertService.findStockLines(Level.OVERSTOCK, new PageRequest(0, Integer.MAX_VALUE))
+            .getContent());
+    }
+
+    private static List<Long> ids(List<StockLineDTO> stockLines) {
+        return stockLines.stream().map(StockLineDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,134 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.repository.StockMovementRepository;
+import com.diviso.inventory.web.rest.StockLineResourceIntTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the StockLedgerService and the balance snapshots of the stock movement journal.
+ *
+ * @see StockLedgerService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+@Transactional
+public class StockLedgerServiceIntTest {
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StockLine stockLine;
+
+    @Before
+    public void initTest() {
+        stockLine = stockLineRepository.saveAndFlush(StockLineResourceIntTest.createEntity(null));
+    }
+
+    @Test
+    public void unitsAreTheSumOfTheMovements() {
+        append(MovementType.RECEIPT, 10D);
+        append(MovementType.SALE, -3D);
+        append(MovementType.ADJUSTMENT, 0.5D);
+
+        assertThat(units()).isEqualTo(7.5D);
+    }
+
+    @Test
+    public void movementsOfMissingStockLinesAreNotAppended() {
+        long movements = stockMovementRepository.count();
+        SortedMap<Long, Double> units = new TreeMap<>();
+        units.put(Long.MAX_VALUE, 1D);
+
+        stockLedgerService.append(MovementType.RECEIPT, null, units);
+
+        assertThat(stockMovementRepository.count()).isEqualTo(movements);
+    }
+
+    @Test
+    public void snapshotFoldsTheMovements() {
+        append(MovementType.RECEIPT, 10D);
+        append(MovementType.SALE, -3D);
+
+        Instant before = Instant.now().plusSeconds(1);
+        assertThat(stockMovementRepository.snapshot(before)).isGreaterThan(0);
+        assertThat(balance().get("units")).isEqualTo(7D);
+        assertThat(units()).isEqualTo(7D);
+
+        // The movements already folded are not folded again
+        assertThat(stockMovementRepository.snapshot(before)).isEqualTo(0);
+        assertThat(balance().get("units")).isEqualTo(7D);
+
+        // The units are the snapshot plus the movements appended since
+        append(MovementType.SALE, -2D);
+        assertThat(units()).isEqualTo(5D);
+        Long lastFolded = (Long) balance().get("last_movement_id");
+
+        assertThat(stockMovementRepository.snapshot(Instant.now().plusSeconds(1))).isGreaterThan(0);
+        assertThat(balance().get("units")).isEqualTo(5D);
+        assertThat((Long) balance().get("last_movement_id")).isGreaterThan(lastFolded);
+        assertThat(units()).isEqualTo(5D);
+    }
+
+    @Test
+    public void snapshotLeavesTheMovementsOfTheGracePeriod() {
+        append(MovementType.RECEIPT, 10D);
+
+        stockLedgerService.snapshot();
+
+        assertThat(balance().get("last_movement_id")).isEqualTo(0L);
+        assertThat(units()).isEqualTo(10D);
+    }
+
+    @Test
+    public void snapshotFoldsTheStockAggregateDeltas() {
+        append(MovementType.RECEIPT, 10D);
+
+        stockLedgerService.snapshot();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from stock_aggregate_delta", Long.class))
+            .isEqualTo(0L);
+    }
+
+    private void append(MovementType type, Double units) {
+        SortedMap<Long, Double> movements = new TreeMap<>();
+        movements.put(stockLine.getId(), units);
+        stockLedgerService.append(type, null, movements);
+    }
+
+    private Double units() {
+        return stockLineRepository.findOne(stockLine.getId()).getUnits();
+    }
+
+    private Map<String, Object> balance() {
+        return jdbcTemplate.queryForMap("select balance_units as units, balance_movement_id as last_movement_id"
+            + " from stock_line where id = ?", stockLine.getId());
+    }
+}
@@ -0,0 +1,206 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.dto.StockMovementDTO;
+import com.diviso.inventory.service.mapper.StockLineMapper;
+import com.diviso.inventory.web.rest.StockLineResourceIntTest;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the StockLineService, outside of a test transaction so that concurrent callers really commit.
+ *
+ * @see StockLineService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class StockLineServiceIntTest {
+
+    private static final int THREADS = 8;
+
+    private static final int BASKETS_PER_THREAD = 25;
+
+    private static final double INITIAL_UNITS = 1000D;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockLineService stockLineService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockLineMapper stockLineMapper;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    private List<StockLine> stockLines = new ArrayList<>();
+
+    @Before
+    public void initTest() {
+        SortedMap<Long, Double> receipts = new TreeMap<>();
+        for (int i = 0; i < 2; i++) {
+            StockLine stockLine = stockLineRepository.saveAndFlush(StockLineResourceIntTest.createEntity(null));
+            stockLines.add(stockLine);
+            receipts.put(stockLine.getId(), INITIAL_UNITS);
+        }
+        stockLedgerService.append(MovementType.RECEIPT, null, receipts);
+    }
+
+    @After
+    public void cleanUp() {
+        for (StockLine stockLine : stockLines) {
+            stockLineRepository.delete(stockLine.getId());
+        }
+    }
+
+    @Test
+    public void concurrentStockLevelUpdatesLoseNoDecrement() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < BASKETS_PER_THREAD; i++) {
+                            ArrayList<StockLineDTO> basket = new ArrayList<>();
+                            for (StockLine stockLine : stockLines) {
+                                StockLineDTO stockLineDTO = new StockLineDTO();
+                                stockLineDTO.setId(stockLine.getId());
+                                stockLineDTO.setUnits(1D);
+                                basket.add(stockLineDTO);
+                            }
+                            stockLineService.updateStockLevel(basket);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (StockLine stockLine : stockLines) {
+            assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits())
+                .isEqualTo(INITIAL_UNITS - THREADS * BASKETS_PER_THREAD);
+        }
+    }
+
+    @Test
+    public void concurrentSavesWithoutVersionAreRetried() throws Exception {
+        final StockLine stockLine = stockLines.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < BASKETS_PER_THREAD; i++) {
+                            StockLineDTO stockLineDTO = stockLineMapper.toDto(stockLine);
+                            stockLineDTO.setVersion(null);
+                            stockLineDTO.setMargin((double) thread * BASKETS_PER_THREAD + i);
+                            stockLineService.save(stockLineDTO);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getVersion())
+            .isEqualTo(stockLine.getVersion() + THREADS * BASKETS_PER_THREAD);
+    }
+
+    @Test
+    public void concurrentUnitsOnlySavesAreRetried() throws Exception {
+        final StockLine stockLine = stockLines.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < BASKETS_PER_THREAD; i++) {
+                            StockLineDTO stockLineDTO = stockLineMapper.toDto(stockLine);
+                            stockLineDTO.setVersion(null);
+                            stockLineDTO.setUnits(INITIAL_UNITS + 1 + thread * BASKETS_PER_THREAD + i);
+                            stockLineService.save(stockLineDTO);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // each adjustment was made against the units left by the one before it
+        StockLine saved = stockLineRepository.findOne(stockLine.getId());
+        assertThat(saved.getVersion()).isEqualTo(stockLine.getVersion() + THREADS * BASKETS_PER_THREAD);
+        assertThat(stockLedgerService.findByStockLineId(stockLine.getId(), new PageRequest(0, Integer.MAX_VALUE))
+            .getContent().stream().mapToDouble(StockMovementDTO::getUnits).sum()).isEqualTo(saved.getUnits());
+    }
+
+    @Test
+    public void saveWithStaleVersionIsNotRetried() {
+        StockLine stockLine = stockLines.get(0);
+        StockLineDTO stockLineDTO = stockLineMapper.toDto(stockLine);
+        stockLineDTO.setUnits(INITIAL_UNITS - 1);
+        stockLineService.save(stockLineDTO);
+        stockLineDTO.setUnits(INITIAL_UNITS - 2);
+        long failures = metricRegistry.meter("conflict-retry.StockLine.save.failures").getCount();
+        long retries = metricRegistry.meter("conflict-retry.StockLine.save.retries").getCount();
+
+        assertThatThrownBy(() -> stockLineService.save(stockLineDTO)).isInstanceOf(StaleVersionException.class);
+
+        assertThat(metricRegistry.meter("conflict-retry.StockLine.save.failures").getCount()).isEqualTo(failures + 1);
+        assertThat(metricRegistry.meter("conflict-retry.StockLine.save.retries").getCount()).isEqualTo(retries);
+    }
+}
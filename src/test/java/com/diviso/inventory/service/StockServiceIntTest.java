@@ -0,0 +1,149 @@
+package com.diviso.inventory.service;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.aop.retry.ConflictRetryAspect;
+import com.diviso.inventory.domain.Stock;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.repository.KeysetRepository;
+import com.diviso.inventory.repository.StockAggregateRepository;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.repository.StockRepository;
+import com.diviso.inventory.service.dto.StockDTO;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.impl.StockServiceImpl;
+import com.diviso.inventory.service.mapper.StockLineMapper;
+import com.diviso.inventory.service.mapper.StockMapper;
+import com.diviso.inventory.web.rest.StockLineResourceIntTest;
+import com.diviso.inventory.web.rest.StockResourceIntTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.persistence.EntityManager;
+import java.util.SortedMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the StockService, outside of a test transaction so that a conflict is retried.
+ *
+ * @see StockService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class StockServiceIntTest {
+
+    private static final int STOCK_LINES = 3;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockMapper stockMapper;
+
+    @Autowired
+    private StockLineMapper stockLineMapper;
+
+    @Autowired
+    private KeysetRepository keysetRepository;
+
+    @Autowired
+    private ProductLookupIndex productLookupIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockAggregateRepository stockAggregateRepository;
+
+    @Autowired
+    private ConflictRetryAspect conflictRetryAspect;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StockLedgerService conflictingStockLedgerService;
+
+    private StockService stockService;
+
+    private Long stockId;
+
+    /**
+     * Build a stock service whose first append to the journal loses a conflict, advised like the bean is.
+     */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        conflictingStockLedgerService = mock(StockLedgerService.class);
+        doThrow(new ConcurrencyFailureException("test concurrency failure"))
+            .doAnswer(invocation -> {
+                stockLedgerService.append(invocation.getArgumentAt(0, MovementType.class),
+                    invocation.getArgumentAt(1, String.class), invocation.getArgumentAt(2, SortedMap.class));
+                return null;
+            })
+            .when(conflictingStockLedgerService)
+            .append(any(MovementType.class), any(String.class), any(SortedMap.class));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new StockServiceImpl(stockRepository, stockMapper,
+            stockLineMapper, keysetRepository, productLookupIndex, entityManager, referenceDataCache,
+            conflictingStockLedgerService, stockAggregateRepository));
+        proxyFactory.addAspect(conflictRetryAspect);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        stockService = proxyFactory.getProxy();
+    }
+
+    @After
+    public void cleanUp() {
+        if (stockId == null) {
+            return;
+        }
+        Stock stock = stockRepository.findOneWithEagerRelationships(stockId);
+        stockRepository.delete(stockId);
+        for (StockLine stockLine : stock.getStockLines()) {
+            stockLineRepository.delete(stockLine.getId());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void receiveRetriedAfterAConflictKeepsItsStockLines() {
+        StockDTO stockDTO = stockMapper.toDto(StockResourceIntTest.createEntity(null));
+        for (int i = 0; i < STOCK_LINES; i++) {
+            stockDTO.getStockLines().add(stockLineMapper.toDto(StockLineResourceIntTest.createEntity(null).reference("LINE" + i)));
+        }
+
+        StockDTO result = stockService.receive(stockDTO);
+        stockId = result.getId();
+
+        verify(conflictingStockLedgerService, times(2))
+            .append(any(MovementType.class), any(String.class), any(SortedMap.class));
+        assertThat(stockDTO.getStockLines()).hasSize(STOCK_LINES);
+        assertThat(result.getStockLines()).hasSize(STOCK_LINES);
+        assertThat(result.getStockLines()).extracting(StockLineDTO::getId).doesNotContainNull();
+        assertThat(stockRepository.findOneWithEagerRelationships(stockId).getStockLines()).hasSize(STOCK_LINES);
+    }
+}
@@ -0,0 +1,74 @@
+package com.diviso.inventory.service;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TimerWheel.
+ *
+ * @see TimerWheel
+ */
+public class TimerWheelUnitTest {
+
+    private static final long TICK = 100;
+
+    private static final int BUCKETS = 8;
+
+    private TimerWheel<String> wheel;
+
+    @Before
+    public void init() {
+        wheel = new TimerWheel<>(BUCKETS, TICK, 1000);
+    }
+
+    @Test
+    public void testAdvanceReturnsTheItemsDue() {
+        wheel.schedule("a", 1150);
+        wheel.schedule("b", 1300);
+        wheel.schedule("c", 1350);
+
+        assertThat(wheel.advance(1100)).isEmpty();
+        assertThat(wheel.advance(1200)).containsExactly("a");
+        assertThat(wheel.advance(1320)).containsExactly("b");
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(1350)).containsExactly("c");
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testItemsAreNotDueBeforeTheirDeadlineInTheSameTick() {
+        wheel.schedule("a", 1190);
+
+        assertThat(wheel.advance(1150)).isEmpty();
+        assertThat(wheel.advance(1190)).containsExactly("a");
+    }
+
+    @Test
+    public void testItemsMoreThanARevolutionAwayWaitForTheirRound() {
+        wheel.schedule("a", 1000 + BUCKETS * TICK + 50);
+
+        assertThat(wheel.advance(1000 + 50)).isEmpty();
+        assertThat(wheel.advance(1000 + BUCKETS * TICK)).isEmpty();
+        assertThat(wheel.advance(1000 + BUCKETS * TICK + 50)).containsExactly("a");
+    }
+
+    @Test
+    public void testAdvanceOverMoreThanARevolution() {
+        wheel.schedule("a", 1150);
+        wheel.schedule("b", 1550);
+        wheel.schedule("c", 1000 + 3 * BUCKETS * TICK);
+
+        assertThat(wheel.advance(1000 + 2 * BUCKETS * TICK)).containsOnly("a", "b");
+        assertThat(wheel.advance(1000 + 3 * BUCKETS * TICK)).containsExactly("c");
+    }
+
+    @Test
+    public void testItemsPastTheirDeadlineAreDueOnTheNextAdvance() {
+        wheel.advance(1500);
+        wheel.schedule("a", 1100);
+
+        assertThat(wheel.advance(1500)).containsExactly("a");
+    }
+}
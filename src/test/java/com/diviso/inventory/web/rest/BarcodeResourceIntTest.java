@@ -1,6 +1,7 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
 import com.diviso.inventory.domain.Barcode;
 import com.diviso.inventory.repository.BarcodeRepository;
@@ -27,6 +28,7 @@ import javax.persistence.EntityManager;
 import java.util.List;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,6 +44,8 @@ import com.diviso.inventory.domain.enumeration.BarcodeType;
 @SpringBootTest(classes = InventoryApp.class)
 public class BarcodeResourceIntTest {
 
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+
     private static final String DEFAULT_CODE = "AAAAAAAAAA";
     private static final String UPDATED_CODE = "BBBBBBBBBB";
 
@@ -69,6 +73,9 @@ public class BarcodeResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -84,7 +91,8 @@ public class BarcodeResourceIntTest {
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
 import com.diviso.inventory.domain.Category;
 import com.diviso.inventory.repository.CategoryRepository;
@@ -22,12 +23,12 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 
 import javax.persistence.EntityManager;
 import java.util.List;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,11 +43,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = InventoryApp.class)
 public class CategoryResourceIntTest {
 
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+
     private static final String DEFAULT_NAME = "AAAAAAAAAA";
     private static final String UPDATED_NAME = "BBBBBBBBBB";
 
-    private static final byte[] DEFAULT_IMAGE = TestUtil.createByteArray(1, "0");
-    private static final byte[] UPDATED_IMAGE = TestUtil.createByteArray(2, "1");
+    private static final String DEFAULT_IMAGE_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+    private static final String UPDATED_IMAGE_HASH = "1111111111111111111111111111111111111111111111111111111111111111";
     private static final String DEFAULT_IMAGE_CONTENT_TYPE = "image/jpg";
     private static final String UPDATED_IMAGE_CONTENT_TYPE = "image/png";
 
@@ -74,6 +77,9 @@ public class CategoryResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -89,7 +95,8 @@ public class CategoryResourceIntTest {
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -101,7 +108,7 @@ public class CategoryResourceIntTest {
     public static Category createEntity(EntityManager em) {
         Category category = new Category()
             .name(DEFAULT_NAME)
-            .image(DEFAULT_IMAGE)
+            .imageHash(DEFAULT_IMAGE_HASH)
             .imageContentType(DEFAULT_IMAGE_CONTENT_TYPE)
             .visible(DEFAULT_VISIBLE)
             .description(DEFAULT_DESCRIPTION);
@@ -130,7 +137,7 @@ public class CategoryResourceIntTest {
         assertThat(categoryList).hasSize(databaseSizeBeforeCreate + 1);
         Category testCategory = categoryList.get(categoryList.size() - 1);
         assertThat(testCategory.getName()).isEqualTo(DEFAULT_NAME);
-        assertThat(testCategory.getImage()).isEqualTo(DEFAULT_IMAGE);
+        assertThat(testCategory.getImageHash()).isEqualTo(DEFAULT_IMAGE_HASH);
         assertThat(testCategory.getImageContentType()).isEqualTo(DEFAULT_IMAGE_CONTENT_TYPE);
         assertThat(testCategory.isVisible()).isEqualTo(DEFAULT_VISIBLE);
         assertThat(testCategory.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
@@ -188,7 +195,7 @@ public class CategoryResourceIntTest {
             .andExpect(jsonPath("$.[*].id").value(hasItem(category.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME.toString())))
             .andExpect(jsonPath("$.[*].imageContentType").value(hasItem(DEFAULT_IMAGE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].image").value(hasItem(Base64Utils.encodeToString(DEFAULT_IMAGE))))
+            .andExpect(jsonPath("$.[*].imageHash").value(hasItem(DEFAULT_IMAGE_HASH)))
             .andExpect(jsonPath("$.[*].visible").value(hasItem(DEFAULT_VISIBLE.booleanValue())))
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION.toString())));
     }
@@ -206,7 +213,7 @@ public class CategoryResourceIntTest {
             .andExpect(jsonPath("$.id").value(category.getId().intValue()))
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME.toString()))
             .andExpect(jsonPath("$.imageContentType").value(DEFAULT_IMAGE_CONTENT_TYPE))
-            .andExpect(jsonPath("$.image").value(Base64Utils.encodeToString(DEFAULT_IMAGE)))
+            .andExpect(jsonPath("$.imageHash").value(DEFAULT_IMAGE_HASH))
             .andExpect(jsonPath("$.visible").value(DEFAULT_VISIBLE.booleanValue()))
             .andExpect(jsonPath("$.description").value(DEFAULT_DESCRIPTION.toString()));
     }
@@ -232,7 +239,7 @@ public class CategoryResourceIntTest {
         em.detach(updatedCategory);
         updatedCategory
             .name(UPDATED_NAME)
-            .image(UPDATED_IMAGE)
+            .imageHash(UPDATED_IMAGE_HASH)
             .imageContentType(UPDATED_IMAGE_CONTENT_TYPE)
             .visible(UPDATED_VISIBLE)
             .description(UPDATED_DESCRIPTION);
@@ -248,7 +255,7 @@ public class CategoryResourceIntTest {
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
         Category testCategory = categoryList.get(categoryList.size() - 1);
         assertThat(testCategory.getName()).isEqualTo(UPDATED_NAME);
-        assertThat(testCategory.getImage()).isEqualTo(UPDATED_IMAGE);
+        assertThat(testCategory.getImageHash()).isEqualTo(UPDATED_IMAGE_HASH);
         assertThat(testCategory.getImageContentType()).isEqualTo(UPDATED_IMAGE_CONTENT_TYPE);
         assertThat(testCategory.isVisible()).isEqualTo(UPDATED_VISIBLE);
         assertThat(testCategory.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
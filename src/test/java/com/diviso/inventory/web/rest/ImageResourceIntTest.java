@@ -0,0 +1,227 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
+
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.repository.CategoryRepository;
+import com.diviso.inventory.service.BlobStore;
+import com.diviso.inventory.service.ImageService;
+import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the ImageResource REST controller.
+ *
+ * @see ImageResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ImageResourceIntTest {
+
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+
+    private static final byte[] IMAGE = "PNG image content, long enough for a range".getBytes(StandardCharsets.UTF_8);
+
+    private static final String IMAGE_CONTENT_TYPE = "image/png";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restImageMockMvc;
+
+    private Category category;
+
+    private String hash;
+
+    @Before
+    public void setup() throws Exception {
+        final ImageResource imageResource = new ImageResource(imageService, blobStore);
+        this.restImageMockMvc = MockMvcBuilders.standaloneSetup(imageResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
+        hash = blobStore.put(new ByteArrayInputStream(IMAGE));
+    }
+
+    @Before
+    public void initTest() {
+        category = CategoryResourceIntTest.createEntity(em).imageHash(null).imageContentType(null);
+    }
+
+    @Test
+    @Transactional
+    public void updateCategoryImage() throws Exception {
+        categoryRepository.saveAndFlush(category);
+
+        restImageMockMvc.perform(put("/api/categories/{id}/image", category.getId())
+            .contentType(IMAGE_CONTENT_TYPE)
+            .content(IMAGE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.hash").value(hash))
+            .andExpect(jsonPath("$.contentType").value(IMAGE_CONTENT_TYPE));
+
+        Category testCategory = categoryRepository.findOne(category.getId());
+        assertThat(testCategory.getImageHash()).isEqualTo(hash);
+        assertThat(testCategory.getImageContentType()).isEqualTo(IMAGE_CONTENT_TYPE);
+    }
+
+    @Test
+    @Transactional
+    public void updateCategoryImageWithoutImageContentType() throws Exception {
+        categoryRepository.saveAndFlush(category);
+
+        restImageMockMvc.perform(put("/api/categories/{id}/image", category.getId())
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(IMAGE))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void updateNonExistingProductImage() throws Exception {
+        restImageMockMvc.perform(put("/api/products/{id}/image", Long.MAX_VALUE)
+            .contentType(IMAGE_CONTENT_TYPE)
+            .content(IMAGE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryImage() throws Exception {
+        categoryRepository.saveAndFlush(category.imageHash(hash).imageContentType(IMAGE_CONTENT_TYPE));
+
+        MvcResult result = restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId()))
+            .andExpect(request().asyncStarted())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(IMAGE_CONTENT_TYPE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andReturn();
+        restImageMockMvc.perform(asyncDispatch(result));
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(IMAGE);
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryImageNotModified() throws Exception {
+        categoryRepository.saveAndFlush(category.imageHash(hash).imageContentType(IMAGE_CONTENT_TYPE));
+
+        restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""));
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryImageRange() throws Exception {
+        categoryRepository.saveAndFlush(category.imageHash(hash).imageContentType(IMAGE_CONTENT_TYPE));
+
+        MvcResult result = restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId())
+            .header(HttpHeaders.RANGE, "bytes=4-8"))
+            .andExpect(request().asyncStarted())
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-8/" + IMAGE.length))
+            .andReturn();
+        restImageMockMvc.perform(asyncDispatch(result));
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(IMAGE, 4, 9));
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryImageRangeOfAnotherImage() throws Exception {
+        categoryRepository.saveAndFlush(category.imageHash(hash).imageContentType(IMAGE_CONTENT_TYPE));
+
+        restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId())
+            .header(HttpHeaders.RANGE, "bytes=4-8")
+            .header(HttpHeaders.IF_RANGE, "\"another\""))
+            .andExpect(request().asyncStarted())
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryImageUnsatisfiableRange() throws Exception {
+        categoryRepository.saveAndFlush(category.imageHash(hash).imageContentType(IMAGE_CONTENT_TYPE));
+
+        restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId())
+            .header(HttpHeaders.RANGE, "bytes=" + IMAGE.length + "-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + IMAGE.length));
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryImageMalformedRange() throws Exception {
+        categoryRepository.saveAndFlush(category.imageHash(hash).imageContentType(IMAGE_CONTENT_TYPE));
+
+        MvcResult result = restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId())
+            .header(HttpHeaders.RANGE, "bytes=eight-"))
+            .andExpect(request().asyncStarted())
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+            .andReturn();
+        restImageMockMvc.perform(asyncDispatch(result));
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(IMAGE);
+    }
+
+    @Test
+    @Transactional
+    public void getCategoryWithoutImage() throws Exception {
+        categoryRepository.saveAndFlush(category);
+
+        restImageMockMvc.perform(get("/api/categories/{id}/image", category.getId()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingProductImage() throws Exception {
+        restImageMockMvc.perform(get("/api/products/{id}/image", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -1,6 +1,7 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
 import com.diviso.inventory.domain.Label;
 import com.diviso.inventory.repository.LabelRepository;
@@ -27,6 +28,7 @@ import javax.persistence.EntityManager;
 import java.util.List;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,6 +43,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = InventoryApp.class)
 public class LabelResourceIntTest {
 
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+
     private static final String DEFAULT_NAME = "AAAAAAAAAA";
     private static final String UPDATED_NAME = "BBBBBBBBBB";
 
@@ -65,6 +69,9 @@ public class LabelResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -80,7 +87,8 @@ public class LabelResourceIntTest {
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -0,0 +1,126 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.aop.logging.LoggingAspect;
+import com.diviso.inventory.aop.logging.Tracing;
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
+import com.diviso.inventory.web.rest.vm.LoggingAspectVM;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the LoggingAspectResource REST controller.
+ * <p>
+ * The LoggingAspect is only enabled in the "dev" profile, so the test creates its own.
+ *
+ * @see LoggingAspectResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class LoggingAspectResourceIntTest {
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    private LoggingAspect loggingAspect;
+
+    private MockMvc restLoggingAspectMockMvc;
+
+    @Before
+    public void setup() {
+        loggingAspect = new LoggingAspect(env, applicationProperties);
+        LoggingAspectResource loggingAspectResource = new LoggingAspectResource(loggingAspect);
+        this.restLoggingAspectMockMvc = MockMvcBuilders
+            .standaloneSetup(loggingAspectResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setMessageConverters(jacksonMessageConverter)
+            .build();
+    }
+
+    @Test
+    public void getTracing() throws Exception {
+        restLoggingAspectMockMvc.perform(get("/management/logging-aspect"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.tracing").value(applicationProperties.getLoggingAspect().isTracing()))
+            .andExpect(jsonPath("$.sampleRate").value(applicationProperties.getLoggingAspect().getSampleRate()))
+            .andExpect(jsonPath("$.maxArgumentLength").value(applicationProperties.getLoggingAspect().getMaxArgumentLength()));
+    }
+
+    @Test
+    public void changeTracing() throws Exception {
+        LoggingAspectVM loggingAspectVM = new LoggingAspectVM();
+        loggingAspectVM.setTracing(true);
+        loggingAspectVM.setSampleRate(0.1);
+        loggingAspectVM.setMaxArgumentLength(50);
+        loggingAspectVM.setIncludes(Collections.singletonList("ProductServiceImpl."));
+
+        restLoggingAspectMockMvc.perform(put("/management/logging-aspect")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(loggingAspectVM)))
+            .andExpect(status().isNoContent());
+
+        Tracing tracing = loggingAspect.getTracing();
+        assertThat(tracing.isEnabled()).isTrue();
+        assertThat(tracing.getSampleRate()).isEqualTo(0.1);
+        assertThat(tracing.getMaxArgumentLength()).isEqualTo(50);
+        assertThat(tracing.getIncludes()).containsExactly("ProductServiceImpl.");
+        assertThat(tracing.getExcludes()).isEmpty();
+    }
+
+    @Test
+    public void changeTracingWithoutIncludesAndExcludes() throws Exception {
+        restLoggingAspectMockMvc.perform(put("/management/logging-aspect")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content("{\"tracing\":true,\"sampleRate\":1,\"maxArgumentLength\":50,\"includes\":null,\"excludes\":null}"))
+            .andExpect(status().isNoContent());
+
+        Tracing tracing = loggingAspect.getTracing();
+        assertThat(tracing.isEnabled()).isTrue();
+        assertThat(tracing.getIncludes()).isEmpty();
+        assertThat(tracing.getExcludes()).isEmpty();
+    }
+
+    @Test
+    public void changeTracingWithAnInvalidSampleRate() throws Exception {
+        Tracing tracing = loggingAspect.getTracing();
+        LoggingAspectVM loggingAspectVM = new LoggingAspectVM(tracing);
+        loggingAspectVM.setSampleRate(2);
+
+        restLoggingAspectMockMvc.perform(put("/management/logging-aspect")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(loggingAspectVM)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(loggingAspect.getTracing()).isSameAs(tracing);
+    }
+}
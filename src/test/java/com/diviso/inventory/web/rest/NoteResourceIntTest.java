@@ -1,6 +1,7 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
 import com.diviso.inventory.domain.Note;
 import com.diviso.inventory.repository.NoteRepository;
@@ -29,6 +30,7 @@ import java.time.ZoneId;
 import java.util.List;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,6 +45,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = InventoryApp.class)
 public class NoteResourceIntTest {
 
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+
     private static final String DEFAULT_MATTER = "AAAAAAAAAA";
     private static final String UPDATED_MATTER = "BBBBBBBBBB";
 
@@ -67,6 +71,9 @@ public class NoteResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -82,7 +89,8 @@ public class NoteResourceIntTest {
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -1,14 +1,26 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.domain.Label;
+import com.diviso.inventory.domain.Note;
 import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Status;
+import com.diviso.inventory.domain.TaxCategory;
 import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.service.ProductExpiryService;
+import com.diviso.inventory.service.ProductImportService;
+import com.diviso.inventory.service.ProductLookupIndex;
 import com.diviso.inventory.service.ProductService;
 import com.diviso.inventory.service.dto.ProductDTO;
 import com.diviso.inventory.service.mapper.ProductMapper;
 import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -20,18 +32,23 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static com.diviso.inventory.web.rest.QueryCount.queries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -44,6 +61,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = InventoryApp.class)
 public class ProductResourceIntTest {
 
+    private static final int MAX_QUERIES_PER_REQUEST = 5;
+
     private static final String DEFAULT_REFERENCE = "AAAAAAAAAA";
     private static final String UPDATED_REFERENCE = "BBBBBBBBBB";
 
@@ -53,8 +72,8 @@ public class ProductResourceIntTest {
     private static final String DEFAULT_NAME = "AAAAAAAAAA";
     private static final String UPDATED_NAME = "BBBBBBBBBB";
 
-    private static final byte[] DEFAULT_IMAGE = TestUtil.createByteArray(1, "0");
-    private static final byte[] UPDATED_IMAGE = TestUtil.createByteArray(2, "1");
+    private static final String DEFAULT_IMAGE_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+    private static final String UPDATED_IMAGE_HASH = "1111111111111111111111111111111111111111111111111111111111111111";
     private static final String DEFAULT_IMAGE_CONTENT_TYPE = "image/jpg";
     private static final String UPDATED_IMAGE_CONTENT_TYPE = "image/png";
 
@@ -91,6 +110,15 @@ public class ProductResourceIntTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductLookupIndex productLookupIndex;
+
+    @Autowired
+    private ProductExpiryService productExpiryService;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -100,6 +128,9 @@ public class ProductResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -110,12 +141,14 @@ public class ProductResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final ProductResource productResource = new ProductResource(productService);
+        final ProductResource productResource = new ProductResource(productService, productImportService,
+            jacksonMessageConverter.getObjectMapper());
         this.restProductMockMvc = MockMvcBuilders.standaloneSetup(productResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -129,7 +162,7 @@ public class ProductResourceIntTest {
             .reference(DEFAULT_REFERENCE)
             .searchkey(DEFAULT_SEARCHKEY)
             .name(DEFAULT_NAME)
-            .image(DEFAULT_IMAGE)
+            .imageHash(DEFAULT_IMAGE_HASH)
             .imageContentType(DEFAULT_IMAGE_CONTENT_TYPE)
             .description(DEFAULT_DESCRIPTION)
             .sku(DEFAULT_SKU)
@@ -166,7 +199,7 @@ public class ProductResourceIntTest {
         assertThat(testProduct.getReference()).isEqualTo(DEFAULT_REFERENCE);
         assertThat(testProduct.getSearchkey()).isEqualTo(DEFAULT_SEARCHKEY);
         assertThat(testProduct.getName()).isEqualTo(DEFAULT_NAME);
-        assertThat(testProduct.getImage()).isEqualTo(DEFAULT_IMAGE);
+        assertThat(testProduct.getImageHash()).isEqualTo(DEFAULT_IMAGE_HASH);
         assertThat(testProduct.getImageContentType()).isEqualTo(DEFAULT_IMAGE_CONTENT_TYPE);
         assertThat(testProduct.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
         assertThat(testProduct.getSku()).isEqualTo(DEFAULT_SKU);
@@ -270,7 +303,7 @@ public class ProductResourceIntTest {
             .andExpect(jsonPath("$.[*].searchkey").value(hasItem(DEFAULT_SEARCHKEY.toString())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME.toString())))
             .andExpect(jsonPath("$.[*].imageContentType").value(hasItem(DEFAULT_IMAGE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].image").value(hasItem(Base64Utils.encodeToString(DEFAULT_IMAGE))))
+            .andExpect(jsonPath("$.[*].imageHash").value(hasItem(DEFAULT_IMAGE_HASH)))
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION.toString())))
             .andExpect(jsonPath("$.[*].sku").value(hasItem(DEFAULT_SKU.toString())))
             .andExpect(jsonPath("$.[*].mpn").value(hasItem(DEFAULT_MPN.toString())))
@@ -281,6 +314,110 @@ public class ProductResourceIntTest {
             .andExpect(jsonPath("$.[*].reOrderLevel").value(hasItem(DEFAULT_RE_ORDER_LEVEL.doubleValue())));
     }
 
+    @Test
+    @Transactional
+    public void getAllProductSummaries() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Get the summaries of all the products
+        restProductMockMvc.perform(get("/api/products?view=summary&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("X-Total-Count", String.valueOf(productRepository.count())))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME.toString())))
+            .andExpect(jsonPath("$.[*].sku").value(hasItem(DEFAULT_SKU.toString())))
+            .andExpect(jsonPath("$.[*].reference").value(hasItem(DEFAULT_REFERENCE.toString())))
+            .andExpect(jsonPath("$.[*].visible").value(hasItem(DEFAULT_VISIBLE.booleanValue())))
+            .andExpect(jsonPath("$.[*].description").doesNotExist())
+            .andExpect(jsonPath("$.[*].imageHash").doesNotExist());
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    public void getProductSummariesByNameContaining() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product.visible(true));
+
+        restProductMockMvc.perform(get("/api/products/findByNameContaining/{name}?view=summary",
+                DEFAULT_NAME.substring(1, 4)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())));
+
+        restProductMockMvc.perform(get("/api/products/findByNameContaining/{name}?view=summary", UPDATED_NAME))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(product.getId().intValue()))));
+    }
+
+    @Test
+    public void exportProducts() throws Exception {
+        // Initialize the database, in its own transaction as the export runs on another thread
+        productRepository.saveAndFlush(product);
+
+        try {
+            MvcResult result = restProductMockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn();
+            restProductMockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+            String ndjson = result.getResponse().getContentAsString();
+            assertThat(ndjson).contains("\"id\":" + product.getId() + ",");
+            assertThat(ndjson).contains("\"reference\":\"" + DEFAULT_REFERENCE + "\"");
+        } finally {
+            productRepository.delete(product.getId());
+        }
+    }
+
+    @Test
+    public void exportProductsWithUnsupportedFormat() throws Exception {
+        restProductMockMvc.perform(get("/api/products/export?format=xml"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void importProducts() throws Exception {
+        String ndjson = "{\"reference\":\"IMPORTED\",\"searchkey\":\"" + DEFAULT_SEARCHKEY + "\",\"name\":\"" + DEFAULT_NAME
+            + "\",\"visible\":true}\n{\"reference\":\"IMPORTED\"}\n";
+
+        // Import the products, in transactions of their own
+        try {
+            restProductMockMvc.perform(post("/api/products/import")
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].messages.length()").value(2));
+
+            Product testProduct = productRepository.findByReferenceIgnoreCaseAndVisibleTrue("IMPORTED");
+            assertThat(testProduct.getName()).isEqualTo(DEFAULT_NAME);
+            assertThat(testProduct.getSearchkey()).isEqualTo(DEFAULT_SEARCHKEY);
+        } finally {
+            Product imported = productRepository.findByReferenceIgnoreCaseAndVisibleTrue("IMPORTED");
+            if (imported != null) {
+                productRepository.delete(imported.getId());
+            }
+        }
+    }
+
+    @Test
+    public void importProductsWithUnsupportedFormat() throws Exception {
+        restProductMockMvc.perform(post("/api/products/import?format=xml")
+            .content("<products/>"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void getProduct() throws Exception {
@@ -296,7 +433,7 @@ public class ProductResourceIntTest {
             .andExpect(jsonPath("$.searchkey").value(DEFAULT_SEARCHKEY.toString()))
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME.toString()))
             .andExpect(jsonPath("$.imageContentType").value(DEFAULT_IMAGE_CONTENT_TYPE))
-            .andExpect(jsonPath("$.image").value(Base64Utils.encodeToString(DEFAULT_IMAGE)))
+            .andExpect(jsonPath("$.imageHash").value(DEFAULT_IMAGE_HASH))
             .andExpect(jsonPath("$.description").value(DEFAULT_DESCRIPTION.toString()))
             .andExpect(jsonPath("$.sku").value(DEFAULT_SKU.toString()))
             .andExpect(jsonPath("$.mpn").value(DEFAULT_MPN.toString()))
@@ -307,6 +444,32 @@ public class ProductResourceIntTest {
             .andExpect(jsonPath("$.reOrderLevel").value(DEFAULT_RE_ORDER_LEVEL.doubleValue()));
     }
 
+    @Test
+    public void getProductsExpiring() throws Exception {
+        // Initialize the database, committed for the days of expiry to be indexed
+        productRepository.saveAndFlush(product.dateOfExpiry(LocalDate.now().plusDays(1)).visible(true));
+        productExpiryService.productsSaved(Collections.singleton(product));
+        try {
+            restProductMockMvc.perform(get("/api/products/expiring?days=1&size=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())));
+            restProductMockMvc.perform(get("/api/products/expiring?days=0&size=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(product.getId().intValue()))));
+        } finally {
+            productRepository.delete(product.getId());
+            productExpiryService.productDeleted(product.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getProductsExpiringIsValidated() throws Exception {
+        restProductMockMvc.perform(get("/api/products/expiring?days=-1"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-inventoryApp-error", "error.daysinvalid"));
+    }
+
     @Test
     @Transactional
     public void getNonExistingProduct() throws Exception {
@@ -315,6 +478,39 @@ public class ProductResourceIntTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getProductByBarcode() throws Exception {
+        // Initialize the database
+        Barcode barcode = BarcodeResourceIntTest.createEntity(em).code("SCAN-1");
+        em.persist(barcode);
+        productRepository.saveAndFlush(product.barcode(barcode).visible(true));
+
+        // The first scan is answered by the repository, the next ones through the lookup index
+        for (int i = 0; i < 2; i++) {
+            restProductMockMvc.perform(get("/api/products/findByBarcode/{barcode}", "SCAN-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(product.getId().intValue()));
+        }
+        assertThat(productLookupIndex.findProductId(ProductLookupIndex.Key.BARCODE, "SCAN-1")).isEqualTo(product.getId());
+        restProductMockMvc.perform(get("/api/products/findBySku/{sku}", DEFAULT_SKU.toLowerCase()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(product.getId().intValue()));
+
+        // Changes made behind the index, as on another node, are still honoured
+        barcode.setCode("SCAN-2");
+        em.flush();
+        restProductMockMvc.perform(get("/api/products/findByBarcode/{barcode}", "SCAN-1"))
+            .andExpect(status().isNotFound());
+        restProductMockMvc.perform(get("/api/products/findByBarcode/{barcode}", "SCAN-2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(product.getId().intValue()));
+        product.setVisible(false);
+        em.flush();
+        restProductMockMvc.perform(get("/api/products/findByBarcode/{barcode}", "SCAN-2"))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void updateProduct() throws Exception {
@@ -330,7 +526,7 @@ public class ProductResourceIntTest {
             .reference(UPDATED_REFERENCE)
             .searchkey(UPDATED_SEARCHKEY)
             .name(UPDATED_NAME)
-            .image(UPDATED_IMAGE)
+            .imageHash(UPDATED_IMAGE_HASH)
             .imageContentType(UPDATED_IMAGE_CONTENT_TYPE)
             .description(UPDATED_DESCRIPTION)
             .sku(UPDATED_SKU)
@@ -354,7 +550,7 @@ public class ProductResourceIntTest {
         assertThat(testProduct.getReference()).isEqualTo(UPDATED_REFERENCE);
         assertThat(testProduct.getSearchkey()).isEqualTo(UPDATED_SEARCHKEY);
         assertThat(testProduct.getName()).isEqualTo(UPDATED_NAME);
-        assertThat(testProduct.getImage()).isEqualTo(UPDATED_IMAGE);
+        assertThat(testProduct.getImageHash()).isEqualTo(UPDATED_IMAGE_HASH);
         assertThat(testProduct.getImageContentType()).isEqualTo(UPDATED_IMAGE_CONTENT_TYPE);
         assertThat(testProduct.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
         assertThat(testProduct.getSku()).isEqualTo(UPDATED_SKU);
@@ -402,6 +598,126 @@ public class ProductResourceIntTest {
         assertThat(productList).hasSize(databaseSizeBeforeDelete - 1);
     }
 
+    @Test
+    @Transactional
+    public void getAllProductsMarsheldHonoursPageable() throws Exception {
+        // Initialize the database
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(createMarsheldProduct(i));
+        }
+
+        restProductMockMvc.perform(post("/api/products/findAllMarsheld?page=1&size=2")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(toIdList(products))))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("X-Total-Count", "5"))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(products.get(2).getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(products.get(3).getId().intValue()))
+            .andExpect(jsonPath("$.[0].barcode.code").value("CODE2"))
+            .andExpect(jsonPath("$.[0].categoryModel.id").value(products.get(2).getCategory().getId().intValue()))
+            .andExpect(jsonPath("$.[0].taxCategoryModel.id").value(products.get(2).getTaxCategory().getId().intValue()))
+            .andExpect(jsonPath("$.[0].status.id").value(products.get(2).getStatus().getId().intValue()))
+            .andExpect(jsonPath("$.[0].labels.length()").value(2))
+            .andExpect(jsonPath("$.[0].notes.length()").value(1));
+
+        restProductMockMvc.perform(post("/api/products/findAllMarsheld?page=0&size=2&sort=id,desc")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(toIdList(products))))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "5"))
+            .andExpect(jsonPath("$.[0].id").value(products.get(4).getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(products.get(3).getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getAllProductsMarsheldRunsConstantNumberOfStatements() throws Exception {
+        // Initialize the database
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            products.add(createMarsheldProduct(i));
+        }
+
+        // The reference data is read once per transaction
+        countMarsheldStatements(products.subList(0, 1));
+        long statementsForOne = countMarsheldStatements(products.subList(0, 1));
+        long statementsForTen = countMarsheldStatements(products);
+
+        assertThat(statementsForOne).isGreaterThan(0);
+        assertThat(statementsForTen).isEqualTo(statementsForOne);
+    }
+
+    @Test
+    @Transactional
+    public void getMarsheldProduct() throws Exception {
+        Product product = createMarsheldProduct(0);
+        em.clear();
+
+        // The reference data is read once per transaction
+        restProductMockMvc.perform(get("/api/products/marsheld/{id}", product.getId()));
+        em.clear();
+
+        // The product with its barcode and labels, then its notes
+        restProductMockMvc.perform(get("/api/products/marsheld/{id}", product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(product.getId().intValue()))
+            .andExpect(jsonPath("$.barcode.code").value("CODE0"))
+            .andExpect(jsonPath("$.labels.length()").value(2))
+            .andExpect(jsonPath("$.notes.length()").value(1))
+            .andExpect(queries(2));
+    }
+
+    private Product createMarsheldProduct(int index) {
+        Barcode barcode = BarcodeResourceIntTest.createEntity(em).code("CODE" + index);
+        em.persist(barcode);
+        Category category = CategoryResourceIntTest.createEntity(em);
+        em.persist(category);
+        TaxCategory taxCategory = TaxCategoryResourceIntTest.createEntity(em);
+        em.persist(taxCategory);
+        Status status = StatusResourceIntTest.createEntity(em);
+        em.persist(status);
+        Product product = createEntity(em)
+            .barcode(barcode)
+            .category(category)
+            .taxCategory(taxCategory)
+            .status(status);
+        for (int i = 0; i < 2; i++) {
+            Label label = LabelResourceIntTest.createEntity(em);
+            em.persist(label);
+            product.addLabels(label);
+        }
+        em.persist(product);
+        Note note = NoteResourceIntTest.createEntity(em).product(product);
+        em.persist(note);
+        em.flush();
+        return product;
+    }
+
+    private long countMarsheldStatements(List<Product> products) throws Exception {
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        restProductMockMvc.perform(post("/api/products/findAllMarsheld?size=" + products.size())
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(toIdList(products))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(products.size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static List<ProductDTO> toIdList(List<Product> products) {
+        List<ProductDTO> dtoList = new ArrayList<>();
+        for (Product product : products) {
+            ProductDTO productDTO = new ProductDTO();
+            productDTO.setId(product.getId());
+            dtoList.add(productDTO);
+        }
+        return dtoList;
+    }
+
     @Test
     @Transactional
     public void equalsVerifier() throws Exception {
@@ -0,0 +1,141 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.QueryCacheRegions;
+import com.diviso.inventory.repository.StockLineRepository;
+
+import com.hazelcast.core.HazelcastInstance;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the QueryCacheResource REST controller.
+ * <p>
+ * The query cache is off in the other tests, so this test has a context of its own where it is on. The cached
+ * results are shared by the transactions, so the test is not transactional: it deletes what it saved.
+ *
+ * @see QueryCacheResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class, properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+    "spring.jpa.properties.hibernate.cache.region.factory_class=com.hazelcast.hibernate.HazelcastCacheRegionFactory",
+    "spring.jpa.properties.hibernate.cache.hazelcast.instance_name=Inventory"
+})
+public class QueryCacheResourceIntTest {
+
+    private static final String REFERENCE = "QUERY-CACHE-1";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private MockMvc restQueryCacheMockMvc;
+
+    private Statistics statistics;
+
+    private Product product;
+
+    private StockLine stockLine;
+
+    @Before
+    public void setup() {
+        QueryCacheResource queryCacheResource = new QueryCacheResource(entityManagerFactory, applicationProperties);
+        this.restQueryCacheMockMvc = MockMvcBuilders
+            .standaloneSetup(queryCacheResource)
+            .build();
+        product = productRepository.save(ProductResourceIntTest.createEntity(null).reference(REFERENCE).visible(true));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        if (stockLine != null) {
+            stockLineRepository.delete(stockLine);
+        }
+        productRepository.delete(product);
+    }
+
+    @Test
+    public void findersAreCachedInTheirRegion() throws Exception {
+        assertThat(productRepository.findByReferenceIgnoreCaseAndVisibleTrue(REFERENCE).getId()).isEqualTo(product.getId());
+        assertThat(productRepository.findByReferenceIgnoreCaseAndVisibleTrue(REFERENCE).getId()).isEqualTo(product.getId());
+
+        SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(QueryCacheRegions.PRODUCT_BY_REFERENCE);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+        assertThat(hazelcastInstance.getConfig().findMapConfig(QueryCacheRegions.PRODUCT_BY_REFERENCE).getTimeToLiveSeconds())
+            .isEqualTo(applicationProperties.getQueryCache().getTimeToLiveSeconds("product.byReference"));
+
+        restQueryCacheMockMvc.perform(get("/management/query-cache"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.length()").value(QueryCacheRegions.ALL.size()))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(QueryCacheRegions.PRODUCT_BY_REFERENCE)))
+            .andExpect(jsonPath("$.[?(@.name == '" + QueryCacheRegions.PRODUCT_BY_REFERENCE + "')].hitRatio").value(hasItem(0.5)));
+    }
+
+    @Test
+    public void productUpdatesInvalidateTheFinders() {
+        productRepository.findByReferenceIgnoreCaseAndVisibleTrue(REFERENCE);
+
+        // A stockLine is not read by the product finders
+        stockLine = stockLineRepository.save(StockLineResourceIntTest.createEntity(null).product(product));
+        productRepository.findByReferenceIgnoreCaseAndVisibleTrue(REFERENCE);
+        SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(QueryCacheRegions.PRODUCT_BY_REFERENCE);
+        assertThat(region.getHitCount()).isEqualTo(1);
+
+        product = productRepository.save(product.visible(false));
+        assertThat(productRepository.findByReferenceIgnoreCaseAndVisibleTrue(REFERENCE)).isNull();
+        assertThat(region.getHitCount()).isEqualTo(1);
+        assertThat(region.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void resetStatistics() throws Exception {
+        productRepository.findByReferenceIgnoreCaseAndVisibleTrue(REFERENCE);
+
+        restQueryCacheMockMvc.perform(delete("/management/query-cache"))
+            .andExpect(status().isNoContent());
+
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.config.metrics.SqlMetrics;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.ConfigurableMockMvcBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcConfigurerAdapter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Utility class counting the SQL statements run by the requests of a MockMvc, to catch the N+1 selects.
+ * <p>
+ * Every request of a MockMvc set up with {@link #countQueries(SqlMetrics, int)} fails if it runs more statements
+ * than the limit of the test class, unless it is given a limit of its own with {@link #maxQueries(int)}. A test can
+ * also expect an exact number of statements with {@link #queries(int)}. The statements are counted on the
+ * connections of the DataSource, so those of the JdbcTemplate count too.
+ */
+public final class QueryCount {
+
+    private static final String COUNT = QueryCount.class.getName() + ".COUNT";
+
+    private static final String MAX_QUERIES = QueryCount.class.getName() + ".MAX_QUERIES";
+
+    private QueryCount() {
+    }
+
+    /**
+     * @param sqlMetrics the SqlMetrics of the context, counting the statements
+     * @param maxQueries the maximum number of statements of a request
+     * @return the configurer of a MockMvc checking the number of statements of every request
+     */
+    public static MockMvcConfigurerAdapter countQueries(SqlMetrics sqlMetrics, int maxQueries) {
+        return new MockMvcConfigurerAdapter() {
+
+            @Override
+            public void afterConfigurerAdded(ConfigurableMockMvcBuilder<?> builder) {
+                builder.addFilters(new CountingFilter(sqlMetrics));
+                builder.alwaysExpect(result -> {
+                    Object requestMaxQueries = result.getRequest().getAttribute(MAX_QUERIES);
+                    int max = requestMaxQueries != null ? (Integer) requestMaxQueries : maxQueries;
+                    if (count(result) > max) {
+                        fail(description(result) + " ran " + count(result) + " SQL statements, more than " + max);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * @param maxQueries the maximum number of statements of this request, instead of the limit of the test class
+     * @return the post-processor of the request
+     */
+    public static RequestPostProcessor maxQueries(int maxQueries) {
+        return request -> {
+            request.setAttribute(MAX_QUERIES, maxQueries);
+            return request;
+        };
+    }
+
+    /**
+     * @param queries the expected number of statements
+     * @return a matcher failing unless the request ran exactly that many statements
+     */
+    public static ResultMatcher queries(int queries) {
+        return result -> {
+            if (count(result) != queries) {
+                fail(description(result) + " ran " + count(result) + " SQL statements, expected " + queries);
+            }
+        };
+    }
+
+    /**
+     * @return the number of statements run by the request
+     */
+    public static int count(MvcResult result) {
+        Object count = result.getRequest().getAttribute(COUNT);
+        if (count == null) {
+            throw new IllegalStateException("The statements are not counted, see QueryCount.countQueries");
+        }
+        return (Integer) count;
+    }
+
+    private static String description(MvcResult result) {
+        return result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+    }
+
+    private static class CountingFilter extends OncePerRequestFilter {
+
+        private final SqlMetrics sqlMetrics;
+
+        CountingFilter(SqlMetrics sqlMetrics) {
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                FilterChain filterChain) throws ServletException, IOException {
+            sqlMetrics.startRequest();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                request.setAttribute(COUNT, sqlMetrics.endRequest());
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.ApplicationProperties;
+import com.diviso.inventory.config.metrics.SqlMetrics;
+
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.domain.enumeration.ReservationStatus;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.ReservationService;
+import com.diviso.inventory.service.StockLedgerService;
+import com.diviso.inventory.service.dto.ReservationDTO;
+import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the ReservationResource REST controller.
+ *
+ * @see ReservationResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class ReservationResourceIntTest {
+
+    private static final int MAX_QUERIES_PER_REQUEST = 1;
+
+    private static final Double RECEIVED_UNITS = 10D;
+
+    private static final Double DEFAULT_UNITS = 4D;
+
+    private static final String DEFAULT_REFERENCE = "AAAAAAAAAA";
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restReservationMockMvc;
+
+    private StockLine stockLine;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        final ReservationResource reservationResource = new ReservationResource(reservationService, applicationProperties);
+        this.restReservationMockMvc = MockMvcBuilders.standaloneSetup(reservationResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
+    }
+
+    @Before
+    public void initTest() {
+        stockLine = StockLineResourceIntTest.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    public void createReservation() throws Exception {
+        // Initialize the database
+        receive();
+
+        restReservationMockMvc.perform(post("/api/reservations?ttl=60")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(DEFAULT_UNITS))))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").isNotEmpty())
+            .andExpect(jsonPath("$.stockLineId").value(stockLine.getId().intValue()))
+            .andExpect(jsonPath("$.units").value(DEFAULT_UNITS))
+            .andExpect(jsonPath("$.reference").value(DEFAULT_REFERENCE))
+            .andExpect(jsonPath("$.status").value(ReservationStatus.HELD.toString()))
+            .andExpect(jsonPath("$.expiryDate").isNotEmpty());
+
+        restReservationMockMvc.perform(get("/api/reservations/available/{stockLineId}", stockLine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string(String.valueOf(RECEIVED_UNITS - DEFAULT_UNITS)));
+    }
+
+    @Test
+    @Transactional
+    public void createReservationWithTtlAboveTheMaximum() throws Exception {
+        // Initialize the database
+        receive();
+        long maxTtl = applicationProperties.getReservation().getMaxTtl();
+        Instant before = Instant.now();
+
+        String content = restReservationMockMvc.perform(post("/api/reservations?ttl=" + Long.MAX_VALUE / 1000)
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(DEFAULT_UNITS))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+
+        // the ttl is capped at the maximum
+        Instant expiryDate = jacksonMessageConverter.getObjectMapper().readValue(content, ReservationDTO.class)
+            .getExpiryDate();
+        assertThat(expiryDate.isBefore(before.plusMillis(maxTtl))).isFalse();
+        assertThat(expiryDate.isAfter(Instant.now().plusMillis(maxTtl))).isFalse();
+    }
+
+    @Test
+    @Transactional
+    public void createReservationOfUnavailableUnits() throws Exception {
+        // Initialize the database
+        receive();
+
+        restReservationMockMvc.perform(post("/api/reservations")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(RECEIVED_UNITS + 1))))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-inventoryApp-error", "error.unitsunavailable"));
+    }
+
+    @Test
+    @Transactional
+    public void createReservationIsValidated() throws Exception {
+        // Initialize the database
+        receive();
+
+        restReservationMockMvc.perform(post("/api/reservations")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(null))))
+            .andExpect(status().isBadRequest());
+        restReservationMockMvc.perform(post("/api/reservations")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(-1D))))
+            .andExpect(status().isBadRequest());
+        restReservationMockMvc.perform(post("/api/reservations?ttl=0")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(DEFAULT_UNITS))))
+            .andExpect(status().isBadRequest());
+        // the ttl overflows once in milliseconds
+        restReservationMockMvc.perform(post("/api/reservations?ttl=" + Long.MAX_VALUE)
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservation(DEFAULT_UNITS))))
+            .andExpect(status().isBadRequest());
+        ReservationDTO reservationDTO = reservation(DEFAULT_UNITS);
+        reservationDTO.setId("id");
+        restReservationMockMvc.perform(post("/api/reservations")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(reservationDTO)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void releaseReservation() throws Exception {
+        // Initialize the database
+        receive();
+        ReservationDTO reservationDTO = reservationService.reserve(reservation(DEFAULT_UNITS), null);
+
+        restReservationMockMvc.perform(post("/api/reservations/{id}/release", reservationDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(ReservationStatus.RELEASED.toString()));
+
+        restReservationMockMvc.perform(get("/api/reservations/{id}", reservationDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.status").value(ReservationStatus.RELEASED.toString()));
+        restReservationMockMvc.perform(get("/api/reservations/available/{stockLineId}", stockLine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string(String.valueOf(RECEIVED_UNITS)));
+        restReservationMockMvc.perform(post("/api/reservations/{id}/release", reservationDTO.getId()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void confirmReservation() throws Exception {
+        // Initialize the database
+        receive();
+        ReservationDTO reservationDTO = reservationService.reserve(reservation(DEFAULT_UNITS), null);
+
+        restReservationMockMvc.perform(post("/api/reservations/{id}/confirm", reservationDTO.getId())
+            .with(QueryCount.maxQueries(3)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(ReservationStatus.CONFIRMED.toString()));
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(RECEIVED_UNITS - DEFAULT_UNITS);
+        restReservationMockMvc.perform(post("/api/reservations/{id}/confirm", reservationDTO.getId()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingReservation() throws Exception {
+        restReservationMockMvc.perform(get("/api/reservations/{id}", "unknown"))
+            .andExpect(status().isNotFound());
+        restReservationMockMvc.perform(get("/api/reservations/available/{stockLineId}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    private void receive() {
+        stockLineRepository.saveAndFlush(stockLine);
+        SortedMap<Long, Double> receipts = new TreeMap<>();
+        receipts.put(stockLine.getId(), RECEIVED_UNITS);
+        stockLedgerService.append(MovementType.RECEIPT, null, receipts);
+    }
+
+    private ReservationDTO reservation(Double units) {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setStockLineId(stockLine.getId());
+        reservationDTO.setUnits(units);
+        reservationDTO.setReference(DEFAULT_REFERENCE);
+        return reservationDTO;
+    }
+}
@@ -0,0 +1,264 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
+
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.repository.ProductRepository;
+import com.diviso.inventory.repository.StockAggregateRepository;
+import com.diviso.inventory.service.StockAggregateService;
+import com.diviso.inventory.service.StockLedgerService;
+import com.diviso.inventory.service.StockLineService;
+import com.diviso.inventory.service.dto.StockLineDTO;
+import com.diviso.inventory.service.mapper.StockLineMapper;
+import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the StockAggregateResource REST controller.
+ *
+ * @see StockAggregateResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class StockAggregateResourceIntTest {
+
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+
+    private static final Long INFRASTRUCTURE_ID = 9001L;
+
+    private static final String LOCATION_ID = "7101";
+    private static final String OTHER_LOCATION_ID = "7102";
+
+    private static final Double BUY_PRICE = 2D;
+    private static final Double OTHER_BUY_PRICE = 3D;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLineMapper stockLineMapper;
+
+    @Autowired
+    private StockLineService stockLineService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockAggregateService stockAggregateService;
+
+    @Autowired
+    private StockAggregateRepository stockAggregateRepository;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restStockAggregateMockMvc;
+
+    private Product product;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        final StockAggregateResource stockAggregateResource = new StockAggregateResource(stockAggregateService);
+        this.restStockAggregateMockMvc = MockMvcBuilders.standaloneSetup(stockAggregateResource)
+            .setCustomArgumentResolvers(pageableArgumentResolver)
+            .setControllerAdvice(exceptionTranslator)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
+    }
+
+    @Before
+    public void initTest() {
+        product = ProductResourceIntTest.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    public void getStockAggregatesByProductId() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        StockLineDTO stockLine = save(LOCATION_ID, 10D);
+        save(OTHER_LOCATION_ID, 4D);
+        SortedMap<Long, Double> sale = new TreeMap<>();
+        sale.put(stockLine.getId(), -3D);
+        stockLedgerService.append(MovementType.SALE, null, sale);
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByProductId/{productId}?sort=locationId,asc",
+                product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].locationId").value(contains(LOCATION_ID, OTHER_LOCATION_ID)))
+            .andExpect(jsonPath("$.[*].infrastructureId").value(contains(INFRASTRUCTURE_ID.intValue(),
+                INFRASTRUCTURE_ID.intValue())))
+            .andExpect(jsonPath("$.[*].units").value(contains(7D, 4D)))
+            .andExpect(jsonPath("$.[*].value").value(contains(7D * BUY_PRICE, 4D * BUY_PRICE)));
+    }
+
+    @Test
+    @Transactional
+    public void getStockAggregatesByLocationId() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        StockLineDTO from = save(LOCATION_ID, 10D);
+        StockLineDTO to = save(OTHER_LOCATION_ID, 0D);
+        stockLedgerService.transfer(from.getId(), to.getId(), 6D, null);
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByLocationId/{locationId}",
+                OTHER_LOCATION_ID))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[?(@.productId == " + product.getId() + ")].units").value(contains(6D)))
+            .andExpect(jsonPath("$.[?(@.productId == " + product.getId() + ")].value")
+                .value(contains(6D * BUY_PRICE)));
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByLocationId/{locationId}", LOCATION_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[?(@.productId == " + product.getId() + ")].units").value(contains(4D)));
+    }
+
+    @Test
+    @Transactional
+    public void getStockAggregatesByInfrastructureId() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        save(LOCATION_ID, 5D);
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByInfrastructureId/{infrastructureId}",
+                INFRASTRUCTURE_ID))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].productId").value(hasItem(product.getId().intValue())))
+            .andExpect(jsonPath("$.[?(@.productId == " + product.getId() + ")].units").value(contains(5D)));
+    }
+
+    @Test
+    @Transactional
+    public void updatedStockLinesMoveTheirUnitsAndValue() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        StockLineDTO stockLine = save(LOCATION_ID, 10D);
+
+        // Move the stockLine, revalue it and receive more units
+        stockLine.setLocationId(OTHER_LOCATION_ID);
+        stockLine.setBuyPrice(OTHER_BUY_PRICE);
+        stockLine.setUnits(12D);
+        stockLine.setVersion(null);
+        stockLineService.save(stockLine);
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByProductId/{productId}?sort=locationId,asc",
+                product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].locationId").value(contains(LOCATION_ID, OTHER_LOCATION_ID)))
+            .andExpect(jsonPath("$.[*].units").value(contains(0D, 12D)))
+            .andExpect(jsonPath("$.[*].value").value(contains(0D, 12D * OTHER_BUY_PRICE)));
+    }
+
+    @Test
+    @Transactional
+    public void deletedStockLinesAreSubtracted() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        StockLineDTO stockLine = save(LOCATION_ID, 10D);
+        save(LOCATION_ID, 1D);
+
+        stockLineService.delete(stockLine.getId());
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByProductId/{productId}",
+                product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].units").value(contains(1D)))
+            .andExpect(jsonPath("$.[*].value").value(contains(BUY_PRICE)));
+    }
+
+    @Test
+    @Transactional
+    public void stockLinesWithoutUnitsHaveTheirAggregate() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        save(LOCATION_ID, 0D);
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByProductId/{productId}",
+                product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].locationId").value(contains(LOCATION_ID)))
+            .andExpect(jsonPath("$.[*].units").value(contains(0D)))
+            .andExpect(jsonPath("$.[*].value").value(contains(0D)));
+    }
+
+    @Test
+    @Transactional
+    public void foldedDeltasKeepTheUnitsAndValue() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        StockLineDTO stockLine = save(LOCATION_ID, 10D);
+        SortedMap<Long, Double> sale = new TreeMap<>();
+        sale.put(stockLine.getId(), -3D);
+        stockLedgerService.append(MovementType.SALE, null, sale);
+
+        long last = stockAggregateRepository.lastDeltaId();
+        // A fold only claims the range of ids it is given
+        assertThat(stockAggregateRepository.fold(last, 1)).isEqualTo(1);
+        while (stockAggregateRepository.fold(last, 100) > 0) {
+            // fold the deltas left by the other tests too
+        }
+        assertThat(stockAggregateRepository.fold(last, 100)).isEqualTo(0);
+        em.clear();
+
+        restStockAggregateMockMvc.perform(get("/api/stock-aggregates/findByProductId/{productId}",
+                product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].units").value(contains(7D)))
+            .andExpect(jsonPath("$.[*].value").value(contains(7D * BUY_PRICE)));
+    }
+
+    private StockLineDTO save(String locationId, Double units) {
+        StockLine stockLine = StockLineResourceIntTest.createEntity(em)
+            .product(product)
+            .infrastructureId(INFRASTRUCTURE_ID)
+            .locationId(locationId)
+            .buyPrice(BUY_PRICE)
+            .units(units);
+        return stockLineService.save(stockLineMapper.toDto(stockLine));
+    }
+}
@@ -1,14 +1,29 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.domain.Label;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Status;
 import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.TaxCategory;
+import com.diviso.inventory.domain.Uom;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.repository.ProductRepository;
 import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.service.ProductExpiryService;
+import com.diviso.inventory.service.StockAlertService;
+import com.diviso.inventory.service.StockLedgerService;
 import com.diviso.inventory.service.StockLineService;
 import com.diviso.inventory.service.dto.StockLineDTO;
 import com.diviso.inventory.service.mapper.StockLineMapper;
 import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,19 +31,30 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.TreeMap;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static com.diviso.inventory.web.rest.QueryCount.queries;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,6 +67,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = InventoryApp.class)
 public class StockLineResourceIntTest {
 
+    /**
+     * An update moving a stockLine to another place also creates the stock aggregate of that place, and appends the
+     * deltas of both.
+     */
+    private static final int MAX_QUERIES_PER_REQUEST = 6;
+
     private static final String DEFAULT_REFERENCE = "AAAAAAAAAA";
     private static final String UPDATED_REFERENCE = "BBBBBBBBBB";
 
@@ -80,6 +112,18 @@ public class StockLineResourceIntTest {
     @Autowired
     private StockLineService stockLineService;
 
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private ProductExpiryService productExpiryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -89,6 +133,9 @@ public class StockLineResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -99,12 +146,13 @@ public class StockLineResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final StockLineResource stockLineResource = new StockLineResource(stockLineService);
+        final StockLineResource stockLineResource = new StockLineResource(stockLineService, jacksonMessageConverter.getObjectMapper());
         this.restStockLineMockMvc = MockMvcBuilders.standaloneSetup(stockLineResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -223,7 +271,7 @@ public class StockLineResourceIntTest {
     @Transactional
     public void getAllStockLines() throws Exception {
         // Initialize the database
-        stockLineRepository.saveAndFlush(stockLine);
+        saveWithUnits(stockLine);
 
         // Get all the stockLineList
         restStockLineMockMvc.perform(get("/api/stock-lines?sort=id,desc"))
@@ -244,10 +292,69 @@ public class StockLineResourceIntTest {
 
     @Test
     @Transactional
-    public void getStockLine() throws Exception {
+    public void getAllStockLinesAfterCursor() throws Exception {
         // Initialize the database
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(stockLineRepository.saveAndFlush(createEntity(em).locationId("7007")).getId().intValue());
+        }
+
+        // Get the first slice, then follow the next link to the last one
+        MvcResult result = restStockLineMockMvc.perform(get("/api/stock-lines/findByLocationId/7007?after=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(contains(ids.get(0), ids.get(1))))
+            .andReturn();
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith("; rel=\"next\"");
+
+        restStockLineMockMvc.perform(get(link.substring(1, link.indexOf('>'))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(ids.get(2))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllStockLinesAfterInvalidCursor() throws Exception {
+        restStockLineMockMvc.perform(get("/api/stock-lines?after=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportStockLinesAsCsv() throws Exception {
+        // Initialize the database, in its own transaction as the export runs on another thread
         stockLineRepository.saveAndFlush(stockLine);
 
+        try {
+            MvcResult result = restStockLineMockMvc.perform(get("/api/stock-lines/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn();
+            restStockLineMockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+            String csv = result.getResponse().getContentAsString();
+
+            String[] lines = csv.split("\n");
+            List<String> columns = Arrays.asList(lines[0].split(","));
+            assertThat(columns).contains("id", "reference", "locationId");
+            List<String> values = Arrays.stream(lines).skip(1)
+                .map(line -> Arrays.asList(line.split(",", -1)))
+                .filter(row -> row.get(columns.indexOf("id")).equals(stockLine.getId().toString()))
+                .findFirst().orElseThrow(() -> new AssertionError("stockLine not exported"));
+            assertThat(values.get(columns.indexOf("reference"))).isEqualTo(DEFAULT_REFERENCE);
+        } finally {
+            stockLineRepository.delete(stockLine.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getStockLine() throws Exception {
+        // Initialize the database
+        saveWithUnits(stockLine);
+
         // Get the stockLine
         restStockLineMockMvc.perform(get("/api/stock-lines/{id}", stockLine.getId()))
             .andExpect(status().isOk())
@@ -265,6 +372,52 @@ public class StockLineResourceIntTest {
             .andExpect(jsonPath("$.supplierRef").value(DEFAULT_SUPPLIER_REF.intValue()));
     }
 
+    @Test
+    public void getStockLinesBelowReorder() throws Exception {
+        // Initialize the database, committed for the stock alerts to evaluate it
+        Product product = productRepository.saveAndFlush(ProductResourceIntTest.createEntity(em)
+            .reOrderLevel(DEFAULT_UNITS)
+            .maximumStockLevel(UPDATED_UNITS));
+        stockLineRepository.saveAndFlush(stockLine.product(product));
+        try {
+            stockAlertService.productsChanged(Collections.singleton(product.getId()));
+            stockAlertService.evaluate();
+
+            restStockLineMockMvc.perform(get("/api/stock-lines/below-reorder?size=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(stockLine.getId().intValue())));
+            restStockLineMockMvc.perform(get("/api/stock-lines/over-stock?size=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(stockLine.getId().intValue()))));
+        } finally {
+            stockLineRepository.delete(stockLine.getId());
+            productRepository.delete(product.getId());
+            stockAlertService.productsChanged(Collections.singleton(product.getId()));
+            stockAlertService.evaluate();
+        }
+    }
+
+    @Test
+    public void getStockLinesExpiring() throws Exception {
+        // Initialize the database, committed for the days of expiry to be indexed
+        Product product = productRepository.saveAndFlush(ProductResourceIntTest.createEntity(em)
+            .dateOfExpiry(LocalDate.now().plusDays(1))
+            .visible(true));
+        productExpiryService.productsSaved(Collections.singleton(product));
+        stockLineRepository.saveAndFlush(stockLine.product(product));
+        try {
+            restStockLineMockMvc.perform(get("/api/stock-lines/expiring?days=1&size=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(stockLine.getId().intValue())));
+            restStockLineMockMvc.perform(get("/api/stock-lines/expiring?days=-1"))
+                .andExpect(status().isBadRequest());
+        } finally {
+            stockLineRepository.delete(stockLine.getId());
+            productRepository.delete(product.getId());
+            productExpiryService.productDeleted(product.getId());
+        }
+    }
+
     @Test
     @Transactional
     public void getNonExistingStockLine() throws Exception {
@@ -277,7 +430,7 @@ public class StockLineResourceIntTest {
     @Transactional
     public void updateStockLine() throws Exception {
         // Initialize the database
-        stockLineRepository.saveAndFlush(stockLine);
+        saveWithUnits(stockLine);
         int databaseSizeBeforeUpdate = stockLineRepository.findAll().size();
 
         // Update the stockLine
@@ -318,6 +471,51 @@ public class StockLineResourceIntTest {
         assertThat(testStockLine.getSupplierRef()).isEqualTo(UPDATED_SUPPLIER_REF);
     }
 
+    @Test
+    @Transactional
+    public void updateStockLineWithStaleVersion() throws Exception {
+        // Initialize the database
+        saveWithUnits(stockLine);
+        em.detach(stockLine);
+
+        // A first client updates the stockLine
+        StockLineDTO stockLineDTO = stockLineMapper.toDto(stockLine);
+        stockLineDTO.setUnits(UPDATED_UNITS);
+        restStockLineMockMvc.perform(put("/api/stock-lines")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockLineDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(stockLine.getVersion().intValue() + 1));
+
+        // A second client still holds the previous version
+        stockLineDTO.setUnits(DEFAULT_UNITS);
+        restStockLineMockMvc.perform(put("/api/stock-lines")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockLineDTO)))
+            .andExpect(status().isConflict());
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(UPDATED_UNITS);
+    }
+
+    @Test
+    @Transactional
+    public void updateStockLineWithoutVersion() throws Exception {
+        // Initialize the database
+        saveWithUnits(stockLine);
+        em.detach(stockLine);
+
+        StockLineDTO stockLineDTO = stockLineMapper.toDto(stockLine);
+        stockLineDTO.setVersion(null);
+        stockLineDTO.setUnits(UPDATED_UNITS);
+        restStockLineMockMvc.perform(put("/api/stock-lines")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockLineDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(stockLine.getVersion().intValue() + 1));
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(UPDATED_UNITS);
+    }
+
     @Test
     @Transactional
     public void updateNonExistingStockLine() throws Exception {
@@ -341,7 +539,7 @@ public class StockLineResourceIntTest {
     @Transactional
     public void deleteStockLine() throws Exception {
         // Initialize the database
-        stockLineRepository.saveAndFlush(stockLine);
+        saveWithUnits(stockLine);
         int databaseSizeBeforeDelete = stockLineRepository.findAll().size();
 
         // Get the stockLine
@@ -354,6 +552,186 @@ public class StockLineResourceIntTest {
         assertThat(stockLineList).hasSize(databaseSizeBeforeDelete - 1);
     }
 
+    @Test
+    @Transactional
+    public void deleteNonExistingStockLine() throws Exception {
+        int databaseSizeBeforeDelete = stockLineRepository.findAll().size();
+
+        restStockLineMockMvc.perform(delete("/api/stock-lines/{id}", Long.MAX_VALUE)
+            .accept(TestUtil.APPLICATION_JSON_UTF8))
+            .andExpect(status().isOk());
+
+        assertThat(stockLineRepository.findAll()).hasSize(databaseSizeBeforeDelete);
+    }
+
+    @Test
+    @Transactional
+    public void updateStockLevel() throws Exception {
+        // Initialize the database
+        saveWithUnits(stockLine);
+        StockLine otherStockLine = saveWithUnits(createEntity(em).units(5D));
+
+        List<StockLineDTO> basket = new ArrayList<>();
+        basket.add(new StockLineDTO());
+        basket.get(0).setId(otherStockLine.getId());
+        basket.get(0).setUnits(2D);
+        basket.add(new StockLineDTO());
+        basket.get(1).setId(otherStockLine.getId());
+        basket.get(1).setUnits(1D);
+        basket.add(new StockLineDTO());
+        basket.get(2).setId(stockLine.getId());
+        basket.get(2).setUnits(3D);
+        basket.add(new StockLineDTO());
+        basket.get(3).setId(Long.MAX_VALUE);
+        basket.get(3).setUnits(1D);
+
+        restStockLineMockMvc.perform(put("/api/stock-lines/updateStockLevel")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(basket)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.updated.length()").value(2))
+            .andExpect(jsonPath("$.missing.[0]").value(Long.MAX_VALUE))
+            .andExpect(jsonPath("$.negative.[0]").value(stockLine.getId().intValue()));
+
+        assertThat(stockLineRepository.findOne(otherStockLine.getId()).getUnits()).isEqualTo(2D);
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(DEFAULT_UNITS - 3D);
+    }
+
+    @Test
+    @Transactional
+    public void updateStockLevelWithoutUnits() throws Exception {
+        // Initialize the database
+        saveWithUnits(stockLine);
+
+        StockLineDTO stockLineDTO = new StockLineDTO();
+        stockLineDTO.setId(stockLine.getId());
+
+        restStockLineMockMvc.perform(put("/api/stock-lines/updateStockLevel")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(Collections.singletonList(stockLineDTO))))
+            .andExpect(status().isBadRequest());
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(DEFAULT_UNITS);
+    }
+
+    @Test
+    @Transactional
+    public void getAllStockLinesMarsheld() throws Exception {
+        // Initialize the database
+        StockLine line = createMarsheldStockLine(0);
+
+        restStockLineMockMvc.perform(post("/api/stock-lines/findAllMarsheld")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(toIdList(Collections.singletonList(line)))))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[0].id").value(line.getId().intValue()))
+            .andExpect(jsonPath("$.[0].reference").value(DEFAULT_REFERENCE))
+            .andExpect(jsonPath("$.[0].units").value(DEFAULT_UNITS.doubleValue()))
+            .andExpect(jsonPath("$.[0].uom.id").value(line.getUom().getId().intValue()))
+            .andExpect(jsonPath("$.[0].product.id").value(line.getProduct().getId().intValue()))
+            .andExpect(jsonPath("$.[0].product.barcode.code").value(line.getProduct().getBarcode().getCode()))
+            .andExpect(jsonPath("$.[0].product.categoryModel.id").value(line.getProduct().getCategory().getId().intValue()))
+            .andExpect(jsonPath("$.[0].product.taxCategoryModel.id").value(line.getProduct().getTaxCategory().getId().intValue()))
+            .andExpect(jsonPath("$.[0].product.status.id").value(line.getProduct().getStatus().getId().intValue()))
+            .andExpect(jsonPath("$.[0].product.labels.length()").value(2));
+    }
+
+    @Test
+    @Transactional
+    public void getAllStockLinesMarsheldRunsConstantNumberOfStatements() throws Exception {
+        // Initialize the database
+        List<StockLine> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(createMarsheldStockLine(i));
+        }
+
+        // The reference data is read once per transaction
+        countMarsheldStatements(lines.subList(0, 1));
+        long statementsForOne = countMarsheldStatements(lines.subList(0, 1));
+        long statementsForTen = countMarsheldStatements(lines);
+
+        assertThat(statementsForOne).isGreaterThan(0);
+        assertThat(statementsForTen).isEqualTo(statementsForOne);
+    }
+
+    @Test
+    @Transactional
+    public void getMarsheldStockLine() throws Exception {
+        StockLine line = createMarsheldStockLine(0);
+        em.clear();
+
+        // The reference data is read once per transaction
+        restStockLineMockMvc.perform(get("/api/stock-lines/marsheld/{id}", line.getId()));
+        em.clear();
+
+        // The stockLine with its product, barcode and labels
+        restStockLineMockMvc.perform(get("/api/stock-lines/marsheld/{id}", line.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(line.getId().intValue()))
+            .andExpect(jsonPath("$.product.barcode.code").value("CODE0"))
+            .andExpect(jsonPath("$.product.labels.length()").value(2))
+            .andExpect(jsonPath("$.uom.id").isNotEmpty())
+            .andExpect(queries(1));
+    }
+
+    private StockLine createMarsheldStockLine(int index) {
+        Barcode barcode = BarcodeResourceIntTest.createEntity(em).code("CODE" + index);
+        em.persist(barcode);
+        Category category = CategoryResourceIntTest.createEntity(em);
+        em.persist(category);
+        TaxCategory taxCategory = TaxCategoryResourceIntTest.createEntity(em);
+        em.persist(taxCategory);
+        Status status = StatusResourceIntTest.createEntity(em);
+        em.persist(status);
+        Uom uom = UomResourceIntTest.createEntity(em);
+        em.persist(uom);
+        Product product = ProductResourceIntTest.createEntity(em)
+            .barcode(barcode)
+            .category(category)
+            .taxCategory(taxCategory)
+            .status(status);
+        for (int i = 0; i < 2; i++) {
+            Label label = LabelResourceIntTest.createEntity(em);
+            em.persist(label);
+            product.addLabels(label);
+        }
+        em.persist(product);
+        return saveWithUnits(createEntity(em).product(product).uom(uom));
+    }
+
+    /**
+     * Save a stockLine with a receipt of its units, which are not saved with it.
+     */
+    private StockLine saveWithUnits(StockLine stockLine) {
+        stockLineRepository.saveAndFlush(stockLine);
+        stockLedgerService.append(MovementType.RECEIPT, stockLine.getReference(),
+            new TreeMap<>(Collections.singletonMap(stockLine.getId(), stockLine.getUnits())));
+        return stockLine;
+    }
+
+    private long countMarsheldStatements(List<StockLine> lines) throws Exception {
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        restStockLineMockMvc.perform(post("/api/stock-lines/findAllMarsheld")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(toIdList(lines))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(lines.size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static List<StockLineDTO> toIdList(List<StockLine> lines) {
+        List<StockLineDTO> dtoList = new ArrayList<>();
+        for (StockLine line : lines) {
+            StockLineDTO stockLineDTO = new StockLineDTO();
+            stockLineDTO.setId(line.getId());
+            dtoList.add(stockLineDTO);
+        }
+        return dtoList;
+    }
+
     @Test
     @Transactional
     public void equalsVerifier() throws Exception {
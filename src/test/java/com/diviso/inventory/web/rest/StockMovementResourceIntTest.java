@@ -0,0 +1,231 @@
+package com.diviso.inventory.web.rest;
+
+import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
+
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.StockMovement;
+import com.diviso.inventory.domain.enumeration.MovementType;
+import com.diviso.inventory.repository.StockLineRepository;
+import com.diviso.inventory.repository.StockMovementRepository;
+import com.diviso.inventory.service.StockLedgerService;
+import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
+import com.diviso.inventory.web.rest.vm.StockTransferVM;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the StockMovementResource REST controller.
+ *
+ * @see StockMovementResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InventoryApp.class)
+public class StockMovementResourceIntTest {
+
+    private static final int MAX_QUERIES_PER_REQUEST = 3;
+
+    private static final Double RECEIVED_UNITS = 10D;
+
+    private static final String REFERENCE = "AAAAAAAAAA";
+
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restStockMovementMockMvc;
+
+    private StockLine stockLine;
+
+    private StockLine otherStockLine;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        final StockMovementResource stockMovementResource = new StockMovementResource(stockLedgerService);
+        this.restStockMovementMockMvc = MockMvcBuilders.standaloneSetup(stockMovementResource)
+            .setCustomArgumentResolvers(pageableArgumentResolver)
+            .setControllerAdvice(exceptionTranslator)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
+    }
+
+    @Before
+    public void initTest() {
+        stockLine = StockLineResourceIntTest.createEntity(em);
+        otherStockLine = StockLineResourceIntTest.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    public void getStockMovementsByStockLineId() throws Exception {
+        // Initialize the database
+        receive();
+        SortedMap<Long, Double> sale = new TreeMap<>();
+        sale.put(stockLine.getId(), -3D);
+        stockLedgerService.append(MovementType.SALE, null, sale);
+
+        restStockMovementMockMvc.perform(get("/api/stock-movements/findByStockLineId/{stockLineId}?sort=id,asc",
+                stockLine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].stockLineId").value(contains(stockLine.getId().intValue(),
+                stockLine.getId().intValue())))
+            .andExpect(jsonPath("$.[*].type").value(contains(MovementType.RECEIPT.toString(),
+                MovementType.SALE.toString())))
+            .andExpect(jsonPath("$.[*].units").value(contains(RECEIVED_UNITS, -3D)))
+            .andExpect(jsonPath("$.[0].reference").value(REFERENCE))
+            .andExpect(jsonPath("$.[0].createdDate").isNotEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void transfer() throws Exception {
+        // Initialize the database
+        receive();
+
+        StockTransferVM stockTransferVM = transfer(stockLine.getId(), otherStockLine.getId(), 4D);
+        stockTransferVM.setReference(REFERENCE);
+        restStockMovementMockMvc.perform(post("/api/stock-movements/transfer")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockTransferVM)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.updated.length()").value(2))
+            .andExpect(jsonPath("$.missing").isEmpty())
+            .andExpect(jsonPath("$.negative").isEmpty());
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(RECEIVED_UNITS - 4D);
+        assertThat(stockLineRepository.findOne(otherStockLine.getId()).getUnits()).isEqualTo(RECEIVED_UNITS + 4D);
+        List<StockMovement> movements = stockMovementRepository.findByStockLineId(otherStockLine.getId(),
+            new PageRequest(0, 10)).getContent();
+        assertThat(movements).extracting(StockMovement::getType).contains(MovementType.TRANSFER);
+        assertThat(movements).extracting(StockMovement::getReference).containsOnly(REFERENCE);
+    }
+
+    @Test
+    @Transactional
+    public void transferGeneratesOneReference() throws Exception {
+        // Initialize the database
+        receive();
+
+        restStockMovementMockMvc.perform(post("/api/stock-movements/transfer")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(transfer(stockLine.getId(), otherStockLine.getId(), 14D))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.negative.[0]").value(stockLine.getId().intValue()));
+
+        StockMovement from = last(stockLine);
+        StockMovement to = last(otherStockLine);
+        assertThat(from.getUnits()).isEqualTo(-14D);
+        assertThat(to.getUnits()).isEqualTo(14D);
+        assertThat(from.getReference()).isNotNull().isEqualTo(to.getReference());
+    }
+
+    @Test
+    @Transactional
+    public void transferFromMissingStockLine() throws Exception {
+        // Initialize the database
+        receive();
+        long movements = stockMovementRepository.count();
+
+        restStockMovementMockMvc.perform(post("/api/stock-movements/transfer")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(transfer(Long.MAX_VALUE, otherStockLine.getId(), 4D))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.missing.[0]").value(Long.MAX_VALUE))
+            .andExpect(jsonPath("$.updated").isEmpty());
+
+        assertThat(stockMovementRepository.count()).isEqualTo(movements);
+    }
+
+    @Test
+    @Transactional
+    public void transferIsValidated() throws Exception {
+        // Initialize the database
+        receive();
+
+        restStockMovementMockMvc.perform(post("/api/stock-movements/transfer")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(transfer(stockLine.getId(), stockLine.getId(), 4D))))
+            .andExpect(status().isBadRequest());
+        restStockMovementMockMvc.perform(post("/api/stock-movements/transfer")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(transfer(stockLine.getId(), otherStockLine.getId(), -4D))))
+            .andExpect(status().isBadRequest());
+        restStockMovementMockMvc.perform(post("/api/stock-movements/transfer")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(transfer(null, otherStockLine.getId(), 4D))))
+            .andExpect(status().isBadRequest());
+
+        assertThat(stockLineRepository.findOne(stockLine.getId()).getUnits()).isEqualTo(RECEIVED_UNITS);
+    }
+
+    private void receive() {
+        stockLineRepository.saveAndFlush(stockLine);
+        stockLineRepository.saveAndFlush(otherStockLine);
+        SortedMap<Long, Double> receipts = new TreeMap<>();
+        receipts.put(stockLine.getId(), RECEIVED_UNITS);
+        receipts.put(otherStockLine.getId(), RECEIVED_UNITS);
+        stockLedgerService.append(MovementType.RECEIPT, REFERENCE, receipts);
+    }
+
+    private StockMovement last(StockLine stockLine) {
+        List<StockMovement> movements = stockMovementRepository.findByStockLineId(stockLine.getId(),
+            new PageRequest(0, 10)).getContent();
+        return movements.stream().max((a, b) -> a.getId().compareTo(b.getId())).get();
+    }
+
+    private static StockTransferVM transfer(Long fromStockLineId, Long toStockLineId, Double units) {
+        StockTransferVM stockTransferVM = new StockTransferVM();
+        stockTransferVM.setFromStockLineId(fromStockLineId);
+        stockTransferVM.setToStockLineId(toStockLineId);
+        stockTransferVM.setUnits(units);
+        return stockTransferVM;
+    }
+}
@@ -1,14 +1,26 @@
 package com.diviso.inventory.web.rest;
 
 import com.diviso.inventory.InventoryApp;
+import com.diviso.inventory.config.metrics.SqlMetrics;
 
+import com.diviso.inventory.domain.Barcode;
+import com.diviso.inventory.domain.Category;
+import com.diviso.inventory.domain.Product;
+import com.diviso.inventory.domain.Status;
 import com.diviso.inventory.domain.Stock;
+import com.diviso.inventory.domain.StockLine;
+import com.diviso.inventory.domain.TaxCategory;
+import com.diviso.inventory.domain.Uom;
+import com.diviso.inventory.repository.StockLineRepository;
 import com.diviso.inventory.repository.StockRepository;
 import com.diviso.inventory.service.StockService;
 import com.diviso.inventory.service.dto.StockDTO;
+import com.diviso.inventory.service.mapper.StockLineMapper;
 import com.diviso.inventory.service.mapper.StockMapper;
 import com.diviso.inventory.web.rest.errors.ExceptionTranslator;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -26,9 +38,14 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static com.diviso.inventory.web.rest.TestUtil.createFormattingConversionService;
+import static com.diviso.inventory.web.rest.QueryCount.countQueries;
+import static com.diviso.inventory.web.rest.QueryCount.maxQueries;
+import static com.diviso.inventory.web.rest.QueryCount.queries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,6 +60,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = InventoryApp.class)
 public class StockResourceIntTest {
 
+    private static final int MAX_QUERIES_PER_REQUEST = 4;
+
     private static final String DEFAULT_REFERENCE = "AAAAAAAAAA";
     private static final String UPDATED_REFERENCE = "BBBBBBBBBB";
 
@@ -61,6 +80,12 @@ public class StockResourceIntTest {
     @Autowired
     private StockMapper stockMapper;
 
+    @Autowired
+    private StockLineRepository stockLineRepository;
+
+    @Autowired
+    private StockLineMapper stockLineMapper;
+
     @Autowired
     private StockService stockService;
 
@@ -73,6 +98,9 @@ public class StockResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     @Autowired
     private EntityManager em;
 
@@ -88,7 +116,8 @@ public class StockResourceIntTest {
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(jacksonMessageConverter)
+            .apply(countQueries(sqlMetrics, MAX_QUERIES_PER_REQUEST)).build();
     }
 
     /**
@@ -133,6 +162,57 @@ public class StockResourceIntTest {
         assertThat(testStock.getStorageCost()).isEqualTo(DEFAULT_STORAGE_COST);
     }
 
+    @Test
+    @Transactional
+    public void receiveStock() throws Exception {
+        int stockDatabaseSizeBeforeCreate = stockRepository.findAll().size();
+        int stockLineDatabaseSizeBeforeCreate = stockLineRepository.findAll().size();
+
+        // Receive the Stock with its StockLines
+        StockDTO stockDTO = stockMapper.toDto(stock);
+        for (int i = 0; i < 120; i++) {
+            stockDTO.getStockLines().add(stockLineMapper.toDto(StockLineResourceIntTest.createEntity(em).reference("LINE" + i)));
+        }
+        // The inserts are batched
+        restStockMockMvc.perform(post("/api/stocks/receipts")
+            .with(maxQueries(29))
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockDTO)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").isNumber())
+            .andExpect(jsonPath("$.version").value(0))
+            .andExpect(jsonPath("$.stockLines.length()").value(120))
+            .andExpect(jsonPath("$.stockLines[0].id").isNumber())
+            .andExpect(jsonPath("$.stockLines[0].version").value(0));
+
+        // Validate the Stock in the database
+        List<Stock> stockList = stockRepository.findAll();
+        assertThat(stockList).hasSize(stockDatabaseSizeBeforeCreate + 1);
+        Stock testStock = stockList.get(stockList.size() - 1);
+        assertThat(testStock.getReference()).isEqualTo(DEFAULT_REFERENCE);
+        assertThat(testStock.getStockLines()).hasSize(120);
+        assertThat(stockLineRepository.findAll()).hasSize(stockLineDatabaseSizeBeforeCreate + 120);
+    }
+
+    @Test
+    @Transactional
+    public void receiveStockWithExistingStockLineId() throws Exception {
+        StockLine stockLine = StockLineResourceIntTest.createEntity(em);
+        em.persist(stockLine);
+        em.flush();
+        int stockDatabaseSizeBeforeCreate = stockRepository.findAll().size();
+
+        // A receipt cannot link an existing StockLine
+        StockDTO stockDTO = stockMapper.toDto(stock);
+        stockDTO.getStockLines().add(stockLineMapper.toDto(stockLine));
+        restStockMockMvc.perform(post("/api/stocks/receipts")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockDTO)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(stockRepository.findAll()).hasSize(stockDatabaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     public void createStockWithExistingId() throws Exception {
@@ -214,6 +294,147 @@ public class StockResourceIntTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getStockByDeliveryNoteRef() throws Exception {
+        // Initialize the database
+        stockRepository.saveAndFlush(stock.deliveryNoteRef(424242L));
+
+        restStockMockMvc.perform(get("/api/stocks/findByDeliveryNoteRef/{deliveryNoteRef}", "424242"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(stock.getId().intValue()));
+        restStockMockMvc.perform(get("/api/stocks/findByDeliveryNoteRef/{deliveryNoteRef}", "not-a-number"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getMarsheldStock() throws Exception {
+        // Initialize the database
+        Status status = StatusResourceIntTest.createEntity(em);
+        em.persist(status);
+        stock.status(status);
+        for (int i = 0; i < 3; i++) {
+            stock.addStockLines(createMarsheldStockLine(i));
+        }
+        em.persist(stock);
+        em.flush();
+        em.clear();
+
+        // Get the marshalled stock, then the statuses, uoms and taxCategories, once each
+        restStockMockMvc.perform(get("/api/stocks/marsheld/{id}", stock.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.id").value(stock.getId().intValue()))
+            .andExpect(jsonPath("$.reference").value(DEFAULT_REFERENCE.toString()))
+            .andExpect(jsonPath("$.status.id").value(status.getId().intValue()))
+            .andExpect(jsonPath("$.stockLines.length()").value(3))
+            .andExpect(jsonPath("$.stockLines[0].product.taxCategoryModel.id").isNumber())
+            .andExpect(jsonPath("$.stockLines[0].uom.id").isNumber())
+            .andExpect(queries(4));
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingMarsheldStock() throws Exception {
+        restStockMockMvc.perform(get("/api/stocks/marsheld/{id}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getAllStocksMarsheldRunsConstantNumberOfStatements() throws Exception {
+        // Initialize the database
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Stock stock = createEntity(em).reference("REF" + i);
+            for (int j = 0; j < 2; j++) {
+                stock.addStockLines(createMarsheldStockLine(2 * i + j));
+            }
+            em.persist(stock);
+            stocks.add(stock);
+        }
+        em.flush();
+
+        // The reference data is read once per transaction
+        countMarsheldStatements(stocks.subList(0, 1));
+        long statementsForOne = countMarsheldStatements(stocks.subList(0, 1));
+        long statementsForFive = countMarsheldStatements(stocks);
+
+        assertThat(statementsForOne).isEqualTo(1);
+        assertThat(statementsForFive).isEqualTo(statementsForOne);
+    }
+
+    @Test
+    @Transactional
+    public void getAllStocksMarsheldKeepsRequestedOrder() throws Exception {
+        // Initialize the database
+        Stock first = createEntity(em).reference("FIRST");
+        first.addStockLines(createMarsheldStockLine(0));
+        em.persist(first);
+        Stock second = createEntity(em).reference("SECOND");
+        em.persist(second);
+        em.flush();
+
+        List<StockDTO> dtoList = toIdList(Arrays.asList(second, first));
+        StockDTO missing = new StockDTO();
+        missing.setId(Long.MAX_VALUE);
+        dtoList.add(missing);
+        restStockMockMvc.perform(post("/api/stocks/findAllMarsheld")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(dtoList)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()))
+            .andExpect(jsonPath("$.[0].stockLines.length()").value(0))
+            .andExpect(jsonPath("$.[1].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[1].stockLines.length()").value(1));
+    }
+
+    private long countMarsheldStatements(List<Stock> stocks) throws Exception {
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        restStockMockMvc.perform(post("/api/stocks/findAllMarsheld")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(toIdList(stocks))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(stocks.size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static List<StockDTO> toIdList(List<Stock> stocks) {
+        List<StockDTO> dtoList = new ArrayList<>();
+        for (Stock stock : stocks) {
+            StockDTO stockDTO = new StockDTO();
+            stockDTO.setId(stock.getId());
+            dtoList.add(stockDTO);
+        }
+        return dtoList;
+    }
+
+    private StockLine createMarsheldStockLine(int index) {
+        Barcode barcode = BarcodeResourceIntTest.createEntity(em).code("CODE" + index);
+        em.persist(barcode);
+        Category category = CategoryResourceIntTest.createEntity(em);
+        em.persist(category);
+        TaxCategory taxCategory = TaxCategoryResourceIntTest.createEntity(em);
+        em.persist(taxCategory);
+        Status status = StatusResourceIntTest.createEntity(em);
+        em.persist(status);
+        Uom uom = UomResourceIntTest.createEntity(em);
+        em.persist(uom);
+        Product product = ProductResourceIntTest.createEntity(em)
+            .barcode(barcode)
+            .category(category)
+            .taxCategory(taxCategory)
+            .status(status);
+        em.persist(product);
+        StockLine line = StockLineResourceIntTest.createEntity(em).product(product).uom(uom);
+        em.persist(line);
+        return line;
+    }
+
     @Test
     @Transactional
     public void updateStock() throws Exception {
@@ -247,6 +468,32 @@ public class StockResourceIntTest {
         assertThat(testStock.getStorageCost()).isEqualTo(UPDATED_STORAGE_COST);
     }
 
+    @Test
+    @Transactional
+    public void updateStockWithStaleVersion() throws Exception {
+        // Initialize the database
+        stockRepository.saveAndFlush(stock);
+        em.detach(stock);
+
+        // A first client updates the stock
+        StockDTO stockDTO = stockMapper.toDto(stock);
+        stockDTO.setStorageCost(UPDATED_STORAGE_COST);
+        restStockMockMvc.perform(put("/api/stocks")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(stock.getVersion().intValue() + 1));
+
+        // A second client still holds the previous version
+        stockDTO.setStorageCost(DEFAULT_STORAGE_COST);
+        restStockMockMvc.perform(put("/api/stocks")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(stockDTO)))
+            .andExpect(status().isConflict());
+
+        assertThat(stockRepository.findOne(stock.getId()).getStorageCost()).isEqualTo(UPDATED_STORAGE_COST);
+    }
+
     @Test
     @Transactional
     public void updateNonExistingStock() throws Exception {
@@ -2,15 +2,21 @@ package com.diviso.inventory.web.rest.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import com.diviso.inventory.web.rest.errors.BadRequestAlertException;
+
 import org.junit.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpHeaders;
 
 /**
@@ -41,4 +47,28 @@ public class PaginationUtilUnitTest {
         assertTrue(Long.valueOf(xTotalCountHeaders.get(0)).equals(400L));
     }
 
+    @Test
+    public void generateKeysetHttpHeadersTest() {
+        List<Long> content = Arrays.asList(3L, 7L);
+        Slice<Long> slice = new SliceImpl<>(content, new PageRequest(0, 2), true);
+        HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(slice, Long::valueOf, "/api/example");
+        String expectedData = "</api/example?after=" + PaginationUtil.encodeCursor(7L) + "&size=2>; rel=\"next\"";
+        assertEquals(expectedData, headers.getFirst(HttpHeaders.LINK));
+        assertNull(headers.get("X-Total-Count"));
+
+        headers = PaginationUtil.generateKeysetHttpHeaders(new SliceImpl<>(content, new PageRequest(0, 2), false),
+            Long::valueOf, "/api/example");
+        assertNull(headers.get(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void decodeCursorTest() {
+        assertEquals(Long.valueOf(42L), PaginationUtil.decodeCursor(PaginationUtil.encodeCursor(42L)));
+        assertNull(PaginationUtil.decodeCursor(""));
+    }
+
+    @Test(expected = BadRequestAlertException.class)
+    public void decodeInvalidCursorTest() {
+        PaginationUtil.decodeCursor("not-a-cursor");
+    }
 }